@@ -0,0 +1,90 @@
+package es.microservices.tests.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import es.microservices.tests.orders.dtos.CustomerDto;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.dtos.PhoneDto;
+import es.microservices.tests.orders.entities.OrderEntity;
+import es.microservices.tests.orders.mappers.Mapper;
+import es.microservices.tests.orders.mappers.impl.NewOrderDto2OrderEntityMapper;
+import es.microservices.tests.orders.mappers.impl.OrderEntity2OrderDtoMapper;
+import reactor.core.publisher.Mono;
+
+/**
+ * Maps the orders of daas-orders, per basket size: the new order to the entity that is stored,
+ * which includes generating its identifier, and the stored entity back to the DTO that is
+ * answered, directly and with the {@link Mapper#map(Mono)} default method.
+ * <p>
+ * Run it from the root directory with the GC profiler to also compare the allocation rate:
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar OrderMapperBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderMapperBenchmark {
+
+  @Param({"1", "5", "10", "50", "100"})
+  private int basketSize;
+
+  private final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper =
+      new NewOrderDto2OrderEntityMapper();
+  private final Mapper<OrderEntity, OrderDto> entity2DtoMapper = new OrderEntity2OrderDtoMapper();
+  private NewOrderDto newOrder;
+  private OrderEntity order;
+
+  @Setup
+  public void setUp() {
+    final NewOrderDto.NewOrderDtoBuilder builder = NewOrderDto.builder()
+        .customerData(CustomerDto.builder().name("customerName").surname("customerSurname")
+            .email("email@email.com").build())
+        .totalPrice(300.0 * this.basketSize);
+    for (int i = 0; i < this.basketSize; i++) {
+      builder.phoneToBuy(PhoneDto.builder().phoneId("5fd4b3d2c4a1e24f8c0b" + i)
+          .name("Phone model " + i).price(300.0).build());
+    }
+    this.newOrder = builder.build();
+    this.order = this.dto2EntityMapper.map(this.newOrder);
+  }
+
+  @Benchmark
+  public OrderEntity newOrderToEntity() {
+    return this.dto2EntityMapper.map(this.newOrder);
+  }
+
+  @Benchmark
+  public OrderDto entityToOrder() {
+    return this.entity2DtoMapper.map(this.order);
+  }
+
+  @Benchmark
+  public OrderDto entityToOrderMonoDefault() {
+    return this.entity2DtoMapper.map(Mono.just(this.order)).block();
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(OrderMapperBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,95 @@
+package es.microservices.tests.benchmarks;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.mappers.Mapper;
+import es.microservices.tests.phones.mappers.impl.PhoneEntity2PhoneDtoMapper;
+import reactor.core.publisher.Flux;
+
+/**
+ * Maps a catalog page of daas-phones from entities to DTOs, per page size: as a {@link Page}, the
+ * way the paginated reads do, with the map operator of a {@link Flux}, the way the streamed reads
+ * do, and with the {@link Mapper#map(Flux)} default method, which defers every phone on its own.
+ * <p>
+ * Run it from the root directory with the GC profiler to also compare the allocation rate:
+ *
+ * <pre>
+ * mvn -pl benchmarks -am package -DskipTests
+ * java -jar benchmarks/target/benchmarks.jar PhoneMapperBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneMapperBenchmark {
+
+  @Param({"1", "10", "100", "500"})
+  private int pageSize;
+
+  private final Mapper<PhoneEntity, PhoneDto> mapper = new PhoneEntity2PhoneDtoMapper();
+  private List<PhoneEntity> phones;
+  private Page<PhoneEntity> page;
+
+  @Setup
+  public void setUp() {
+    this.phones = new ArrayList<>(this.pageSize);
+    for (int i = 0; i < this.pageSize; i++) {
+      // @formatter:off
+      this.phones.add(PhoneEntity.builder()
+          .id("5fd4b3d2c4a1e24f8c0b" + String.format("%04d", i))
+          .name("Phone model " + i)
+          .description("A phone description long enough to look like a real one " + i)
+          .price(100.0 + i)
+          .imageURL("https://images.example.com/catalog/phones/" + i + ".png")
+          .version(i)
+          .lastModified(Instant.now())
+          .build());
+      // @formatter:on
+    }
+    this.page = new PageImpl<>(this.phones, PageRequest.of(0, this.pageSize), 10000L);
+  }
+
+  @Benchmark
+  public Page<PhoneDto> mapPage() {
+    return this.page.map(this.mapper::map);
+  }
+
+  @Benchmark
+  public List<PhoneDto> mapFluxOperator() {
+    return Flux.fromIterable(this.phones).map(this.mapper::map).collectList().block();
+  }
+
+  @Benchmark
+  public List<PhoneDto> mapFluxDefault() {
+    return this.mapper.map(Flux.fromIterable(this.phones)).collectList().block();
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PhoneMapperBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
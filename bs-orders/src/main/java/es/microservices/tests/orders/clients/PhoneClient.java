@@ -1,9 +1,37 @@
 package es.microservices.tests.orders.clients;
 
+import java.util.List;
+import java.util.function.Consumer;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
 
-@FunctionalInterface
 public interface PhoneClient {
 
   DaasPhoneCatalogDto getPhoneData(final Integer page, final Integer pageSize);
+
+  /**
+   * Retrieves the page that follows the one the cursor was returned with. The cursor is opaque, it
+   * is the next value of the previous page.
+   */
+  DaasPhoneCatalogDto getPhoneDataAfter(final String cursor, final Integer pageSize);
+
+  /**
+   * Retrieves only the requested phones with a single call. The identifiers that are not in the
+   * catalog are returned as missing.
+   */
+  DaasPhoneLookupResultDto getPhonesByIds(final List<String> phoneIds);
+
+  /**
+   * Reads the whole catalog as newline delimited JSON and hands every phone to the consumer as
+   * soon as it is parsed, neither the response nor the catalog is buffered.
+   */
+  void streamPhones(final Consumer<DaasPhoneDto> consumer);
+
+  /**
+   * Retrieves the phones created, modified and deleted after the given catalog version together
+   * with the version reached. Without a version only the current catalog version is returned.
+   */
+  DaasPhoneChangesDto getPhoneChanges(final Long since);
 }
@@ -0,0 +1,11 @@
+package es.microservices.tests.orders.clients;
+
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import reactor.core.publisher.Mono;
+
+@FunctionalInterface
+public interface ReactiveOrderClient {
+
+  Mono<DaasOrderDto> createOrder(final DaasNewOrderDto newOrder);
+}
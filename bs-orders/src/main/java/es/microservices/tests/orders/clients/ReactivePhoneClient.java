@@ -0,0 +1,17 @@
+package es.microservices.tests.orders.clients;
+
+import java.util.List;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePhoneClient {
+
+  Mono<DaasPhoneCatalogDto> getPhoneData(final Integer page, final Integer pageSize);
+
+  /**
+   * Retrieves only the requested phones with a single call. The identifiers that are not in the
+   * catalog are returned as missing.
+   */
+  Mono<DaasPhoneLookupResultDto> getPhonesByIds(final List<String> phoneIds);
+}
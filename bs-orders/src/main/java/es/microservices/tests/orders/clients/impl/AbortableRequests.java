@@ -0,0 +1,71 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+import org.apache.http.client.methods.HttpUriRequest;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Lets a read made on one thread be aborted from another. Interrupting a thread blocked reading
+ * the response of HttpClient does not stop it, the request holds its connection, and the bulkhead
+ * permit of its call, until the read timeout. Aborting the request closes the connection, so the
+ * read fails at once.
+ * <p>
+ * The request factories of the pooled clients register every request they create with the
+ * {@link Handle} of the read running on the thread, if any.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class AbortableRequests {
+
+  private static final ThreadLocal<Handle> CURRENT = new ThreadLocal<>();
+
+  /**
+   * Keeps the request if the thread runs a read that can be aborted.
+   */
+  public static void register(final HttpUriRequest request) {
+    final Handle handle = CURRENT.get();
+    if (Objects.nonNull(handle)) {
+      handle.register(request);
+    }
+  }
+
+  static <T> T runWith(final Handle handle, final Supplier<T> read) {
+    final Handle previous = CURRENT.get();
+    CURRENT.set(handle);
+    try {
+      return read.get();
+    } finally {
+      if (Objects.isNull(previous)) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /**
+   * The last request of a read, a retry replaces it. A request registered once the read was
+   * aborted is aborted right away.
+   */
+  static final class Handle {
+
+    private HttpUriRequest request;
+    private boolean aborted;
+
+    synchronized void register(final HttpUriRequest request) {
+      this.request = request;
+      if (this.aborted) {
+        request.abort();
+      }
+    }
+
+    synchronized void abort() {
+      this.aborted = true;
+      if (Objects.nonNull(this.request)) {
+        this.request.abort();
+      }
+    }
+  }
+
+}
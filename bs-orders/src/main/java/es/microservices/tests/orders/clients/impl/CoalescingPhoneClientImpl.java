@@ -0,0 +1,121 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Coalesces the concurrent identical catalog reads: while a read is in flight, the same read
+ * requested by other callers waits for it instead of being sent again, and every caller gets its
+ * answer or its error. A burst of orders walking the catalog at once then costs one request per
+ * page. Streaming the catalog is not coalesced, every caller consumes its own stream.
+ * <p>
+ * The answers are shared by every caller that waited for them, they must be treated as read only.
+ * The callers that waited are counted as the phones.client.coalesced metric and the reads in
+ * flight are published as phones.client.in-flight.
+ */
+public class CoalescingPhoneClientImpl implements PhoneClient, AutoCloseable {
+
+  private final PhoneClient delegate;
+  private final Map<List<Object>, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+  private final Counter coalesced;
+
+  public CoalescingPhoneClientImpl(final PhoneClient delegate, final MeterRegistry meterRegistry) {
+    Assert.notNull(delegate, "'delegate' must not be null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    this.delegate = delegate;
+    this.coalesced = Counter.builder("phones.client.coalesced")
+        .description("Catalog reads that waited for the same read in flight")
+        .register(meterRegistry);
+    Gauge.builder("phones.client.in-flight", this.inFlight, Map::size)
+        .description("Distinct catalog reads in flight").register(meterRegistry);
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneData(final Integer page, final Integer pageSize) {
+    return coalesce(Arrays.asList("page", page, pageSize),
+        () -> this.delegate.getPhoneData(page, pageSize));
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneDataAfter(final String cursor, final Integer pageSize) {
+    return coalesce(Arrays.asList("after", cursor, pageSize),
+        () -> this.delegate.getPhoneDataAfter(cursor, pageSize));
+  }
+
+  @Override
+  public DaasPhoneLookupResultDto getPhonesByIds(final List<String> phoneIds) {
+    return coalesce(Arrays.asList("ids", phoneIds), () -> this.delegate.getPhonesByIds(phoneIds));
+  }
+
+  @Override
+  public void streamPhones(final Consumer<DaasPhoneDto> consumer) {
+    this.delegate.streamPhones(consumer);
+  }
+
+  @Override
+  public DaasPhoneChangesDto getPhoneChanges(final Long since) {
+    return coalesce(Arrays.asList("changes", since), () -> this.delegate.getPhoneChanges(since));
+  }
+
+  /**
+   * Closes the client it wraps, if it has to be.
+   */
+  @Override
+  public void close() throws Exception {
+    if (this.delegate instanceof AutoCloseable) {
+      ((AutoCloseable) this.delegate).close();
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T coalesce(final List<Object> key, final Supplier<T> read) {
+    final CompletableFuture<Object> call = new CompletableFuture<>();
+    final CompletableFuture<Object> running = this.inFlight.putIfAbsent(key, call);
+    if (Objects.nonNull(running)) {
+      this.coalesced.increment();
+      return (T) await(running);
+    }
+    try {
+      final T result = read.get();
+      this.inFlight.remove(key, call);
+      call.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      this.inFlight.remove(key, call);
+      call.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static Object await(final CompletableFuture<Object> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+}
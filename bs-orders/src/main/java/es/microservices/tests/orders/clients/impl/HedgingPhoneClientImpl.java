@@ -0,0 +1,317 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.slf4j.MDC;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.client.ResourceAccessException;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.HedgingProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+
+/**
+ * Hedges the catalog reads, which are idempotent: a read that has not been answered after the
+ * configured percentile of the recent read latencies is sent again, the first successful answer
+ * is returned and the HTTP request of the other one is aborted through {@link AbortableRequests},
+ * which gives its connection and its bulkhead permit back. The load balanced RestTemplate picks the
+ * daas-phones instance of every request, round robin takes the next one and the latency strategy
+ * avoids the one still busy with the read, so the hedge goes to another instance whenever there
+ * is more than one.
+ * <p>
+ * The hedges are limited by a budget, a fraction of the reads earned back as they are made, so a
+ * slow daas-phones as a whole is not sent twice the load. Streaming the catalog is not hedged.
+ * <p>
+ * At most max concurrent reads, the calls the bulkhead of daas-phones lets through, are made on
+ * threads at the same time. Beyond them a read is made on the caller thread without being hedged,
+ * and a hedge is skipped.
+ * <p>
+ * The read and its hedge are made on threads of their own, which carry the trace context and the
+ * MDC of the caller, so the requests to daas-phones belong to the trace of the order and their
+ * logs can be correlated with it.
+ * <p>
+ * The hedges issued and won are counted as the phones.client.hedges.issued and
+ * phones.client.hedges.won metrics, the ones skipped for lack of budget as
+ * phones.client.hedges.over-budget, the ones skipped for lack of threads as
+ * phones.client.hedges.rejected, and the current delay is published as
+ * phones.client.hedges.delay.
+ */
+public class HedgingPhoneClientImpl implements PhoneClient, AutoCloseable {
+
+  private static final String HEDGES_METRIC = "phones.client.hedges";
+  private static final int LATENCY_WINDOW_SIZE = 256;
+  private static final int BUDGET_WINDOW = 100;
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 30L;
+  private static final int DEFAULT_MAX_CONCURRENT_READS = 20;
+
+  private final PhoneClient delegate;
+  private final long minDelayNanos;
+  private final long maxDelayNanos;
+  private final double budget;
+  private final double maxTokens;
+  private final LatencyPercentile latency;
+  private final ThreadPoolExecutor executor;
+  private final CurrentTraceContext currentTraceContext;
+
+  private final Counter issued;
+  private final Counter won;
+  private final Counter overBudget;
+  private final Counter rejected;
+
+  private double tokens;
+
+  /**
+   * The trace context is taken from the default thread local of Brave and at most
+   * {@value #DEFAULT_MAX_CONCURRENT_READS} reads are made on threads at the same time, the
+   * concurrent calls of the default bulkhead.
+   */
+  public HedgingPhoneClientImpl(final PhoneClient delegate, final HedgingProperties properties,
+      final MeterRegistry meterRegistry) {
+    this(delegate, properties, DEFAULT_MAX_CONCURRENT_READS, meterRegistry,
+        ThreadLocalCurrentTraceContext.create());
+  }
+
+  public HedgingPhoneClientImpl(final PhoneClient delegate, final HedgingProperties properties,
+      final int maxConcurrentReads, final MeterRegistry meterRegistry,
+      final CurrentTraceContext currentTraceContext) {
+    this(delegate, properties, maxConcurrentReads, meterRegistry, createThreadFactory(),
+        currentTraceContext);
+  }
+
+  /**
+   * The thread factory creates the threads the reads and their hedges are made on.
+   */
+  public HedgingPhoneClientImpl(final PhoneClient delegate, final HedgingProperties properties,
+      final int maxConcurrentReads, final MeterRegistry meterRegistry,
+      final ThreadFactory threadFactory, final CurrentTraceContext currentTraceContext) {
+    Assert.notNull(delegate, "'delegate' must not be null");
+    Assert.notNull(properties, "'properties' must not be null");
+    Assert.isTrue(maxConcurrentReads > 0, "'maxConcurrentReads' must be greater than zero");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    Assert.notNull(threadFactory, "'threadFactory' must not be null");
+    Assert.notNull(currentTraceContext, "'currentTraceContext' must not be null");
+    Assert.isTrue(properties.getMinDelay().compareTo(properties.getMaxDelay()) <= 0,
+        "'properties.minDelay' must not be greater than 'properties.maxDelay'");
+    this.delegate = delegate;
+    this.minDelayNanos = properties.getMinDelay().toNanos();
+    this.maxDelayNanos = properties.getMaxDelay().toNanos();
+    this.budget = properties.getBudget();
+    this.maxTokens = this.budget * BUDGET_WINDOW;
+    this.tokens = this.maxTokens;
+    this.latency = new LatencyPercentile(properties.getPercentile(), LATENCY_WINDOW_SIZE);
+    // no queue, a read or hedge finding every thread busy is rejected at once
+    this.executor = new ThreadPoolExecutor(0, maxConcurrentReads, IDLE_THREAD_KEEP_ALIVE_SECONDS,
+        TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+    this.currentTraceContext = currentTraceContext;
+
+    this.issued = Counter.builder(HEDGES_METRIC + ".issued")
+        .description("Catalog reads sent again for being slow").register(meterRegistry);
+    this.won = Counter.builder(HEDGES_METRIC + ".won")
+        .description("Hedges answered before the read they hedged").register(meterRegistry);
+    this.overBudget = Counter.builder(HEDGES_METRIC + ".over-budget")
+        .description("Slow catalog reads not hedged for lack of budget").register(meterRegistry);
+    this.rejected = Counter.builder(HEDGES_METRIC + ".rejected")
+        .description("Catalog reads not hedged for lack of threads").register(meterRegistry);
+    TimeGauge.builder(HEDGES_METRIC + ".delay", this, TimeUnit.NANOSECONDS,
+        HedgingPhoneClientImpl::delayNanos).description("Wait before hedging a catalog read")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneData(final Integer page, final Integer pageSize) {
+    return hedge(() -> this.delegate.getPhoneData(page, pageSize));
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneDataAfter(final String cursor, final Integer pageSize) {
+    return hedge(() -> this.delegate.getPhoneDataAfter(cursor, pageSize));
+  }
+
+  @Override
+  public DaasPhoneLookupResultDto getPhonesByIds(final List<String> phoneIds) {
+    return hedge(() -> this.delegate.getPhonesByIds(phoneIds));
+  }
+
+  @Override
+  public void streamPhones(final Consumer<DaasPhoneDto> consumer) {
+    this.delegate.streamPhones(consumer);
+  }
+
+  @Override
+  public DaasPhoneChangesDto getPhoneChanges(final Long since) {
+    return hedge(() -> this.delegate.getPhoneChanges(since));
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  long delayNanos() {
+    final long percentile = this.latency.nanos();
+    if (percentile == LatencyPercentile.UNKNOWN) {
+      return this.maxDelayNanos;
+    }
+    return Math.min(this.maxDelayNanos, Math.max(this.minDelayNanos, percentile));
+  }
+
+  private <T> T hedge(final Supplier<T> read) {
+    earnToken();
+    final long start = System.nanoTime();
+    final CompletionService<T> race = new ExecutorCompletionService<>(this.executor);
+    final AbortableRequests.Handle firstRequests = new AbortableRequests.Handle();
+    final AbortableRequests.Handle secondRequests = new AbortableRequests.Handle();
+    final Future<T> first;
+    try {
+      first = race.submit(inCallerContext(read, firstRequests));
+    } catch (RejectedExecutionException e) {
+      this.rejected.increment();
+      return read.get();
+    }
+    Future<T> second = null;
+    try {
+      Future<T> done = race.poll(delayNanos(), TimeUnit.NANOSECONDS);
+      if (Objects.isNull(done)) {
+        second = submitHedge(race, read, secondRequests);
+        if (Objects.nonNull(second)) {
+          this.issued.increment();
+        }
+        done = race.take();
+        if (Objects.nonNull(second) && failed(done)) {
+          done = race.take();
+        }
+      }
+      final T result = result(done);
+      this.latency.record(System.nanoTime() - start);
+      if (done == second) {
+        this.won.increment();
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAccessException("Interrupted while waiting for the phone catalog");
+    } finally {
+      cancel(first, firstRequests);
+      if (Objects.nonNull(second)) {
+        cancel(second, secondRequests);
+      }
+    }
+  }
+
+  /**
+   * Sends the hedge, unless it is over budget or every thread is busy.
+   */
+  private <T> Future<T> submitHedge(final CompletionService<T> race, final Supplier<T> read,
+      final AbortableRequests.Handle requests) {
+    if (!spendToken()) {
+      this.overBudget.increment();
+      return null;
+    }
+    try {
+      return race.submit(inCallerContext(read, requests));
+    } catch (RejectedExecutionException e) {
+      this.rejected.increment();
+      return null;
+    }
+  }
+
+  /**
+   * Aborts the HTTP request of a read still running, the interruption stops it while it waits for
+   * the bulkhead or between retries.
+   */
+  private static void cancel(final Future<?> read, final AbortableRequests.Handle requests) {
+    if (!read.isDone()) {
+      requests.abort();
+      read.cancel(true);
+    }
+  }
+
+  /**
+   * Captures the trace context and the MDC of the calling thread, for the read to run with them,
+   * and makes its requests abortable through the handle.
+   */
+  private <T> Callable<T> inCallerContext(final Supplier<T> read,
+      final AbortableRequests.Handle requests) {
+    final Map<String, String> callerMdc = MDC.getCopyOfContextMap();
+    return this.currentTraceContext.wrap(() -> {
+      final Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+      setMdc(callerMdc);
+      try {
+        return AbortableRequests.runWith(requests, read);
+      } finally {
+        setMdc(previousMdc);
+      }
+    });
+  }
+
+  private static void setMdc(final Map<String, String> contextMap) {
+    if (Objects.isNull(contextMap)) {
+      MDC.clear();
+    } else {
+      MDC.setContextMap(contextMap);
+    }
+  }
+
+  private synchronized void earnToken() {
+    this.tokens = Math.min(this.maxTokens, this.tokens + this.budget);
+  }
+
+  private synchronized boolean spendToken() {
+    if (this.tokens < 1.0) {
+      return false;
+    }
+    this.tokens -= 1.0;
+    return true;
+  }
+
+  private static boolean failed(final Future<?> done) throws InterruptedException {
+    try {
+      done.get();
+      return false;
+    } catch (ExecutionException e) {
+      return true;
+    }
+  }
+
+  private static <T> T result(final Future<T> done) throws InterruptedException {
+    try {
+      return done.get();
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  private static ThreadFactory createThreadFactory() {
+    final CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("phones-hedge-");
+    threadFactory.setDaemon(true);
+    return threadFactory;
+  }
+
+}
@@ -0,0 +1,51 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.Arrays;
+import org.springframework.util.Assert;
+
+/**
+ * A percentile of the last latencies recorded. It is recomputed every few records rather than on
+ * every read, and is unknown until enough latencies were recorded.
+ */
+final class LatencyPercentile {
+
+  static final long UNKNOWN = -1L;
+
+  private static final int MIN_SAMPLES = 20;
+  private static final int RECOMPUTE_EVERY = 16;
+
+  private final double percentile;
+  private final long[] samples;
+  private long recorded;
+  private volatile long value = UNKNOWN;
+
+  LatencyPercentile(final double percentile, final int windowSize) {
+    Assert.isTrue(percentile > 0.0 && percentile <= 1.0,
+        "'percentile' must be greater than zero and not greater than one");
+    Assert.isTrue(windowSize >= MIN_SAMPLES,
+        "'windowSize' must be greater than or equal to " + MIN_SAMPLES);
+    this.percentile = percentile;
+    this.samples = new long[windowSize];
+  }
+
+  synchronized void record(final long nanos) {
+    this.samples[(int) (this.recorded % this.samples.length)] = nanos;
+    this.recorded++;
+    if (this.recorded >= MIN_SAMPLES
+        && (this.value == UNKNOWN || this.recorded % RECOMPUTE_EVERY == 0)) {
+      final int count = (int) Math.min(this.recorded, this.samples.length);
+      final long[] sorted = Arrays.copyOf(this.samples, count);
+      Arrays.sort(sorted);
+      this.value = sorted[Math.max(0, (int) Math.ceil(this.percentile * count) - 1)];
+    }
+  }
+
+  /**
+   * The percentile of the recorded latencies in nanoseconds, {@link #UNKNOWN} until enough of them
+   * were recorded.
+   */
+  long nanos() {
+    return this.value;
+  }
+
+}
@@ -1,5 +1,6 @@
 package es.microservices.tests.orders.clients.impl;
 
+import java.util.List;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
@@ -17,6 +18,8 @@ public class OrderClientImpl implements OrderClient {
   private final RestTemplate restTemplate;
   private final String baseUrl;
   private final String endpointUrl;
+  private final List<MediaType> accept;
+  private final MediaType contentType;
 
   public OrderClientImpl(final RestTemplate restTemplate,
       final OrderClientProperties orderProperties) {
@@ -26,9 +29,12 @@ public class OrderClientImpl implements OrderClient {
         "'orderProperties.baseUrl' must not be null or empty");
     Assert.hasText(orderProperties.getEndpointUrl(),
         "'orderProperties.endpointUrl' must not be null or empty");
+    Assert.notNull(orderProperties.getHttp(), "'orderProperties.http' must not be null");
     this.restTemplate = restTemplate;
     this.baseUrl = orderProperties.getBaseUrl();
     this.endpointUrl = orderProperties.getEndpointUrl();
+    this.accept = WireFormats.accept(orderProperties.getHttp().getSmile());
+    this.contentType = WireFormats.contentType(orderProperties.getHttp().getSmile());
   }
 
 
@@ -39,8 +45,8 @@ public class OrderClientImpl implements OrderClient {
         UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl);
 
     final HttpHeaders headers = new HttpHeaders();
-    headers.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
-    headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+    headers.setContentType(this.contentType);
+    headers.setAccept(this.accept);
 
     final HttpEntity<DaasNewOrderDto> request = new HttpEntity<>(newOrder, headers);
 
@@ -1,34 +1,76 @@
 package es.microservices.tests.orders.clients.impl;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.util.Assert;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import es.microservices.tests.orders.clients.PhoneClient;
 import es.microservices.tests.orders.configurations.properties.PhoneClientProperties;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 
 public class PhoneClientImpl implements PhoneClient {
 
+  private static final String LOOKUP_PATH = "/lookup";
+  private static final String CHANGES_PATH = "/changes";
+
   private final RestTemplate restTemplate;
   private final String baseUrl;
   private final String endpointUrl;
+  private final ObjectReader phoneReader;
+  private final RevalidationCache<DaasPhoneCatalogDto> catalogPages;
+  private final List<MediaType> accept;
+  private final MediaType contentType;
 
   public PhoneClientImpl(final RestTemplate restTemplate,
       final PhoneClientProperties phoneProperties) {
+    this(restTemplate, phoneProperties, Jackson2ObjectMapperBuilder.json().build());
+  }
+
+  public PhoneClientImpl(final RestTemplate restTemplate,
+      final PhoneClientProperties phoneProperties, final ObjectMapper objectMapper) {
+    this(restTemplate, phoneProperties, objectMapper, Metrics.globalRegistry);
+  }
+
+  public PhoneClientImpl(final RestTemplate restTemplate,
+      final PhoneClientProperties phoneProperties, final ObjectMapper objectMapper,
+      final MeterRegistry meterRegistry) {
     Assert.notNull(restTemplate, "'restTemplate' must not be null");
     Assert.notNull(phoneProperties, "'phoneProperties' must not be null");
     Assert.hasText(phoneProperties.getBaseUrl(),
         "'phoneProperties.baseUrl' must not be null or empty");
     Assert.hasText(phoneProperties.getEndpointUrl(),
         "'phoneProperties.endpointUrl' must not be null or empty");
+    Assert.notNull(phoneProperties.getHttp(), "'phoneProperties.http' must not be null");
+    Assert.notNull(objectMapper, "'objectMapper' must not be null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
     this.restTemplate = restTemplate;
     this.baseUrl = phoneProperties.getBaseUrl();    
     this.endpointUrl = phoneProperties.getEndpointUrl();
+    this.phoneReader = objectMapper.readerFor(DaasPhoneDto.class);
+    this.catalogPages =
+        new RevalidationCache<>(phoneProperties.getRevalidationCacheSize(), meterRegistry);
+    this.accept = WireFormats.accept(phoneProperties.getHttp().getSmile());
+    this.contentType = WireFormats.contentType(phoneProperties.getHttp().getSmile());
   }
 
 
@@ -40,23 +82,127 @@ public class PhoneClientImpl implements PhoneClient {
     Assert.isTrue(pageSize > 0, "'pageSize' must be greater than zero");
 
     // @formatter:off    
-    final HttpHeaders headers = new HttpHeaders();
-    headers.set(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
-
     final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl)
             .queryParam("page", page)
             .queryParam("pageSize", pageSize);
 
+    return getCatalogPage(builder.toUriString());
+     // @formatter:on
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneDataAfter(final String cursor, final Integer pageSize) {
+    Assert.hasText(cursor, "'cursor' must not be null or empty");
+    Assert.notNull(pageSize, "'pageSize' must not be null");
+    Assert.isTrue(pageSize > 0, "'pageSize' must be greater than zero");
+
+    // @formatter:off
+    final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl)
+            .queryParam("cursor", cursor)
+            .queryParam("pageSize", pageSize);
+
+    return getCatalogPage(builder.toUriString());
+    // @formatter:on
+  }
+
+  @Override
+  public DaasPhoneLookupResultDto getPhonesByIds(final List<String> phoneIds) {
+    Assert.notEmpty(phoneIds, "'phoneIds' must not be null or empty");
+
+    // @formatter:off
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(this.accept);
+    headers.setContentType(this.contentType);
+
+    final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl)
+            .path(LOOKUP_PATH);
+
+    final HttpEntity<DaasPhoneLookupDto> entity =
+        new HttpEntity<>(DaasPhoneLookupDto.builder().phoneIds(phoneIds).build(), headers);
+
+    final ResponseEntity<DaasPhoneLookupResultDto> response = restTemplate.exchange(
+            builder.toUriString(),
+            HttpMethod.POST,
+            entity,
+            DaasPhoneLookupResultDto.class);
+    return response.getBody();
+    // @formatter:on
+  }
+
+  @Override
+  public void streamPhones(final Consumer<DaasPhoneDto> consumer) {
+    Assert.notNull(consumer, "'consumer' must not be null");
+
+    // @formatter:off
+    final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl);
+
+    restTemplate.execute(
+            builder.toUriString(),
+            HttpMethod.GET,
+            request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_NDJSON)),
+            response -> readPhones(response, consumer));
+    // @formatter:on
+  }
+
+  @Override
+  public DaasPhoneChangesDto getPhoneChanges(final Long since) {
+    Assert.isTrue(Objects.isNull(since) || since >= 0,
+        "'since' must be greater than or equal to zero");
+
+    // @formatter:off
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(this.accept);
+
+    final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl)
+            .path(CHANGES_PATH);
+    if (Objects.nonNull(since)) {
+      builder.queryParam("since", since);
+    }
+
     final HttpEntity<?> entity = new HttpEntity<>(headers);
 
-    final ResponseEntity<DaasPhoneCatalogDto> response = restTemplate.exchange(
-            builder.toUriString(), 
-            HttpMethod.GET, 
-            entity, 
-            DaasPhoneCatalogDto.class);    
+    final ResponseEntity<DaasPhoneChangesDto> response = restTemplate.exchange(
+            builder.toUriString(),
+            HttpMethod.GET,
+            entity,
+            DaasPhoneChangesDto.class);
     return response.getBody();
-     // @formatter:on
+    // @formatter:on
   }
 
+  /**
+   * The page is revalidated with the entity tag it was last received with, if it is still kept,
+   * and an unchanged page is served from the revalidation cache.
+   */
+  private DaasPhoneCatalogDto getCatalogPage(final String uri) {
+    final RevalidationCache.Entry<DaasPhoneCatalogDto> cached = this.catalogPages.lookup(uri);
+
+    // @formatter:off
+    final HttpHeaders headers = new HttpHeaders();
+    headers.setAccept(this.accept);
+    if (Objects.nonNull(cached)) {
+      headers.setIfNoneMatch(cached.getETag());
+    }
+
+    final HttpEntity<?> entity = new HttpEntity<>(headers);
+
+    final ResponseEntity<DaasPhoneCatalogDto> response = restTemplate.exchange(
+            uri,
+            HttpMethod.GET,
+            entity,
+            DaasPhoneCatalogDto.class);
+    return this.catalogPages.resolve(uri, cached, response);
+    // @formatter:on
+  }
+
+  private Void readPhones(final ClientHttpResponse response,
+      final Consumer<DaasPhoneDto> consumer) throws IOException {
+    try (MappingIterator<DaasPhoneDto> phones = this.phoneReader.readValues(response.getBody())) {
+      while (phones.hasNextValue()) {
+        consumer.accept(phones.nextValue());
+      }
+    }
+    return null;
+  }
 
 }
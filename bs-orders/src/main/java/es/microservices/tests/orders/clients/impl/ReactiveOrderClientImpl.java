@@ -0,0 +1,55 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import es.microservices.tests.orders.clients.ReactiveOrderClient;
+import es.microservices.tests.orders.configurations.properties.OrderClientProperties;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import reactor.core.publisher.Mono;
+
+public class ReactiveOrderClientImpl implements ReactiveOrderClient {
+
+  private final WebClient webClient;
+  private final String baseUrl;
+  private final String endpointUrl;
+  private final List<MediaType> accept;
+  private final MediaType contentType;
+
+  public ReactiveOrderClientImpl(final WebClient.Builder webClientBuilder,
+      final OrderClientProperties orderProperties) {
+    Assert.notNull(webClientBuilder, "'webClientBuilder' must not be null");
+    Assert.notNull(orderProperties, "'orderProperties' must not be null");
+    Assert.hasText(orderProperties.getBaseUrl(),
+        "'orderProperties.baseUrl' must not be null or empty");
+    Assert.hasText(orderProperties.getEndpointUrl(),
+        "'orderProperties.endpointUrl' must not be null or empty");
+    Assert.notNull(orderProperties.getHttp(), "'orderProperties.http' must not be null");
+    this.webClient = webClientBuilder.build();
+    this.baseUrl = orderProperties.getBaseUrl();
+    this.endpointUrl = orderProperties.getEndpointUrl();
+    this.accept = WireFormats.accept(orderProperties.getHttp().getSmile());
+    this.contentType = WireFormats.contentType(orderProperties.getHttp().getSmile());
+  }
+
+  @Override
+  public Mono<DaasOrderDto> createOrder(final DaasNewOrderDto newOrder) {
+    Assert.notNull(newOrder, "'newOrder' must not be null");
+    final UriComponentsBuilder builder =
+        UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl);
+
+    // @formatter:off
+    return this.webClient.post()
+        .uri(builder.build().toUri())
+        .contentType(this.contentType)
+        .headers(headers -> headers.setAccept(this.accept))
+        .bodyValue(newOrder)
+        .retrieve()
+        .bodyToMono(DaasOrderDto.class);
+    // @formatter:on
+  }
+
+}
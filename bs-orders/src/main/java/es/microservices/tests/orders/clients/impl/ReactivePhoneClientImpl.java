@@ -0,0 +1,79 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
+import es.microservices.tests.orders.clients.ReactivePhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneClientProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import reactor.core.publisher.Mono;
+
+public class ReactivePhoneClientImpl implements ReactivePhoneClient {
+
+  private static final String LOOKUP_PATH = "/lookup";
+
+  private final WebClient webClient;
+  private final String baseUrl;
+  private final String endpointUrl;
+  private final List<MediaType> accept;
+  private final MediaType contentType;
+
+  public ReactivePhoneClientImpl(final WebClient.Builder webClientBuilder,
+      final PhoneClientProperties phoneProperties) {
+    Assert.notNull(webClientBuilder, "'webClientBuilder' must not be null");
+    Assert.notNull(phoneProperties, "'phoneProperties' must not be null");
+    Assert.hasText(phoneProperties.getBaseUrl(),
+        "'phoneProperties.baseUrl' must not be null or empty");
+    Assert.hasText(phoneProperties.getEndpointUrl(),
+        "'phoneProperties.endpointUrl' must not be null or empty");
+    Assert.notNull(phoneProperties.getHttp(), "'phoneProperties.http' must not be null");
+    this.webClient = webClientBuilder.build();
+    this.baseUrl = phoneProperties.getBaseUrl();
+    this.endpointUrl = phoneProperties.getEndpointUrl();
+    this.accept = WireFormats.accept(phoneProperties.getHttp().getSmile());
+    this.contentType = WireFormats.contentType(phoneProperties.getHttp().getSmile());
+  }
+
+  @Override
+  public Mono<DaasPhoneCatalogDto> getPhoneData(final Integer page, final Integer pageSize) {
+    Assert.notNull(page, "'page' must not be null");
+    Assert.notNull(pageSize, "'pageSize' must not be null");
+    Assert.isTrue(page > 0, "'page' must be greater than zero");
+    Assert.isTrue(pageSize > 0, "'pageSize' must be greater than zero");
+
+    // @formatter:off
+    final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl)
+            .queryParam("page", page)
+            .queryParam("pageSize", pageSize);
+
+    return this.webClient.get()
+        .uri(builder.build().toUri())
+        .headers(headers -> headers.setAccept(this.accept))
+        .retrieve()
+        .bodyToMono(DaasPhoneCatalogDto.class);
+    // @formatter:on
+  }
+
+  @Override
+  public Mono<DaasPhoneLookupResultDto> getPhonesByIds(final List<String> phoneIds) {
+    Assert.notEmpty(phoneIds, "'phoneIds' must not be null or empty");
+
+    // @formatter:off
+    final UriComponentsBuilder builder = UriComponentsBuilder.fromHttpUrl(this.baseUrl + "/" + this.endpointUrl)
+            .path(LOOKUP_PATH);
+
+    return this.webClient.post()
+        .uri(builder.build().toUri())
+        .contentType(this.contentType)
+        .headers(headers -> headers.setAccept(this.accept))
+        .bodyValue(DaasPhoneLookupDto.builder().phoneIds(phoneIds).build())
+        .retrieve()
+        .bodyToMono(DaasPhoneLookupResultDto.class);
+    // @formatter:on
+  }
+
+}
@@ -0,0 +1,52 @@
+package es.microservices.tests.orders.clients.impl;
+
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.clients.OrderClient;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Calls daas-orders through its own bulkhead and circuit breaker, so a slow daas-phones can't
+ * take the threads the orders need and the other way around. Creating an order is not idempotent
+ * in daas-orders, so it is never retried.
+ * <p>
+ * A call rejected by the bulkhead or the circuit breaker fails straight away with a
+ * {@link CreatingOrderException}.
+ */
+@Slf4j
+public class ResilientOrderClientImpl implements OrderClient {
+
+  private final OrderClient delegate;
+  private final CircuitBreaker circuitBreaker;
+  private final Bulkhead bulkhead;
+
+  public ResilientOrderClientImpl(final OrderClient delegate, final CircuitBreaker circuitBreaker,
+      final Bulkhead bulkhead) {
+    Assert.notNull(delegate, "'delegate' must not be null");
+    Assert.notNull(circuitBreaker, "'circuitBreaker' must not be null");
+    Assert.notNull(bulkhead, "'bulkhead' must not be null");
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+    this.bulkhead = bulkhead;
+  }
+
+  @Override
+  public DaasOrderDto createOrder(final DaasNewOrderDto newOrder) {
+    try {
+      return CircuitBreaker.decorateSupplier(this.circuitBreaker,
+          Bulkhead.decorateSupplier(this.bulkhead, () -> this.delegate.createOrder(newOrder)))
+          .get();
+    } catch (CallNotPermittedException | BulkheadFullException e) {
+      final String errorMessage = "daas-orders is not accepting calls: " + e.getMessage();
+      log.error(errorMessage);
+      throw new CreatingOrderException(errorMessage, e);
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.retry.Retry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Calls daas-phones through a bulkhead, that limits how many threads can be waiting on it, and a
+ * circuit breaker, that stops calling it while it keeps failing. The catalog reads are retried
+ * with a randomized backoff, streaming the catalog is not as the phones already handed to the
+ * consumer would be handed again.
+ * <p>
+ * A call rejected by the bulkhead or the circuit breaker fails straight away with a
+ * {@link RetrievingPhoneException}.
+ */
+@Slf4j
+public class ResilientPhoneClientImpl implements PhoneClient {
+
+  private final PhoneClient delegate;
+  private final CircuitBreaker circuitBreaker;
+  private final Bulkhead bulkhead;
+  private final Retry retry;
+
+  public ResilientPhoneClientImpl(final PhoneClient delegate, final CircuitBreaker circuitBreaker,
+      final Bulkhead bulkhead, final Retry retry) {
+    Assert.notNull(delegate, "'delegate' must not be null");
+    Assert.notNull(circuitBreaker, "'circuitBreaker' must not be null");
+    Assert.notNull(bulkhead, "'bulkhead' must not be null");
+    Assert.notNull(retry, "'retry' must not be null");
+    this.delegate = delegate;
+    this.circuitBreaker = circuitBreaker;
+    this.bulkhead = bulkhead;
+    this.retry = retry;
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneData(final Integer page, final Integer pageSize) {
+    return read(() -> this.delegate.getPhoneData(page, pageSize));
+  }
+
+  @Override
+  public DaasPhoneCatalogDto getPhoneDataAfter(final String cursor, final Integer pageSize) {
+    return read(() -> this.delegate.getPhoneDataAfter(cursor, pageSize));
+  }
+
+  @Override
+  public DaasPhoneLookupResultDto getPhonesByIds(final List<String> phoneIds) {
+    return read(() -> this.delegate.getPhonesByIds(phoneIds));
+  }
+
+  @Override
+  public void streamPhones(final Consumer<DaasPhoneDto> consumer) {
+    call(protect(() -> {
+      this.delegate.streamPhones(consumer);
+      return null;
+    }));
+  }
+
+  @Override
+  public DaasPhoneChangesDto getPhoneChanges(final Long since) {
+    return read(() -> this.delegate.getPhoneChanges(since));
+  }
+
+  private <T> T read(final Supplier<T> supplier) {
+    return call(Retry.decorateSupplier(this.retry, protect(supplier)));
+  }
+
+  private <T> Supplier<T> protect(final Supplier<T> supplier) {
+    return CircuitBreaker.decorateSupplier(this.circuitBreaker,
+        Bulkhead.decorateSupplier(this.bulkhead, supplier));
+  }
+
+  private <T> T call(final Supplier<T> supplier) {
+    try {
+      return supplier.get();
+    } catch (CallNotPermittedException | BulkheadFullException e) {
+      final String errorMessage = "daas-phones is not accepting calls: " + e.getMessage();
+      log.error(errorMessage);
+      throw new RetrievingPhoneException(errorMessage, e);
+    }
+  }
+
+}
@@ -0,0 +1,107 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Keeps the last bodies received with an entity tag, by request uri, in least recently used order.
+ * The tag is sent back as If-None-Match and a 304 answer is resolved to the kept body, so an
+ * unchanged response only costs a header exchange.
+ * <p>
+ * The kept bodies are shared by every caller, they must be treated as read only.
+ */
+final class RevalidationCache<T> {
+
+  private static final String REQUESTS_METRIC = "phones.client.etag.requests";
+
+  private final int maxSize;
+  private final Map<String, Entry<T>> entries;
+
+  private final Counter notModified;
+  private final Counter modified;
+  private final Counter unconditional;
+
+  RevalidationCache(final int maxSize, final MeterRegistry meterRegistry) {
+    Assert.isTrue(maxSize >= 0, "'maxSize' must be greater than or equal to zero");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    this.maxSize = maxSize;
+    this.entries = new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry<T>> eldest) {
+        return size() > RevalidationCache.this.maxSize;
+      }
+    };
+    this.notModified =
+        Counter.builder(REQUESTS_METRIC).tag("result", "not-modified").register(meterRegistry);
+    this.modified =
+        Counter.builder(REQUESTS_METRIC).tag("result", "modified").register(meterRegistry);
+    this.unconditional =
+        Counter.builder(REQUESTS_METRIC).tag("result", "unconditional").register(meterRegistry);
+  }
+
+  /**
+   * Returns the kept entry of the uri, null when there is none.
+   */
+  Entry<T> lookup(final String uri) {
+    if (this.maxSize == 0) {
+      return null;
+    }
+    synchronized (this.entries) {
+      return this.entries.get(uri);
+    }
+  }
+
+  /**
+   * Returns the body of the response, or the body of the entry when the response is a 304, and
+   * keeps the new body when it comes with an entity tag.
+   */
+  T resolve(final String uri, final Entry<T> revalidated, final ResponseEntity<T> response) {
+    if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && Objects.nonNull(revalidated)) {
+      this.notModified.increment();
+      return revalidated.body;
+    }
+    (Objects.isNull(revalidated) ? this.unconditional : this.modified).increment();
+    if (this.maxSize > 0) {
+      final String eTag = response.getHeaders().getETag();
+      synchronized (this.entries) {
+        if (Objects.nonNull(eTag) && Objects.nonNull(response.getBody())) {
+          this.entries.put(uri, new Entry<>(eTag, response.getBody()));
+        } else {
+          this.entries.remove(uri);
+        }
+      }
+    }
+    return response.getBody();
+  }
+
+  int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  static final class Entry<T> {
+
+    private final String eTag;
+    private final T body;
+
+    private Entry(final String eTag, final T body) {
+      this.eTag = eTag;
+      this.body = body;
+    }
+
+    String getETag() {
+      return this.eTag;
+    }
+  }
+
+}
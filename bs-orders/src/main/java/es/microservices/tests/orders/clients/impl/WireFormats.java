@@ -0,0 +1,31 @@
+package es.microservices.tests.orders.clients.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.http.MediaType;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Media types the clients send and accept. With Smile the request bodies are encoded in Smile and
+ * Smile is preferred over JSON in the Accept header, so a service that only speaks JSON still
+ * answers. The Smile converters and codecs are registered by Spring once Jackson's Smile module is
+ * on the classpath.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class WireFormats {
+
+  static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+  static final MediaType APPLICATION_SMILE = MediaType.valueOf(APPLICATION_SMILE_VALUE);
+
+  static List<MediaType> accept(final boolean smile) {
+    return smile ? Arrays.asList(APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+        : Collections.singletonList(MediaType.APPLICATION_JSON);
+  }
+
+  static MediaType contentType(final boolean smile) {
+    return smile ? APPLICATION_SMILE : MediaType.APPLICATION_JSON;
+  }
+
+}
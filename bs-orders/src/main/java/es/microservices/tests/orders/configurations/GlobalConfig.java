@@ -1,42 +1,215 @@
 package es.microservices.tests.orders.configurations;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.boot.web.embedded.undertow.UndertowServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
+import brave.propagation.CurrentTraceContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import es.microservices.tests.orders.clients.OrderClient;
 import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.clients.impl.CoalescingPhoneClientImpl;
+import es.microservices.tests.orders.clients.impl.HedgingPhoneClientImpl;
 import es.microservices.tests.orders.clients.impl.OrderClientImpl;
 import es.microservices.tests.orders.clients.impl.PhoneClientImpl;
+import es.microservices.tests.orders.clients.impl.ResilientOrderClientImpl;
+import es.microservices.tests.orders.clients.impl.ResilientPhoneClientImpl;
+import es.microservices.tests.orders.configurations.properties.ExecutionProperties;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
 import es.microservices.tests.orders.configurations.properties.OrderClientProperties;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
 import es.microservices.tests.orders.configurations.properties.PhoneClientProperties;
+import es.microservices.tests.orders.configurations.utils.PooledRequestFactories;
+import es.microservices.tests.orders.configurations.utils.VirtualThreadExecutor;
+import es.microservices.tests.orders.configurations.utils.VirtualThreads;
+import es.microservices.tests.orders.services.IdempotencyStore;
 import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import es.microservices.tests.orders.services.PhoneCatalogService;
+import es.microservices.tests.orders.services.impl.CachedPhoneCatalogServiceImpl;
+import es.microservices.tests.orders.services.impl.CursorPhoneCatalogLoaderImpl;
+import es.microservices.tests.orders.services.impl.IdempotentOrderServiceImpl;
+import es.microservices.tests.orders.services.impl.InMemoryIdempotencyStoreImpl;
+import es.microservices.tests.orders.services.impl.LookupPhoneCatalogServiceImpl;
 import es.microservices.tests.orders.services.impl.OrderServiceImpl;
+import es.microservices.tests.orders.services.impl.PhoneCatalogLoaderImpl;
+import es.microservices.tests.orders.services.impl.PhoneCatalogServiceImpl;
+import es.microservices.tests.orders.services.impl.StreamingPhoneCatalogLoaderImpl;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class GlobalConfig {
 
+  private static final String EXECUTION_PREFIX = "es.microservices.tests.orders.execution";
+  private static final String PHONES_INSTANCE = "daas-phones";
+  private static final String ORDERS_INSTANCE = "daas-orders";
+
+  @Bean
+  public HttpComponentsClientHttpRequestFactory phoneRequestFactory(
+      final PhoneClientProperties phoneProperties, final MeterRegistry meterRegistry) {
+    return PooledRequestFactories.create(PHONES_INSTANCE, phoneProperties.getHttp(),
+        meterRegistry);
+  }
+
+  @Bean
+  public HttpComponentsClientHttpRequestFactory orderRequestFactory(
+      final OrderClientProperties orderProperties, final MeterRegistry meterRegistry) {
+    return PooledRequestFactories.create(ORDERS_INSTANCE, orderProperties.getHttp(),
+        meterRegistry);
+  }
+
   @Bean
   @LoadBalanced
-  public RestTemplate builder() {
-    return new RestTemplate();
+  public RestTemplate phoneRestTemplate(
+      @Qualifier("phoneRequestFactory") final ClientHttpRequestFactory phoneRequestFactory) {
+    return new RestTemplate(phoneRequestFactory);
+  }
+
+  @Bean
+  @LoadBalanced
+  public RestTemplate orderRestTemplate(
+      @Qualifier("orderRequestFactory") final ClientHttpRequestFactory orderRequestFactory) {
+    return new RestTemplate(orderRequestFactory);
+  }
+
+  /**
+   * The circuit breaker, bulkhead and retry of daas-phones are configured under
+   * resilience4j.*.instances.daas-phones. In the virtual mode the bulkhead must not let more calls
+   * through than the pool has connections, see {@link PooledRequestFactories#checkConnectionsFor}.
+   * When hedging is enabled each hedged read goes through them on its own, so the hedges count
+   * against the bulkhead as well, and no more reads are made on hedging threads than it lets
+   * through. The identical reads in flight are coalesced before being hedged,
+   * so a hedge is never coalesced with the slow read it hedges.
+   */
+  @Bean
+  public PhoneClient phoneClient(@Qualifier("phoneRestTemplate") final RestTemplate restTemplate,
+      final PhoneClientProperties phoneProperties, final ObjectMapper objectMapper,
+      final MeterRegistry meterRegistry, final CircuitBreakerRegistry circuitBreakerRegistry,
+      final BulkheadRegistry bulkheadRegistry, final RetryRegistry retryRegistry,
+      final ExecutionProperties executionProperties,
+      final CurrentTraceContext currentTraceContext) {
+    if (executionProperties.getMode() == ExecutionProperties.Mode.VIRTUAL) {
+      PooledRequestFactories.checkConnectionsFor(PHONES_INSTANCE, phoneProperties.getHttp(),
+          bulkheadRegistry.bulkhead(PHONES_INSTANCE).getBulkheadConfig().getMaxConcurrentCalls());
+    }
+    final PhoneClient resilientClient = new ResilientPhoneClientImpl(
+        new PhoneClientImpl(restTemplate, phoneProperties, objectMapper, meterRegistry),
+        circuitBreakerRegistry.circuitBreaker(PHONES_INSTANCE),
+        bulkheadRegistry.bulkhead(PHONES_INSTANCE), retryRegistry.retry(PHONES_INSTANCE));
+    final int maxConcurrentReads =
+        bulkheadRegistry.bulkhead(PHONES_INSTANCE).getBulkheadConfig().getMaxConcurrentCalls();
+    final PhoneClient hedgedClient;
+    if (!phoneProperties.getHedging().getEnabled()) {
+      hedgedClient = resilientClient;
+    } else if (executionProperties.getMode() == ExecutionProperties.Mode.VIRTUAL) {
+      hedgedClient = new HedgingPhoneClientImpl(resilientClient, phoneProperties.getHedging(),
+          maxConcurrentReads, meterRegistry, VirtualThreads.newThreadFactory("phones-hedge-"),
+          currentTraceContext);
+    } else {
+      hedgedClient = new HedgingPhoneClientImpl(resilientClient, phoneProperties.getHedging(),
+          maxConcurrentReads, meterRegistry, currentTraceContext);
+    }
+    if (!phoneProperties.getCoalescing()) {
+      return hedgedClient;
+    }
+    return new CoalescingPhoneClientImpl(hedgedClient, meterRegistry);
+  }
+
+  /**
+   * The circuit breaker and bulkhead of daas-orders are configured under
+   * resilience4j.*.instances.daas-orders.
+   */
+  @Bean
+  public OrderClient orderClient(@Qualifier("orderRestTemplate") final RestTemplate restTemplate,
+      final OrderClientProperties orderProperties,
+      final CircuitBreakerRegistry circuitBreakerRegistry,
+      final BulkheadRegistry bulkheadRegistry, final ExecutionProperties executionProperties) {
+    if (executionProperties.getMode() == ExecutionProperties.Mode.VIRTUAL) {
+      PooledRequestFactories.checkConnectionsFor(ORDERS_INSTANCE, orderProperties.getHttp(),
+          bulkheadRegistry.bulkhead(ORDERS_INSTANCE).getBulkheadConfig().getMaxConcurrentCalls());
+    }
+    return new ResilientOrderClientImpl(new OrderClientImpl(restTemplate, orderProperties),
+        circuitBreakerRegistry.circuitBreaker(ORDERS_INSTANCE),
+        bulkheadRegistry.bulkhead(ORDERS_INSTANCE));
+  }
+
+  /**
+   * Servlet requests are dispatched to a new virtual thread each instead of the Undertow worker
+   * pool, so the RestTemplate calls made while handling them park the virtual thread rather than
+   * hold a platform one.
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = EXECUTION_PREFIX, name = "mode", havingValue = "virtual")
+  public VirtualThreadExecutor requestExecutor() {
+    return new VirtualThreadExecutor("orders-request");
+  }
+
+  @Bean
+  @ConditionalOnProperty(prefix = EXECUTION_PREFIX, name = "mode", havingValue = "virtual")
+  public WebServerFactoryCustomizer<UndertowServletWebServerFactory> virtualThreadsCustomizer(
+      final VirtualThreadExecutor requestExecutor) {
+    return factory -> factory.addDeploymentInfoCustomizers(deploymentInfo -> deploymentInfo
+        .setExecutor(requestExecutor).setAsyncExecutor(requestExecutor));
+  }
+
+  @Bean
+  public PhoneCatalogLoader phoneCatalogLoader(final PhoneClient phoneClient,
+      final PhoneCatalogProperties catalogProperties,
+      final ExecutionProperties executionProperties) {
+    if (catalogProperties.getTransfer() == PhoneCatalogProperties.Transfer.STREAM) {
+      return new StreamingPhoneCatalogLoaderImpl(phoneClient);
+    }
+    if (catalogProperties.getTransfer() == PhoneCatalogProperties.Transfer.CURSOR) {
+      return new CursorPhoneCatalogLoaderImpl(phoneClient, catalogProperties);
+    }
+    if (executionProperties.getMode() == ExecutionProperties.Mode.VIRTUAL) {
+      return new PhoneCatalogLoaderImpl(phoneClient, catalogProperties,
+          VirtualThreads.newThreadFactory("phones-catalog-loader-"));
+    }
+    return new PhoneCatalogLoaderImpl(phoneClient, catalogProperties);
   }
 
   @Bean
-  public PhoneClient phoneClient(final RestTemplate restTemplate,
-      final PhoneClientProperties phoneProperties) {
-    return new PhoneClientImpl(restTemplate, phoneProperties);
+  public PhoneCatalogService phoneCatalogService(final PhoneClient phoneClient,
+      final PhoneCatalogLoader phoneCatalogLoader,
+      final PhoneCatalogProperties catalogProperties, final MeterRegistry meterRegistry) {
+    switch (catalogProperties.getMode()) {
+      case FULL:
+        return new PhoneCatalogServiceImpl(phoneCatalogLoader);
+      case CACHED:
+        return new CachedPhoneCatalogServiceImpl(phoneCatalogLoader, phoneClient,
+            catalogProperties, meterRegistry);
+      default:
+        return new LookupPhoneCatalogServiceImpl(phoneClient);
+    }
   }
 
   @Bean
-  public OrderClient orderClient(final RestTemplate restTemplate,
-      final OrderClientProperties orderProperties) {
-    return new OrderClientImpl(restTemplate, orderProperties);
+  @ConditionalOnMissingBean(IdempotencyStore.class)
+  public IdempotencyStore idempotencyStore(final IdempotencyProperties idempotencyProperties) {
+    return new InMemoryIdempotencyStoreImpl(idempotencyProperties);
   }
 
   @Bean
-  public OrderService orderService(PhoneClient phoneClient, OrderClient orderClient) {
-    return new OrderServiceImpl(phoneClient, orderClient);
+  public OrderService orderService(PhoneCatalogService phoneCatalogService,
+      OrderClient orderClient, final IdempotencyStore idempotencyStore,
+      final IdempotencyProperties idempotencyProperties, final MeterRegistry meterRegistry) {
+    return new IdempotentOrderServiceImpl(
+        new OrderServiceImpl(phoneCatalogService, orderClient, meterRegistry), idempotencyStore,
+        idempotencyProperties, meterRegistry);
   }
 
 }
@@ -0,0 +1,15 @@
+package es.microservices.tests.orders.configurations;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+import es.microservices.tests.orders.configurations.loadbalancer.LatencyAwareLoadBalancerConfiguration;
+
+/**
+ * Picks the load balancer of the daas services for both the servlet and the reactive stack, the
+ * {@code @LoadBalanced} RestTemplates and WebClient share the load balancer of each service.
+ */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+
+}
@@ -0,0 +1,33 @@
+package es.microservices.tests.orders.configurations;
+
+import org.springframework.aop.Advisor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import es.microservices.tests.common.metrics.TimedAdvisors;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Times every call of the services and of the daas clients, blocking and reactive, as the
+ * services.calls and clients.calls metrics. Only the beans are advised, so a client made of
+ * several decorators is timed once, as the services see it. The controllers are timed by Spring
+ * as http.server.requests and the stages of the order creation as orders.create.stage.
+ */
+@Configuration
+public class MetricsConfig {
+
+  public static final String SERVICES_METRIC = "services.calls";
+  public static final String CLIENTS_METRIC = "clients.calls";
+
+  private static final String PACKAGE = "es.microservices.tests.orders";
+
+  @Bean
+  public Advisor servicesTimingAdvisor(final MeterRegistry meterRegistry) {
+    return TimedAdvisors.forPackage(PACKAGE + ".services.impl", SERVICES_METRIC, meterRegistry);
+  }
+
+  @Bean
+  public Advisor clientsTimingAdvisor(final MeterRegistry meterRegistry) {
+    return TimedAdvisors.forPackage(PACKAGE + ".clients.impl", CLIENTS_METRIC, meterRegistry);
+  }
+
+}
@@ -0,0 +1,69 @@
+package es.microservices.tests.orders.configurations;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import es.microservices.tests.orders.clients.ReactiveOrderClient;
+import es.microservices.tests.orders.clients.ReactivePhoneClient;
+import es.microservices.tests.orders.clients.impl.ReactiveOrderClientImpl;
+import es.microservices.tests.orders.clients.impl.ReactivePhoneClientImpl;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.configurations.properties.OrderClientProperties;
+import es.microservices.tests.orders.configurations.properties.PhoneClientProperties;
+import es.microservices.tests.orders.services.IdempotencyStore;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import es.microservices.tests.orders.services.impl.IdempotentReactiveOrderServiceImpl;
+import es.microservices.tests.orders.services.impl.InMemoryIdempotencyStoreImpl;
+import es.microservices.tests.orders.services.impl.ReactiveOrderServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Beans of the non blocking stack. Enabled with {@code spring.main.web-application-type=reactive},
+ * {@link GlobalConfig} holds the blocking ones.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveConfig {
+
+  @Bean
+  @LoadBalanced
+  public WebClient.Builder loadBalancedWebClientBuilder() {
+    // sends Accept-Encoding: gzip and decompresses the responses the daas services compress
+    return WebClient.builder()
+        .clientConnector(new ReactorClientHttpConnector(HttpClient.create().compress(true)));
+  }
+
+  @Bean
+  public ReactivePhoneClient reactivePhoneClient(final WebClient.Builder webClientBuilder,
+      final PhoneClientProperties phoneProperties) {
+    return new ReactivePhoneClientImpl(webClientBuilder, phoneProperties);
+  }
+
+  @Bean
+  public ReactiveOrderClient reactiveOrderClient(final WebClient.Builder webClientBuilder,
+      final OrderClientProperties orderProperties) {
+    return new ReactiveOrderClientImpl(webClientBuilder, orderProperties);
+  }
+
+  @Bean
+  @ConditionalOnMissingBean(IdempotencyStore.class)
+  public IdempotencyStore idempotencyStore(final IdempotencyProperties idempotencyProperties) {
+    return new InMemoryIdempotencyStoreImpl(idempotencyProperties);
+  }
+
+  @Bean
+  public ReactiveOrderService reactiveOrderService(final ReactivePhoneClient phoneClient,
+      final ReactiveOrderClient orderClient, final IdempotencyStore idempotencyStore,
+      final IdempotencyProperties idempotencyProperties, final MeterRegistry meterRegistry) {
+    return new IdempotentReactiveOrderServiceImpl(
+        new ReactiveOrderServiceImpl(phoneClient, orderClient), idempotencyStore,
+        idempotencyProperties, meterRegistry);
+  }
+
+}
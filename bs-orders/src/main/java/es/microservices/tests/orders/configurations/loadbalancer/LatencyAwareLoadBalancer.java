@@ -0,0 +1,249 @@
+package es.microservices.tests.orders.configurations.loadbalancer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.configurations.properties.LoadBalancingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Picks two random instances and calls the one with the lower cost, its latency moving average
+ * times the requests in flight plus one (power of two choices). An instance not called yet costs
+ * nothing, so every new instance gets tried.
+ * <p>
+ * An instance whose last max consecutive errors calls failed, with an I/O error or a 5xx, is not
+ * picked for the ejection time, unless every instance is ejected.
+ * <p>
+ * The latencies, requests in flight and errors are learnt from the calls of the blocking
+ * {@link org.springframework.cloud.client.loadbalancer.LoadBalancerClient} behind the
+ * {@code @LoadBalanced} RestTemplates and of the exchange filter behind the {@code @LoadBalanced}
+ * WebClient, which may complete a call on another thread than the one it started on, so the start
+ * of each call is kept by its load balancer request. The score,
+ * latency, requests in flight and ejection of each instance are published as the
+ * loadbalancer.instance.* metrics, tagged with the service and the instance.
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+    LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+  private static final String METRICS_PREFIX = "loadbalancer.instance.";
+
+  private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+  private final String serviceId;
+  private final double decayNanos;
+  private final int maxConsecutiveErrors;
+  private final long ejectionNanos;
+  private final MeterRegistry meterRegistry;
+  private final LongSupplier nanoTime;
+
+  private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+  private final Map<Request<Object>, Long> callStarts =
+      Collections.synchronizedMap(new IdentityHashMap<>());
+
+  public LatencyAwareLoadBalancer(final ObjectProvider<ServiceInstanceListSupplier> suppliers,
+      final String serviceId, final LoadBalancingProperties properties,
+      final MeterRegistry meterRegistry) {
+    this(suppliers, serviceId, properties, meterRegistry, System::nanoTime);
+  }
+
+  LatencyAwareLoadBalancer(final ObjectProvider<ServiceInstanceListSupplier> suppliers,
+      final String serviceId, final LoadBalancingProperties properties,
+      final MeterRegistry meterRegistry, final LongSupplier nanoTime) {
+    Assert.notNull(suppliers, "'suppliers' must not be null");
+    Assert.hasText(serviceId, "'serviceId' must not be null or empty");
+    Assert.notNull(properties, "'properties' must not be null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    Assert.notNull(nanoTime, "'nanoTime' must not be null");
+    this.suppliers = suppliers;
+    this.serviceId = serviceId;
+    this.decayNanos = properties.getDecay().toNanos();
+    this.maxConsecutiveErrors = properties.getMaxConsecutiveErrors();
+    this.ejectionNanos = properties.getEjectionTime().toNanos();
+    this.meterRegistry = meterRegistry;
+    this.nanoTime = nanoTime;
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(final Request request) {
+    final ServiceInstanceListSupplier supplier =
+        this.suppliers.getIfAvailable(NoopServiceInstanceListSupplier::new);
+    return supplier.get(request).next().map(this::choose);
+  }
+
+  @Override
+  public boolean supports(final Class requestContextClass, final Class responseClass,
+      final Class serverTypeClass) {
+    return DefaultRequestContext.class.isAssignableFrom(requestContextClass)
+        && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+  }
+
+  @Override
+  public void onStart(final Request<Object> request) {
+    // the instance is only known once it is picked
+  }
+
+  @Override
+  public void onStartRequest(final Request<Object> request,
+      final Response<ServiceInstance> lbResponse) {
+    if (lbResponse.hasServer()) {
+      stats(lbResponse.getServer()).started();
+      this.callStarts.put(request, this.nanoTime.getAsLong());
+    }
+  }
+
+  @Override
+  public void onComplete(final CompletionContext<Object, ServiceInstance, Object> completion) {
+    final Response<ServiceInstance> lbResponse = completion.getLoadBalancerResponse();
+    final Long start = this.callStarts.remove(completion.getLoadBalancerRequest());
+    if (Objects.isNull(lbResponse) || !lbResponse.hasServer() || Objects.isNull(start)) {
+      return;
+    }
+    final long now = this.nanoTime.getAsLong();
+    stats(lbResponse.getServer()).completed(now, now - start, failed(completion));
+  }
+
+  Response<ServiceInstance> choose(final List<ServiceInstance> instances) {
+    if (instances.isEmpty()) {
+      log.warn("No instances available for service {}", this.serviceId);
+      return new EmptyResponse();
+    }
+    final long now = this.nanoTime.getAsLong();
+    final List<ServiceInstance> available = new ArrayList<>(instances.size());
+    for (final ServiceInstance instance : instances) {
+      if (!stats(instance).isEjected(now)) {
+        available.add(instance);
+      }
+    }
+    final List<ServiceInstance> candidates = available.isEmpty() ? instances : available;
+    if (candidates.size() == 1) {
+      return new DefaultResponse(candidates.get(0));
+    }
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final int first = random.nextInt(candidates.size());
+    final int second = (first + 1 + random.nextInt(candidates.size() - 1)) % candidates.size();
+    final ServiceInstance a = candidates.get(first);
+    final ServiceInstance b = candidates.get(second);
+    return new DefaultResponse(stats(a).score(now) <= stats(b).score(now) ? a : b);
+  }
+
+  private static boolean failed(
+      final CompletionContext<Object, ServiceInstance, Object> completion) {
+    if (completion.status() == CompletionContext.Status.FAILED) {
+      return true;
+    }
+    final Object clientResponse = completion.getClientResponse();
+    return clientResponse instanceof ResponseData
+        && Objects.nonNull(((ResponseData) clientResponse).getHttpStatus())
+        && ((ResponseData) clientResponse).getHttpStatus().is5xxServerError();
+  }
+
+  private InstanceStats stats(final ServiceInstance instance) {
+    return this.stats.computeIfAbsent(instance.getHost() + ":" + instance.getPort(),
+        this::createStats);
+  }
+
+  private InstanceStats createStats(final String instance) {
+    final InstanceStats instanceStats = new InstanceStats();
+    final Tags tags = Tags.of("service", this.serviceId, "instance", instance);
+    Gauge.builder(METRICS_PREFIX + "score", instanceStats, s -> s.score(this.nanoTime.getAsLong()))
+        .description("Cost of calling the instance, lower is picked").tags(tags)
+        .register(this.meterRegistry);
+    TimeGauge.builder(METRICS_PREFIX + "latency", instanceStats, TimeUnit.NANOSECONDS,
+        s -> s.latency(this.nanoTime.getAsLong())).description("Latency moving average")
+        .tags(tags).register(this.meterRegistry);
+    Gauge.builder(METRICS_PREFIX + "outstanding", instanceStats, InstanceStats::outstanding)
+        .description("Requests in flight").tags(tags).register(this.meterRegistry);
+    Gauge.builder(METRICS_PREFIX + "ejected", instanceStats,
+        s -> s.isEjected(this.nanoTime.getAsLong()) ? 1.0 : 0.0)
+        .description("Whether the instance is ejected for failing").tags(tags)
+        .register(this.meterRegistry);
+    return instanceStats;
+  }
+
+  private final class InstanceStats {
+
+    private boolean measured;
+    private double latencyNanos;
+    private long updatedAt;
+    private int outstanding;
+    private int consecutiveErrors;
+    private boolean ejected;
+    private long ejectedUntil;
+
+    synchronized void started() {
+      this.outstanding++;
+    }
+
+    synchronized void completed(final long now, final long elapsedNanos, final boolean failed) {
+      this.outstanding = Math.max(0, this.outstanding - 1);
+      final double weight = this.measured ? decay(now) : 0.0;
+      this.latencyNanos = this.latencyNanos * weight + elapsedNanos * (1.0 - weight);
+      this.updatedAt = now;
+      this.measured = true;
+      if (!failed) {
+        this.consecutiveErrors = 0;
+        return;
+      }
+      this.consecutiveErrors++;
+      if (this.consecutiveErrors >= LatencyAwareLoadBalancer.this.maxConsecutiveErrors) {
+        this.consecutiveErrors = 0;
+        this.ejected = true;
+        this.ejectedUntil = now + LatencyAwareLoadBalancer.this.ejectionNanos;
+      }
+    }
+
+    synchronized boolean isEjected(final long now) {
+      if (this.ejected && now - this.ejectedUntil >= 0) {
+        this.ejected = false;
+      }
+      return this.ejected;
+    }
+
+    /**
+     * The latency decays towards zero while the instance is not called, so an instance left aside
+     * for being slow is tried again eventually.
+     */
+    synchronized double latency(final long now) {
+      return this.measured ? this.latencyNanos * decay(now) : 0.0;
+    }
+
+    synchronized double score(final long now) {
+      return latency(now) * (this.outstanding + 1);
+    }
+
+    synchronized int outstanding() {
+      return this.outstanding;
+    }
+
+    private double decay(final long now) {
+      return Math.exp(-(now - this.updatedAt) / LatencyAwareLoadBalancer.this.decayNanos);
+    }
+  }
+
+}
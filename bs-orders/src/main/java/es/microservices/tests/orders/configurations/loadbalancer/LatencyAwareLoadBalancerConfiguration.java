@@ -0,0 +1,31 @@
+package es.microservices.tests.orders.configurations.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import es.microservices.tests.orders.configurations.properties.LoadBalancingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Load balancer of every service called through a @LoadBalanced client, created in the child
+ * context Spring Cloud LoadBalancer keeps per service. It is not a @Configuration on purpose, the
+ * component scan must not register it in the application context. Without it the default round
+ * robin load balancer is used.
+ */
+public class LatencyAwareLoadBalancerConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(prefix = "es.microservices.tests.orders.load-balancing",
+      name = "strategy", havingValue = "latency")
+  public LatencyAwareLoadBalancer latencyAwareLoadBalancer(final Environment environment,
+      final LoadBalancerClientFactory loadBalancerClientFactory,
+      final LoadBalancingProperties properties, final MeterRegistry meterRegistry) {
+    final String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new LatencyAwareLoadBalancer(
+        loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+        serviceId, properties, meterRegistry);
+  }
+
+}
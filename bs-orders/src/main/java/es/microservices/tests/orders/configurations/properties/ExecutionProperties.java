@@ -0,0 +1,37 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.execution")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class ExecutionProperties {
+
+  /**
+   * Threads that run the servlet requests and the outbound calls: the Undertow worker pool
+   * (PLATFORM) or one virtual thread per task (VIRTUAL, needs a Java 21 runtime, which Spring
+   * Boot 2.4 does not support, so it is only built as the opt-in image of Dockerfile.virtual).
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Mode mode = Mode.PLATFORM;
+
+
+  public enum Mode {
+    PLATFORM, VIRTUAL
+  }
+}
@@ -0,0 +1,78 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.NotNull;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Hedging of the catalog reads: a read that has not been answered after the given percentile of
+ * the recent read latencies is sent again, and the first answer wins.
+ */
+@Validated
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class HedgingProperties {
+
+  /**
+   * Whether slow catalog reads are hedged.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Boolean enabled = Boolean.FALSE;
+
+
+  /**
+   * Percentile of the recent read latencies after which a read is hedged.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @DecimalMin("0.5")
+  @DecimalMax("1.0")
+  @Builder.Default
+  private Double percentile = Double.valueOf(0.95);
+
+
+  /**
+   * Shortest wait before hedging, however fast the recent reads were.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration minDelay = Duration.ofMillis(10);
+
+
+  /**
+   * Longest wait before hedging, also used until enough reads were measured.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration maxDelay = Duration.ofSeconds(1);
+
+
+  /**
+   * Most extra requests the hedges may add, as a fraction of the reads.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @DecimalMin("0.0")
+  @DecimalMax("1.0")
+  @Builder.Default
+  private Double budget = Double.valueOf(0.1);
+
+}
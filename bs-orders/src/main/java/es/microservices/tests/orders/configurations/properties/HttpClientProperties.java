@@ -0,0 +1,116 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Connection pool and timeouts of the HTTP client behind a RestTemplate.
+ */
+@Validated
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class HttpClientProperties {
+
+  /**
+   * Maximum number of open connections.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer maxConnections = Integer.valueOf(50);
+
+
+  /**
+   * Maximum number of open connections to the same host and port.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer maxConnectionsPerRoute = Integer.valueOf(20);
+
+
+  /**
+   * Time to establish a connection.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration connectTimeout = Duration.ofSeconds(2);
+
+
+  /**
+   * Time to wait for a connection from the pool when all of them are leased.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+
+
+  /**
+   * Maximum time without data while waiting for the response.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration readTimeout = Duration.ofSeconds(10);
+
+
+  /**
+   * Connections idle for longer are closed by a background thread.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration idleEvictionTimeout = Duration.ofSeconds(30);
+
+
+  /**
+   * How long a connection is kept alive when the server does not send a Keep-Alive timeout.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration keepAlive = Duration.ofSeconds(20);
+
+
+  /**
+   * Whether gzip and deflate are offered in Accept-Encoding and compressed responses are
+   * transparently decompressed.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Boolean compression = Boolean.TRUE;
+
+
+  /**
+   * Whether requests are sent and responses preferred in Smile, the binary encoding of JSON the
+   * daas services also speak, instead of JSON text.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Boolean smile = Boolean.TRUE;
+
+}
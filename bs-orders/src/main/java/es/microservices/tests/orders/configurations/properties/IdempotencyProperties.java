@@ -0,0 +1,56 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.idempotency")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class IdempotencyProperties {
+
+  /**
+   * How long an idempotency key is remembered after its first request. A retry arriving later is
+   * run as a new order.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration ttl = Duration.ofHours(24);
+
+
+  /**
+   * Most idempotency keys kept in memory, the oldest ones are forgotten first.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer maxKeys = Integer.valueOf(10000);
+
+
+  /**
+   * Longest a retry waits for the first request with its key, while that one is still running. The
+   * retry is then answered with 409 Conflict and can be sent again.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration joinTimeout = Duration.ofSeconds(10);
+
+}
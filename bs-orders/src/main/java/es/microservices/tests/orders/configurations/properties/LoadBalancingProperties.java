@@ -0,0 +1,69 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.load-balancing")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class LoadBalancingProperties {
+
+  /**
+   * How the @LoadBalanced clients pick the instance of daas-phones and daas-orders to call: in
+   * turns (ROUND_ROBIN) or the less loaded of two random instances, by recent latency and requests
+   * in flight (LATENCY).
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Strategy strategy = Strategy.ROUND_ROBIN;
+
+
+  /**
+   * Time it takes for the latency of an instance to mostly forget a past response.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration decay = Duration.ofSeconds(10);
+
+
+  /**
+   * Consecutive failed calls after which an instance is not picked for the ejection time.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer maxConsecutiveErrors = Integer.valueOf(5);
+
+
+  /**
+   * How long an instance is not picked after failing max consecutive errors calls.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration ejectionTime = Duration.ofSeconds(30);
+
+  public enum Strategy {
+    ROUND_ROBIN, LATENCY
+  }
+}
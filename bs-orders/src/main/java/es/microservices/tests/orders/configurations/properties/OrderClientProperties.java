@@ -1,6 +1,8 @@
 package es.microservices.tests.orders.configurations.properties;
 
+import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
@@ -29,4 +31,16 @@ public class OrderClientProperties {
   @Setter
   @NotBlank
   private String endpointUrl;
+
+
+  /**
+   * Connection pool and timeouts of the HTTP client.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Valid
+  @Builder.Default
+  private HttpClientProperties http = HttpClientProperties.builder().build();
+
 }
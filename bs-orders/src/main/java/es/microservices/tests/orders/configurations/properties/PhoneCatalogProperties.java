@@ -0,0 +1,120 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.phones-catalog")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class PhoneCatalogProperties {
+
+  /**
+   * How the phones to buy are resolved: asking daas-phones only for the requested ids (LOOKUP),
+   * walking the whole catalog on every order (FULL) or from an in-memory snapshot of the catalog
+   * (CACHED).
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Mode mode = Mode.LOOKUP;
+
+
+  /**
+   * How the whole catalog is transferred from daas-phones: in pages of page size requested
+   * concurrently (PAGED), in pages of page size each requested with the cursor of the previous one
+   * (CURSOR) or as a single newline delimited JSON stream read phone by phone (STREAM).
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Transfer transfer = Transfer.PAGED;
+
+
+  /**
+   * Age after which a cached snapshot is considered stale.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration cacheTtl = Duration.ofMinutes(5);
+
+
+  /**
+   * Delay between background refreshes of the cached snapshot. Should be lower than the ttl so
+   * that the snapshot is replaced before it gets stale.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration cacheRefreshInterval = Duration.ofMinutes(1);
+
+
+  /**
+   * How long past its ttl a stale snapshot may still be served while daas-phones cannot be
+   * reached.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration cacheMaxStale = Duration.ofMinutes(30);
+
+
+  /**
+   * How often the cached snapshot is rebuilt from the whole catalog. In between, the background
+   * refreshes only fetch the catalog changes since the version of the snapshot.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration cacheFullReloadInterval = Duration.ofHours(1);
+
+
+  /**
+   * Number of phones requested per page when the whole catalog is loaded.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer pageSize = Integer.valueOf(500);
+
+
+  /**
+   * Maximum number of catalog pages requested at the same time when the whole catalog is loaded.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer parallelism = Integer.valueOf(4);
+
+
+  public enum Mode {
+    LOOKUP, FULL, CACHED
+  }
+
+  public enum Transfer {
+    PAGED, CURSOR, STREAM
+  }
+}
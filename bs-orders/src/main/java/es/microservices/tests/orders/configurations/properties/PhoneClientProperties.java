@@ -1,6 +1,9 @@
 package es.microservices.tests.orders.configurations.properties;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.annotation.Validated;
@@ -32,4 +35,47 @@ public class PhoneClientProperties {
   private String endpointUrl;
 
 
+  /**
+   * Connection pool and timeouts of the HTTP client.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Valid
+  @Builder.Default
+  private HttpClientProperties http = HttpClientProperties.builder().build();
+
+
+  /**
+   * Number of catalog pages kept with their entity tag, so fetching a page again only costs a
+   * revalidation when it did not change. 0 disables it.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(0)
+  @Builder.Default
+  private Integer revalidationCacheSize = Integer.valueOf(256);
+
+
+  /**
+   * Whether the concurrent identical catalog reads share a single request.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Boolean coalescing = Boolean.TRUE;
+
+
+  /**
+   * Hedging of the slow catalog reads, disabled by default.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Valid
+  @Builder.Default
+  private HedgingProperties hedging = HedgingProperties.builder().build();
+
 }
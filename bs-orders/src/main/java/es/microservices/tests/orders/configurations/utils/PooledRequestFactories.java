@@ -0,0 +1,129 @@
+package es.microservices.tests.orders.configurations.utils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.clients.impl.AbortableRequests;
+import es.microservices.tests.orders.configurations.properties.HttpClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PooledRequestFactories {
+
+  /**
+   * Creates a request factory on an Apache HttpClient with its own connection pool. The pool
+   * metrics (leased, pending, available and max connections) are published as the
+   * {@code httpcomponents.httpclient.pool.*} meters tagged with the pool name.
+   * <p>
+   * Unless compression is disabled, requests send {@code Accept-Encoding: gzip,deflate} and a
+   * compressed response is decompressed before it reaches the message converters.
+   * <p>
+   * Every request is registered with {@link AbortableRequests}, so a hedged read that lost can
+   * have its request aborted.
+   * <p>
+   * The factory owns the pool: it must be destroyed to close it, which Spring does when the
+   * factory is a bean.
+   */
+  public static HttpComponentsClientHttpRequestFactory create(final String poolName,
+      final HttpClientProperties properties, final MeterRegistry meterRegistry) {
+    Assert.hasText(poolName, "'poolName' must be not empty");
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must be not null");
+
+    final PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager();
+    connectionManager.setMaxTotal(properties.getMaxConnections());
+    connectionManager.setDefaultMaxPerRoute(properties.getMaxConnectionsPerRoute());
+    // a connection idle for a while may have been closed by the server, check it before reuse
+    connectionManager.setValidateAfterInactivity(1000);
+
+    // @formatter:off
+    final RequestConfig requestConfig = RequestConfig.custom()
+        .setConnectTimeout(toMillis(properties.getConnectTimeout()))
+        .setConnectionRequestTimeout(toMillis(properties.getConnectionRequestTimeout()))
+        .setSocketTimeout(toMillis(properties.getReadTimeout()))
+        .build();
+
+    final HttpClientBuilder httpClientBuilder = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setDefaultRequestConfig(requestConfig)
+        .setKeepAliveStrategy(keepAliveStrategy(properties.getKeepAlive().toMillis()))
+        .evictExpiredConnections()
+        .evictIdleConnections(properties.getIdleEvictionTimeout().toMillis(), TimeUnit.MILLISECONDS);
+    // @formatter:on
+    if (!properties.getCompression()) {
+      httpClientBuilder.disableContentCompression();
+    }
+    final CloseableHttpClient httpClient = httpClientBuilder.build();
+
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, poolName,
+        Collections.<Tag>emptyList()).bindTo(meterRegistry);
+
+    return new HttpComponentsClientHttpRequestFactory(httpClient) {
+
+      @Override
+      protected HttpUriRequest createHttpUriRequest(final HttpMethod httpMethod, final URI uri) {
+        final HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+        AbortableRequests.register(request);
+        return request;
+      }
+    };
+  }
+
+  /**
+   * Checks that callers limited to the given concurrent calls never wait for a connection of the
+   * pool, as the virtual threads must not: HttpClient leases a connection inside a synchronized
+   * block, so a virtual thread waiting for one stays pinned to its carrier until another call
+   * gives a connection back. A bulkhead in front of the pool makes the callers wait on a
+   * semaphore instead, which unmounts the virtual thread, as long as it lets no more calls through
+   * than the pool has connections to a single route.
+   *
+   * @throws IllegalStateException when the callers may have to wait for a connection
+   */
+  public static void checkConnectionsFor(final String poolName,
+      final HttpClientProperties properties, final int maxConcurrentCalls) {
+    Assert.hasText(poolName, "'poolName' must be not empty");
+    Assert.notNull(properties, "'properties' must be not null");
+    final int connections =
+        Math.min(properties.getMaxConnections(), properties.getMaxConnectionsPerRoute());
+    if (maxConcurrentCalls > connections) {
+      throw new IllegalStateException(String.format(
+          "The pool %s has %d connections per route for up to %d concurrent calls, the virtual "
+              + "threads waiting for a connection would be pinned to their carrier",
+          poolName, connections, maxConcurrentCalls));
+    }
+  }
+
+  /**
+   * Honours the Keep-Alive timeout sent by the server and falls back to the configured one instead
+   * of keeping the connection forever.
+   */
+  private static ConnectionKeepAliveStrategy keepAliveStrategy(final long defaultKeepAliveMillis) {
+    return (response, context) -> {
+      final long keepAlive =
+          DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return keepAlive > 0 ? keepAlive : defaultKeepAliveMillis;
+    };
+  }
+
+  private static int toMillis(final Duration duration) {
+    return (int) Math.min(Integer.MAX_VALUE, duration.toMillis());
+  }
+
+}
@@ -0,0 +1,95 @@
+package es.microservices.tests.orders.configurations.utils;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.util.Assert;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs every task on a new thread of the given factory, meant for virtual threads: there is no
+ * pool to size, a task blocked on I/O only parks its virtual thread and frees the carrier.
+ * <p>
+ * Publishes the tasks in flight and completed and, when the JDK lets it be reached (see
+ * {@link VirtualThreads#carrierPool()}), the usage of the carrier pool as the
+ * {@code executor.*} metrics of the {@code virtual-carrier} executor.
+ */
+@Slf4j
+public class VirtualThreadExecutor implements Executor, MeterBinder {
+
+  private static final String NAME_TAG = "name";
+  private static final String CARRIER_POOL_NAME = "virtual-carrier";
+
+  private final String name;
+  private final ThreadFactory threadFactory;
+  private final AtomicInteger activeTasks = new AtomicInteger();
+  private final LongAdder completedTasks = new LongAdder();
+
+  public VirtualThreadExecutor(final String name) {
+    this(name, VirtualThreads.newThreadFactory(name + "-"));
+  }
+
+  VirtualThreadExecutor(final String name, final ThreadFactory threadFactory) {
+    Assert.hasText(name, "'name' must be not empty");
+    Assert.notNull(threadFactory, "'threadFactory' must be not null");
+    this.name = name;
+    this.threadFactory = threadFactory;
+  }
+
+  @Override
+  public void execute(final Runnable task) {
+    Assert.notNull(task, "'task' must be not null");
+    this.activeTasks.incrementAndGet();
+    try {
+      this.threadFactory.newThread(() -> {
+        try {
+          task.run();
+        } finally {
+          this.activeTasks.decrementAndGet();
+          this.completedTasks.increment();
+        }
+      }).start();
+    } catch (RuntimeException e) {
+      this.activeTasks.decrementAndGet();
+      throw e;
+    }
+  }
+
+  public int getActiveTasks() {
+    return this.activeTasks.get();
+  }
+
+  public long getCompletedTasks() {
+    return this.completedTasks.sum();
+  }
+
+  @Override
+  public void bindTo(final MeterRegistry registry) {
+    Gauge.builder("executor.virtual.active", this, VirtualThreadExecutor::getActiveTasks)
+        .tag(NAME_TAG, this.name).description("Tasks running on a virtual thread")
+        .baseUnit("tasks").register(registry);
+    FunctionCounter
+        .builder("executor.virtual.completed", this, VirtualThreadExecutor::getCompletedTasks)
+        .tag(NAME_TAG, this.name).description("Tasks completed on a virtual thread")
+        .baseUnit("tasks").register(registry);
+
+    final Optional<ForkJoinPool> carrierPool = VirtualThreads.carrierPool();
+    if (carrierPool.isPresent()) {
+      new ExecutorServiceMetrics(carrierPool.get(), CARRIER_POOL_NAME, Collections.emptyList())
+          .bindTo(registry);
+    } else {
+      log.warn("The carrier pool of the virtual threads is not reachable, run the JVM with "
+          + "--add-opens java.base/java.lang=ALL-UNNAMED to publish its metrics");
+    }
+  }
+
+}
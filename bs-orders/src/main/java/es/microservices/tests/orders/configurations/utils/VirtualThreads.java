@@ -0,0 +1,85 @@
+package es.microservices.tests.orders.configurations.utils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadFactory;
+import org.springframework.util.Assert;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Access to the virtual threads API of Java 21 while the module is still compiled for Java 8. Every
+ * call goes through reflection, so the same jar runs on both runtimes and only the virtual
+ * execution mode requires the newer one.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class VirtualThreads {
+
+  private static final String UNSUPPORTED_MESSAGE =
+      "Virtual threads are not supported by this Java runtime, Java 21 or newer is required";
+
+  public static boolean isSupported() {
+    try {
+      Thread.class.getMethod("ofVirtual");
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns a factory of virtual threads named prefix followed by a sequence number.
+   *
+   * @throws IllegalStateException when the runtime does not support virtual threads
+   */
+  public static ThreadFactory newThreadFactory(final String prefix) {
+    Assert.hasText(prefix, "'prefix' must be not empty");
+    if (!isSupported()) {
+      throw new IllegalStateException(UNSUPPORTED_MESSAGE);
+    }
+    try {
+      final Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+      Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+      return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(UNSUPPORTED_MESSAGE, e);
+    }
+  }
+
+  /**
+   * Returns whether the thread is a virtual one. Always false before Java 21.
+   */
+  public static boolean isVirtual(final Thread thread) {
+    Assert.notNull(thread, "'thread' must be not null");
+    try {
+      final Method isVirtual = Thread.class.getMethod("isVirtual");
+      return (Boolean) isVirtual.invoke(thread);
+    } catch (ReflectiveOperationException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the pool of carrier threads the virtual threads are mounted on. It is internal to the
+   * JDK, so it is only reachable when the JVM runs with
+   * {@code --add-opens java.base/java.lang=ALL-UNNAMED}.
+   */
+  public static Optional<ForkJoinPool> carrierPool() {
+    if (!isSupported()) {
+      return Optional.empty();
+    }
+    try {
+      final Field scheduler =
+          Class.forName("java.lang.VirtualThread").getDeclaredField("DEFAULT_SCHEDULER");
+      scheduler.setAccessible(true);
+      final Object pool = scheduler.get(null);
+      return pool instanceof ForkJoinPool ? Optional.of((ForkJoinPool) pool) : Optional.empty();
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+}
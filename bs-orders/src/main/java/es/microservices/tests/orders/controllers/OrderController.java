@@ -6,6 +6,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import es.microservices.tests.orders.dtos.ErrorResponse;
 import es.microservices.tests.orders.dtos.NewOrderDto;
@@ -21,6 +22,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 @RequestMapping("/orders")
 public interface OrderController {
 
+  String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
   @Operation(summary = "Create a new order", description = "Create a new order", tags = {"Orders"})
   @ApiResponses(value = {
       @ApiResponse(responseCode = "201", description = "Order created",
@@ -29,11 +32,21 @@ public interface OrderController {
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "404", description = "Not found",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "409",
+          description = "Order of the idempotency key still being created",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "422",
+          description = "Order not created or idempotency key used for a different order",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
   @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
       consumes = {MediaType.APPLICATION_JSON_VALUE})
   ResponseEntity<OrderDto> createOrder(
+      @Parameter(in = ParameterIn.HEADER,
+          description = "retries with the same key get the order created by the first request",
+          required = false) @RequestHeader(value = IDEMPOTENCY_KEY_HEADER,
+              required = false) final String idempotencyKey,
       @Parameter(in = ParameterIn.DEFAULT, description = "the body request", required = true,
           schema = @Schema()) @Valid @RequestBody @NotNull final NewOrderDto newOrder);
 }
@@ -0,0 +1,88 @@
+package es.microservices.tests.orders.controllers.handlers;
+
+import java.util.List;
+import java.util.Objects;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+import brave.Span;
+import brave.Tracer;
+import es.microservices.tests.orders.dtos.ErrorResponse;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyInProgressException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyReusedException;
+import es.microservices.tests.orders.exceptions.PhoneRequestedListEmptyException;
+import es.microservices.tests.orders.exceptions.PhoneRequestedNotFound;
+
+/**
+ * Same error contract as {@link SpecificControllerAdvice} for the reactive stack.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+public class ReactiveSpecificControllerAdvice {
+
+  @Autowired
+  private Tracer tracer;
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<ErrorResponse> handleWebExchangeBindException(
+      WebExchangeBindException ex) {
+    final String errorMessage = errorMessageHandle(ex);
+    return createErrorResponse(HttpStatus.BAD_REQUEST, errorMessage);
+  }
+
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<ErrorResponse> handleServerWebInputException(ServerWebInputException ex) {
+    return createErrorResponse(HttpStatus.BAD_REQUEST, ex.getReason());
+  }
+
+  private static String errorMessageHandle(final WebExchangeBindException t) {
+    final StringBuilder errorMessage = new StringBuilder();
+
+    final List<FieldError> errors = t.getFieldErrors();
+    errors.stream().forEach(
+        error -> errorMessage.append(error.getField() + ": " + error.getDefaultMessage() + "\n"));
+    return errorMessage.toString().trim();
+  }
+
+  @ExceptionHandler({CreatingOrderException.class, IdempotencyKeyReusedException.class,
+      PhoneRequestedListEmptyException.class, PhoneRequestedNotFound.class})
+  public ResponseEntity<ErrorResponse> handleUnprocessableOrder(RuntimeException ex) {
+    return createErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
+  }
+
+  @ExceptionHandler(IdempotencyKeyInProgressException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgress(RuntimeException ex) {
+    return createErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+  }
+
+  @ExceptionHandler(Exception.class)
+  public ResponseEntity<ErrorResponse> handleException(Exception ex) {
+    return createErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+  }
+
+  private ResponseEntity<ErrorResponse> createErrorResponse(final HttpStatus status,
+      final String errorMessage) {
+    return ResponseEntity.status(status)
+        .header(org.springframework.http.HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+        .body(ErrorResponse.builder().errorMessage(errorMessage).status(status.value())
+            .operationId(getTraceId()).build());
+  }
+
+  private String getTraceId() {
+    Span currentSpan = tracer.currentSpan();
+    if (Objects.isNull(currentSpan)) {
+      currentSpan = tracer.nextSpan().name("test").start();
+    }
+    return currentSpan.context().traceIdString();
+  }
+
+}
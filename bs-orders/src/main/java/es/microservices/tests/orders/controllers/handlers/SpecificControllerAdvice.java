@@ -5,6 +5,8 @@ import java.util.Objects;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,10 +18,13 @@ import brave.Span;
 import brave.Tracer;
 import es.microservices.tests.orders.dtos.ErrorResponse;
 import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyInProgressException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyReusedException;
 import es.microservices.tests.orders.exceptions.PhoneRequestedListEmptyException;
 import es.microservices.tests.orders.exceptions.PhoneRequestedNotFound;
 
 @ControllerAdvice
+@ConditionalOnWebApplication(type = Type.SERVLET)
 public class SpecificControllerAdvice {
 
   @Autowired
@@ -47,6 +52,18 @@ public class SpecificControllerAdvice {
     return createErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
   }
 
+  @ExceptionHandler(IdempotencyKeyReusedException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(
+      HttpServletRequest request, IdempotencyKeyReusedException ex) {
+    return createErrorResponse(HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
+  }
+
+  @ExceptionHandler(IdempotencyKeyInProgressException.class)
+  public ResponseEntity<ErrorResponse> handleIdempotencyKeyInProgressException(
+      HttpServletRequest request, IdempotencyKeyInProgressException ex) {
+    return createErrorResponse(HttpStatus.CONFLICT, ex.getMessage());
+  }
+
   @ExceptionHandler(PhoneRequestedListEmptyException.class)
   public ResponseEntity<ErrorResponse> handlePhoneRequestedListEmptyException(
       HttpServletRequest request, PhoneRequestedListEmptyException ex) {
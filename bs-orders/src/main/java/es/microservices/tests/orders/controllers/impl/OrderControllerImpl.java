@@ -2,13 +2,17 @@ package es.microservices.tests.orders.controllers.impl;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -20,6 +24,7 @@ import es.microservices.tests.orders.services.OrderService;
 import lombok.extern.slf4j.Slf4j;
 
 @RestController
+@ConditionalOnWebApplication(type = Type.SERVLET)
 @RequestMapping(value = "/orders")
 @Validated
 @Slf4j
@@ -38,9 +43,12 @@ public class OrderControllerImpl implements OrderController {
   @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
       consumes = {MediaType.APPLICATION_JSON_VALUE})
   public ResponseEntity<OrderDto> createOrder(
+      @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) final String idempotencyKey,
       @Valid @RequestBody @NotNull final NewOrderDto newOrder) {
 
-    final OrderDto orderDto = this.service.createOrder(newOrder);
+    final OrderDto orderDto = StringUtils.hasText(idempotencyKey)
+        ? this.service.createOrder(idempotencyKey, newOrder)
+        : this.service.createOrder(newOrder);
     this.logResponse(orderDto);
 
     return ResponseEntity.status(HttpStatus.CREATED).body(orderDto);
@@ -0,0 +1,66 @@
+package es.microservices.tests.orders.controllers.impl;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.microservices.tests.orders.controllers.OrderController;
+import es.microservices.tests.orders.controllers.ReactiveOrderController;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+@RestController
+@ConditionalOnWebApplication(type = Type.REACTIVE)
+@RequestMapping(value = "/orders")
+@Validated
+@Slf4j
+public class ReactiveOrderControllerImpl implements ReactiveOrderController {
+
+  private final ReactiveOrderService service;
+  private final ObjectMapper objectMapper;
+
+  public ReactiveOrderControllerImpl(final ReactiveOrderService service,
+      final ObjectMapper objectMapper) {
+    Assert.notNull(service, "'service' must not be null");
+    this.service = service;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE})
+  public ResponseEntity<Mono<OrderDto>> createOrder(
+      @RequestHeader(value = OrderController.IDEMPOTENCY_KEY_HEADER,
+          required = false) final String idempotencyKey,
+      @Valid @RequestBody @NotNull final NewOrderDto newOrder) {
+    final Mono<OrderDto> order = StringUtils.hasText(idempotencyKey)
+        ? this.service.createOrder(idempotencyKey, newOrder)
+        : this.service.createOrder(newOrder);
+    return ResponseEntity.status(HttpStatus.CREATED).body(order.doOnNext(this::logResponse));
+  }
+
+  private void logResponse(OrderDto order) {
+    try {
+      log.info(this.objectMapper.writeValueAsString(order));
+    } catch (JsonProcessingException e) {
+      log.error("An error occurred serializing the object for screen printing", e);
+    }
+  }
+
+}
@@ -35,7 +35,9 @@ public class NewOrderDto {
   @Valid
   private CustomerDto customerData;
 
-  @Schema(required = true, description = "The list of identifiers of the phones that the customer wants to buy.")
+  @Schema(required = true,
+      description = "The list of identifiers of the phones that the customer wants to buy. A phone "
+          + "listed more than once is bought and charged as many times as it is listed.")
   @Singular(value = "phoneIdToBuy")
   @JsonProperty("phones-to-buy")
   @NotEmpty
@@ -55,7 +55,14 @@ public class DaasPhoneCatalogDto {
    **/
   @Schema(required = true, description = "Indicates the total number of records that have been returned")      
   @JsonProperty("total-count")
-  @NotNull
   private Long totalCount;
+
+  /**
+   * Continuation token of the next page, null on the last page
+   * @return next
+   **/
+  @Schema(description = "The cursor to request the next page with, not sent on the last page")
+  @JsonProperty("next")
+  private String next;
   
 }
@@ -0,0 +1,45 @@
+package es.microservices.tests.orders.dtos.phones;
+
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import org.springframework.validation.annotation.Validated;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+
+/**
+ * PhoneLookupResultDto
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Validated
+public class DaasPhoneLookupResultDto {
+
+  /**
+   * The phones found
+   * @return phones
+   **/
+  @Schema(required = true, description = "The phones found")
+  @NotNull
+  @JsonProperty("phones")
+  @Valid
+  @Singular
+  private List<@NotNull DaasPhoneDto> phones;
+
+  /**
+   * The requested identifiers that are not in the catalog
+   * @return missingPhoneIds
+   **/
+  @Schema(required = true, description = "The requested identifiers that are not in the catalog")
+  @JsonProperty("missingPhoneIds")
+  @Singular
+  private List<String> missingPhoneIds;
+
+}
@@ -0,0 +1,14 @@
+package es.microservices.tests.orders.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@SuppressWarnings("serial")
+@ResponseStatus(code = HttpStatus.CONFLICT)
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+  public IdempotencyKeyInProgressException(final String message) {
+    super(message);
+  }
+
+}
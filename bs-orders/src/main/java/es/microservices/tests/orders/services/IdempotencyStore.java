@@ -0,0 +1,50 @@
+package es.microservices.tests.orders.services;
+
+import java.util.concurrent.CompletableFuture;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+
+/**
+ * Remembers the orders created for each idempotency key, so the retries of a request are answered
+ * with the order of the first one instead of creating it again.
+ */
+public interface IdempotencyStore {
+
+  /**
+   * Keeps the entry for the key unless the key already has one that has not expired. Returns the
+   * entry already kept, null when the given one was kept.
+   */
+  Entry putIfAbsent(String key, Entry entry);
+
+  /**
+   * Forgets the key if it still has the given entry, so a request whose order could not be created
+   * can be retried.
+   */
+  void remove(String key, Entry entry);
+
+  /**
+   * The order requested with a key and the outcome of creating it, pending while the first request
+   * is still running.
+   */
+  final class Entry {
+
+    private final NewOrderDto newOrder;
+    private final CompletableFuture<OrderDto> outcome;
+
+    public Entry(final NewOrderDto newOrder) {
+      Assert.notNull(newOrder, "'newOrder' must be not null");
+      this.newOrder = newOrder;
+      this.outcome = new CompletableFuture<>();
+    }
+
+    public NewOrderDto getNewOrder() {
+      return this.newOrder;
+    }
+
+    public CompletableFuture<OrderDto> getOutcome() {
+      return this.outcome;
+    }
+  }
+
+}
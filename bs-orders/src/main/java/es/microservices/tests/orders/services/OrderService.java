@@ -7,4 +7,12 @@ import es.microservices.tests.orders.dtos.OrderDto;
 public interface OrderService {
 
   OrderDto createOrder(NewOrderDto newOrder);
+
+  /**
+   * Creates the order once per idempotency key. The key is ignored unless the service remembers
+   * the keys.
+   */
+  default OrderDto createOrder(final String idempotencyKey, final NewOrderDto newOrder) {
+    return createOrder(newOrder);
+  }
 }
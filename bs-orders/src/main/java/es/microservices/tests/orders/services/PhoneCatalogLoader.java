@@ -0,0 +1,21 @@
+package es.microservices.tests.orders.services;
+
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+@FunctionalInterface
+public interface PhoneCatalogLoader {
+
+  List<DaasPhoneDto> loadCatalog();
+
+  /**
+   * Hands every phone of the catalog to the consumer. Loaders that receive the catalog as a stream
+   * override it so the catalog is never held as a whole.
+   */
+  default void loadCatalog(final Consumer<DaasPhoneDto> consumer) {
+    Assert.notNull(consumer, "'consumer' must be not null");
+    loadCatalog().forEach(consumer);
+  }
+}
@@ -0,0 +1,14 @@
+package es.microservices.tests.orders.services;
+
+import java.util.List;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+@FunctionalInterface
+public interface PhoneCatalogService {
+
+  /**
+   * Returns the catalog phones whose identifier is in the requested list, without duplicates.
+   * Identifiers that are not in the catalog are simply not returned.
+   */
+  List<DaasPhoneDto> findPhones(final List<String> phoneIds);
+}
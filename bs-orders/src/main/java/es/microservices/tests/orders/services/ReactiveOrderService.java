@@ -0,0 +1,19 @@
+package es.microservices.tests.orders.services;
+
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import reactor.core.publisher.Mono;
+
+@FunctionalInterface
+public interface ReactiveOrderService {
+
+  Mono<OrderDto> createOrder(NewOrderDto newOrder);
+
+  /**
+   * Creates the order once per idempotency key. The key is ignored unless the service remembers
+   * the keys.
+   */
+  default Mono<OrderDto> createOrder(final String idempotencyKey, final NewOrderDto newOrder) {
+    return createOrder(newOrder);
+  }
+}
@@ -0,0 +1,344 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import es.microservices.tests.orders.services.PhoneCatalogService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serves the phones from an in-memory snapshot of the catalog, kept as a {@link PhoneCatalogIndex}.
+ * <ul>
+ * <li>The first request (or a request after the snapshot is older than ttl + max stale) loads the
+ * catalog synchronously. Concurrent requests wait for the same load.</li>
+ * <li>A fresh snapshot (younger than ttl) is served as is.</li>
+ * <li>A stale snapshot is still served while a refresh runs in the background, so a daas-phones
+ * outage does not break order creation until max stale is exceeded.</li>
+ * <li>The snapshot is refreshed ahead every refresh interval, so the hot path normally never hits
+ * the network.</li>
+ * </ul>
+ */
+@Slf4j
+public class CachedPhoneCatalogServiceImpl implements PhoneCatalogService, AutoCloseable {
+
+  private static final String REQUESTS_METRIC = "phones.catalog.cache.requests";
+  private static final String REFRESH_METRIC = "phones.catalog.cache.refresh";
+
+  private final PhoneCatalogLoader loader;
+  private final PhoneClient phoneClient;
+  private final Duration ttl;
+  private final Duration fullReloadInterval;
+  private final Duration maxStale;
+  private final Clock clock;
+  private final Executor refreshExecutor;
+  private final ScheduledExecutorService scheduler;
+
+  private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+  private final AtomicBoolean refreshing = new AtomicBoolean(false);
+  private final ReentrantLock loadLock = new ReentrantLock();
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter staleHits;
+  private final MeterRegistry meterRegistry;
+
+  public CachedPhoneCatalogServiceImpl(final PhoneCatalogLoader loader,
+      final PhoneCatalogProperties properties, final MeterRegistry meterRegistry) {
+    this(loader, null, properties, meterRegistry);
+  }
+
+  /**
+   * The phone client, when not null, is used to refresh the snapshot with the catalog changes.
+   */
+  public CachedPhoneCatalogServiceImpl(final PhoneCatalogLoader loader,
+      final PhoneClient phoneClient, final PhoneCatalogProperties properties,
+      final MeterRegistry meterRegistry) {
+    this(loader, phoneClient, properties, meterRegistry, Clock.systemUTC(), Executors
+        .newSingleThreadScheduledExecutor(createThreadFactory()));
+    final long refreshMillis = properties.getCacheRefreshInterval().toMillis();
+    this.scheduler.scheduleWithFixedDelay(this::refreshAhead, refreshMillis, refreshMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  CachedPhoneCatalogServiceImpl(final PhoneCatalogLoader loader,
+      final PhoneCatalogProperties properties, final MeterRegistry meterRegistry,
+      final Clock clock, final Executor refreshExecutor) {
+    this(loader, null, properties, meterRegistry, clock, refreshExecutor);
+  }
+
+  CachedPhoneCatalogServiceImpl(final PhoneCatalogLoader loader, final PhoneClient phoneClient,
+      final PhoneCatalogProperties properties, final MeterRegistry meterRegistry,
+      final Clock clock, final Executor refreshExecutor) {
+    Assert.notNull(loader, "'loader' must be not null");
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must be not null");
+    Assert.notNull(clock, "'clock' must be not null");
+    Assert.notNull(refreshExecutor, "'refreshExecutor' must be not null");
+
+    this.loader = loader;
+    this.phoneClient = phoneClient;
+    this.ttl = properties.getCacheTtl();
+    this.fullReloadInterval = properties.getCacheFullReloadInterval();
+    this.maxStale = properties.getCacheMaxStale();
+    this.clock = clock;
+    this.refreshExecutor = refreshExecutor;
+    this.scheduler = refreshExecutor instanceof ScheduledExecutorService
+        ? (ScheduledExecutorService) refreshExecutor
+        : null;
+    this.meterRegistry = meterRegistry;
+
+    this.hits = Counter.builder(REQUESTS_METRIC).tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder(REQUESTS_METRIC).tag("result", "miss").register(meterRegistry);
+    this.staleHits = Counter.builder(REQUESTS_METRIC).tag("result", "stale").register(meterRegistry);
+    Gauge.builder("phones.catalog.cache.size", this, CachedPhoneCatalogServiceImpl::currentSize)
+        .register(meterRegistry);
+    Gauge.builder("phones.catalog.cache.age", this, CachedPhoneCatalogServiceImpl::currentAge)
+        .baseUnit("seconds").register(meterRegistry);
+  }
+
+  @Override
+  public List<DaasPhoneDto> findPhones(final List<String> phoneIds) {
+    Assert.notNull(phoneIds, "'phoneIds' must be not null");
+    return currentSnapshot().index.findPhones(phoneIds);
+  }
+
+  @Override
+  public void close() {
+    if (Objects.nonNull(this.scheduler)) {
+      this.scheduler.shutdownNow();
+    }
+  }
+
+  private Snapshot currentSnapshot() {
+    final Snapshot current = this.snapshot.get();
+    if (Objects.isNull(current)) {
+      this.misses.increment();
+      return loadSynchronously(null);
+    }
+
+    final Duration age = Duration.between(current.loadedAt, this.clock.instant());
+    if (age.compareTo(this.ttl) <= 0) {
+      this.hits.increment();
+      return current;
+    }
+    if (age.compareTo(this.ttl.plus(this.maxStale)) <= 0) {
+      this.staleHits.increment();
+      refreshAsynchronously();
+      return current;
+    }
+    this.misses.increment();
+    return loadSynchronously(current);
+  }
+
+  /**
+   * Only one thread loads the catalog, the rest wait for it and reuse its snapshot.
+   */
+  private Snapshot loadSynchronously(final Snapshot observed) {
+    this.loadLock.lock();
+    try {
+      final Snapshot current = this.snapshot.get();
+      if (current != observed) {
+        return current;
+      }
+      return refresh();
+    } finally {
+      this.loadLock.unlock();
+    }
+  }
+
+  private void refreshAsynchronously() {
+    if (!this.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      this.refreshExecutor.execute(this::refreshInBackground);
+    } catch (RejectedExecutionException e) {
+      this.refreshing.set(false);
+      log.warn("The phone catalog refresh could not be scheduled", e);
+    }
+  }
+
+  private void refreshAhead() {
+    if (Objects.isNull(this.snapshot.get()) || !this.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    refreshInBackground();
+  }
+
+  private void refreshInBackground() {
+    this.loadLock.lock();
+    try {
+      refresh();
+    } catch (RuntimeException e) {
+      log.warn("The phone catalog could not be refreshed, the current snapshot is kept", e);
+    } finally {
+      this.loadLock.unlock();
+      this.refreshing.set(false);
+    }
+  }
+
+  private Snapshot refresh() {
+    final Timer.Sample sample = Timer.start(this.meterRegistry);
+    String outcome = "failure";
+    String type = "changes";
+    try {
+      final Snapshot previous = this.snapshot.get();
+      Snapshot loaded = canApplyChanges(previous) ? applyChanges(previous) : null;
+      if (Objects.isNull(loaded)) {
+        type = "full";
+        loaded = loadFully(previous);
+      }
+      this.snapshot.set(loaded);
+      outcome = "success";
+      log.debug("Phone catalog snapshot refreshed with {} phones up to version {}",
+          loaded.index.size(), loaded.version);
+      return loaded;
+    } finally {
+      sample.stop(Timer.builder(REFRESH_METRIC).tag("outcome", outcome).tag("type", type)
+          .register(this.meterRegistry));
+    }
+  }
+
+  private boolean canApplyChanges(final Snapshot previous) {
+    return Objects.nonNull(this.phoneClient) && Objects.nonNull(previous)
+        && Objects.nonNull(previous.version) && Duration
+            .between(previous.fullyLoadedAt, this.clock.instant())
+            .compareTo(this.fullReloadInterval) < 0;
+  }
+
+  /**
+   * The changes are asked from the version reached by the refresh before the previous one, not by
+   * the previous one: a write that took its version before the previous refresh but committed
+   * after it is applied now. Upserting a phone or deleting it again is harmless, so a write is
+   * never missed as long as it commits within a refresh interval. The changes come a limited
+   * number at a time and are asked for until there are no more.
+   * <p>
+   * Returns null when the changes cannot be applied and the whole catalog has to be loaded.
+   */
+  private Snapshot applyChanges(final Snapshot previous) {
+    PhoneCatalogIndex index = previous.index;
+    long since = previous.previousVersion;
+    long reached = previous.version;
+    while (true) {
+      final DaasPhoneChangesDto changes;
+      try {
+        changes = this.phoneClient.getPhoneChanges(since);
+      } catch (RestClientException e) {
+        log.warn("The phone catalog changes could not be retrieved, the whole catalog is loaded",
+            e);
+        return null;
+      }
+      if (Objects.isNull(changes) || Objects.isNull(changes.getVersion())
+          || Boolean.TRUE.equals(changes.getReload())) {
+        // the deletions since the version are no longer kept or the catalog went back
+        return null;
+      }
+      index = index.withChanges(
+          Objects.isNull(changes.getUpserts()) ? Collections.emptyList() : changes.getUpserts(),
+          Objects.isNull(changes.getDeletedPhoneIds()) ? Collections.emptyList()
+              : changes.getDeletedPhoneIds());
+      reached = Math.max(reached, changes.getVersion());
+      if (!Boolean.TRUE.equals(changes.getMore())) {
+        return new Snapshot(index, reached, previous.version, previous.fullyLoadedAt,
+            this.clock.instant());
+      }
+      if (changes.getVersion() <= since) {
+        // more changes that do not move forward would be asked for forever
+        return null;
+      }
+      since = changes.getVersion();
+    }
+  }
+
+  /**
+   * The catalog version is read ahead of the catalog, so the changes written during the load are
+   * applied again by the next refresh instead of being missed. The refresh after it still asks from
+   * the version of the previous snapshot, for the writes that had taken their version before.
+   */
+  private Snapshot loadFully(final Snapshot previous) {
+    final Long version = currentCatalogVersion();
+    final PhoneCatalogIndex.Builder index =
+        PhoneCatalogIndex.builder(Objects.isNull(previous) ? 0 : previous.index.size());
+    this.loader.loadCatalog(index::add);
+    final Instant loadedAt = this.clock.instant();
+    final Long previousVersion = Objects.nonNull(version) && Objects.nonNull(previous)
+        && Objects.nonNull(previous.version) ? Long.valueOf(Math.min(previous.version, version))
+            : version;
+    return new Snapshot(index.build(), version, previousVersion, loadedAt, loadedAt);
+  }
+
+  private Long currentCatalogVersion() {
+    if (Objects.isNull(this.phoneClient)) {
+      return null;
+    }
+    try {
+      final DaasPhoneChangesDto current = this.phoneClient.getPhoneChanges(null);
+      return Objects.isNull(current) ? null : current.getVersion();
+    } catch (RestClientException e) {
+      log.warn("The phone catalog version could not be retrieved, the next refresh loads the "
+          + "whole catalog", e);
+      return null;
+    }
+  }
+
+  private double currentSize() {
+    final Snapshot current = this.snapshot.get();
+    return Objects.isNull(current) ? 0 : current.index.size();
+  }
+
+  private double currentAge() {
+    final Snapshot current = this.snapshot.get();
+    return Objects.isNull(current) ? 0
+        : Duration.between(current.loadedAt, this.clock.instant()).toMillis() / 1000d;
+  }
+
+  private static CustomizableThreadFactory createThreadFactory() {
+    final CustomizableThreadFactory threadFactory =
+        new CustomizableThreadFactory("phones-catalog-refresh-");
+    threadFactory.setDaemon(true);
+    return threadFactory;
+  }
+
+  private static final class Snapshot {
+
+    private final PhoneCatalogIndex index;
+    /** Catalog version the snapshot is up to, null when it is not known. */
+    private final Long version;
+    /** Catalog version the previous snapshot was up to, the next changes are asked from it. */
+    private final Long previousVersion;
+    private final Instant fullyLoadedAt;
+    private final Instant loadedAt;
+
+    private Snapshot(final PhoneCatalogIndex index, final Long version,
+        final Long previousVersion, final Instant fullyLoadedAt, final Instant loadedAt) {
+      this.index = index;
+      this.version = version;
+      this.previousVersion = previousVersion;
+      this.fullyLoadedAt = fullyLoadedAt;
+      this.loadedAt = loadedAt;
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the whole catalog page by page, every page is requested with the cursor of the previous
+ * one. daas-phones then serves each page as an index range scan, however deep it is, and no phone
+ * is repeated. The identifiers are random, though, so a phone inserted while the catalog is walked
+ * may fall behind the cursor and be missed: the catalog version is read before the walk, so the
+ * changes applied on the next refresh bring it in.
+ * <p>
+ * The pages are handed to the consumer as they arrive, only one page is held at a time.
+ */
+@Slf4j
+public class CursorPhoneCatalogLoaderImpl implements PhoneCatalogLoader {
+
+  private static final int FIRST_PAGE = 1;
+
+  private final PhoneClient phoneClient;
+  private final int pageSize;
+
+  public CursorPhoneCatalogLoaderImpl(final PhoneClient phoneClient,
+      final PhoneCatalogProperties properties) {
+    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.isTrue(properties.getPageSize() > 0, "'properties.pageSize' must be greater than zero");
+
+    this.phoneClient = phoneClient;
+    this.pageSize = properties.getPageSize();
+  }
+
+  @Override
+  public List<DaasPhoneDto> loadCatalog() {
+    final List<DaasPhoneDto> phonesCatalog = new ArrayList<>();
+    loadCatalog(phonesCatalog::add);
+    return phonesCatalog;
+  }
+
+  @Override
+  public void loadCatalog(final Consumer<DaasPhoneDto> consumer) {
+    Assert.notNull(consumer, "'consumer' must be not null");
+    try {
+      DaasPhoneCatalogDto page = this.phoneClient.getPhoneData(FIRST_PAGE, this.pageSize);
+      addPhones(consumer, page);
+      while (Objects.nonNull(page.getNext())) {
+        page = this.phoneClient.getPhoneDataAfter(page.getNext(), this.pageSize);
+        addPhones(consumer, page);
+      }
+    } catch (RestClientException e) {
+      final String errorMessage = "An error occurred while retrieving the phone catalog";
+      log.error(errorMessage, e);
+      throw new RetrievingPhoneException(errorMessage, e);
+    }
+  }
+
+  private static void addPhones(final Consumer<DaasPhoneDto> consumer,
+      final DaasPhoneCatalogDto catalog) {
+    if (Objects.nonNull(catalog.getPhones())) {
+      catalog.getPhones().forEach(consumer);
+    }
+  }
+
+}
@@ -0,0 +1,137 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyInProgressException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyReusedException;
+import es.microservices.tests.orders.services.IdempotencyStore;
+import es.microservices.tests.orders.services.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Creates each order once per idempotency key. The first request with a key creates the order,
+ * a retry while it is still running waits for it and a retry after it is answered with the same
+ * order, so neither fetches the catalog nor writes to daas-orders again. A request that fails is
+ * forgotten, its retries create the order again.
+ * <p>
+ * A retry waits for the first request for up to the join timeout, it is then answered with an
+ * {@link IdempotencyKeyInProgressException} and can be sent again.
+ * <p>
+ * Reusing a key for a different order is rejected. The requests are counted by result as the
+ * orders.idempotency.requests metric.
+ */
+@Slf4j
+public class IdempotentOrderServiceImpl implements OrderService {
+
+  private static final String REQUESTS_METRIC = "orders.idempotency.requests";
+
+  private final OrderService delegate;
+  private final IdempotencyStore store;
+  private final Duration joinTimeout;
+
+  private final Counter created;
+  private final Counter joined;
+  private final Counter replayed;
+
+  public IdempotentOrderServiceImpl(final OrderService delegate, final IdempotencyStore store,
+      final MeterRegistry meterRegistry) {
+    this(delegate, store, IdempotencyProperties.builder().build(), meterRegistry);
+  }
+
+  public IdempotentOrderServiceImpl(final OrderService delegate, final IdempotencyStore store,
+      final IdempotencyProperties properties, final MeterRegistry meterRegistry) {
+    Assert.notNull(delegate, "'delegate' must be not null");
+    Assert.notNull(store, "'store' must be not null");
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must be not null");
+    this.delegate = delegate;
+    this.store = store;
+    this.joinTimeout = properties.getJoinTimeout();
+    this.created =
+        Counter.builder(REQUESTS_METRIC).tag("result", "created").register(meterRegistry);
+    this.joined = Counter.builder(REQUESTS_METRIC).tag("result", "joined").register(meterRegistry);
+    this.replayed =
+        Counter.builder(REQUESTS_METRIC).tag("result", "replayed").register(meterRegistry);
+  }
+
+  @Override
+  public OrderDto createOrder(final NewOrderDto newOrder) {
+    return this.delegate.createOrder(newOrder);
+  }
+
+  @Override
+  public OrderDto createOrder(final String idempotencyKey, final NewOrderDto newOrder) {
+    Assert.hasText(idempotencyKey, "'idempotencyKey' must be not null or empty");
+    Assert.notNull(newOrder, "'newOrder' must be not null");
+
+    final IdempotencyStore.Entry entry = new IdempotencyStore.Entry(newOrder);
+    final IdempotencyStore.Entry kept = this.store.putIfAbsent(idempotencyKey, entry);
+    if (Objects.nonNull(kept)) {
+      return awaitKept(idempotencyKey, newOrder, kept);
+    }
+    this.created.increment();
+    try {
+      final OrderDto order = this.delegate.createOrder(newOrder);
+      entry.getOutcome().complete(order);
+      return order;
+    } catch (RuntimeException e) {
+      entry.getOutcome().completeExceptionally(e);
+      throw e;
+    } finally {
+      // an Error skips the catch, the entry must not stay pending for the retries all the same
+      if (!entry.getOutcome().isDone()) {
+        entry.getOutcome()
+            .completeExceptionally(new IllegalStateException("The order was not created"));
+      }
+      if (entry.getOutcome().isCompletedExceptionally()) {
+        this.store.remove(idempotencyKey, entry);
+      }
+    }
+  }
+
+  private OrderDto awaitKept(final String idempotencyKey, final NewOrderDto newOrder,
+      final IdempotencyStore.Entry kept) {
+    checkSameOrder(idempotencyKey, newOrder, kept);
+    (kept.getOutcome().isDone() ? this.replayed : this.joined).increment();
+    try {
+      return kept.getOutcome().get(this.joinTimeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw inProgress(idempotencyKey);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw inProgress(idempotencyKey);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+
+  static void checkSameOrder(final String idempotencyKey, final NewOrderDto newOrder,
+      final IdempotencyStore.Entry kept) {
+    if (!kept.getNewOrder().equals(newOrder)) {
+      final String errorMessage = "Error. The idempotency key " + idempotencyKey
+          + " was already used for a different order";
+      log.error(errorMessage);
+      throw new IdempotencyKeyReusedException(errorMessage);
+    }
+  }
+
+  static IdempotencyKeyInProgressException inProgress(final String idempotencyKey) {
+    final String errorMessage =
+        "Error. The order of the idempotency key " + idempotencyKey + " is still being created";
+    log.warn(errorMessage);
+    return new IdempotencyKeyInProgressException(errorMessage);
+  }
+
+}
@@ -0,0 +1,105 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.services.IdempotencyStore;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non blocking counterpart of {@link IdempotentOrderServiceImpl}, with the same store, the same
+ * join timeout and the same orders.idempotency.requests metric. A retry waits for the first
+ * request without holding a thread.
+ * <p>
+ * A first request cancelled before it is answered is forgotten as a failed one, the order may
+ * still have been created by then.
+ */
+public class IdempotentReactiveOrderServiceImpl implements ReactiveOrderService {
+
+  private static final String REQUESTS_METRIC = "orders.idempotency.requests";
+
+  private final ReactiveOrderService delegate;
+  private final IdempotencyStore store;
+  private final Duration joinTimeout;
+
+  private final Counter created;
+  private final Counter joined;
+  private final Counter replayed;
+
+  public IdempotentReactiveOrderServiceImpl(final ReactiveOrderService delegate,
+      final IdempotencyStore store, final IdempotencyProperties properties,
+      final MeterRegistry meterRegistry) {
+    Assert.notNull(delegate, "'delegate' must be not null");
+    Assert.notNull(store, "'store' must be not null");
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must be not null");
+    this.delegate = delegate;
+    this.store = store;
+    this.joinTimeout = properties.getJoinTimeout();
+    this.created =
+        Counter.builder(REQUESTS_METRIC).tag("result", "created").register(meterRegistry);
+    this.joined = Counter.builder(REQUESTS_METRIC).tag("result", "joined").register(meterRegistry);
+    this.replayed =
+        Counter.builder(REQUESTS_METRIC).tag("result", "replayed").register(meterRegistry);
+  }
+
+  @Override
+  public Mono<OrderDto> createOrder(final NewOrderDto newOrder) {
+    return this.delegate.createOrder(newOrder);
+  }
+
+  @Override
+  public Mono<OrderDto> createOrder(final String idempotencyKey, final NewOrderDto newOrder) {
+    Assert.hasText(idempotencyKey, "'idempotencyKey' must be not null or empty");
+    Assert.notNull(newOrder, "'newOrder' must be not null");
+
+    return Mono.defer(() -> {
+      final IdempotencyStore.Entry entry = new IdempotencyStore.Entry(newOrder);
+      final IdempotencyStore.Entry kept = this.store.putIfAbsent(idempotencyKey, entry);
+      if (Objects.nonNull(kept)) {
+        return awaitKept(idempotencyKey, newOrder, kept);
+      }
+      this.created.increment();
+      // @formatter:off
+      return this.delegate.createOrder(newOrder)
+          .doOnNext(order -> entry.getOutcome().complete(order))
+          .doOnError(e -> forget(idempotencyKey, entry, e))
+          // cancelled or empty, the entry must not stay pending for the retries
+          .doFinally(signal -> forget(idempotencyKey, entry,
+              new IllegalStateException("The order was not created")));
+      // @formatter:on
+    });
+  }
+
+  private Mono<OrderDto> awaitKept(final String idempotencyKey, final NewOrderDto newOrder,
+      final IdempotencyStore.Entry kept) {
+    IdempotentOrderServiceImpl.checkSameOrder(idempotencyKey, newOrder, kept);
+    (kept.getOutcome().isDone() ? this.replayed : this.joined).increment();
+    // a dependent stage, so a retry that gives up does not cancel the outcome the others wait for
+    // @formatter:off
+    return Mono.fromCompletionStage(kept.getOutcome().thenApply(Function.identity()))
+        .onErrorMap(CompletionException.class, Throwable::getCause)
+        .timeout(this.joinTimeout,
+            Mono.defer(() -> Mono.error(IdempotentOrderServiceImpl.inProgress(idempotencyKey))));
+    // @formatter:on
+  }
+
+  /**
+   * Fails the entry and forgets its key, unless the entry already has an outcome.
+   */
+  private void forget(final String idempotencyKey, final IdempotencyStore.Entry entry,
+      final Throwable error) {
+    if (entry.getOutcome().completeExceptionally(error)) {
+      this.store.remove(idempotencyKey, entry);
+    }
+  }
+
+}
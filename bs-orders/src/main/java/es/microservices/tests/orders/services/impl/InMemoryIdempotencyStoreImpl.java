@@ -0,0 +1,103 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.services.IdempotencyStore;
+
+/**
+ * Keeps the idempotency keys of this instance in memory, in the order they were first seen. A key
+ * is forgotten once its ttl elapses or when max keys newer ones arrive, whatever comes first.
+ * <p>
+ * Retries that land on another instance are not recognized, a store shared by every instance has
+ * to be provided as an {@link IdempotencyStore} bean for that.
+ */
+public class InMemoryIdempotencyStoreImpl implements IdempotencyStore {
+
+  private final Duration ttl;
+  private final int maxKeys;
+  private final Clock clock;
+  private final Map<String, Kept> entries;
+
+  public InMemoryIdempotencyStoreImpl(final IdempotencyProperties properties) {
+    this(properties, Clock.systemUTC());
+  }
+
+  InMemoryIdempotencyStoreImpl(final IdempotencyProperties properties, final Clock clock) {
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.notNull(clock, "'clock' must be not null");
+    this.ttl = properties.getTtl();
+    this.maxKeys = properties.getMaxKeys();
+    this.clock = clock;
+    this.entries = new LinkedHashMap<String, Kept>(16, 0.75f, false) {
+
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Kept> eldest) {
+        return size() > InMemoryIdempotencyStoreImpl.this.maxKeys;
+      }
+    };
+  }
+
+  @Override
+  public Entry putIfAbsent(final String key, final Entry entry) {
+    Assert.hasText(key, "'key' must be not null or empty");
+    Assert.notNull(entry, "'entry' must be not null");
+    final Instant now = this.clock.instant();
+    synchronized (this.entries) {
+      removeExpired(now);
+      final Kept kept = this.entries.get(key);
+      if (Objects.nonNull(kept)) {
+        return kept.entry;
+      }
+      this.entries.put(key, new Kept(entry, now.plus(this.ttl)));
+      return null;
+    }
+  }
+
+  @Override
+  public void remove(final String key, final Entry entry) {
+    Assert.hasText(key, "'key' must be not null or empty");
+    synchronized (this.entries) {
+      final Kept kept = this.entries.get(key);
+      if (Objects.nonNull(kept) && kept.entry == entry) {
+        this.entries.remove(key);
+      }
+    }
+  }
+
+  int size() {
+    synchronized (this.entries) {
+      return this.entries.size();
+    }
+  }
+
+  /**
+   * The keys are in insertion order and share the same ttl, so the expired ones are at the head.
+   */
+  private void removeExpired(final Instant now) {
+    final Iterator<Kept> iterator = this.entries.values().iterator();
+    while (iterator.hasNext() && !now.isBefore(iterator.next().expiresAt)) {
+      iterator.remove();
+    }
+  }
+
+  private static final class Kept {
+
+    private final Entry entry;
+    private final Instant expiresAt;
+
+    private Kept(final Entry entry, final Instant expiresAt) {
+      this.entry = entry;
+      this.expiresAt = expiresAt;
+    }
+  }
+
+}
@@ -0,0 +1,55 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.client.HttpStatusCodeException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.PhoneCatalogService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asks daas-phones only for the requested phones, so the cost of an order depends on the basket
+ * size and not on the catalog size. A basket with more distinct phones than daas-phones accepts in
+ * a lookup is asked for in several lookups, one after the other.
+ */
+@Slf4j
+public class LookupPhoneCatalogServiceImpl implements PhoneCatalogService {
+
+  private final PhoneClient phoneClient;
+
+  public LookupPhoneCatalogServiceImpl(final PhoneClient phoneClient) {
+    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    this.phoneClient = phoneClient;
+  }
+
+  @Override
+  public List<DaasPhoneDto> findPhones(final List<String> phoneIds) {
+    Assert.notNull(phoneIds, "'phoneIds' must be not null");
+    if (phoneIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    try {
+      final List<DaasPhoneDto> phones = new ArrayList<>();
+      for (List<String> lookup : PhonesToBuy.distinctIdLookups(phoneIds)) {
+        final DaasPhoneLookupResultDto result = this.phoneClient.getPhonesByIds(lookup);
+        if (Objects.nonNull(result) && !CollectionUtils.isEmpty(result.getPhones())) {
+          phones.addAll(result.getPhones());
+        }
+      }
+      return phones;
+    } catch (HttpStatusCodeException e) {
+      final String errorMessage = "An error occurred while retrieving the phone catalog";
+      log.error(errorMessage, e);
+      throw new RetrievingPhoneException(errorMessage, e);
+    }
+  }
+
+}
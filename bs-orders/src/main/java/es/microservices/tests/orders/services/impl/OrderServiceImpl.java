@@ -1,10 +1,9 @@
 package es.microservices.tests.orders.services.impl;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
-import org.apache.commons.lang.StringUtils;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 import org.springframework.web.client.HttpStatusCodeException;
@@ -15,30 +14,55 @@ import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
 import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
 import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
-import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
 import es.microservices.tests.orders.exceptions.CreatingOrderException;
 import es.microservices.tests.orders.exceptions.PhoneRequestedListEmptyException;
-import es.microservices.tests.orders.exceptions.PhoneRequestedNotFound;
-import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
 import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.PhoneCatalogService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Creates the orders in three stages timed on their own as the orders.create.stage metric, tagged
+ * by stage and outcome: catalog, resolving the phones to buy, transform, building the order sent to
+ * daas-orders, and persist, daas-orders storing it.
+ */
 @Slf4j
 public class OrderServiceImpl implements OrderService {
 
-  private static final Integer DEFAULT_PAGE_SIZE = Integer.valueOf(500);
-  private static final Integer DEFAULT_PAGE = Integer.valueOf(1);
+  public static final String STAGE_METRIC = "orders.create.stage";
+  public static final String STAGE_CATALOG = "catalog";
+  public static final String STAGE_TRANSFORM = "transform";
+  public static final String STAGE_PERSIST = "persist";
 
-  private final PhoneClient phoneClient;
+  private final PhoneCatalogService phoneCatalogService;
   private final OrderClient orderClient;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
 
+  /**
+   * Resolves the phones walking the whole catalog on every order.
+   */
   public OrderServiceImpl(final PhoneClient phoneClient, final OrderClient orderClient) {
-    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    this(createPhoneCatalogService(phoneClient), orderClient);
+  }
+
+  public OrderServiceImpl(final PhoneCatalogService phoneCatalogService,
+      final OrderClient orderClient) {
+    this(phoneCatalogService, orderClient, Metrics.globalRegistry);
+  }
+
+  public OrderServiceImpl(final PhoneCatalogService phoneCatalogService,
+      final OrderClient orderClient, final MeterRegistry meterRegistry) {
+    Assert.notNull(phoneCatalogService, "'phoneCatalogService' must be not null");
     Assert.notNull(orderClient, "'orderClient' must be not null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must be not null");
 
-    this.phoneClient = phoneClient;
+    this.phoneCatalogService = phoneCatalogService;
     this.orderClient = orderClient;
+    this.meterRegistry = meterRegistry;
   }
 
   @Override
@@ -52,11 +76,13 @@ public class OrderServiceImpl implements OrderService {
       throw new PhoneRequestedListEmptyException(errorMessage);
     }
 
-    final List<DaasPhoneDto> phonesToBuy = retrievePhonesToBuyData(phoneIds);
+    final List<DaasPhoneDto> phonesToBuy =
+        timeStage(STAGE_CATALOG, () -> retrievePhonesToBuyData(phoneIds));
     try {
-      final DaasNewOrderDto daasNewOrderDto =
-          TransformOrdersUtils.transformNewOrderDto(newOrder, phonesToBuy);
-      final DaasOrderDto daasOrderDto = orderClient.createOrder(daasNewOrderDto);
+      final DaasNewOrderDto daasNewOrderDto = timeStage(STAGE_TRANSFORM,
+          () -> TransformOrdersUtils.transformNewOrderDto(newOrder, phonesToBuy));
+      final DaasOrderDto daasOrderDto =
+          timeStage(STAGE_PERSIST, () -> orderClient.createOrder(daasNewOrderDto));
       return TransformOrdersUtils.transformOrderDto(daasOrderDto);
     } catch (HttpStatusCodeException e) {
       log.error(e.getMessage(), e);
@@ -64,63 +90,41 @@ public class OrderServiceImpl implements OrderService {
     }
   }
 
-  private List<DaasPhoneDto> retrievePhonesToBuyData(List<String> requestedPhoneIds) {
-    final List<DaasPhoneDto> catalog = getAllPhones();
-    final List<DaasPhoneDto> phonesToBuy =
-        catalog.stream().filter(phone -> requestedPhoneIds.contains(phone.getPhoneId()))
-            .collect(Collectors.toList());
-
-    if (phonesToBuy.size() != requestedPhoneIds.size()) {
-      final List<String> phonesToBuyIds = extractPhoneIds(phonesToBuy);
-      // @formatter:off
-      final List<String> phonesIdsNotFound = requestedPhoneIds.stream()
-          .filter(id -> !phonesToBuyIds.contains(id))
-          .collect(Collectors.toList());
-      // @formatter:on
-      final String errorMessage = createErrorMessage(phonesIdsNotFound);
-      log.error(errorMessage);
-      throw new PhoneRequestedNotFound(errorMessage);
-    }
-    return phonesToBuy;
+  private List<DaasPhoneDto> retrievePhonesToBuyData(final List<String> requestedPhoneIds) {
+    return PhonesToBuy.resolve(requestedPhoneIds,
+        this.phoneCatalogService.findPhones(PhonesToBuy.distinctIds(requestedPhoneIds)));
   }
 
-
-  private static String createErrorMessage(final List<String> phoneIdsNotFound) {
-    final StringBuilder sb = new StringBuilder(
-        "Cannot continue with order creation. The following phone identifiers have not been found: ");
-    phoneIdsNotFound.stream().forEach(id -> sb.append(id).append(", "));
-    return StringUtils.removeEnd(sb.toString(), ", ");
+  private <T> T timeStage(final String stage, final Supplier<T> call) {
+    final Timer.Sample sample = Timer.start(this.meterRegistry);
+    String outcome = "error";
+    try {
+      final T result = call.get();
+      outcome = "success";
+      return result;
+    } finally {
+      sample.stop(stageTimer(stage, outcome));
+    }
   }
 
-  private static List<String> extractPhoneIds(final List<DaasPhoneDto> phonesToBuy) {
-    return phonesToBuy.stream().map(DaasPhoneDto::getPhoneId).collect(Collectors.toList());
+  /**
+   * The timers of every stage and outcome are built and registered once, on their first order.
+   */
+  private Timer stageTimer(final String stage, final String outcome) {
+    // @formatter:off
+    return this.stageTimers.computeIfAbsent(stage + '.' + outcome,
+        key -> Timer.builder(STAGE_METRIC)
+            .description("Latency of the stages of the order creation")
+            .tag("stage", stage)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(this.meterRegistry));
+    // @formatter:on
   }
 
-  private List<DaasPhoneDto> getAllPhones() {
-    final List<DaasPhoneDto> phonesCatalog = new ArrayList<>();
-    int page = DEFAULT_PAGE.intValue();
-    long totalCount = 0;
-
-    try {
-      do {
-        final DaasPhoneCatalogDto catalog =
-            this.phoneClient.getPhoneData(page++, DEFAULT_PAGE_SIZE);
-        if (Objects.nonNull(catalog.getPhones()) && !catalog.getPhones().isEmpty()) {
-          phonesCatalog.addAll(catalog.getPhones());
-        }
-        totalCount = catalog.getTotalCount();
-      } while (totalCount > phonesCatalog.size());
-    } catch (HttpStatusCodeException e) {
-      final String errorMessage = "An error occurred while retrieving the phone catalog";
-      log.error(errorMessage, e);
-
-      if (phonesCatalog.isEmpty()) {
-        throw new RetrievingPhoneException("An error occurred while retrieving the phone catalog",
-            e);
-      }
-    }
-    return phonesCatalog;
+  private static PhoneCatalogService createPhoneCatalogService(final PhoneClient phoneClient) {
+    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    return new PhoneCatalogServiceImpl(new PhoneCatalogLoaderImpl(phoneClient));
   }
 
-
 }
@@ -0,0 +1,314 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+/**
+ * Immutable, compact view of the phone catalog holding only what pricing an order needs.
+ * <p>
+ * Phones are stored by slot in parallel arrays (identifier, interned name and primitive price) and
+ * an open addressing table maps every identifier to its slot, so each requested identifier is
+ * resolved in O(1) without keeping the full DTOs around. A new catalog version is a new instance,
+ * callers publish it by swapping the reference.
+ */
+public final class PhoneCatalogIndex {
+
+  public static final PhoneCatalogIndex EMPTY = of(Collections.emptyList());
+
+  private static final int NOT_FOUND = -1;
+
+  /** Holds slot + 1 for every used bucket, 0 for the empty ones. */
+  private final int[] table;
+  private final int mask;
+  private final String[] phoneIds;
+  private final String[] names;
+  private final double[] prices;
+
+  private PhoneCatalogIndex(final int[] table, final String[] phoneIds, final String[] names,
+      final double[] prices) {
+    this.table = table;
+    this.mask = table.length - 1;
+    this.phoneIds = phoneIds;
+    this.names = names;
+    this.prices = prices;
+  }
+
+  /**
+   * Builds the index from the catalog. When an identifier is repeated the first phone wins.
+   */
+  public static PhoneCatalogIndex of(final Collection<DaasPhoneDto> catalog) {
+    Assert.notNull(catalog, "'catalog' must be not null");
+    final Builder builder = builder(catalog.size());
+    catalog.forEach(builder::add);
+    return builder.build();
+  }
+
+  /**
+   * Returns a builder to index a catalog that is received phone by phone, so it never has to be
+   * held as a list.
+   */
+  public static Builder builder(final int expectedSize) {
+    Assert.isTrue(expectedSize >= 0, "'expectedSize' must be greater than or equal to zero");
+    return new Builder(expectedSize);
+  }
+
+  /**
+   * Returns a new index with the changes of the catalog applied: the upserted phones replace the
+   * phones with the same identifier or are added, the deleted ones are left out. The arrays and the
+   * table are copied and only the changed phones are hashed, so a refresh does not index the whole
+   * catalog again. This index is not modified.
+   */
+  public PhoneCatalogIndex withChanges(final Collection<DaasPhoneDto> upserts,
+      final Collection<String> deletedPhoneIds) {
+    Assert.notNull(upserts, "'upserts' must be not null");
+    Assert.notNull(deletedPhoneIds, "'deletedPhoneIds' must be not null");
+    if (upserts.isEmpty() && deletedPhoneIds.isEmpty()) {
+      return this;
+    }
+    final Builder builder = new Builder(this, upserts.size());
+    upserts.forEach(builder::put);
+    deletedPhoneIds.forEach(builder::remove);
+    return builder.build();
+  }
+
+  public int size() {
+    return this.phoneIds.length;
+  }
+
+  /**
+   * Returns the slot of the phone or -1 when the identifier is not in the catalog.
+   */
+  public int slotOf(final String phoneId) {
+    if (Objects.isNull(phoneId)) {
+      return NOT_FOUND;
+    }
+    int bucket = spread(phoneId.hashCode()) & this.mask;
+    int slot;
+    while ((slot = this.table[bucket]) != 0) {
+      if (this.phoneIds[slot - 1].equals(phoneId)) {
+        return slot - 1;
+      }
+      bucket = (bucket + 1) & this.mask;
+    }
+    return NOT_FOUND;
+  }
+
+  public String phoneId(final int slot) {
+    return this.phoneIds[slot];
+  }
+
+  public String name(final int slot) {
+    return this.names[slot];
+  }
+
+  public double price(final int slot) {
+    return this.prices[slot];
+  }
+
+  /**
+   * Returns the catalog phones among the requested identifiers, in request order and without
+   * duplicates. Only the identifier, the name and the price are filled in.
+   */
+  public List<DaasPhoneDto> findPhones(final List<String> requestedPhoneIds) {
+    Assert.notNull(requestedPhoneIds, "'requestedPhoneIds' must be not null");
+    final List<DaasPhoneDto> phones = new ArrayList<>(requestedPhoneIds.size());
+    final BitSet seen = new BitSet();
+    for (final String phoneId : requestedPhoneIds) {
+      final int slot = slotOf(phoneId);
+      if (slot != NOT_FOUND && !seen.get(slot)) {
+        seen.set(slot);
+        phones.add(toPhone(slot));
+      }
+    }
+    return phones;
+  }
+
+  private DaasPhoneDto toPhone(final int slot) {
+    final double price = this.prices[slot];
+    // @formatter:off
+    return DaasPhoneDto.builder()
+        .phoneId(this.phoneIds[slot])
+        .name(this.names[slot])
+        .price(Double.isNaN(price) ? null : Double.valueOf(price))
+        .build();
+    // @formatter:on
+  }
+
+  /**
+   * Adds phones one at a time, growing the arrays as needed. When an identifier is repeated the
+   * first phone wins. Not thread safe.
+   */
+  public static final class Builder {
+
+    private int[] table;
+    private int mask;
+    private String[] phoneIds;
+    private String[] names;
+    private double[] prices;
+    private int size;
+    private final Map<String, String> internedNames = new HashMap<>();
+
+    private Builder(final int expectedSize) {
+      this.table = new int[tableSizeFor(expectedSize)];
+      this.mask = this.table.length - 1;
+      this.phoneIds = new String[expectedSize];
+      this.names = new String[expectedSize];
+      this.prices = new double[expectedSize];
+    }
+
+    /**
+     * Starts from a copy of the index, with room for the given number of phones more.
+     */
+    private Builder(final PhoneCatalogIndex index, final int extraSize) {
+      final int capacity = index.size() + extraSize;
+      this.phoneIds = Arrays.copyOf(index.phoneIds, capacity);
+      this.names = Arrays.copyOf(index.names, capacity);
+      this.prices = Arrays.copyOf(index.prices, capacity);
+      this.size = index.size();
+      if (tableSizeFor(capacity) > index.table.length) {
+        rehash(tableSizeFor(capacity));
+      } else {
+        this.table = Arrays.copyOf(index.table, index.table.length);
+        this.mask = this.table.length - 1;
+      }
+    }
+
+    public Builder add(final DaasPhoneDto phone) {
+      Assert.notNull(phone, "'phone' must be not null");
+      return add(phone.getPhoneId(), phone.getName(),
+          Objects.isNull(phone.getPrice()) ? Double.NaN : phone.getPrice(), false);
+    }
+
+    /**
+     * Adds the phone or replaces the one with the same identifier.
+     */
+    private void put(final DaasPhoneDto phone) {
+      add(phone.getPhoneId(), phone.getName(),
+          Objects.isNull(phone.getPrice()) ? Double.NaN : phone.getPrice(), true);
+    }
+
+    private Builder add(final String phoneId, final String name, final double price,
+        final boolean replace) {
+      if (Objects.isNull(phoneId)) {
+        return this;
+      }
+      int bucket = findBucket(phoneId);
+      if (this.table[bucket] != 0) {
+        if (replace) {
+          set(this.table[bucket] - 1, phoneId, name, price);
+        }
+        return this;
+      }
+      if (this.size == this.phoneIds.length) {
+        grow();
+        bucket = findBucket(phoneId);
+      }
+      this.table[bucket] = this.size + 1;
+      set(this.size, phoneId, name, price);
+      this.size++;
+      return this;
+    }
+
+    /**
+     * The last phone moves to the slot of the removed one, so the arrays stay dense.
+     */
+    private void remove(final String phoneId) {
+      if (Objects.isNull(phoneId)) {
+        return;
+      }
+      final int bucket = findBucket(phoneId);
+      if (this.table[bucket] == 0) {
+        return;
+      }
+      final int slot = this.table[bucket] - 1;
+      clearBucket(bucket);
+      final int last = this.size - 1;
+      if (slot != last) {
+        this.table[findBucket(this.phoneIds[last])] = slot + 1;
+        set(slot, this.phoneIds[last], this.names[last], this.prices[last]);
+      }
+      this.phoneIds[last] = null;
+      this.names[last] = null;
+      this.size--;
+    }
+
+    public PhoneCatalogIndex build() {
+      return new PhoneCatalogIndex(Arrays.copyOf(this.table, this.table.length),
+          Arrays.copyOf(this.phoneIds, this.size), Arrays.copyOf(this.names, this.size),
+          Arrays.copyOf(this.prices, this.size));
+    }
+
+    private void set(final int slot, final String phoneId, final String name,
+        final double price) {
+      this.phoneIds[slot] = phoneId;
+      this.names[slot] =
+          Objects.isNull(name) ? null : this.internedNames.computeIfAbsent(name, value -> value);
+      this.prices[slot] = price;
+    }
+
+    private int findBucket(final String phoneId) {
+      int bucket = spread(phoneId.hashCode()) & this.mask;
+      while (this.table[bucket] != 0 && !this.phoneIds[this.table[bucket] - 1].equals(phoneId)) {
+        bucket = (bucket + 1) & this.mask;
+      }
+      return bucket;
+    }
+
+    /**
+     * Empties the bucket shifting back the phones probed after it, instead of leaving a marker, so
+     * no lookup stops early at the gap and the table never fills up with markers.
+     */
+    private void clearBucket(final int bucket) {
+      int gap = bucket;
+      int next = (bucket + 1) & this.mask;
+      while (this.table[next] != 0) {
+        final int home = spread(this.phoneIds[this.table[next] - 1].hashCode()) & this.mask;
+        // the phone can only move back to a gap that lies between its home bucket and its bucket
+        if (((next - home) & this.mask) >= ((next - gap) & this.mask)) {
+          this.table[gap] = this.table[next];
+          gap = next;
+        }
+        next = (next + 1) & this.mask;
+      }
+      this.table[gap] = 0;
+    }
+
+    private void grow() {
+      final int capacity = Math.max(16, this.phoneIds.length * 2);
+      this.phoneIds = Arrays.copyOf(this.phoneIds, capacity);
+      this.names = Arrays.copyOf(this.names, capacity);
+      this.prices = Arrays.copyOf(this.prices, capacity);
+      if (tableSizeFor(capacity) > this.table.length) {
+        rehash(tableSizeFor(capacity));
+      }
+    }
+
+    private void rehash(final int tableSize) {
+      this.table = new int[tableSize];
+      this.mask = this.table.length - 1;
+      for (int slot = 0; slot < this.size; slot++) {
+        this.table[findBucket(this.phoneIds[slot])] = slot + 1;
+      }
+    }
+  }
+
+  private static int tableSizeFor(final int expectedSize) {
+    // load factor below 0.5 keeps the probe sequences short
+    final int minimum = Math.max(2, expectedSize * 2);
+    return Integer.highestOneBit(minimum - 1) << 1;
+  }
+
+  private static int spread(final int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+}
@@ -0,0 +1,131 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the whole catalog. The first page tells how many phones there are, the remaining pages are
+ * then requested concurrently (at most parallelism at a time) and merged in page order.
+ * <p>
+ * The load is all or nothing: if any page fails a {@link RetrievingPhoneException} is thrown and
+ * the pages still pending are cancelled.
+ */
+@Slf4j
+public class PhoneCatalogLoaderImpl implements PhoneCatalogLoader, AutoCloseable {
+
+  private static final int FIRST_PAGE = 1;
+  private static final long IDLE_THREAD_KEEP_ALIVE_SECONDS = 30L;
+
+  private final PhoneClient phoneClient;
+  private final int pageSize;
+  private final ThreadPoolExecutor executor;
+
+  public PhoneCatalogLoaderImpl(final PhoneClient phoneClient) {
+    this(phoneClient, PhoneCatalogProperties.builder().build());
+  }
+
+  public PhoneCatalogLoaderImpl(final PhoneClient phoneClient,
+      final PhoneCatalogProperties properties) {
+    this(phoneClient, properties, createThreadFactory());
+  }
+
+  /**
+   * The thread factory creates the threads the pages are requested on, virtual threads can be
+   * used as well since the pool never grows beyond parallelism.
+   */
+  public PhoneCatalogLoaderImpl(final PhoneClient phoneClient,
+      final PhoneCatalogProperties properties, final ThreadFactory threadFactory) {
+    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    Assert.notNull(properties, "'properties' must be not null");
+    Assert.notNull(threadFactory, "'threadFactory' must be not null");
+    Assert.isTrue(properties.getPageSize() > 0, "'properties.pageSize' must be greater than zero");
+    Assert.isTrue(properties.getParallelism() > 0,
+        "'properties.parallelism' must be greater than zero");
+
+    this.phoneClient = phoneClient;
+    this.pageSize = properties.getPageSize();
+    this.executor = createExecutor(properties.getParallelism(), threadFactory);
+  }
+
+  @Override
+  public List<DaasPhoneDto> loadCatalog() {
+    final List<CompletableFuture<DaasPhoneCatalogDto>> pendingPages = new ArrayList<>();
+    try {
+      final DaasPhoneCatalogDto firstPage = this.phoneClient.getPhoneData(FIRST_PAGE, this.pageSize);
+      final int totalPages = calculateTotalPages(firstPage.getTotalCount());
+
+      for (int page = FIRST_PAGE + 1; page <= totalPages; page++) {
+        final int currentPage = page;
+        pendingPages.add(CompletableFuture.supplyAsync(
+            () -> this.phoneClient.getPhoneData(currentPage, this.pageSize), this.executor));
+      }
+
+      final List<DaasPhoneDto> phonesCatalog = new ArrayList<>();
+      addPhones(phonesCatalog, firstPage);
+      for (final CompletableFuture<DaasPhoneCatalogDto> pendingPage : pendingPages) {
+        addPhones(phonesCatalog, pendingPage.join());
+      }
+      return phonesCatalog;
+    } catch (RestClientException | CompletionException e) {
+      pendingPages.forEach(pendingPage -> pendingPage.cancel(true));
+      final String errorMessage = "An error occurred while retrieving the phone catalog";
+      log.error(errorMessage, e);
+      throw new RetrievingPhoneException(errorMessage, unwrap(e));
+    }
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  private int calculateTotalPages(final Long totalCount) {
+    final long count = Objects.isNull(totalCount) ? 0L : totalCount.longValue();
+    return (int) ((count + this.pageSize - 1) / this.pageSize);
+  }
+
+  private static void addPhones(final List<DaasPhoneDto> phonesCatalog,
+      final DaasPhoneCatalogDto catalog) {
+    if (Objects.nonNull(catalog.getPhones()) && !catalog.getPhones().isEmpty()) {
+      phonesCatalog.addAll(catalog.getPhones());
+    }
+  }
+
+  private static Throwable unwrap(final RuntimeException e) {
+    return e instanceof CompletionException && Objects.nonNull(e.getCause()) ? e.getCause() : e;
+  }
+
+  private static ThreadFactory createThreadFactory() {
+    final CustomizableThreadFactory threadFactory =
+        new CustomizableThreadFactory("phones-catalog-loader-");
+    threadFactory.setDaemon(true);
+    return threadFactory;
+  }
+
+  private static ThreadPoolExecutor createExecutor(final int parallelism,
+      final ThreadFactory threadFactory) {
+    final ThreadPoolExecutor executor = new ThreadPoolExecutor(parallelism, parallelism,
+        IDLE_THREAD_KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+        threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+}
@@ -0,0 +1,33 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import es.microservices.tests.orders.services.PhoneCatalogService;
+
+/**
+ * Loads the whole catalog on every call. Kept for comparison and as a fallback when the catalog
+ * cache is disabled.
+ */
+public class PhoneCatalogServiceImpl implements PhoneCatalogService {
+
+  private final PhoneCatalogLoader loader;
+
+  public PhoneCatalogServiceImpl(final PhoneCatalogLoader loader) {
+    Assert.notNull(loader, "'loader' must be not null");
+    this.loader = loader;
+  }
+
+  @Override
+  public List<DaasPhoneDto> findPhones(final List<String> phoneIds) {
+    Assert.notNull(phoneIds, "'phoneIds' must be not null");
+    // @formatter:off
+    return this.loader.loadCatalog().stream()
+        .filter(phone -> phoneIds.contains(phone.getPhoneId()))
+        .collect(Collectors.toList());
+    // @formatter:on
+  }
+
+}
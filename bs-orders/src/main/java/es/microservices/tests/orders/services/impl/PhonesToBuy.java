@@ -0,0 +1,72 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.util.Assert;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import es.microservices.tests.orders.exceptions.PhoneRequestedNotFound;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The basket of an order has a phone per requested identifier, so a phone requested twice is
+ * bought and charged twice, whatever service creates the order. The catalog is only asked once
+ * for every phone, in as many lookups as the daas-phones limit of identifiers per lookup takes.
+ */
+@Slf4j
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class PhonesToBuy {
+
+  static List<String> distinctIds(final List<String> requestedPhoneIds) {
+    Assert.notNull(requestedPhoneIds, "'requestedPhoneIds' must be not null");
+    return requestedPhoneIds.stream().distinct().collect(Collectors.toList());
+  }
+
+  /**
+   * Splits the distinct requested identifiers in the lookups daas-phones accepts.
+   */
+  static List<List<String>> distinctIdLookups(final List<String> requestedPhoneIds) {
+    final List<String> phoneIds = distinctIds(requestedPhoneIds);
+    final List<List<String>> lookups = new ArrayList<>();
+    for (int from = 0; from < phoneIds.size(); from += DaasPhoneLookupDto.MAX_PHONE_IDS) {
+      lookups.add(phoneIds.subList(from,
+          Math.min(from + DaasPhoneLookupDto.MAX_PHONE_IDS, phoneIds.size())));
+    }
+    return lookups;
+  }
+
+  /**
+   * Returns the phones found in the order they were requested, repeated as many times as they
+   * were requested, or fails when any of them has not been found.
+   */
+  static List<DaasPhoneDto> resolve(final List<String> requestedPhoneIds,
+      final Collection<DaasPhoneDto> phonesFound) {
+    Assert.notNull(requestedPhoneIds, "'requestedPhoneIds' must be not null");
+    Assert.notNull(phonesFound, "'phonesFound' must be not null");
+    // @formatter:off
+    final Map<String, DaasPhoneDto> phonesById = phonesFound.stream()
+        .collect(Collectors.toMap(DaasPhoneDto::getPhoneId, Function.identity(),
+            (first, second) -> first));
+    final List<String> phonesIdsNotFound = requestedPhoneIds.stream()
+        .filter(id -> !phonesById.containsKey(id))
+        .distinct()
+        .collect(Collectors.toList());
+    // @formatter:on
+
+    if (!phonesIdsNotFound.isEmpty()) {
+      final String errorMessage =
+          "Cannot continue with order creation. The following phone identifiers have not been found: "
+              + String.join(", ", phonesIdsNotFound);
+      log.error(errorMessage);
+      throw new PhoneRequestedNotFound(errorMessage);
+    }
+    return requestedPhoneIds.stream().map(phonesById::get).collect(Collectors.toList());
+  }
+
+}
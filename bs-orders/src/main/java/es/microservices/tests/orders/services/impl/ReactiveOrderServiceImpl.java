@@ -0,0 +1,82 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.List;
+import java.util.Objects;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import es.microservices.tests.orders.clients.ReactiveOrderClient;
+import es.microservices.tests.orders.clients.ReactivePhoneClient;
+import es.microservices.tests.orders.configurations.utils.TransformOrdersUtils;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import es.microservices.tests.orders.exceptions.PhoneRequestedListEmptyException;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non blocking counterpart of {@link OrderServiceImpl}. The phones are resolved with lookup calls,
+ * a single one unless the basket has more distinct phones than daas-phones accepts in a lookup,
+ * and no thread is held while daas-phones and daas-orders answer.
+ */
+@Slf4j
+public class ReactiveOrderServiceImpl implements ReactiveOrderService {
+
+  private final ReactivePhoneClient phoneClient;
+  private final ReactiveOrderClient orderClient;
+
+  public ReactiveOrderServiceImpl(final ReactivePhoneClient phoneClient,
+      final ReactiveOrderClient orderClient) {
+    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    Assert.notNull(orderClient, "'orderClient' must be not null");
+
+    this.phoneClient = phoneClient;
+    this.orderClient = orderClient;
+  }
+
+  @Override
+  public Mono<OrderDto> createOrder(final NewOrderDto newOrder) {
+    Assert.notNull(newOrder, "'newOrder' must be not null");
+    final List<String> phoneIds = newOrder.getPhoneIdListToBuy();
+
+    if (CollectionUtils.isEmpty(phoneIds)) {
+      final String errorMessage = "Error. The list of phone identifiers is empty";
+      log.error(errorMessage);
+      return Mono.error(new PhoneRequestedListEmptyException(errorMessage));
+    }
+
+    // @formatter:off
+    return retrievePhonesToBuyData(phoneIds)
+        .map(phonesToBuy -> TransformOrdersUtils.transformNewOrderDto(newOrder, phonesToBuy))
+        .flatMap(daasNewOrder -> this.orderClient.createOrder(daasNewOrder)
+            .onErrorMap(WebClientResponseException.class, e -> {
+              log.error(e.getMessage(), e);
+              return new CreatingOrderException("An error occurred creating the order", e);
+            }))
+        .map(TransformOrdersUtils::transformOrderDto);
+    // @formatter:on
+  }
+
+  private Mono<List<DaasPhoneDto>> retrievePhonesToBuyData(final List<String> requestedPhoneIds) {
+    // @formatter:off
+    return Flux.fromIterable(PhonesToBuy.distinctIdLookups(requestedPhoneIds))
+        .concatMap(this.phoneClient::getPhonesByIds)
+        .onErrorMap(WebClientResponseException.class, e -> {
+          final String errorMessage = "An error occurred while retrieving the phone catalog";
+          log.error(errorMessage, e);
+          return new RetrievingPhoneException(errorMessage, e);
+        })
+        .filter(result -> Objects.nonNull(result.getPhones()))
+        .flatMapIterable(DaasPhoneLookupResultDto::getPhones)
+        .collectList()
+        .map(phonesFound -> PhonesToBuy.resolve(requestedPhoneIds, phonesFound));
+    // @formatter:on
+  }
+
+}
@@ -0,0 +1,48 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.util.Assert;
+import org.springframework.web.client.RestClientException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the whole catalog with a single streamed request instead of pages. The phones are handed to
+ * the consumer while they are read, so a consumer that indexes them (see
+ * {@link CachedPhoneCatalogServiceImpl}) never holds a page or the catalog as a list.
+ */
+@Slf4j
+public class StreamingPhoneCatalogLoaderImpl implements PhoneCatalogLoader {
+
+  private final PhoneClient phoneClient;
+
+  public StreamingPhoneCatalogLoaderImpl(final PhoneClient phoneClient) {
+    Assert.notNull(phoneClient, "'phoneClient' must be not null");
+    this.phoneClient = phoneClient;
+  }
+
+  @Override
+  public List<DaasPhoneDto> loadCatalog() {
+    final List<DaasPhoneDto> phonesCatalog = new ArrayList<>();
+    loadCatalog(phonesCatalog::add);
+    return phonesCatalog;
+  }
+
+  @Override
+  public void loadCatalog(final Consumer<DaasPhoneDto> consumer) {
+    Assert.notNull(consumer, "'consumer' must be not null");
+    try {
+      this.phoneClient.streamPhones(consumer);
+    } catch (RestClientException e) {
+      final String errorMessage = "An error occurred while retrieving the phone catalog";
+      log.error(errorMessage, e);
+      throw new RetrievingPhoneException(errorMessage, e);
+    }
+  }
+
+}
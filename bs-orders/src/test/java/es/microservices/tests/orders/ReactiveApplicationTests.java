@@ -0,0 +1,29 @@
+package es.microservices.tests.orders;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import es.microservices.tests.orders.controllers.impl.ReactiveOrderControllerImpl;
+import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {"spring.main.web-application-type=reactive"})
+class ReactiveApplicationTests {
+
+  @Autowired
+  private ApplicationContext context;
+
+  @Test
+  void contextLoads_with_the_reactive_stack_only() {
+    assertTrue(this.context.getBeanNamesForType(ReactiveOrderService.class).length == 1);
+    assertTrue(this.context.getBeanNamesForType(ReactiveOrderControllerImpl.class).length == 1);
+    assertFalse(this.context.getBeanNamesForType(OrderService.class).length > 0);
+  }
+
+}
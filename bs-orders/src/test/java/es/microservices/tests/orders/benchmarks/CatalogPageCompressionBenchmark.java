@@ -0,0 +1,118 @@
+package es.microservices.tests.orders.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+/**
+ * CPU cost of gzipping a catalog page on the daas side and gunzipping it in bs-orders, per page
+ * size. The main method prints the bytes on the wire of every page size, plain and gzipped, once
+ * and outside of the measurements, and then runs the benchmarks with the JMH options it is given;
+ * together they help choosing the {@code server.compression.min-response-size} threshold.
+ * <p>
+ * Not part of the test suite. Run it with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *   es.microservices.tests.orders.benchmarks.CatalogPageCompressionBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogPageCompressionBenchmark {
+
+  @Param({"1", "10", "50", "100", "500"})
+  private int pageSize;
+
+  private byte[] plain;
+  private byte[] gzipped;
+
+  @Setup
+  public void setUp() throws IOException {
+    this.plain = createPage(this.pageSize);
+    this.gzipped = gzip(this.plain);
+  }
+
+  @Benchmark
+  public byte[] compress() throws IOException {
+    return gzip(this.plain);
+  }
+
+  @Benchmark
+  public byte[] decompress() throws IOException {
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(this.gzipped))) {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream(this.plain.length);
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) >= 0) {
+        out.write(buffer, 0, read);
+      }
+      return out.toByteArray();
+    }
+  }
+
+  private static byte[] createPage(final int pageSize) throws IOException {
+    final List<DaasPhoneDto> page = new ArrayList<>(pageSize);
+    for (int i = 0; i < pageSize; i++) {
+      // @formatter:off
+      page.add(DaasPhoneDto.builder()
+          .phoneId("5fd4b3d2c4a1e24f8c0b" + String.format("%04d", i))
+          .name("Phone model " + (i % 100))
+          .description("A phone description long enough to look like a real one, with a screen, "
+              + "a battery and a camera worth describing in a couple of sentences " + i)
+          .imageURL("https://images.example.com/catalog/phones/" + i + "/front-1024x768.png")
+          .price(100.0 + i)
+          .build());
+      // @formatter:on
+    }
+    return new ObjectMapper().writeValueAsBytes(page);
+  }
+
+  private static byte[] gzip(final byte[] bytes) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  public static void main(final String[] args)
+      throws IOException, CommandLineOptionException, RunnerException {
+    for (final int pageSize : new int[] {1, 10, 50, 100, 500}) {
+      final byte[] page = createPage(pageSize);
+      final int gzipped = gzip(page).length;
+      System.out.printf("pageSize=%d plain=%d bytes gzip=%d bytes (%.1f%%)%n", pageSize,
+          page.length, gzipped, 100.0 * gzipped / page.length);
+    }
+    new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+        .include(CatalogPageCompressionBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,106 @@
+package es.microservices.tests.orders.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.services.impl.PhoneCatalogIndex;
+
+/**
+ * Compares resolving the phones of a basket scanning the catalog list, as order creation used to
+ * do, against the {@link PhoneCatalogIndex}.
+ * <p>
+ * Not part of the test suite. Run it with:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main \
+ *   PhoneCatalogLookupBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PhoneCatalogLookupBenchmark {
+
+  private static final int BASKET_SIZE = 5;
+
+  @Param({"1000", "10000", "100000"})
+  private int catalogSize;
+
+  private List<DaasPhoneDto> catalog;
+  private PhoneCatalogIndex index;
+  private List<String> basket;
+
+  @Setup
+  public void setUp() {
+    this.catalog = new ArrayList<>(this.catalogSize);
+    for (int i = 0; i < this.catalogSize; i++) {
+      // @formatter:off
+      this.catalog.add(DaasPhoneDto.builder()
+          .phoneId("phone-" + i)
+          .name("Phone model " + (i % 100))
+          .description("A phone description long enough to look like a real one " + i)
+          .imageURL("http://images/phones/" + i + ".png")
+          .price(100.0 + i)
+          .build());
+      // @formatter:on
+    }
+    this.index = PhoneCatalogIndex.of(this.catalog);
+
+    final Random random = new Random(42);
+    this.basket = new ArrayList<>(BASKET_SIZE);
+    for (int i = 0; i < BASKET_SIZE; i++) {
+      this.basket.add("phone-" + random.nextInt(this.catalogSize));
+    }
+  }
+
+  @Benchmark
+  public List<String> listScan() {
+    final List<DaasPhoneDto> phonesToBuy = this.catalog.stream()
+        .filter(phone -> this.basket.contains(phone.getPhoneId())).collect(Collectors.toList());
+    return phonesToBuy.stream().map(DaasPhoneDto::getPhoneId).collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public List<DaasPhoneDto> indexLookup() {
+    return this.index.findPhones(this.basket);
+  }
+
+  @Benchmark
+  public double indexPriceOnly() {
+    double total = 0;
+    for (final String phoneId : this.basket) {
+      final int slot = this.index.slotOf(phoneId);
+      if (slot >= 0) {
+        total += this.index.price(slot);
+      }
+    }
+    return total;
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(PhoneCatalogLookupBenchmark.class.getSimpleName()).build())
+            .run();
+  }
+}
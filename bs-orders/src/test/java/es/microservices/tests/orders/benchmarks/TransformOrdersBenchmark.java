@@ -0,0 +1,98 @@
+package es.microservices.tests.orders.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import es.microservices.tests.orders.configurations.utils.TransformOrdersUtils;
+import es.microservices.tests.orders.dtos.CustomerDto;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+/**
+ * Transforms every order of bs-orders, per basket size: the new order and the phones found in the
+ * catalog to the order sent to daas-orders, and the order it answers back to the one returned.
+ * It lives with the other bs-orders benchmarks rather than in the benchmarks module, whose
+ * daas-orders classes share their package and names with the ones of bs-orders.
+ * <p>
+ * Not part of the test suite. Run it with the GC profiler to also compare the allocation rate:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main \
+ *   TransformOrdersBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransformOrdersBenchmark {
+
+  @Param({"1", "5", "10", "50", "100"})
+  private int basketSize;
+
+  private NewOrderDto newOrder;
+  private List<DaasPhoneDto> phonesToBuy;
+  private DaasOrderDto daasOrder;
+
+  @Setup
+  public void setUp() {
+    final NewOrderDto.NewOrderDtoBuilder builder = NewOrderDto.builder().customerData(CustomerDto
+        .builder().name("customerName").surname("customerSurname").email("email@email.com").build());
+    this.phonesToBuy = new ArrayList<>(this.basketSize);
+    for (int i = 0; i < this.basketSize; i++) {
+      final String phoneId = "5fd4b3d2c4a1e24f8c0b" + i;
+      builder.phoneIdToBuy(phoneId);
+      // @formatter:off
+      this.phonesToBuy.add(DaasPhoneDto.builder()
+          .phoneId(phoneId)
+          .name("Phone model " + i)
+          .description("A phone description long enough to look like a real one " + i)
+          .imageURL("https://images.example.com/catalog/phones/" + i + ".png")
+          .price(300.0)
+          .build());
+      // @formatter:on
+    }
+    this.newOrder = builder.build();
+    final DaasNewOrderDto daasNewOrder =
+        TransformOrdersUtils.transformNewOrderDto(this.newOrder, this.phonesToBuy);
+    this.daasOrder = DaasOrderDto.builder().orderId("6d2f4f0c-8c1e-4a55-9c8f-0c1d5e7b9a11")
+        .customerData(daasNewOrder.getCustomerData())
+        .phoneListToBuy(daasNewOrder.getPhoneListToBuy()).totalPrice(daasNewOrder.getTotalPrice())
+        .build();
+  }
+
+  @Benchmark
+  public DaasNewOrderDto transformNewOrder() {
+    return TransformOrdersUtils.transformNewOrderDto(this.newOrder, this.phonesToBuy);
+  }
+
+  @Benchmark
+  public OrderDto transformOrder() {
+    return TransformOrdersUtils.transformOrderDto(this.daasOrder);
+  }
+
+  public static void main(final String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(TransformOrdersBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,143 @@
+package es.microservices.tests.orders.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import es.microservices.tests.orders.dtos.orders.DaasCustomerDto;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasPhoneOrderDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+/**
+ * Encodes and decodes the DTOs exchanged with the daas services in JSON, as the clients used to,
+ * and in Smile, with object mappers built the way Spring builds the ones of its converters. The
+ * main method prints the encoded size of every DTO once, outside of the measurements, and then
+ * runs the benchmarks with the JMH options it is given.
+ * <p>
+ * Not part of the test suite. Run it with the GC profiler to also compare the allocation rate:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) \
+ *   es.microservices.tests.orders.benchmarks.WireCodecBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireCodecBenchmark {
+
+  @Param({"json", "smile"})
+  private String codec;
+
+  @Param({"catalogPage", "newOrder", "order"})
+  private String dto;
+
+  private Object value;
+  private byte[] encoded;
+  private ObjectWriter writer;
+  private ObjectReader reader;
+
+  @Setup
+  public void setUp() throws IOException {
+    final ObjectMapper objectMapper = createObjectMapper(this.codec);
+    this.value = createDto(this.dto);
+    this.writer = objectMapper.writerFor(this.value.getClass());
+    this.reader = objectMapper.readerFor(this.value.getClass());
+    this.encoded = this.writer.writeValueAsBytes(this.value);
+  }
+
+  @Benchmark
+  public byte[] encode() throws IOException {
+    return this.writer.writeValueAsBytes(this.value);
+  }
+
+  @Benchmark
+  public Object decode() throws IOException {
+    return this.reader.readValue(this.encoded);
+  }
+
+  private static ObjectMapper createObjectMapper(final String codec) {
+    return "smile".equals(codec) ? Jackson2ObjectMapperBuilder.smile().build()
+        : Jackson2ObjectMapperBuilder.json().build();
+  }
+
+  private static Object createDto(final String dto) {
+    switch (dto) {
+      case "newOrder":
+        return DaasNewOrderDto.builder().customerData(customer()).phoneListToBuy(basket())
+            .totalPrice(1500.0).build();
+      case "order":
+        return DaasOrderDto.builder().orderId("6d2f4f0c-8c1e-4a55-9c8f-0c1d5e7b9a11")
+            .customerData(customer()).phoneListToBuy(basket()).totalPrice(1500.0).build();
+      default:
+        final List<DaasPhoneDto> phones = new ArrayList<>(500);
+        for (int i = 0; i < 500; i++) {
+          // @formatter:off
+          phones.add(DaasPhoneDto.builder()
+              .phoneId("5fd4b3d2c4a1e24f8c0b" + String.format("%04d", i))
+              .name("Phone model " + (i % 100))
+              .description("A phone description long enough to look like a real one " + i)
+              .imageURL("https://images.example.com/catalog/phones/" + i + ".png")
+              .price(100.0 + i)
+              .build());
+          // @formatter:on
+        }
+        return DaasPhoneCatalogDto.builder().phones(phones).page(1).pageSize(500)
+            .totalCount(10000L).build();
+    }
+  }
+
+  private static DaasCustomerDto customer() {
+    return DaasCustomerDto.builder().name("customerName").surname("customerSurname")
+        .email("email@email.com").build();
+  }
+
+  private static List<DaasPhoneOrderDto> basket() {
+    final List<DaasPhoneOrderDto> basket = new ArrayList<>(5);
+    for (int i = 0; i < 5; i++) {
+      basket.add(DaasPhoneOrderDto.builder().phoneId("5fd4b3d2c4a1e24f8c0b" + i)
+          .name("Phone model " + i).price(300.0).build());
+    }
+    return basket;
+  }
+
+  public static void main(final String[] args)
+      throws IOException, CommandLineOptionException, RunnerException {
+    for (final String dto : Arrays.asList("catalogPage", "newOrder", "order")) {
+      for (final String codec : Arrays.asList("json", "smile")) {
+        System.out.printf("%s %s=%d bytes%n", dto, codec,
+            createObjectMapper(codec).writeValueAsBytes(createDto(dto)).length);
+      }
+    }
+    new Runner(new OptionsBuilder().parent(new CommandLineOptions(args))
+        .include(WireCodecBenchmark.class.getSimpleName()).build()).run();
+  }
+}
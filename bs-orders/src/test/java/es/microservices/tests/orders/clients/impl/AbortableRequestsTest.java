@@ -0,0 +1,54 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.jupiter.api.Test;
+
+class AbortableRequestsTest {
+
+  @Test
+  void abort_aborts_the_request_of_the_read() {
+    final AbortableRequests.Handle handle = new AbortableRequests.Handle();
+    final HttpUriRequest request = mock(HttpUriRequest.class);
+
+    final String result = AbortableRequests.runWith(handle, () -> {
+      AbortableRequests.register(request);
+      return "result";
+    });
+    handle.abort();
+
+    assertEquals("result", result);
+    verify(request, times(1)).abort();
+  }
+
+  @Test
+  void register_aborts_the_requests_of_an_aborted_read() {
+    final AbortableRequests.Handle handle = new AbortableRequests.Handle();
+    final HttpUriRequest request = mock(HttpUriRequest.class);
+    handle.abort();
+
+    AbortableRequests.runWith(handle, () -> {
+      AbortableRequests.register(request);
+      return null;
+    });
+
+    verify(request, times(1)).abort();
+  }
+
+  @Test
+  void register_keeps_nothing_outside_a_read() {
+    final AbortableRequests.Handle handle = new AbortableRequests.Handle();
+    final HttpUriRequest request = mock(HttpUriRequest.class);
+    AbortableRequests.runWith(handle, () -> null);
+
+    AbortableRequests.register(request);
+    handle.abort();
+
+    verify(request, never()).abort();
+  }
+
+}
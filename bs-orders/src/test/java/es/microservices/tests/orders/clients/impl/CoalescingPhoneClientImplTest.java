@@ -0,0 +1,125 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneCatalogDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CoalescingPhoneClientImplTest {
+
+  private PhoneClient delegate;
+  private MeterRegistry meterRegistry;
+  private CoalescingPhoneClientImpl client;
+  private CountDownLatch release;
+
+  private final DaasPhoneCatalogDto catalog = createDaasPhoneCatalogDto(1, 10, 1L,
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0));
+
+  @BeforeEach
+  public void beforeEach() {
+    this.delegate = mock(PhoneClient.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.client = new CoalescingPhoneClientImpl(this.delegate, this.meterRegistry);
+    this.release = new CountDownLatch(1);
+  }
+
+  @Test
+  void delegate_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new CoalescingPhoneClientImpl(null, this.meterRegistry);
+    });
+
+    final String expectedMessage = "'delegate' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void identical_reads_in_flight_share_one_request() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      this.release.await(5, TimeUnit.SECONDS);
+      return this.catalog;
+    }).when(this.delegate).getPhoneData(1, 10);
+
+    final CompletableFuture<DaasPhoneCatalogDto> first =
+        CompletableFuture.supplyAsync(() -> this.client.getPhoneData(1, 10));
+    started.await(5, TimeUnit.SECONDS);
+    final CompletableFuture<DaasPhoneCatalogDto> second =
+        CompletableFuture.supplyAsync(() -> this.client.getPhoneData(1, 10));
+    awaitCoalesced(1.0);
+    this.release.countDown();
+
+    assertSame(this.catalog, first.get(5, TimeUnit.SECONDS));
+    assertSame(this.catalog, second.get(5, TimeUnit.SECONDS));
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+    assertEquals(0.0, this.meterRegistry.get("phones.client.in-flight").gauge().value());
+  }
+
+  @Test
+  void errors_reach_every_waiter() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final HttpServerErrorException error =
+        new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+    doAnswer(invocation -> {
+      started.countDown();
+      this.release.await(5, TimeUnit.SECONDS);
+      throw error;
+    }).when(this.delegate).getPhoneData(1, 10);
+
+    final CompletableFuture<DaasPhoneCatalogDto> first =
+        CompletableFuture.supplyAsync(() -> this.client.getPhoneData(1, 10));
+    started.await(5, TimeUnit.SECONDS);
+    final CompletableFuture<DaasPhoneCatalogDto> second =
+        CompletableFuture.supplyAsync(() -> this.client.getPhoneData(1, 10));
+    awaitCoalesced(1.0);
+    this.release.countDown();
+
+    assertSame(error, assertThrows(ExecutionException.class, first::get).getCause());
+    assertSame(error, assertThrows(ExecutionException.class, second::get).getCause());
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+  }
+
+  @Test
+  void different_reads_are_not_coalesced() {
+    doReturn(this.catalog).when(this.delegate).getPhoneData(1, 10);
+    doReturn(this.catalog).when(this.delegate).getPhoneData(2, 10);
+
+    this.client.getPhoneData(1, 10);
+    this.client.getPhoneData(2, 10);
+    this.client.getPhoneData(1, 10);
+
+    verify(this.delegate, times(2)).getPhoneData(1, 10);
+    verify(this.delegate, times(1)).getPhoneData(2, 10);
+    assertEquals(0.0, this.meterRegistry.get("phones.client.coalesced").counter().count());
+  }
+
+  private void awaitCoalesced(final double waiters) throws InterruptedException {
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (this.meterRegistry.get("phones.client.coalesced").counter().count() < waiters
+        && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+  }
+
+}
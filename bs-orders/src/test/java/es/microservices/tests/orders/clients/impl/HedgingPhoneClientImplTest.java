@@ -0,0 +1,258 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneCatalogDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.CurrentTraceContext.Scope;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.propagation.TraceContext;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.HedgingProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class HedgingPhoneClientImplTest {
+
+  private PhoneClient delegate;
+  private MeterRegistry meterRegistry;
+  private HedgingPhoneClientImpl client;
+  private CountDownLatch slowReadInterrupted;
+
+  private final DaasPhoneCatalogDto catalog = createDaasPhoneCatalogDto(1, 10, 1L,
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0));
+  private final DaasPhoneCatalogDto hedgedCatalog = createDaasPhoneCatalogDto(1, 10, 1L,
+      createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0));
+
+  @BeforeEach
+  public void beforeEach() {
+    this.delegate = mock(PhoneClient.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.slowReadInterrupted = new CountDownLatch(1);
+    this.client = createClient(0.1);
+  }
+
+  @AfterEach
+  public void afterEach() {
+    this.client.close();
+  }
+
+  @Test
+  void delegate_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new HedgingPhoneClientImpl(null, HedgingProperties.builder().build(), this.meterRegistry);
+    });
+
+    final String expectedMessage = "'delegate' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void maxConcurrentReads_isNotPositive() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new HedgingPhoneClientImpl(this.delegate, HedgingProperties.builder().build(), 0,
+          this.meterRegistry, ThreadLocalCurrentTraceContext.create());
+    });
+
+    final String expectedMessage = "'maxConcurrentReads' must be greater than zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void fast_reads_are_not_hedged() {
+    doReturn(this.catalog).when(this.delegate).getPhoneData(1, 10);
+
+    assertSame(this.catalog, this.client.getPhoneData(1, 10));
+
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+    assertEquals(0.0, this.meterRegistry.get("phones.client.hedges.issued").counter().count());
+  }
+
+  @Test
+  void slow_reads_are_hedged_and_the_first_answer_wins() throws InterruptedException {
+    slowThenFast();
+
+    assertSame(this.hedgedCatalog, this.client.getPhoneData(1, 10));
+
+    verify(this.delegate, times(2)).getPhoneData(1, 10);
+    assertEquals(1.0, this.meterRegistry.get("phones.client.hedges.issued").counter().count());
+    assertEquals(1.0, this.meterRegistry.get("phones.client.hedges.won").counter().count());
+    assertTrue(this.slowReadInterrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void losing_read_has_its_request_aborted() throws InterruptedException {
+    final HttpUriRequest request = mock(HttpUriRequest.class);
+    final CountDownLatch aborted = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      aborted.countDown();
+      return null;
+    }).when(request).abort();
+    doAnswer(invocation -> {
+      AbortableRequests.register(request);
+      aborted.await(5, TimeUnit.SECONDS);
+      return this.catalog;
+    }).doReturn(this.hedgedCatalog).when(this.delegate).getPhoneData(1, 10);
+
+    assertSame(this.hedgedCatalog, this.client.getPhoneData(1, 10));
+
+    assertTrue(aborted.await(5, TimeUnit.SECONDS));
+    verify(request, times(1)).abort();
+  }
+
+  @Test
+  void slow_reads_are_not_hedged_without_a_free_thread() {
+    this.client.close();
+    this.client = new HedgingPhoneClientImpl(this.delegate, createProperties(1.0), 1,
+        this.meterRegistry, ThreadLocalCurrentTraceContext.create());
+    doAnswer(invocation -> {
+      Thread.sleep(100);
+      return this.catalog;
+    }).when(this.delegate).getPhoneData(1, 10);
+
+    assertSame(this.catalog, this.client.getPhoneData(1, 10));
+
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+    assertEquals(0.0, this.meterRegistry.get("phones.client.hedges.issued").counter().count());
+    assertEquals(1.0, this.meterRegistry.get("phones.client.hedges.rejected").counter().count());
+  }
+
+  @Test
+  void slow_reads_are_not_hedged_over_budget() {
+    this.client.close();
+    this.client = createClient(0.0);
+    doAnswer(invocation -> {
+      Thread.sleep(100);
+      return this.catalog;
+    }).when(this.delegate).getPhoneData(1, 10);
+
+    assertSame(this.catalog, this.client.getPhoneData(1, 10));
+
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+    assertEquals(1.0,
+        this.meterRegistry.get("phones.client.hedges.over-budget").counter().count());
+  }
+
+  @Test
+  void failed_hedge_waits_for_the_read() {
+    doAnswer(invocation -> {
+      Thread.sleep(100);
+      return this.catalog;
+    }).doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)).when(this.delegate)
+        .getPhoneData(1, 10);
+
+    assertSame(this.catalog, this.client.getPhoneData(1, 10));
+
+    assertEquals(1.0, this.meterRegistry.get("phones.client.hedges.issued").counter().count());
+    assertEquals(0.0, this.meterRegistry.get("phones.client.hedges.won").counter().count());
+  }
+
+  @Test
+  void failed_reads_are_not_hedged() {
+    doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE)).when(this.delegate)
+        .getPhoneData(1, 10);
+
+    assertThrows(HttpServerErrorException.class, () -> {
+      this.client.getPhoneData(1, 10);
+    });
+
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+  }
+
+  @Test
+  void delay_follows_the_recent_latencies() {
+    assertEquals(Duration.ofMillis(20).toNanos(), this.client.delayNanos());
+
+    doReturn(this.catalog).when(this.delegate).getPhoneData(1, 10);
+    for (int i = 0; i < 20; i++) {
+      this.client.getPhoneData(1, 10);
+    }
+
+    final long delay = this.client.delayNanos();
+    assertTrue(delay >= Duration.ofMillis(1).toNanos());
+    assertTrue(delay < Duration.ofMillis(20).toNanos());
+  }
+
+  @Test
+  void reads_and_hedges_carry_the_trace_context_and_the_mdc_of_the_caller() {
+    final CurrentTraceContext currentTraceContext = ThreadLocalCurrentTraceContext.create();
+    final TraceContext traceContext = TraceContext.newBuilder().traceId(1L).spanId(2L).build();
+    final List<TraceContext> traceContexts = new CopyOnWriteArrayList<>();
+    final List<String> orderIds = new CopyOnWriteArrayList<>();
+    doAnswer(invocation -> {
+      traceContexts.add(currentTraceContext.get());
+      orderIds.add(MDC.get("orderId"));
+      if (traceContexts.size() == 1) {
+        Thread.sleep(100);
+      }
+      return this.catalog;
+    }).when(this.delegate).getPhoneData(1, 10);
+    this.client.close();
+    this.client = new HedgingPhoneClientImpl(this.delegate, createProperties(1.0), 2,
+        this.meterRegistry, currentTraceContext);
+
+    MDC.put("orderId", "orderId1");
+    try (Scope scope = currentTraceContext.newScope(traceContext)) {
+      this.client.getPhoneData(1, 10);
+    } finally {
+      MDC.remove("orderId");
+    }
+
+    assertEquals(2, traceContexts.size());
+    traceContexts.forEach(context -> assertEquals(traceContext, context));
+    orderIds.forEach(orderId -> assertEquals("orderId1", orderId));
+  }
+
+  private void slowThenFast() {
+    doAnswer(invocation -> {
+      try {
+        Thread.sleep(5000);
+      } catch (InterruptedException e) {
+        this.slowReadInterrupted.countDown();
+      }
+      return this.catalog;
+    }).doReturn(this.hedgedCatalog).when(this.delegate).getPhoneData(1, 10);
+  }
+
+  private HedgingPhoneClientImpl createClient(final double budget) {
+    return new HedgingPhoneClientImpl(this.delegate, createProperties(budget), this.meterRegistry);
+  }
+
+  private static HedgingProperties createProperties(final double budget) {
+    // @formatter:off
+    return HedgingProperties.builder()
+        .enabled(true)
+        .minDelay(Duration.ofMillis(1))
+        .maxDelay(Duration.ofMillis(20))
+        .budget(budget)
+        .build();
+    // @formatter:on
+  }
+
+}
@@ -0,0 +1,48 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+class LatencyPercentileTest {
+
+  @Test
+  void percentile_isInvalid() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new LatencyPercentile(0.0, 100);
+    });
+
+    final String expectedMessage =
+        "'percentile' must be greater than zero and not greater than one";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void unknown_until_enough_latencies_are_recorded() {
+    final LatencyPercentile latency = new LatencyPercentile(0.95, 100);
+    for (int i = 1; i < 20; i++) {
+      latency.record(i);
+    }
+    assertEquals(LatencyPercentile.UNKNOWN, latency.nanos());
+
+    latency.record(20);
+    assertEquals(19L, latency.nanos());
+  }
+
+  @Test
+  void only_the_last_latencies_count() {
+    final LatencyPercentile latency = new LatencyPercentile(0.5, 32);
+    for (int i = 0; i < 32; i++) {
+      latency.record(1000L);
+    }
+    assertEquals(1000L, latency.nanos());
+
+    for (int i = 0; i < 32; i++) {
+      latency.record(10L);
+    }
+    assertEquals(10L, latency.nanos());
+  }
+
+}
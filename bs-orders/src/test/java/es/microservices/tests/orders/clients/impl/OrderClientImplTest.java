@@ -17,6 +17,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.net.HttpHeaders;
 import es.microservices.tests.orders.clients.OrderClient;
 import es.microservices.tests.orders.configurations.properties.OrderClientProperties;
@@ -27,6 +29,7 @@ import es.microservices.tests.orders.dtos.orders.DaasPhoneOrderDto;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
 
 class OrderClientImplTest {
 
@@ -205,6 +208,30 @@ class OrderClientImplTest {
 
   }
 
+  @Test
+  void call_sends_the_new_order_in_smile() throws Exception {
+    final DaasPhoneOrderDto phone = createPhoneOrderDto("phoneId", "phoneName", 100.0);
+    final DaasNewOrderDto newOrderDto =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", 100.0, phone);
+    final DaasOrderDto expectedResponse = createOrderDto(UUID.randomUUID().toString(),
+        "customerName", "customerSurname", "email@email.com", 100.0, phone);
+    final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, WireFormats.APPLICATION_SMILE_VALUE)
+        .setBody(new Buffer().write(smileMapper.writeValueAsBytes(expectedResponse)))
+        .setResponseCode(HttpStatus.CREATED.value()));
+
+    assertEquals(expectedResponse, this.client.createOrder(newOrderDto));
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    assertions(recordedRequest);
+    Assertions.assertEquals(WireFormats.APPLICATION_SMILE_VALUE,
+        recordedRequest.getHeader(HttpHeaders.CONTENT_TYPE));
+    Assertions.assertEquals(newOrderDto,
+        smileMapper.readValue(recordedRequest.getBody().readByteArray(), DaasNewOrderDto.class));
+  }
+
   private static String createBodyResponse(final String orderId, final String customerName,
       final String customerSurname, final String customerEmail, final String phoneId,
       final String phoneName, final Double phonePrice, final Double totalPrice) {
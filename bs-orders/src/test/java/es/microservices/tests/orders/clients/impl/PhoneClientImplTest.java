@@ -4,8 +4,10 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
@@ -17,14 +19,22 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.google.common.net.HttpHeaders;
 import es.microservices.tests.orders.clients.PhoneClient;
 import es.microservices.tests.orders.configurations.properties.PhoneClientProperties;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
 
 
 
@@ -33,6 +43,8 @@ class PhoneClientImplTest {
   private static final Integer DEFAULT_PAGE_SIZE = Integer.valueOf(10);
   private static final Integer DEFAULT_PAGE_NUMBER = Integer.valueOf(1);
 
+  private static final ObjectMapper SMILE_MAPPER = new ObjectMapper(new SmileFactory());
+
   private static MockWebServer mockBackEnd;
 
   private PhoneClient client;
@@ -224,6 +236,281 @@ class PhoneClientImplTest {
 
   }
 
+  @Test
+  void getPhoneDataAfter_cursor_isEmpty_must_throw_IllegalArgumentException() {
+    Exception exception =
+        assertThrows(IllegalArgumentException.class, () -> this.client.getPhoneDataAfter("", 10));
+
+    final String expectedMessage = "'cursor' must not be null or empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void getPhoneDataAfter_return_200_status_code() throws InterruptedException {
+    final DaasPhoneDto phone =
+        createPhoneDto("phoneId", "phoneName", 100.99, "phoneDescription", "phoneImageURL");
+    // @formatter:off
+    final String body = "{\"phones\": [{\"phoneId\": \"phoneId\", \"name\": \"phoneName\", "
+        + "\"description\": \"phoneDescription\", \"price\": 100.99, "
+        + "\"imageURL\": \"phoneImageURL\"}], \"pageSize\": 1, \"next\": \"aWQ6cGhvbmVJZA\"}";
+    // @formatter:on
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    final DaasPhoneCatalogDto response = this.client.getPhoneDataAfter("aWQ6cGhvbmVJZDA", 1);
+    assertNotNull(response);
+    assertEquals(Arrays.asList(phone), response.getPhones());
+    assertEquals("aWQ6cGhvbmVJZA", response.getNext());
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    Assertions.assertEquals("GET", recordedRequest.getMethod());
+    Assertions.assertEquals("/phones?cursor=aWQ6cGhvbmVJZDA&pageSize=1",
+        recordedRequest.getPath());
+  }
+
+  @Test
+  void getPhoneChanges_since_isNegative_must_throw_IllegalArgumentException() {
+    Exception exception =
+        assertThrows(IllegalArgumentException.class, () -> this.client.getPhoneChanges(-1L));
+
+    final String expectedMessage = "'since' must be greater than or equal to zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void getPhoneChanges_return_200_status_code() throws InterruptedException {
+    final DaasPhoneDto phone =
+        createPhoneDto("phoneId", "phoneName", 100.99, "phoneDescription", "phoneImageURL");
+    // @formatter:off
+    final String body = "{\"version\": 12, \"upserts\": [{\"phoneId\": \"phoneId\", "
+        + "\"name\": \"phoneName\", \"description\": \"phoneDescription\", \"price\": 100.99, "
+        + "\"imageURL\": \"phoneImageURL\"}], \"deletedPhoneIds\": [\"deletedPhoneId\"]}";
+    // @formatter:on
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    final DaasPhoneChangesDto response = this.client.getPhoneChanges(10L);
+    assertNotNull(response);
+    assertEquals(12L, response.getVersion());
+    assertEquals(Arrays.asList(phone), response.getUpserts());
+    assertEquals(Arrays.asList("deletedPhoneId"), response.getDeletedPhoneIds());
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    Assertions.assertEquals("GET", recordedRequest.getMethod());
+    Assertions.assertEquals("/phones/changes?since=10", recordedRequest.getPath());
+  }
+
+  @Test
+  void getPhoneChanges_without_since_asks_only_for_the_current_version()
+      throws InterruptedException {
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+        .setBody("{\"version\": 12, \"upserts\": [], \"deletedPhoneIds\": []}")
+        .setResponseCode(HttpStatus.OK.value()));
+
+    assertEquals(12L, this.client.getPhoneChanges(null).getVersion());
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    Assertions.assertEquals("/phones/changes", recordedRequest.getPath());
+  }
+
+
+  @Test
+  void getPhoneData_revalidates_the_page_and_serves_it_again_when_not_modified()
+      throws InterruptedException {
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final PhoneClient revalidatingClient = new PhoneClientImpl(this.restTemplate,
+        this.clientConfig, new ObjectMapper(), meterRegistry);
+    final String eTag = "W/\"5d41402abc4b2a76b9719d911017c592\"";
+    // @formatter:off
+    final String body = "{\"phones\": [{\"phoneId\": \"phoneId\", \"name\": \"phoneName\", "
+        + "\"description\": \"phoneDescription\", \"price\": 100.99, "
+        + "\"imageURL\": \"phoneImageURL\"}], \"pageSize\": 1, \"page\": 1}";
+    // @formatter:on
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setHeader(HttpHeaders.ETAG, eTag)
+        .setBody(body).setResponseCode(HttpStatus.OK.value()));
+    mockBackEnd.enqueue(new MockResponse().setHeader(HttpHeaders.ETAG, eTag)
+        .setResponseCode(HttpStatus.NOT_MODIFIED.value()));
+
+    final DaasPhoneCatalogDto first = revalidatingClient.getPhoneData(1, 1);
+    final DaasPhoneCatalogDto second = revalidatingClient.getPhoneData(1, 1);
+
+    assertEquals(first, second);
+    assertEquals(1, second.getPhones().size());
+    Assertions.assertNull(mockBackEnd.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+    Assertions.assertEquals(eTag, mockBackEnd.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+    assertEquals(1.0, etagRequests(meterRegistry, "unconditional"));
+    assertEquals(1.0, etagRequests(meterRegistry, "not-modified"));
+  }
+
+  @Test
+  void getPhoneData_takes_the_new_page_when_it_was_modified() throws InterruptedException {
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final PhoneClient revalidatingClient = new PhoneClientImpl(this.restTemplate,
+        this.clientConfig, new ObjectMapper(), meterRegistry);
+    // @formatter:off
+    final String body = "{\"phones\": [{\"phoneId\": \"phoneId\", \"name\": \"phoneName\", "
+        + "\"description\": \"phoneDescription\", \"price\": %s, "
+        + "\"imageURL\": \"phoneImageURL\"}], \"pageSize\": 1, \"page\": 1}";
+    // @formatter:on
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+        .setHeader(HttpHeaders.ETAG, "W/\"1\"").setBody(String.format(body, "100.99"))
+        .setResponseCode(HttpStatus.OK.value()));
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON)
+        .setHeader(HttpHeaders.ETAG, "W/\"2\"").setBody(String.format(body, "90.5"))
+        .setResponseCode(HttpStatus.OK.value()));
+
+    revalidatingClient.getPhoneData(1, 1);
+    final DaasPhoneCatalogDto modified = revalidatingClient.getPhoneData(1, 1);
+
+    assertEquals(90.5, modified.getPhones().get(0).getPrice());
+    mockBackEnd.takeRequest();
+    Assertions.assertEquals("W/\"1\"", mockBackEnd.takeRequest().getHeader(HttpHeaders.IF_NONE_MATCH));
+    assertEquals(1.0, etagRequests(meterRegistry, "modified"));
+  }
+
+  @Test
+  void getPhonesByIds_phoneIds_isEmpty_must_throw_IllegalArgumentException() {
+    final List<String> phoneIds = new ArrayList<>();
+
+    Exception exception =
+        assertThrows(IllegalArgumentException.class, () -> this.client.getPhonesByIds(phoneIds));
+
+    final String expectedMessage = "'phoneIds' must not be null or empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void getPhonesByIds_return_200_status_code() throws Exception {
+    final String phoneId = "phoneId";
+    final String missingPhoneId = "missingPhoneId";
+    final DaasPhoneDto phone =
+        createPhoneDto(phoneId, "phoneName", 100.99, "phoneDescription", "phoneImageURL");
+    // @formatter:off
+    final String body = "{\"phones\": [{\"phoneId\": \"phoneId\", \"name\": \"phoneName\", "
+        + "\"description\": \"phoneDescription\", \"price\": 100.99, "
+        + "\"imageURL\": \"phoneImageURL\"}], \"missingPhoneIds\": [\"missingPhoneId\"]}";
+    // @formatter:on
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    final DaasPhoneLookupResultDto response =
+        this.client.getPhonesByIds(Arrays.asList(phoneId, missingPhoneId));
+    assertNotNull(response);
+    assertEquals(Arrays.asList(phone), response.getPhones());
+    assertEquals(Arrays.asList(missingPhoneId), response.getMissingPhoneIds());
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    Assertions.assertEquals("POST", recordedRequest.getMethod());
+    Assertions.assertEquals("/phones/lookup", recordedRequest.getPath());
+    Assertions.assertEquals(WireFormats.APPLICATION_SMILE_VALUE,
+        recordedRequest.getHeader(HttpHeaders.CONTENT_TYPE));
+    Assertions.assertEquals(
+        DaasPhoneLookupDto.builder().phoneId(phoneId).phoneId(missingPhoneId).build(),
+        SMILE_MAPPER.readValue(recordedRequest.getBody().readByteArray(),
+            DaasPhoneLookupDto.class));
+  }
+
+  @Test
+  void getPhoneData_prefers_smile_and_reads_it() throws Exception {
+    final DaasPhoneDto phone =
+        createPhoneDto("phoneId", "phoneName", 100.99, "phoneDescription", "phoneImageURL");
+    final DaasPhoneCatalogDto page = DaasPhoneCatalogDto.builder().phones(Arrays.asList(phone))
+        .page(1).pageSize(10).totalCount(1L).build();
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, WireFormats.APPLICATION_SMILE_VALUE)
+        .setBody(new Buffer().write(SMILE_MAPPER.writeValueAsBytes(page)))
+        .setResponseCode(HttpStatus.OK.value()));
+
+    assertEquals(page, this.client.getPhoneData(DEFAULT_PAGE_NUMBER, DEFAULT_PAGE_SIZE));
+
+    Assertions.assertEquals("application/x-jackson-smile, application/json",
+        mockBackEnd.takeRequest().getHeader(HttpHeaders.ACCEPT));
+  }
+
+  @Test
+  void smile_disabled_sends_and_accepts_json() throws InterruptedException {
+    this.clientConfig.getHttp().setSmile(false);
+    this.client = new PhoneClientImpl(restTemplate, clientConfig);
+    final String body = "{\"phones\": [], \"missingPhoneIds\": [\"phoneId\"]}";
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    this.client.getPhonesByIds(Arrays.asList("phoneId"));
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE,
+        recordedRequest.getHeader(HttpHeaders.ACCEPT));
+    Assertions.assertEquals(MediaType.APPLICATION_JSON_VALUE,
+        recordedRequest.getHeader(HttpHeaders.CONTENT_TYPE));
+    Assertions.assertEquals("{\"phoneIds\":[\"phoneId\"]}", recordedRequest.getBody().readUtf8());
+  }
+
+  @Test
+  void streamPhones_return_200_status_code() throws InterruptedException {
+    final DaasPhoneDto phone1 =
+        createPhoneDto("phoneId1", "phoneName1", 100.99, "phoneDescription1", "phoneImageURL1");
+    final DaasPhoneDto phone2 =
+        createPhoneDto("phoneId2", "phoneName2", 200.99, "phoneDescription2", "phoneImageURL2");
+    // @formatter:off
+    final String body = "{\"phoneId\":\"phoneId1\",\"name\":\"phoneName1\","
+        + "\"description\":\"phoneDescription1\",\"price\":100.99,\"imageURL\":\"phoneImageURL1\"}\n"
+        + "{\"phoneId\":\"phoneId2\",\"name\":\"phoneName2\","
+        + "\"description\":\"phoneDescription2\",\"price\":200.99,\"imageURL\":\"phoneImageURL2\"}\n";
+    // @formatter:on
+
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    final List<DaasPhoneDto> phones = new ArrayList<>();
+    this.client.streamPhones(phones::add);
+
+    assertEquals(Arrays.asList(phone1, phone2), phones);
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    Assertions.assertEquals("GET", recordedRequest.getMethod());
+    Assertions.assertEquals("/phones", recordedRequest.getPath());
+    Assertions.assertEquals(MediaType.APPLICATION_NDJSON_VALUE,
+        recordedRequest.getHeader(HttpHeaders.ACCEPT));
+  }
+
+  @Test
+  void streamPhones_return_5xx_status_code() throws InterruptedException {
+    mockBackEnd.enqueue(new MockResponse().setResponseCode(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+
+    final List<DaasPhoneDto> phones = new ArrayList<>();
+    Exception exception =
+        assertThrows(RestClientException.class, () -> this.client.streamPhones(phones::add));
+
+    final String expectedMessage = "500 Server Error: [no body]";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+    assertEquals(0, phones.size());
+    mockBackEnd.takeRequest();
+  }
+
   private DaasPhoneDto createPhoneDto(final String phoneId, final String phoneName,
       final Double phonePrice, final String phoneDescription, final String phoneImageURL) {
     // @formatter:off
@@ -289,4 +576,9 @@ class PhoneClientImplTest {
     Assertions.assertEquals(String.format(URL_CALLED, page, pageSize), recordedRequest.getPath());
   }
 
+  private static double etagRequests(final MeterRegistry meterRegistry, final String result) {
+    return meterRegistry.get("phones.client.etag.requests").tag("result", result).counter()
+        .count();
+  }
+
 }
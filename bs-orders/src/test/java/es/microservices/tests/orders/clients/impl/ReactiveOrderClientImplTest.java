@@ -0,0 +1,107 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasCustomerDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import es.microservices.tests.orders.clients.ReactiveOrderClient;
+import es.microservices.tests.orders.configurations.properties.OrderClientProperties;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import reactor.test.StepVerifier;
+
+class ReactiveOrderClientImplTest {
+
+  private static MockWebServer mockBackEnd;
+
+  private ReactiveOrderClient client;
+
+  private OrderClientProperties clientConfig;
+
+  @BeforeAll
+  public static void setUp() throws IOException {
+    mockBackEnd = new MockWebServer();
+    mockBackEnd.start();
+    Locale.setDefault(Locale.US);
+  }
+
+  @AfterAll
+  public static void tearDown() throws IOException {
+    mockBackEnd.shutdown();
+  }
+
+  @BeforeEach
+  public void before() {
+    this.clientConfig = new OrderClientProperties();
+    this.clientConfig.setBaseUrl(String.format("http://localhost:%s", mockBackEnd.getPort()));
+    this.clientConfig.setEndpointUrl("/orders");
+    this.client = new ReactiveOrderClientImpl(WebClient.builder(), this.clientConfig);
+  }
+
+  @Test
+  void clientConfigIsNull_must_throw_IllegalArgumentException() {
+    final OrderClientProperties clientConfig = null;
+
+    Exception exception = assertThrows(IllegalArgumentException.class,
+        () -> new ReactiveOrderClientImpl(WebClient.builder(), clientConfig));
+
+    final String expectedMessage = "'orderProperties' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void createOrder_return_201_status_code() throws InterruptedException {
+    final String body = "{\"orderId\": \"orderId\", \"total-price\": 100.0}";
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).setBody(body)
+        .setResponseCode(HttpStatus.CREATED.value()));
+
+    final DaasNewOrderDto newOrder = DaasNewOrderDto.builder()
+        .customerData(createDaasCustomerDto("name", "surname", "email")).totalPrice(100.0).build();
+
+    // @formatter:off
+    StepVerifier.create(this.client.createOrder(newOrder))
+      .assertNext(order -> {
+        assertEquals("orderId", order.getOrderId());
+        assertEquals(100.0, order.getTotalPrice());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    assertEquals("POST", recordedRequest.getMethod());
+    assertEquals("/orders", recordedRequest.getPath());
+  }
+
+  @Test
+  void createOrder_return_4xx_status_code() throws InterruptedException {
+    mockBackEnd.enqueue(new MockResponse().setResponseCode(HttpStatus.BAD_REQUEST.value()));
+
+    final DaasNewOrderDto newOrder = DaasNewOrderDto.builder()
+        .customerData(createDaasCustomerDto("name", "surname", "email")).totalPrice(100.0).build();
+
+    // @formatter:off
+    StepVerifier.create(this.client.createOrder(newOrder))
+      .expectError(WebClientResponseException.BadRequest.class)
+      .verify();
+    // @formatter:on
+
+    mockBackEnd.takeRequest();
+  }
+
+}
@@ -0,0 +1,136 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import es.microservices.tests.orders.clients.ReactivePhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneClientProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import reactor.test.StepVerifier;
+
+class ReactivePhoneClientImplTest {
+
+  private static MockWebServer mockBackEnd;
+
+  private ReactivePhoneClient client;
+
+  private PhoneClientProperties clientConfig;
+
+  @BeforeAll
+  public static void setUp() throws IOException {
+    mockBackEnd = new MockWebServer();
+    mockBackEnd.start();
+    Locale.setDefault(Locale.US);
+  }
+
+  @AfterAll
+  public static void tearDown() throws IOException {
+    mockBackEnd.shutdown();
+  }
+
+  @BeforeEach
+  public void before() {
+    this.clientConfig = new PhoneClientProperties();
+    this.clientConfig.setBaseUrl(String.format("http://localhost:%s", mockBackEnd.getPort()));
+    this.clientConfig.setEndpointUrl("/phones");
+    this.client = new ReactivePhoneClientImpl(WebClient.builder(), this.clientConfig);
+  }
+
+  @Test
+  void webClientBuilderIsNull_must_throw_IllegalArgumentException() {
+    final WebClient.Builder webClientBuilder = null;
+
+    Exception exception = assertThrows(IllegalArgumentException.class,
+        () -> new ReactivePhoneClientImpl(webClientBuilder, this.clientConfig));
+
+    final String expectedMessage = "'webClientBuilder' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void getPhoneData_return_200_status_code() throws InterruptedException {
+    final String body = "{\"phones\": [{\"phoneId\": \"phoneId\", \"name\": \"phoneName\", "
+        + "\"price\": 100.99}], \"pageSize\": 10, \"page\": 1, \"total-count\": 1}";
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    // @formatter:off
+    StepVerifier.create(this.client.getPhoneData(1, 10))
+      .assertNext(catalog -> {
+        assertEquals(Long.valueOf(1L), catalog.getTotalCount());
+        assertEquals("phoneId", catalog.getPhones().get(0).getPhoneId());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    assertEquals("GET", recordedRequest.getMethod());
+    assertEquals("/phones?page=1&pageSize=10", recordedRequest.getPath());
+  }
+
+  @Test
+  void getPhonesByIds_return_200_status_code() throws Exception {
+    final String body = "{\"phones\": [{\"phoneId\": \"phoneId\", \"name\": \"phoneName\", "
+        + "\"price\": 100.99}], \"missingPhoneIds\": [\"missingPhoneId\"]}";
+    mockBackEnd.enqueue(new MockResponse()
+        .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).setBody(body)
+        .setResponseCode(HttpStatus.OK.value()));
+
+    final DaasPhoneDto expectedPhone =
+        DaasPhoneDto.builder().phoneId("phoneId").name("phoneName").price(100.99).build();
+
+    // @formatter:off
+    StepVerifier.create(this.client.getPhonesByIds(Arrays.asList("phoneId", "missingPhoneId")))
+      .assertNext(result -> {
+        assertEquals(Arrays.asList(expectedPhone), result.getPhones());
+        assertEquals(Arrays.asList("missingPhoneId"), result.getMissingPhoneIds());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final RecordedRequest recordedRequest = mockBackEnd.takeRequest();
+    assertEquals("POST", recordedRequest.getMethod());
+    assertEquals("/phones/lookup", recordedRequest.getPath());
+    assertEquals(WireFormats.APPLICATION_SMILE_VALUE,
+        recordedRequest.getHeader(HttpHeaders.CONTENT_TYPE));
+    assertEquals(DaasPhoneLookupDto.builder().phoneId("phoneId").phoneId("missingPhoneId").build(),
+        new ObjectMapper(new SmileFactory()).readValue(recordedRequest.getBody().readByteArray(),
+            DaasPhoneLookupDto.class));
+  }
+
+  @Test
+  void getPhonesByIds_return_5xx_status_code() throws InterruptedException {
+    mockBackEnd.enqueue(new MockResponse().setResponseCode(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+
+    // @formatter:off
+    StepVerifier.create(this.client.getPhonesByIds(Arrays.asList("phoneId")))
+      .expectError(WebClientResponseException.InternalServerError.class)
+      .verify();
+    // @formatter:on
+
+    mockBackEnd.takeRequest();
+  }
+
+}
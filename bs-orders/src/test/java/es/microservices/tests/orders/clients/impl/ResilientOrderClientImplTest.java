@@ -0,0 +1,94 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneOrderDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import es.microservices.tests.orders.clients.OrderClient;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+
+class ResilientOrderClientImplTest {
+
+  private OrderClient delegate;
+  private CircuitBreaker circuitBreaker;
+  private ResilientOrderClientImpl client;
+
+  private final DaasNewOrderDto newOrder = DaasNewOrderDto.builder().totalPrice(100.0).build();
+  private final DaasOrderDto order = createDaasOrderDto("orderId", "customerName",
+      "customerSurname", "email@email.com", 100.0,
+      createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+  @BeforeEach
+  public void beforeEach() {
+    this.delegate = mock(OrderClient.class);
+    // @formatter:off
+    this.circuitBreaker = CircuitBreaker.of("daas-orders", CircuitBreakerConfig.custom()
+        .slidingWindowSize(2)
+        .minimumNumberOfCalls(2)
+        .failureRateThreshold(50)
+        .build());
+    // @formatter:on
+    this.client = new ResilientOrderClientImpl(this.delegate, this.circuitBreaker,
+        Bulkhead.ofDefaults("daas-orders"));
+  }
+
+  @Test
+  void delegate_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new ResilientOrderClientImpl(null, this.circuitBreaker, Bulkhead.ofDefaults("test"));
+    });
+
+    final String expectedMessage = "'delegate' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void createOrder_is_not_retried() {
+    doThrow(new ResourceAccessException("Read timed out")).doReturn(this.order)
+        .when(this.delegate).createOrder(any(DaasNewOrderDto.class));
+
+    assertThrows(ResourceAccessException.class, () -> {
+      this.client.createOrder(this.newOrder);
+    });
+    assertSame(this.order, this.client.createOrder(this.newOrder));
+    verify(this.delegate, times(2)).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void failures_open_the_circuit() {
+    doThrow(new ResourceAccessException("Read timed out")).when(this.delegate)
+        .createOrder(any(DaasNewOrderDto.class));
+
+    for (int i = 0; i < 2; i++) {
+      assertThrows(ResourceAccessException.class, () -> {
+        this.client.createOrder(this.newOrder);
+      });
+    }
+    Exception exception = assertThrows(CreatingOrderException.class, () -> {
+      this.client.createOrder(this.newOrder);
+    });
+
+    assertEquals(CircuitBreaker.State.OPEN, this.circuitBreaker.getState());
+    assertEquals(CallNotPermittedException.class, exception.getCause().getClass());
+    verify(this.delegate, times(2)).createOrder(any(DaasNewOrderDto.class));
+  }
+
+}
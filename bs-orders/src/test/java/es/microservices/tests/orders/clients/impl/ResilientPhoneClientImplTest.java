@@ -0,0 +1,155 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneCatalogDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+
+class ResilientPhoneClientImplTest {
+
+  private PhoneClient delegate;
+  private CircuitBreaker circuitBreaker;
+  private ResilientPhoneClientImpl client;
+
+  private final DaasPhoneCatalogDto catalog = createDaasPhoneCatalogDto(1, 10, 1L,
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0));
+
+  @BeforeEach
+  public void beforeEach() {
+    this.delegate = mock(PhoneClient.class);
+    // @formatter:off
+    this.circuitBreaker = CircuitBreaker.of("daas-phones", CircuitBreakerConfig.custom()
+        .slidingWindowSize(4)
+        .minimumNumberOfCalls(4)
+        .failureRateThreshold(50)
+        .build());
+    final Retry retry = Retry.of("daas-phones", RetryConfig.custom()
+        .maxAttempts(3)
+        .waitDuration(Duration.ofMillis(1))
+        .retryExceptions(ResourceAccessException.class, HttpServerErrorException.class)
+        .build());
+    final Bulkhead bulkhead = Bulkhead.of("daas-phones", BulkheadConfig.custom()
+        .maxConcurrentCalls(1)
+        .maxWaitDuration(Duration.ZERO)
+        .build());
+    // @formatter:on
+    this.client = new ResilientPhoneClientImpl(this.delegate, this.circuitBreaker, bulkhead, retry);
+  }
+
+  @Test
+  void delegate_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new ResilientPhoneClientImpl(null, this.circuitBreaker, Bulkhead.ofDefaults("test"),
+          Retry.ofDefaults("test"));
+    });
+
+    final String expectedMessage = "'delegate' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void catalog_reads_are_retried() {
+    doThrow(new ResourceAccessException("Read timed out"))
+        .doThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+        .doReturn(this.catalog).when(this.delegate).getPhoneData(1, 10);
+
+    assertSame(this.catalog, this.client.getPhoneData(1, 10));
+    verify(this.delegate, times(3)).getPhoneData(1, 10);
+  }
+
+  @Test
+  void client_errors_are_not_retried() {
+    doThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST)).when(this.delegate)
+        .getPhoneData(1, 10);
+
+    assertThrows(HttpClientErrorException.class, () -> {
+      this.client.getPhoneData(1, 10);
+    });
+    verify(this.delegate, times(1)).getPhoneData(1, 10);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void streaming_is_not_retried() {
+    doThrow(new ResourceAccessException("Read timed out")).when(this.delegate)
+        .streamPhones(any(Consumer.class));
+
+    assertThrows(ResourceAccessException.class, () -> {
+      this.client.streamPhones(phone -> {
+      });
+    });
+    verify(this.delegate, times(1)).streamPhones(any(Consumer.class));
+  }
+
+  @Test
+  void open_circuit_fails_fast() {
+    this.circuitBreaker.transitionToOpenState();
+
+    Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+      this.client.getPhoneData(1, 10);
+    });
+
+    assertEquals(CallNotPermittedException.class, exception.getCause().getClass());
+    verify(this.delegate, times(0)).getPhoneData(1, 10);
+  }
+
+  @Test
+  void full_bulkhead_fails_fast() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return this.catalog;
+    }).when(this.delegate).getPhoneData(1, 10);
+    doReturn(this.catalog).when(this.delegate).getPhoneData(2, 10);
+
+    final CompletableFuture<DaasPhoneCatalogDto> first =
+        CompletableFuture.supplyAsync(() -> this.client.getPhoneData(1, 10));
+    started.await(5, TimeUnit.SECONDS);
+    try {
+      Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+        this.client.getPhoneData(2, 10);
+      });
+      assertEquals(BulkheadFullException.class, exception.getCause().getClass());
+    } finally {
+      release.countDown();
+    }
+
+    assertSame(this.catalog, first.get(5, TimeUnit.SECONDS));
+    verify(this.delegate, times(0)).getPhoneData(2, 10);
+  }
+
+}
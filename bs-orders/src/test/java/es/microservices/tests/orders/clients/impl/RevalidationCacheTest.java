@@ -0,0 +1,71 @@
+package es.microservices.tests.orders.clients.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RevalidationCacheTest {
+
+  @Test
+  void maxSize_isNegative() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new RevalidationCache<String>(-1, new SimpleMeterRegistry());
+    });
+
+    final String expectedMessage = "'maxSize' must be greater than or equal to zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void least_recently_used_entry_is_evicted() {
+    final RevalidationCache<String> cache = new RevalidationCache<>(2, new SimpleMeterRegistry());
+    cache.resolve("/a", null, tagged("a", "W/\"a\""));
+    cache.resolve("/b", null, tagged("b", "W/\"b\""));
+    cache.lookup("/a");
+    cache.resolve("/c", null, tagged("c", "W/\"c\""));
+
+    assertEquals(2, cache.size());
+    assertNotNull(cache.lookup("/a"));
+    assertNull(cache.lookup("/b"));
+    assertEquals("W/\"c\"", cache.lookup("/c").getETag());
+  }
+
+  @Test
+  void response_without_entity_tag_drops_the_entry() {
+    final RevalidationCache<String> cache = new RevalidationCache<>(2, new SimpleMeterRegistry());
+    cache.resolve("/a", null, tagged("a", "W/\"a\""));
+
+    assertEquals("b", cache.resolve("/a", cache.lookup("/a"), ResponseEntity.ok("b")));
+    assertNull(cache.lookup("/a"));
+  }
+
+  @Test
+  void not_modified_response_is_resolved_to_the_kept_body() {
+    final RevalidationCache<String> cache = new RevalidationCache<>(2, new SimpleMeterRegistry());
+    cache.resolve("/a", null, tagged("a", "W/\"a\""));
+
+    assertEquals("a", cache.resolve("/a", cache.lookup("/a"),
+        ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag("W/\"a\"").build()));
+  }
+
+  @Test
+  void zero_size_keeps_nothing() {
+    final RevalidationCache<String> cache = new RevalidationCache<>(0, new SimpleMeterRegistry());
+    cache.resolve("/a", null, tagged("a", "W/\"a\""));
+
+    assertNull(cache.lookup("/a"));
+    assertEquals(0, cache.size());
+  }
+
+  private static ResponseEntity<String> tagged(final String body, final String eTag) {
+    return ResponseEntity.ok().eTag(eTag).body(body);
+  }
+
+}
@@ -0,0 +1,199 @@
+package es.microservices.tests.orders.configurations.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.DefaultRequestContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpStatus;
+import es.microservices.tests.orders.configurations.properties.LoadBalancingProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+
+class LatencyAwareLoadBalancerTest {
+
+  private static final long MILLIS = Duration.ofMillis(1).toNanos();
+
+  private final ServiceInstance fast =
+      new DefaultServiceInstance("fast", "daas-phones", "fast-host", 8082, false);
+  private final ServiceInstance slow =
+      new DefaultServiceInstance("slow", "daas-phones", "slow-host", 8082, false);
+  private final List<ServiceInstance> instances = Arrays.asList(this.fast, this.slow);
+
+  private AtomicLong now;
+  private MeterRegistry meterRegistry;
+  private ServiceInstanceListSupplier supplier;
+  private LatencyAwareLoadBalancer loadBalancer;
+
+  @SuppressWarnings("unchecked")
+  @BeforeEach
+  public void beforeEach() {
+    this.now = new AtomicLong(1_000_000L * MILLIS);
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.supplier = mock(ServiceInstanceListSupplier.class);
+    doReturn(Flux.just(this.instances)).when(this.supplier).get(any(Request.class));
+    final ObjectProvider<ServiceInstanceListSupplier> suppliers = mock(ObjectProvider.class);
+    doReturn(this.supplier).when(suppliers).getIfAvailable(any());
+
+    // @formatter:off
+    final LoadBalancingProperties properties = LoadBalancingProperties.builder()
+        .decay(Duration.ofSeconds(10))
+        .maxConsecutiveErrors(2)
+        .ejectionTime(Duration.ofSeconds(30))
+        .build();
+    // @formatter:on
+    this.loadBalancer = new LatencyAwareLoadBalancer(suppliers, "daas-phones", properties,
+        this.meterRegistry, this.now::get);
+  }
+
+  @Test
+  void suppliers_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new LatencyAwareLoadBalancer(null, "daas-phones", LoadBalancingProperties.builder().build(),
+          this.meterRegistry);
+    });
+
+    final String expectedMessage = "'suppliers' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void the_blocking_and_the_reactive_client_calls_are_followed() {
+    assertTrue(this.loadBalancer.supports(DefaultRequestContext.class, Object.class,
+        ServiceInstance.class));
+    assertTrue(this.loadBalancer.supports(RequestDataContext.class, ResponseData.class,
+        ServiceInstance.class));
+  }
+
+  @Test
+  void calls_completed_on_another_thread_are_measured() throws InterruptedException {
+    final DefaultRequest<Object> request = new DefaultRequest<>();
+    final Response<ServiceInstance> response = new DefaultResponse(this.slow);
+    this.loadBalancer.onStartRequest(request, response);
+    this.now.addAndGet(200 * MILLIS);
+    final Thread completion = new Thread(() -> this.loadBalancer.onComplete(
+        new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response,
+            new ResponseData(HttpStatus.OK, null, null, null))));
+    completion.start();
+    completion.join();
+    call(this.fast, 10, HttpStatus.OK);
+
+    assertSame(this.fast, this.loadBalancer.choose(this.instances).getServer());
+    assertEquals(0.0, this.meterRegistry.get("loadbalancer.instance.outstanding")
+        .tags(Tags.of("service", "daas-phones", "instance", "slow-host:8082")).gauge().value());
+  }
+
+  @Test
+  void no_instances() {
+    assertFalse(this.loadBalancer.choose(Collections.emptyList()).hasServer());
+  }
+
+  @Test
+  void the_faster_instance_is_picked() {
+    call(this.fast, 10, HttpStatus.OK);
+    call(this.slow, 200, HttpStatus.OK);
+
+    for (int i = 0; i < 20; i++) {
+      assertSame(this.fast, this.loadBalancer.choose(new DefaultRequest<>()).block().getServer());
+    }
+    assertEquals(200.0, this.meterRegistry.get("loadbalancer.instance.latency")
+        .tags(Tags.of("service", "daas-phones", "instance", "slow-host:8082")).timeGauge()
+        .value(TimeUnit.MILLISECONDS), 0.001);
+  }
+
+  @Test
+  void requests_in_flight_add_to_the_cost() {
+    call(this.fast, 10, HttpStatus.OK);
+    call(this.slow, 30, HttpStatus.OK);
+    for (int i = 0; i < 3; i++) {
+      this.loadBalancer.onStartRequest(new DefaultRequest<>(), new DefaultResponse(this.fast));
+    }
+
+    assertSame(this.slow, this.loadBalancer.choose(this.instances).getServer());
+    assertEquals(3.0, this.meterRegistry.get("loadbalancer.instance.outstanding")
+        .tag("instance", "fast-host:8082").gauge().value());
+  }
+
+  @Test
+  void failing_instances_are_ejected_for_a_while() {
+    call(this.slow, 200, HttpStatus.OK);
+    call(this.fast, 10, HttpStatus.SERVICE_UNAVAILABLE);
+    failedCall(this.fast);
+
+    for (int i = 0; i < 20; i++) {
+      assertSame(this.slow, this.loadBalancer.choose(this.instances).getServer());
+    }
+    assertEquals(1.0, this.meterRegistry.get("loadbalancer.instance.ejected")
+        .tag("instance", "fast-host:8082").gauge().value());
+
+    this.now.addAndGet(Duration.ofSeconds(30).toNanos());
+    assertEquals(0.0, this.meterRegistry.get("loadbalancer.instance.ejected")
+        .tag("instance", "fast-host:8082").gauge().value());
+  }
+
+  @Test
+  void every_instance_ejected_still_picks_one() {
+    failedCall(this.fast);
+    failedCall(this.fast);
+    failedCall(this.slow);
+    failedCall(this.slow);
+
+    assertTrue(this.loadBalancer.choose(this.instances).hasServer());
+  }
+
+  @Test
+  void client_errors_are_not_failures() {
+    call(this.slow, 200, HttpStatus.OK);
+    call(this.fast, 10, HttpStatus.NOT_FOUND);
+    call(this.fast, 10, HttpStatus.NOT_FOUND);
+
+    assertSame(this.fast, this.loadBalancer.choose(this.instances).getServer());
+  }
+
+  private void call(final ServiceInstance instance, final long millis, final HttpStatus status) {
+    final DefaultRequest<Object> request = new DefaultRequest<>();
+    final Response<ServiceInstance> response = new DefaultResponse(instance);
+    this.loadBalancer.onStartRequest(request, response);
+    this.now.addAndGet(millis * MILLIS);
+    this.loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS,
+        request, response, new ResponseData(status, null, null, null)));
+  }
+
+  private void failedCall(final ServiceInstance instance) {
+    final DefaultRequest<Object> request = new DefaultRequest<>();
+    final Response<ServiceInstance> response = new DefaultResponse(instance);
+    this.loadBalancer.onStartRequest(request, response);
+    this.now.addAndGet(MILLIS);
+    this.loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.FAILED,
+        new IOException("Connection refused"), request, response));
+  }
+
+}
@@ -0,0 +1,169 @@
+package es.microservices.tests.orders.configurations.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.io.IOException;
+import java.time.Duration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import es.microservices.tests.orders.configurations.properties.HttpClientProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+class PooledRequestFactoriesTest {
+
+  private MockWebServer mockBackEnd;
+  private MeterRegistry meterRegistry;
+  private HttpComponentsClientHttpRequestFactory requestFactory;
+  private RestTemplate restTemplate;
+  private String url;
+
+  @BeforeEach
+  public void beforeEach() throws IOException {
+    this.mockBackEnd = new MockWebServer();
+    this.mockBackEnd.start();
+    this.url = String.format("http://localhost:%s/phones", this.mockBackEnd.getPort());
+    this.meterRegistry = new SimpleMeterRegistry();
+
+    // @formatter:off
+    final HttpClientProperties properties = HttpClientProperties.builder()
+        .maxConnections(4)
+        .maxConnectionsPerRoute(2)
+        .readTimeout(Duration.ofMillis(500))
+        .build();
+    // @formatter:on
+    this.requestFactory = PooledRequestFactories.create("test", properties, this.meterRegistry);
+    this.restTemplate = new RestTemplate(this.requestFactory);
+  }
+
+  @AfterEach
+  public void afterEach() throws Exception {
+    this.requestFactory.destroy();
+    this.mockBackEnd.shutdown();
+  }
+
+  @Test
+  void properties_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      PooledRequestFactories.create("test", null, this.meterRegistry);
+    });
+
+    final String expectedMessage = "'properties' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void checkConnectionsFor_accepts_up_to_the_connections_per_route() {
+    final HttpClientProperties properties =
+        HttpClientProperties.builder().maxConnections(4).maxConnectionsPerRoute(2).build();
+
+    PooledRequestFactories.checkConnectionsFor("test", properties, 2);
+  }
+
+  @Test
+  void checkConnectionsFor_more_calls_than_connections_per_route() {
+    final HttpClientProperties properties =
+        HttpClientProperties.builder().maxConnections(4).maxConnectionsPerRoute(2).build();
+
+    Exception exception = assertThrows(IllegalStateException.class, () -> {
+      PooledRequestFactories.checkConnectionsFor("test", properties, 3);
+    });
+
+    final String expectedMessage = "The pool test has 2 connections per route for up to 3 "
+        + "concurrent calls, the virtual threads waiting for a connection would be pinned to "
+        + "their carrier";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void checkConnectionsFor_more_calls_than_connections() {
+    final HttpClientProperties properties =
+        HttpClientProperties.builder().maxConnections(1).maxConnectionsPerRoute(2).build();
+
+    assertThrows(IllegalStateException.class, () -> {
+      PooledRequestFactories.checkConnectionsFor("test", properties, 2);
+    });
+  }
+
+  @Test
+  void connections_are_kept_alive_and_reused() throws InterruptedException {
+    this.mockBackEnd.enqueue(new MockResponse().setBody("first"));
+    this.mockBackEnd.enqueue(new MockResponse().setBody("second"));
+
+    assertEquals("first", this.restTemplate.getForObject(this.url, String.class));
+    assertEquals("second", this.restTemplate.getForObject(this.url, String.class));
+
+    assertEquals(0, this.mockBackEnd.takeRequest().getSequenceNumber());
+    assertEquals(1, this.mockBackEnd.takeRequest().getSequenceNumber());
+  }
+
+  @Test
+  void pool_metrics_are_published() {
+    this.mockBackEnd.enqueue(new MockResponse().setBody("first"));
+    this.restTemplate.getForObject(this.url, String.class);
+
+    assertEquals(4.0, this.meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+        .tag("httpclient", "test").gauge().value());
+    assertEquals(2.0, this.meterRegistry.get("httpcomponents.httpclient.pool.route.max.default")
+        .tag("httpclient", "test").gauge().value());
+    assertEquals(0.0, this.meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+        .tag("state", "leased").gauge().value());
+    assertEquals(1.0, this.meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+        .tag("state", "available").gauge().value());
+    assertEquals(0.0,
+        this.meterRegistry.get("httpcomponents.httpclient.pool.total.pending").gauge().value());
+  }
+
+  @Test
+  void gzip_is_offered_and_decompressed() throws Exception {
+    final Buffer body = new Buffer();
+    try (BufferedSink sink = Okio.buffer(new GzipSink(body))) {
+      sink.writeUtf8("compressed");
+    }
+    this.mockBackEnd.enqueue(new MockResponse().setHeader("Content-Encoding", "gzip").setBody(body));
+
+    assertEquals("compressed", this.restTemplate.getForObject(this.url, String.class));
+    assertEquals("gzip,deflate", this.mockBackEnd.takeRequest().getHeader("Accept-Encoding"));
+  }
+
+  @Test
+  void compression_can_be_disabled() throws Exception {
+    final HttpComponentsClientHttpRequestFactory uncompressed = PooledRequestFactories.create(
+        "uncompressed", HttpClientProperties.builder().compression(false).build(),
+        this.meterRegistry);
+    try {
+      this.mockBackEnd.enqueue(new MockResponse().setBody("plain"));
+
+      assertEquals("plain", new RestTemplate(uncompressed).getForObject(this.url, String.class));
+      assertNull(this.mockBackEnd.takeRequest().getHeader("Accept-Encoding"));
+    } finally {
+      uncompressed.destroy();
+    }
+  }
+
+  @Test
+  void read_timeout_is_applied() {
+    this.mockBackEnd.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+
+    assertThrows(ResourceAccessException.class, () -> {
+      this.restTemplate.getForObject(this.url, String.class);
+    });
+  }
+
+}
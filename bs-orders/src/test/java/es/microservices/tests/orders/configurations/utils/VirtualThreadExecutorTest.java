@@ -0,0 +1,69 @@
+package es.microservices.tests.orders.configurations.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VirtualThreadExecutorTest {
+
+  private MeterRegistry meterRegistry;
+  private VirtualThreadExecutor executor;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.executor = new VirtualThreadExecutor("test", Executors.defaultThreadFactory());
+    this.executor.bindTo(this.meterRegistry);
+  }
+
+  @Test
+  void threadFactory_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new VirtualThreadExecutor("test", null);
+    });
+
+    final String expectedMessage = "'threadFactory' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void execute_publishes_active_and_completed_tasks() throws InterruptedException {
+    final CountDownLatch started = new CountDownLatch(2);
+    final CountDownLatch release = new CountDownLatch(1);
+    final Runnable task = () -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    };
+
+    this.executor.execute(task);
+    this.executor.execute(task);
+
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+    assertEquals(2.0, this.meterRegistry.get("executor.virtual.active").tag("name", "test")
+        .gauge().value());
+
+    release.countDown();
+    final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (this.executor.getCompletedTasks() < 2 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+
+    assertEquals(0.0, this.meterRegistry.get("executor.virtual.active").gauge().value());
+    assertEquals(2.0, this.meterRegistry.get("executor.virtual.completed").functionCounter()
+        .count());
+  }
+
+}
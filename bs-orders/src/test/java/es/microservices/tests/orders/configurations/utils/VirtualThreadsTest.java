@@ -0,0 +1,52 @@
+package es.microservices.tests.orders.configurations.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.concurrent.ThreadFactory;
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadsTest {
+
+  @Test
+  void newThreadFactory_prefix_isEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      VirtualThreads.newThreadFactory("");
+    });
+
+    final String expectedMessage = "'prefix' must be not empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void newThreadFactory_depends_on_the_runtime() {
+    if (VirtualThreads.isSupported()) {
+      final ThreadFactory threadFactory = VirtualThreads.newThreadFactory("test-");
+      final Thread thread = threadFactory.newThread(() -> {
+      });
+
+      assertTrue(VirtualThreads.isVirtual(thread));
+      assertEquals("test-0", thread.getName());
+    } else {
+      Exception exception = assertThrows(IllegalStateException.class, () -> {
+        VirtualThreads.newThreadFactory("test-");
+      });
+
+      final String expectedMessage =
+          "Virtual threads are not supported by this Java runtime, Java 21 or newer is required";
+      final String actualMessage = exception.getMessage();
+
+      assertEquals(expectedMessage, actualMessage);
+      assertFalse(VirtualThreads.carrierPool().isPresent());
+    }
+  }
+
+  @Test
+  void isVirtual_platform_thread() {
+    assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+  }
+
+}
@@ -50,6 +50,8 @@ import brave.propagation.TraceContext;
 import brave.sampler.Sampler;
 import es.microservices.tests.orders.clients.OrderClient;
 import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.controllers.OrderController;
 import es.microservices.tests.orders.controllers.handlers.SpecificControllerAdvice;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
@@ -60,7 +62,10 @@ import es.microservices.tests.orders.dtos.orders.DaasPhoneOrderDto;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
 import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
 import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.impl.IdempotentOrderServiceImpl;
+import es.microservices.tests.orders.services.impl.InMemoryIdempotencyStoreImpl;
 import es.microservices.tests.orders.services.impl.OrderServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import zipkin2.Span;
 import zipkin2.reporter.Reporter;
 
@@ -398,6 +403,78 @@ class OrderControllerImplTest {
 
   }
 
+  @Test
+  void createOrder_retried_with_the_same_idempotency_key() throws Exception {
+    final String idempotencyKey = "retried-key";
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+    final DaasPhoneCatalogDto catalog = createDaasPhoneCatalogDto(1, 10, 1L,
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0));
+    final DaasOrderDto orderDto = createDaasOrderDto("orderId", "customerName", "customerSurname",
+        "email@email.com", 100.0, createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+    doReturn(catalog).when(this.phoneClient).getPhoneData(anyInt(), anyInt());
+    doReturn(orderDto).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    for (int i = 0; i < 2; i++) {
+      // @formatter:off
+      mockMvc
+          .perform(post(URL)
+              .header(OrderController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+              .content(objectMapper.writeValueAsString(newOrder))
+              .contentType(MediaType.APPLICATION_JSON_VALUE)
+              .accept(MediaType.APPLICATION_JSON_VALUE))
+          .andExpect(status()
+              .isCreated())
+          .andExpect(MockMvcResultMatchers.jsonPath("$.orderId").value("orderId"));
+      // @formatter:on
+    }
+
+    verify(this.phoneClient, times(1)).getPhoneData(anyInt(), anyInt());
+    verify(this.orderClient, times(1)).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void createOrder_idempotency_key_reused_for_a_different_order() throws Exception {
+    final String idempotencyKey = "reused-key";
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+    final NewOrderDto otherOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId2");
+    final DaasPhoneCatalogDto catalog = createDaasPhoneCatalogDto(1, 10, 1L,
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0));
+    final DaasOrderDto orderDto = createDaasOrderDto("orderId", "customerName", "customerSurname",
+        "email@email.com", 100.0, createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+    final String errorMessage = "Error. The idempotency key " + idempotencyKey
+        + " was already used for a different order";
+
+    doReturn(catalog).when(this.phoneClient).getPhoneData(anyInt(), anyInt());
+    doReturn(orderDto).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    // @formatter:off
+    mockMvc
+        .perform(post(URL)
+            .header(OrderController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .content(objectMapper.writeValueAsString(newOrder))
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status()
+            .isCreated());
+    mockMvc
+        .perform(post(URL)
+            .header(OrderController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+            .content(objectMapper.writeValueAsString(otherOrder))
+            .contentType(MediaType.APPLICATION_JSON_VALUE)
+            .accept(MediaType.APPLICATION_JSON_VALUE))
+        .andExpect(status()
+            .isUnprocessableEntity())
+        .andExpect(MockMvcResultMatchers.jsonPath("$.status").value(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+        .andExpect(MockMvcResultMatchers.jsonPath("$.errorMessage").value(errorMessage));
+    // @formatter:on
+
+    verify(this.orderClient, times(1)).createOrder(any(DaasNewOrderDto.class));
+  }
+
   @TestConfiguration
   @EnableAutoConfiguration
   @Import({OrderControllerImpl.class, SpecificControllerAdvice.class})
@@ -415,7 +492,9 @@ class OrderControllerImplTest {
 
     @Bean
     public OrderService orderService(PhoneClient phoneClient, OrderClient orderClient) {
-      return new OrderServiceImpl(phoneClient, orderClient);
+      return new IdempotentOrderServiceImpl(new OrderServiceImpl(phoneClient, orderClient),
+          new InMemoryIdempotencyStoreImpl(IdempotencyProperties.builder().build()),
+          new SimpleMeterRegistry());
     }
 
     @Bean
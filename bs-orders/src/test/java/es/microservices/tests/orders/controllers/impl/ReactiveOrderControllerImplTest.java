@@ -0,0 +1,263 @@
+package es.microservices.tests.orders.controllers.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createNewOrderDto;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import brave.Tracer;
+import brave.Tracing;
+import brave.propagation.CurrentTraceContext;
+import brave.propagation.TraceContext;
+import brave.sampler.Sampler;
+import es.microservices.tests.orders.clients.ReactiveOrderClient;
+import es.microservices.tests.orders.clients.ReactivePhoneClient;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.controllers.OrderController;
+import es.microservices.tests.orders.controllers.handlers.ReactiveSpecificControllerAdvice;
+import es.microservices.tests.orders.dtos.ErrorResponse;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import es.microservices.tests.orders.services.impl.IdempotentReactiveOrderServiceImpl;
+import es.microservices.tests.orders.services.impl.InMemoryIdempotencyStoreImpl;
+import es.microservices.tests.orders.services.impl.ReactiveOrderServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import zipkin2.Span;
+import zipkin2.reporter.Reporter;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = {ReactiveOrderControllerImplTest.InnerConfiguration.class})
+@WebFluxTest(controllers = {ReactiveOrderControllerImpl.class})
+@DirtiesContext(classMode = ClassMode.AFTER_CLASS)
+class ReactiveOrderControllerImplTest {
+
+  private static final String URL = "/orders";
+
+  @Autowired
+  private WebTestClient webTestClient;
+
+  @Autowired
+  private ReactiveOrderClient orderClient;
+
+  @Autowired
+  private ReactivePhoneClient phoneClient;
+
+  @BeforeAll
+  public static void beforeAll() {
+    Locale.setDefault(Locale.US);
+  }
+
+  @BeforeEach
+  public void beforeEach() {
+    Mockito.clearInvocations(this.orderClient, this.phoneClient);
+  }
+
+  @Test
+  void newOrder_emptyPhoneIdList() {
+    final NewOrderDto newOrder = createNewOrderDto("customerName", "customerSurname", "email@email.com");
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(URL)
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(newOrder)
+        .exchange()
+          .expectStatus()
+            .isBadRequest()
+        .expectBody(ErrorResponse.class)
+        .value(consume -> consume.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()))
+        .value(consume -> consume.getErrorMessage(),
+            equalTo("phoneIdListToBuy: must not be empty"))
+        .value(consume -> consume.getOperationId(), notNullValue(String.class))
+        ;
+    // @formatter:on
+
+    verify(this.phoneClient, never()).getPhonesByIds(anyList());
+    verify(this.orderClient, never()).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void newOrder_is_created() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+    final DaasPhoneDto phone =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasOrderDto daasOrder = createDaasOrderDto("orderId", "customerName",
+        "customerSurname", "email@email.com", 100.0,
+        createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+    doReturn(Mono.just(daasOrder)).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(URL)
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(newOrder)
+        .exchange()
+          .expectStatus()
+            .isCreated()
+        .expectBody(OrderDto.class)
+        .value(consume -> consume.getOrderId(), equalTo("orderId"))
+        .value(consume -> consume.getTotalPrice(), equalTo(100.0))
+        .value(consume -> consume.getPhoneListToBuy().size(), equalTo(1))
+        ;
+    // @formatter:on
+
+    verify(this.phoneClient, times(1)).getPhonesByIds(anyList());
+    verify(this.orderClient, times(1)).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void newOrder_retried_with_the_same_idempotency_key() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+    final DaasPhoneDto phone =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasOrderDto daasOrder = createDaasOrderDto("orderId", "customerName",
+        "customerSurname", "email@email.com", 100.0,
+        createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+    doReturn(Mono.just(daasOrder)).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    for (int i = 0; i < 2; i++) {
+      // @formatter:off
+      webTestClient.post()
+          .uri(URL)
+          .header(OrderController.IDEMPOTENCY_KEY_HEADER, "retried-key")
+          .contentType(MediaType.APPLICATION_JSON)
+          .accept(MediaType.APPLICATION_JSON)
+          .bodyValue(newOrder)
+          .exchange()
+            .expectStatus()
+              .isCreated()
+          .expectBody(OrderDto.class)
+          .value(consume -> consume.getOrderId(), equalTo("orderId"));
+      // @formatter:on
+    }
+
+    verify(this.phoneClient, times(1)).getPhonesByIds(anyList());
+    verify(this.orderClient, times(1)).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void newOrder_idempotency_key_reused_for_a_different_order() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+    final NewOrderDto otherOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId2");
+    final DaasPhoneDto phone =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasOrderDto daasOrder = createDaasOrderDto("orderId", "customerName",
+        "customerSurname", "email@email.com", 100.0,
+        createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+    doReturn(Mono.just(daasOrder)).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(URL)
+        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "reused-key")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(newOrder)
+        .exchange()
+          .expectStatus()
+            .isCreated();
+    webTestClient.post()
+        .uri(URL)
+        .header(OrderController.IDEMPOTENCY_KEY_HEADER, "reused-key")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(otherOrder)
+        .exchange()
+          .expectStatus()
+            .isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY)
+        .expectBody(ErrorResponse.class)
+        .value(consume -> consume.getErrorMessage(), equalTo(
+            "Error. The idempotency key reused-key was already used for a different order"));
+    // @formatter:on
+
+    verify(this.orderClient, times(1)).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @TestConfiguration
+  @EnableAutoConfiguration
+  @Import({ReactiveOrderControllerImpl.class, ReactiveSpecificControllerAdvice.class})
+  static class InnerConfiguration {
+
+    @Bean
+    public ReactiveOrderClient mockOrderClient() {
+      return mock(ReactiveOrderClient.class);
+    }
+
+    @Bean
+    public ReactivePhoneClient mockPhoneClient() {
+      return mock(ReactivePhoneClient.class);
+    }
+
+    @Bean
+    public ReactiveOrderService orderService(ReactivePhoneClient phoneClient,
+        ReactiveOrderClient orderClient) {
+      final IdempotencyProperties properties = IdempotencyProperties.builder().build();
+      return new IdempotentReactiveOrderServiceImpl(
+          new ReactiveOrderServiceImpl(phoneClient, orderClient),
+          new InMemoryIdempotencyStoreImpl(properties), properties, new SimpleMeterRegistry());
+    }
+
+    @Bean
+    public Tracer tracer() {
+      final List<Span> spans = new ArrayList<>();
+      Reporter<Span> reporter = spans::add;
+      CurrentTraceContext currentTraceContext = CurrentTraceContext.Default.inheritable();
+      currentTraceContext
+          .newScope(TraceContext.newBuilder().traceIdHigh(-1L).traceId(1L).spanId(1L).build());
+      Tracing tracing = Tracing.newBuilder().currentTraceContext(currentTraceContext)
+          .localServiceName("localServiceName").spanReporter(reporter).sampler(Sampler.NEVER_SAMPLE)
+          .build();
+      return tracing.tracer();
+    }
+
+  }
+}
@@ -0,0 +1,314 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneChangesDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.PhoneCatalogLoader;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CachedPhoneCatalogServiceImplTest {
+
+  private static final Instant NOW = Instant.parse("2021-02-01T10:00:00Z");
+
+  private PhoneCatalogLoader loader;
+  private Clock clock;
+  private MeterRegistry meterRegistry;
+  private CachedPhoneCatalogServiceImpl service;
+
+  private final DaasPhoneDto phone1 =
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+  private final DaasPhoneDto phone2 =
+      createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+
+  private final DaasPhoneDto indexedPhone1 =
+      DaasPhoneDto.builder().phoneId("phoneId1").name("phoneName1").price(100.0).build();
+  private final DaasPhoneDto indexedPhone2 =
+      DaasPhoneDto.builder().phoneId("phoneId2").name("phoneName2").price(600.0).build();
+
+  @BeforeEach
+  public void beforeEach() {
+    this.loader = mock(PhoneCatalogLoader.class, CALLS_REAL_METHODS);
+    this.clock = mock(Clock.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    doReturn(NOW).when(this.clock).instant();
+
+    // @formatter:off
+    final PhoneCatalogProperties properties = PhoneCatalogProperties.builder()
+        .cacheTtl(Duration.ofMinutes(5))
+        .cacheMaxStale(Duration.ofMinutes(30))
+        .build();
+    // @formatter:on
+    this.service = new CachedPhoneCatalogServiceImpl(this.loader, properties, this.meterRegistry,
+        this.clock, Runnable::run);
+  }
+
+  @Test
+  void loader_isNull() {
+    final PhoneCatalogProperties properties = PhoneCatalogProperties.builder().build();
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new CachedPhoneCatalogServiceImpl(null, properties, this.meterRegistry);
+    });
+
+    final String expectedMessage = "'loader' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void first_request_loads_catalog_and_next_ones_are_served_from_cache() {
+    doReturn(Arrays.asList(phone1, phone2)).when(this.loader).loadCatalog();
+
+    final List<DaasPhoneDto> first = this.service.findPhones(Arrays.asList("phoneId1"));
+    final List<DaasPhoneDto> second =
+        this.service.findPhones(Arrays.asList("phoneId2", "phoneId1", "phoneId3"));
+
+    assertEquals(Arrays.asList(indexedPhone1), first);
+    assertEquals(Arrays.asList(indexedPhone2, indexedPhone1), second);
+    verify(this.loader, times(1)).loadCatalog();
+    assertEquals(1.0, requests("miss"));
+    assertEquals(1.0, requests("hit"));
+  }
+
+  @Test
+  void stale_snapshot_is_served_and_refreshed() {
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    this.service.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(6))).when(this.clock).instant();
+    doReturn(Arrays.asList(phone1, phone2)).when(this.loader).loadCatalog();
+
+    final List<DaasPhoneDto> stale = this.service.findPhones(Arrays.asList("phoneId2"));
+    final List<DaasPhoneDto> refreshed = this.service.findPhones(Arrays.asList("phoneId2"));
+
+    assertEquals(0, stale.size());
+    assertEquals(Arrays.asList(indexedPhone2), refreshed);
+    verify(this.loader, times(2)).loadCatalog();
+    assertEquals(1.0, requests("stale"));
+  }
+
+  @Test
+  void stale_snapshot_is_kept_when_refresh_fails() {
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    this.service.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(10))).when(this.clock).instant();
+    final String errorMessage = "An error occurred while retrieving the phone catalog";
+    doThrow(new RetrievingPhoneException(errorMessage, null)).when(this.loader).loadCatalog();
+
+    assertEquals(Arrays.asList(indexedPhone1), this.service.findPhones(Arrays.asList("phoneId1")));
+    assertEquals(Arrays.asList(indexedPhone1), this.service.findPhones(Arrays.asList("phoneId1")));
+    assertEquals(2.0,
+        this.meterRegistry.get("phones.catalog.cache.refresh").tag("outcome", "failure").timer()
+            .count());
+  }
+
+  @Test
+  void snapshot_older_than_max_stale_is_not_served() {
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    this.service.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(36))).when(this.clock).instant();
+    final String errorMessage = "An error occurred while retrieving the phone catalog";
+    doThrow(new RetrievingPhoneException(errorMessage, null)).when(this.loader).loadCatalog();
+
+    Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+      this.service.findPhones(Arrays.asList("phoneId1"));
+    });
+
+    final String expectedMessage = errorMessage;
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void refresh_applies_only_the_catalog_changes_since_the_snapshot_version() {
+    final PhoneClient phoneClient = mock(PhoneClient.class);
+    final CachedPhoneCatalogServiceImpl changesService = createWithChanges(phoneClient);
+    doReturn(changes(4L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(null);
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(6))).when(this.clock).instant();
+    doReturn(changes(6L, Arrays.asList(phone2), Arrays.asList("phoneId1"))).when(phoneClient)
+        .getPhoneChanges(4L);
+
+    changesService.findPhones(Arrays.asList("phoneId2"));
+    final List<DaasPhoneDto> refreshed =
+        changesService.findPhones(Arrays.asList("phoneId1", "phoneId2"));
+
+    assertEquals(Arrays.asList(indexedPhone2), refreshed);
+    verify(this.loader, times(1)).loadCatalog();
+    verify(phoneClient, times(1)).getPhoneChanges(4L);
+    assertEquals(1.0, this.meterRegistry.get("phones.catalog.cache.refresh")
+        .tag("type", "changes").tag("outcome", "success").timer().count());
+  }
+
+  @Test
+  void refresh_loads_the_whole_catalog_when_the_changes_cannot_be_retrieved() {
+    final PhoneClient phoneClient = mock(PhoneClient.class);
+    final CachedPhoneCatalogServiceImpl changesService = createWithChanges(phoneClient);
+    doReturn(changes(4L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(null);
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(6))).when(this.clock).instant();
+    doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR)).when(phoneClient)
+        .getPhoneChanges(4L);
+    doReturn(Arrays.asList(phone1, phone2)).when(this.loader).loadCatalog();
+
+    changesService.findPhones(Arrays.asList("phoneId2"));
+
+    assertEquals(Arrays.asList(indexedPhone2),
+        changesService.findPhones(Arrays.asList("phoneId2")));
+    verify(this.loader, times(2)).loadCatalog();
+  }
+
+  @Test
+  void refresh_loads_the_whole_catalog_every_full_reload_interval() {
+    final PhoneClient phoneClient = mock(PhoneClient.class);
+    final CachedPhoneCatalogServiceImpl changesService = createWithChanges(phoneClient);
+    doReturn(changes(4L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(null);
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(61))).when(this.clock).instant();
+    doReturn(Arrays.asList(phone1, phone2)).when(this.loader).loadCatalog();
+
+    changesService.findPhones(Arrays.asList("phoneId2"));
+
+    verify(this.loader, times(2)).loadCatalog();
+    verify(phoneClient, never()).getPhoneChanges(4L);
+  }
+
+  @Test
+  void refresh_asks_again_from_the_version_reached_by_the_refresh_before_the_previous_one() {
+    final DaasPhoneDto phone3 =
+        createDaasPhoneDto("phoneId3", "phoneName3", "phoneDescription3", "phoneImageURL3", 300.0);
+    final PhoneClient phoneClient = mock(PhoneClient.class);
+    final CachedPhoneCatalogServiceImpl changesService = createWithChanges(phoneClient);
+    doReturn(changes(4L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(null);
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(6))).when(this.clock).instant();
+    doReturn(changes(6L, Arrays.asList(phone2), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(4L);
+    changesService.findPhones(Arrays.asList("phoneId2"));
+
+    // the phone 3 took the version 5 before the previous refresh and committed after it
+    doReturn(NOW.plus(Duration.ofMinutes(12))).when(this.clock).instant();
+    doReturn(changes(6L, Arrays.asList(phone3, phone2), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(4L);
+    changesService.findPhones(Arrays.asList("phoneId3"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(18))).when(this.clock).instant();
+    doReturn(changes(6L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(6L);
+    changesService.findPhones(Arrays.asList("phoneId3"));
+
+    final DaasPhoneDto indexedPhone3 =
+        DaasPhoneDto.builder().phoneId("phoneId3").name("phoneName3").price(300.0).build();
+    assertEquals(Arrays.asList(indexedPhone1, indexedPhone2, indexedPhone3),
+        changesService.findPhones(Arrays.asList("phoneId1", "phoneId2", "phoneId3")));
+    verify(phoneClient, times(2)).getPhoneChanges(4L);
+    verify(phoneClient, times(1)).getPhoneChanges(6L);
+    verify(this.loader, times(1)).loadCatalog();
+  }
+
+  @Test
+  void refresh_asks_for_the_changes_while_there_are_more() {
+    final PhoneClient phoneClient = mock(PhoneClient.class);
+    final CachedPhoneCatalogServiceImpl changesService = createWithChanges(phoneClient);
+    doReturn(changes(4L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(null);
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(6))).when(this.clock).instant();
+    doReturn(DaasPhoneChangesDto.builder().version(5L).upsert(phone2).more(true).build())
+        .when(phoneClient).getPhoneChanges(4L);
+    doReturn(changes(6L, Arrays.asList(), Arrays.asList("phoneId1"))).when(phoneClient)
+        .getPhoneChanges(5L);
+    changesService.findPhones(Arrays.asList("phoneId2"));
+
+    assertEquals(Arrays.asList(indexedPhone2),
+        changesService.findPhones(Arrays.asList("phoneId1", "phoneId2")));
+    verify(phoneClient, times(1)).getPhoneChanges(4L);
+    verify(phoneClient, times(1)).getPhoneChanges(5L);
+    verify(this.loader, times(1)).loadCatalog();
+  }
+
+  @Test
+  void refresh_loads_the_whole_catalog_when_the_changes_cannot_be_followed() {
+    final PhoneClient phoneClient = mock(PhoneClient.class);
+    final CachedPhoneCatalogServiceImpl changesService = createWithChanges(phoneClient);
+    doReturn(changes(4L, Arrays.asList(), Arrays.asList())).when(phoneClient)
+        .getPhoneChanges(null);
+    doReturn(Arrays.asList(phone1)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId1"));
+
+    doReturn(NOW.plus(Duration.ofMinutes(6))).when(this.clock).instant();
+    doReturn(DaasPhoneChangesDto.builder().version(9L).reload(true).build()).when(phoneClient)
+        .getPhoneChanges(4L);
+    doReturn(Arrays.asList(phone2)).when(this.loader).loadCatalog();
+    changesService.findPhones(Arrays.asList("phoneId2"));
+
+    assertEquals(Arrays.asList(indexedPhone2),
+        changesService.findPhones(Arrays.asList("phoneId1", "phoneId2")));
+    verify(this.loader, times(2)).loadCatalog();
+    assertEquals(2.0, this.meterRegistry.get("phones.catalog.cache.refresh")
+        .tag("type", "full").tag("outcome", "success").timer().count());
+  }
+
+  private CachedPhoneCatalogServiceImpl createWithChanges(final PhoneClient phoneClient) {
+    // @formatter:off
+    final PhoneCatalogProperties properties = PhoneCatalogProperties.builder()
+        .cacheTtl(Duration.ofMinutes(5))
+        .cacheMaxStale(Duration.ofMinutes(30))
+        .cacheFullReloadInterval(Duration.ofHours(1))
+        .build();
+    // @formatter:on
+    return new CachedPhoneCatalogServiceImpl(this.loader, phoneClient, properties,
+        this.meterRegistry, this.clock, Runnable::run);
+  }
+
+  private static DaasPhoneChangesDto changes(final long version, final List<DaasPhoneDto> upserts,
+      final List<String> deletedPhoneIds) {
+    return DaasPhoneChangesDto.builder().version(version).upserts(upserts)
+        .deletedPhoneIds(deletedPhoneIds).build();
+  }
+
+  private double requests(final String result) {
+    return this.meterRegistry.get("phones.catalog.cache.requests").tag("result", result).counter()
+        .count();
+  }
+}
@@ -0,0 +1,110 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+
+class CursorPhoneCatalogLoaderImplTest {
+
+  private static final int PAGE_SIZE = 2;
+
+  private PhoneClient phoneClient;
+  private CursorPhoneCatalogLoaderImpl loader;
+
+  private final DaasPhoneDto phone1 =
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+  private final DaasPhoneDto phone2 =
+      createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+  private final DaasPhoneDto phone3 =
+      createDaasPhoneDto("phoneId3", "phoneName3", "phoneDescription3", "phoneImageURL3", 300.0);
+
+  @BeforeEach
+  public void beforeEach() {
+    this.phoneClient = mock(PhoneClient.class);
+    this.loader = new CursorPhoneCatalogLoaderImpl(this.phoneClient,
+        PhoneCatalogProperties.builder().pageSize(PAGE_SIZE).build());
+  }
+
+  @Test
+  void phoneClient_isNull() {
+    final PhoneCatalogProperties properties = PhoneCatalogProperties.builder().build();
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new CursorPhoneCatalogLoaderImpl(null, properties);
+    });
+
+    final String expectedMessage = "'phoneClient' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void loadCatalog_follows_the_next_cursor_until_the_last_page() {
+    doReturn(createPage(Arrays.asList(phone1, phone2), "cursor1")).when(this.phoneClient)
+        .getPhoneData(1, PAGE_SIZE);
+    doReturn(createPage(Arrays.asList(phone3), null)).when(this.phoneClient)
+        .getPhoneDataAfter("cursor1", PAGE_SIZE);
+
+    final List<DaasPhoneDto> loaded = new ArrayList<>();
+    this.loader.loadCatalog(loaded::add);
+
+    assertEquals(Arrays.asList(phone1, phone2, phone3), loaded);
+    verify(this.phoneClient, times(1)).getPhoneData(1, PAGE_SIZE);
+    verify(this.phoneClient, times(1)).getPhoneDataAfter("cursor1", PAGE_SIZE);
+  }
+
+  @Test
+  void loadCatalog_of_a_single_page() {
+    doReturn(createPage(Arrays.asList(phone1), null)).when(this.phoneClient)
+        .getPhoneData(1, PAGE_SIZE);
+
+    assertEquals(Arrays.asList(phone1), this.loader.loadCatalog());
+    verify(this.phoneClient, never()).getPhoneDataAfter(anyString(), anyInt());
+  }
+
+  @Test
+  void loadCatalog_fails_when_a_page_fails() {
+    final HttpServerErrorException cause =
+        new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+    doReturn(createPage(Arrays.asList(phone1, phone2), "cursor1")).when(this.phoneClient)
+        .getPhoneData(1, PAGE_SIZE);
+    doThrow(cause).when(this.phoneClient).getPhoneDataAfter("cursor1", PAGE_SIZE);
+
+    Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+      this.loader.loadCatalog();
+    });
+
+    final String expectedMessage = "An error occurred while retrieving the phone catalog";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+    assertEquals(cause, exception.getCause());
+  }
+
+  private static DaasPhoneCatalogDto createPage(final List<DaasPhoneDto> phones,
+      final String next) {
+    return DaasPhoneCatalogDto.builder().phones(phones).pageSize(PAGE_SIZE).next(next).build();
+  }
+
+}
@@ -0,0 +1,182 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createNewOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createPhoneOrderDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyInProgressException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyReusedException;
+import es.microservices.tests.orders.services.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class IdempotentOrderServiceImplTest {
+
+  private OrderService delegate;
+  private MeterRegistry meterRegistry;
+  private IdempotentOrderServiceImpl service;
+
+  private final NewOrderDto newOrder =
+      createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+  private final OrderDto order = createOrderDto("orderId", "customerName", "customerSurname",
+      "email@email.com", 100.0, createPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+  @BeforeEach
+  public void beforeEach() {
+    this.delegate = mock(OrderService.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.service = new IdempotentOrderServiceImpl(this.delegate,
+        new InMemoryIdempotencyStoreImpl(IdempotencyProperties.builder().build()),
+        this.meterRegistry);
+  }
+
+  @Test
+  void delegate_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new IdempotentOrderServiceImpl(null,
+          new InMemoryIdempotencyStoreImpl(IdempotencyProperties.builder().build()),
+          this.meterRegistry);
+    });
+
+    final String expectedMessage = "'delegate' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void retries_get_the_order_of_the_first_request() {
+    doReturn(this.order).when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    assertSame(this.order, this.service.createOrder("key", this.newOrder));
+    assertSame(this.order, this.service.createOrder("key", this.newOrder));
+
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+    assertEquals(1.0, requests("created"));
+    assertEquals(1.0, requests("replayed"));
+  }
+
+  @Test
+  void retries_while_the_first_request_runs_wait_for_it() throws Exception {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return this.order;
+    }).when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    final CompletableFuture<OrderDto> first =
+        CompletableFuture.supplyAsync(() -> this.service.createOrder("key", this.newOrder));
+    started.await(5, TimeUnit.SECONDS);
+    final CompletableFuture<OrderDto> retry =
+        CompletableFuture.supplyAsync(() -> this.service.createOrder("key", this.newOrder));
+    while (requests("joined") < 1.0 && !retry.isDone()) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+
+    assertSame(this.order, first.get(5, TimeUnit.SECONDS));
+    assertSame(this.order, retry.get(5, TimeUnit.SECONDS));
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+    assertEquals(1.0, requests("joined"));
+  }
+
+  @Test
+  void failed_requests_are_forgotten() {
+    doThrow(new CreatingOrderException("Error creating order", null)).doReturn(this.order)
+        .when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    assertThrows(CreatingOrderException.class, () -> {
+      this.service.createOrder("key", this.newOrder);
+    });
+    assertSame(this.order, this.service.createOrder("key", this.newOrder));
+
+    verify(this.delegate, times(2)).createOrder(any(NewOrderDto.class));
+  }
+
+  @Test
+  void requests_failed_with_an_error_are_forgotten_too() {
+    doThrow(new StackOverflowError()).doReturn(this.order).when(this.delegate)
+        .createOrder(any(NewOrderDto.class));
+
+    assertThrows(StackOverflowError.class, () -> {
+      this.service.createOrder("key", this.newOrder);
+    });
+    assertSame(this.order, this.service.createOrder("key", this.newOrder));
+
+    verify(this.delegate, times(2)).createOrder(any(NewOrderDto.class));
+  }
+
+  @Test
+  void retries_give_up_waiting_after_the_join_timeout() throws Exception {
+    this.service = new IdempotentOrderServiceImpl(this.delegate,
+        new InMemoryIdempotencyStoreImpl(IdempotencyProperties.builder().build()),
+        IdempotencyProperties.builder().joinTimeout(Duration.ofMillis(50)).build(),
+        this.meterRegistry);
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return this.order;
+    }).when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    final CompletableFuture<OrderDto> first =
+        CompletableFuture.supplyAsync(() -> this.service.createOrder("key", this.newOrder));
+    started.await(5, TimeUnit.SECONDS);
+    Exception exception = assertThrows(IdempotencyKeyInProgressException.class, () -> {
+      this.service.createOrder("key", this.newOrder);
+    });
+    release.countDown();
+
+    final String expectedMessage =
+        "Error. The order of the idempotency key key is still being created";
+    assertEquals(expectedMessage, exception.getMessage());
+    assertSame(this.order, first.get(5, TimeUnit.SECONDS));
+    assertSame(this.order, this.service.createOrder("key", this.newOrder));
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+  }
+
+  @Test
+  void key_reused_for_a_different_order() {
+    doReturn(this.order).when(this.delegate).createOrder(any(NewOrderDto.class));
+    final NewOrderDto otherOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId2");
+
+    this.service.createOrder("key", this.newOrder);
+    Exception exception = assertThrows(IdempotencyKeyReusedException.class, () -> {
+      this.service.createOrder("key", otherOrder);
+    });
+
+    final String expectedMessage =
+        "Error. The idempotency key key was already used for a different order";
+    assertEquals(expectedMessage, exception.getMessage());
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+  }
+
+  private double requests(final String result) {
+    return this.meterRegistry.get("orders.idempotency.requests").tag("result", result).counter()
+        .count();
+  }
+
+}
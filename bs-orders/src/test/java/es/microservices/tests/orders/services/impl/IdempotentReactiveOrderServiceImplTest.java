@@ -0,0 +1,159 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createNewOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createPhoneOrderDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyInProgressException;
+import es.microservices.tests.orders.exceptions.IdempotencyKeyReusedException;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class IdempotentReactiveOrderServiceImplTest {
+
+  private static final Duration JOIN_TIMEOUT = Duration.ofSeconds(10);
+
+  private ReactiveOrderService delegate;
+  private MeterRegistry meterRegistry;
+  private IdempotentReactiveOrderServiceImpl service;
+
+  private final NewOrderDto newOrder =
+      createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1");
+  private final OrderDto order = createOrderDto("orderId", "customerName", "customerSurname",
+      "email@email.com", 100.0, createPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+
+  @BeforeEach
+  public void beforeEach() {
+    this.delegate = mock(ReactiveOrderService.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    final IdempotencyProperties properties =
+        IdempotencyProperties.builder().joinTimeout(JOIN_TIMEOUT).build();
+    this.service = new IdempotentReactiveOrderServiceImpl(this.delegate,
+        new InMemoryIdempotencyStoreImpl(properties), properties, this.meterRegistry);
+  }
+
+  @Test
+  void delegate_isNull() {
+    final IdempotencyProperties properties = IdempotencyProperties.builder().build();
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new IdempotentReactiveOrderServiceImpl(null, new InMemoryIdempotencyStoreImpl(properties),
+          properties, this.meterRegistry);
+    });
+
+    final String expectedMessage = "'delegate' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void retries_get_the_order_of_the_first_request() {
+    doReturn(Mono.just(this.order)).when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    StepVerifier.create(this.service.createOrder("key", this.newOrder)).expectNext(this.order)
+        .expectComplete().verify();
+    StepVerifier.create(this.service.createOrder("key", this.newOrder)).expectNext(this.order)
+        .expectComplete().verify();
+
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+    assertEquals(1.0, requests("created"));
+    assertEquals(1.0, requests("replayed"));
+  }
+
+  @Test
+  void retries_while_the_first_request_runs_wait_for_it() {
+    final Sinks.One<OrderDto> created = Sinks.one();
+    doReturn(created.asMono()).when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    final Disposable first = this.service.createOrder("key", this.newOrder).subscribe();
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrder("key", this.newOrder))
+      .then(() -> created.tryEmitValue(this.order))
+      .expectNext(this.order)
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    first.dispose();
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+    assertEquals(1.0, requests("joined"));
+  }
+
+  @Test
+  void retries_give_up_waiting_after_the_join_timeout_without_cancelling_the_first() {
+    doReturn(Mono.never(), Mono.just(this.order)).when(this.delegate)
+        .createOrder(any(NewOrderDto.class));
+
+    final Disposable first = this.service.createOrder("key", this.newOrder).subscribe();
+
+    // @formatter:off
+    StepVerifier.withVirtualTime(() -> this.service.createOrder("key", this.newOrder))
+      .expectSubscription()
+      .thenAwait(JOIN_TIMEOUT)
+      .expectErrorMatches(e -> e instanceof IdempotencyKeyInProgressException
+          && "Error. The order of the idempotency key key is still being created"
+              .equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+
+    first.dispose();
+    StepVerifier.create(this.service.createOrder("key", this.newOrder)).expectNext(this.order)
+        .expectComplete().verify();
+    verify(this.delegate, times(2)).createOrder(any(NewOrderDto.class));
+  }
+
+  @Test
+  void failed_requests_are_forgotten() {
+    doReturn(Mono.error(new CreatingOrderException("Error creating order", null)),
+        Mono.just(this.order)).when(this.delegate).createOrder(any(NewOrderDto.class));
+
+    StepVerifier.create(this.service.createOrder("key", this.newOrder))
+        .expectError(CreatingOrderException.class).verify();
+    StepVerifier.create(this.service.createOrder("key", this.newOrder)).expectNext(this.order)
+        .expectComplete().verify();
+
+    verify(this.delegate, times(2)).createOrder(any(NewOrderDto.class));
+  }
+
+  @Test
+  void key_reused_for_a_different_order() {
+    doReturn(Mono.just(this.order)).when(this.delegate).createOrder(any(NewOrderDto.class));
+    final NewOrderDto otherOrder =
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId2");
+
+    this.service.createOrder("key", this.newOrder).block();
+    Exception exception = assertThrows(IdempotencyKeyReusedException.class, () -> {
+      this.service.createOrder("key", otherOrder).block();
+    });
+
+    final String expectedMessage =
+        "Error. The idempotency key key was already used for a different order";
+    assertEquals(expectedMessage, exception.getMessage());
+    verify(this.delegate, times(1)).createOrder(any(NewOrderDto.class));
+  }
+
+  private double requests(final String result) {
+    return this.meterRegistry.get("orders.idempotency.requests").tag("result", result).counter()
+        .count();
+  }
+
+}
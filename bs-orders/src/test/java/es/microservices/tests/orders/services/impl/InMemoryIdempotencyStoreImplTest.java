@@ -0,0 +1,100 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createNewOrderDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.orders.configurations.properties.IdempotencyProperties;
+import es.microservices.tests.orders.services.IdempotencyStore.Entry;
+
+class InMemoryIdempotencyStoreImplTest {
+
+  private static final Instant NOW = Instant.parse("2021-02-01T10:00:00Z");
+
+  private Clock clock;
+  private InMemoryIdempotencyStoreImpl store;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.clock = mock(Clock.class);
+    doReturn(NOW).when(this.clock).instant();
+
+    // @formatter:off
+    final IdempotencyProperties properties = IdempotencyProperties.builder()
+        .ttl(Duration.ofMinutes(10))
+        .maxKeys(2)
+        .build();
+    // @formatter:on
+    this.store = new InMemoryIdempotencyStoreImpl(properties, this.clock);
+  }
+
+  @Test
+  void properties_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new InMemoryIdempotencyStoreImpl(null);
+    });
+
+    final String expectedMessage = "'properties' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void putIfAbsent_returns_the_entry_kept() {
+    final Entry first = entry();
+
+    assertNull(this.store.putIfAbsent("key", first));
+    assertSame(first, this.store.putIfAbsent("key", entry()));
+  }
+
+  @Test
+  void keys_expire_after_the_ttl() {
+    this.store.putIfAbsent("key", entry());
+
+    doReturn(NOW.plus(Duration.ofMinutes(10))).when(this.clock).instant();
+    final Entry second = entry();
+
+    assertNull(this.store.putIfAbsent("key", second));
+    assertSame(second, this.store.putIfAbsent("key", entry()));
+    assertEquals(1, this.store.size());
+  }
+
+  @Test
+  void oldest_keys_are_forgotten_over_max_keys() {
+    final Entry second = entry();
+    this.store.putIfAbsent("first", entry());
+    this.store.putIfAbsent("second", second);
+    this.store.putIfAbsent("third", entry());
+
+    assertEquals(2, this.store.size());
+    assertSame(second, this.store.putIfAbsent("second", entry()));
+    assertNull(this.store.putIfAbsent("first", entry()));
+  }
+
+  @Test
+  void remove_only_forgets_the_same_entry() {
+    final Entry first = entry();
+    this.store.putIfAbsent("key", first);
+
+    this.store.remove("key", entry());
+    assertSame(first, this.store.putIfAbsent("key", entry()));
+
+    this.store.remove("key", first);
+    assertNull(this.store.putIfAbsent("key", entry()));
+  }
+
+  private static Entry entry() {
+    return new Entry(
+        createNewOrderDto("customerName", "customerSurname", "email@email.com", "phoneId1"));
+  }
+
+}
@@ -0,0 +1,111 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.PhoneCatalogService;
+
+class LookupPhoneCatalogServiceImplTest {
+
+  private PhoneClient phoneClient;
+  private PhoneCatalogService service;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.phoneClient = mock(PhoneClient.class);
+    this.service = new LookupPhoneCatalogServiceImpl(this.phoneClient);
+  }
+
+  @Test
+  void phoneClient_isNull() {
+    final PhoneClient phoneClient = null;
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new LookupPhoneCatalogServiceImpl(phoneClient);
+    });
+
+    final String expectedMessage = "'phoneClient' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findPhones_asks_only_for_the_distinct_requested_ids() {
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasPhoneLookupResultDto result =
+        DaasPhoneLookupResultDto.builder().phone(phone1).missingPhoneId("phoneId2").build();
+    doReturn(result).when(this.phoneClient).getPhonesByIds(anyList());
+
+    final List<DaasPhoneDto> phones =
+        this.service.findPhones(Arrays.asList("phoneId1", "phoneId2", "phoneId1"));
+
+    assertEquals(Arrays.asList(phone1), phones);
+    verify(this.phoneClient, times(1)).getPhonesByIds(Arrays.asList("phoneId1", "phoneId2"));
+    verify(this.phoneClient, never()).getPhoneData(anyInt(), anyInt());
+  }
+
+  @Test
+  void findPhones_splits_the_ids_in_the_lookups_daas_phones_accepts() {
+    final List<String> phoneIds = new ArrayList<>();
+    for (int i = 0; i < 2 * DaasPhoneLookupDto.MAX_PHONE_IDS + 1; i++) {
+      phoneIds.add("phoneId" + i);
+    }
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasPhoneDto phone2 =
+        createDaasPhoneDto("phoneId1000", "phoneName2", "phoneDescription2", "phoneImageURL2",
+            200.0);
+    doReturn(DaasPhoneLookupResultDto.builder().phone(phone1).build(),
+        DaasPhoneLookupResultDto.builder().phone(phone2).build(),
+        DaasPhoneLookupResultDto.builder().build()).when(this.phoneClient)
+            .getPhonesByIds(anyList());
+
+    final List<DaasPhoneDto> phones = this.service.findPhones(phoneIds);
+
+    assertEquals(Arrays.asList(phone1, phone2), phones);
+    final InOrder inOrder = inOrder(this.phoneClient);
+    inOrder.verify(this.phoneClient).getPhonesByIds(phoneIds.subList(0, 500));
+    inOrder.verify(this.phoneClient).getPhonesByIds(phoneIds.subList(500, 1000));
+    inOrder.verify(this.phoneClient).getPhonesByIds(phoneIds.subList(1000, 1001));
+    inOrder.verifyNoMoreInteractions();
+  }
+
+  @Test
+  void findPhones_phoneClient_returns_error() {
+    doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR)).when(this.phoneClient)
+        .getPhonesByIds(anyList());
+
+    Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+      this.service.findPhones(Arrays.asList("phoneId1"));
+    });
+
+    final String expectedMessage = "An error occurred while retrieving the phone catalog";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+}
@@ -12,8 +12,11 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.util.Arrays;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.client.HttpClientErrorException;
 import es.microservices.tests.orders.clients.OrderClient;
@@ -31,6 +34,8 @@ import es.microservices.tests.orders.exceptions.PhoneRequestedListEmptyException
 import es.microservices.tests.orders.exceptions.PhoneRequestedNotFound;
 import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
 import es.microservices.tests.orders.services.OrderService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 class OrderServiceImplTest {
 
@@ -321,6 +326,86 @@ class OrderServiceImplTest {
 
   }
 
+  @Test
+  void createOrder_charges_a_phone_as_many_times_as_it_is_requested() {
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasPhoneDto phone2 =
+        createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+    final NewOrderDto newOrder = createNewOrderDto("customerName", "customerSurname",
+        "customerEmail", "phoneId1", "phoneId2", "phoneId1");
+
+    doReturn(createDaasPhoneCatalogDto(1, 10, 2L, phone1, phone2)).when(this.phoneClient)
+        .getPhoneData(anyInt(), anyInt());
+    doReturn(createDaasOrderDto("orderId", "customerName", "customerSurname", "customerEmail",
+        800.0)).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    assertNotNull(this.service.createOrder(newOrder));
+
+    final ArgumentCaptor<DaasNewOrderDto> sent = ArgumentCaptor.forClass(DaasNewOrderDto.class);
+    verify(this.orderClient, times(1)).createOrder(sent.capture());
+    // @formatter:off
+    assertEquals(Arrays.asList("phoneId1", "phoneId2", "phoneId1"), sent.getValue()
+        .getPhoneListToBuy().stream()
+        .map(DaasPhoneOrderDto::getPhoneId)
+        .collect(Collectors.toList()));
+    // @formatter:on
+    assertEquals(800.0, sent.getValue().getTotalPrice());
+  }
+
+  @Test
+  void createOrder_times_every_stage() {
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final OrderService timedService = new OrderServiceImpl(
+        new PhoneCatalogServiceImpl(new PhoneCatalogLoaderImpl(this.phoneClient)), this.orderClient,
+        meterRegistry);
+
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasPhoneDto phone2 =
+        createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+    final DaasOrderDto orderDto = createDaasOrderDto("orderId", "customerName", "customerSurname",
+        "customerEmail", 700.0, createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0),
+        createDaasPhoneOrderDto("phoneId2", "phoneName2", 600.0));
+
+    doReturn(createDaasPhoneCatalogDto(1, 10, 2l, phone1, phone2)).when(this.phoneClient)
+        .getPhoneData(anyInt(), anyInt());
+    doReturn(orderDto).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
 
+    timedService.createOrder(createNewOrderDto("customerName", "customerSurname", "customerEmail",
+        new String[] {"phoneId1", "phoneId2"}));
+
+    for (String stage : new String[] {OrderServiceImpl.STAGE_CATALOG,
+        OrderServiceImpl.STAGE_TRANSFORM, OrderServiceImpl.STAGE_PERSIST}) {
+      assertEquals(1, meterRegistry.get(OrderServiceImpl.STAGE_METRIC).tag("stage", stage)
+          .tag("outcome", "success").timer().count());
+    }
+  }
+
+  @Test
+  void createOrder_times_the_failed_stage_as_error() {
+    final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    final OrderService timedService = new OrderServiceImpl(
+        new PhoneCatalogServiceImpl(new PhoneCatalogLoaderImpl(this.phoneClient)), this.orderClient,
+        meterRegistry);
+
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+
+    doReturn(createDaasPhoneCatalogDto(1, 10, 1l, phone1)).when(this.phoneClient)
+        .getPhoneData(anyInt(), anyInt());
+    doThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST)).when(this.orderClient)
+        .createOrder(any(DaasNewOrderDto.class));
+
+    assertThrows(CreatingOrderException.class, () -> {
+      timedService.createOrder(createNewOrderDto("customerName", "customerSurname",
+          "customerEmail", new String[] {"phoneId1"}));
+    });
+
+    assertEquals(1, meterRegistry.get(OrderServiceImpl.STAGE_METRIC)
+        .tag("stage", OrderServiceImpl.STAGE_CATALOG).tag("outcome", "success").timer().count());
+    assertEquals(1, meterRegistry.get(OrderServiceImpl.STAGE_METRIC)
+        .tag("stage", OrderServiceImpl.STAGE_PERSIST).tag("outcome", "error").timer().count());
+  }
 
 }
@@ -0,0 +1,184 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+
+class PhoneCatalogIndexTest {
+
+  @Test
+  void catalog_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      PhoneCatalogIndex.of(null);
+    });
+
+    final String expectedMessage = "'catalog' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void empty_index_does_not_find_anything() {
+    assertEquals(0, PhoneCatalogIndex.EMPTY.size());
+    assertEquals(-1, PhoneCatalogIndex.EMPTY.slotOf("phoneId1"));
+    assertEquals(0, PhoneCatalogIndex.EMPTY.findPhones(Arrays.asList("phoneId1")).size());
+  }
+
+  @Test
+  void findPhones_returns_pricing_fields_in_request_order_without_duplicates() {
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasPhoneDto phone2 =
+        createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+    final DaasPhoneDto repeated =
+        createDaasPhoneDto("phoneId1", "otherName", "otherDescription", "otherImageURL", 1.0);
+    final PhoneCatalogIndex index = PhoneCatalogIndex.of(Arrays.asList(phone1, phone2, repeated));
+
+    final List<DaasPhoneDto> phones =
+        index.findPhones(Arrays.asList("phoneId2", "phoneId3", "phoneId1", "phoneId2"));
+
+    assertEquals(2, index.size());
+    assertEquals(2, phones.size());
+    assertEquals(
+        DaasPhoneDto.builder().phoneId("phoneId2").name("phoneName2").price(600.0).build(),
+        phones.get(0));
+    assertEquals(
+        DaasPhoneDto.builder().phoneId("phoneId1").name("phoneName1").price(100.0).build(),
+        phones.get(1));
+    assertNull(phones.get(0).getDescription());
+  }
+
+  @Test
+  void large_catalog_resolves_every_identifier_and_shares_names() {
+    final List<DaasPhoneDto> catalog = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      catalog.add(DaasPhoneDto.builder().phoneId("phoneId" + i).name(new String("sameName"))
+          .price(i * 1.0).build());
+    }
+    final PhoneCatalogIndex index = PhoneCatalogIndex.of(catalog);
+
+    for (int i = 0; i < 10_000; i++) {
+      final int slot = index.slotOf("phoneId" + i);
+      assertEquals("phoneId" + i, index.phoneId(slot));
+      assertEquals(i * 1.0, index.price(slot));
+    }
+    assertEquals(-1, index.slotOf("phoneId10000"));
+    assertSame(index.name(0), index.name(9_999));
+  }
+
+  @Test
+  void phone_without_price_keeps_null_price() {
+    final DaasPhoneDto phone = DaasPhoneDto.builder().phoneId("phoneId1").name("phoneName1").build();
+
+    final List<DaasPhoneDto> phones =
+        PhoneCatalogIndex.of(Arrays.asList(phone)).findPhones(Arrays.asList("phoneId1"));
+
+    assertNull(phones.get(0).getPrice());
+  }
+
+  @Test
+  void builder_grows_beyond_the_expected_size() {
+    final PhoneCatalogIndex.Builder builder = PhoneCatalogIndex.builder(0);
+    for (int i = 0; i < 1000; i++) {
+      builder.add(DaasPhoneDto.builder().phoneId("phoneId" + i).name("phoneName").price(1.0 * i)
+          .build());
+    }
+    builder.add(DaasPhoneDto.builder().phoneId("phoneId1").name("duplicated").price(0.0).build());
+
+    final PhoneCatalogIndex index = builder.build();
+
+    assertEquals(1000, index.size());
+    for (int i = 0; i < 1000; i++) {
+      final int slot = index.slotOf("phoneId" + i);
+      assertEquals("phoneId" + i, index.phoneId(slot));
+      assertEquals(1.0 * i, index.price(slot));
+    }
+    assertEquals("phoneName", index.name(index.slotOf("phoneId1")));
+    assertEquals(-1, index.slotOf("phoneId1000"));
+  }
+
+  @Test
+  void withChanges_replaces_adds_and_removes_phones_without_modifying_the_index() {
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final DaasPhoneDto phone2 =
+        createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+    final DaasPhoneDto updated1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 90.0);
+    final DaasPhoneDto phone3 =
+        createDaasPhoneDto("phoneId3", "phoneName3", "phoneDescription3", "phoneImageURL3", 300.0);
+    final PhoneCatalogIndex index = PhoneCatalogIndex.of(Arrays.asList(phone1, phone2));
+
+    final PhoneCatalogIndex changed =
+        index.withChanges(Arrays.asList(updated1, phone3), Arrays.asList("phoneId2", "phoneId4"));
+
+    assertEquals(2, changed.size());
+    assertEquals(90.0, changed.price(changed.slotOf("phoneId1")));
+    assertEquals(300.0, changed.price(changed.slotOf("phoneId3")));
+    assertEquals(-1, changed.slotOf("phoneId2"));
+    assertEquals(2, index.size());
+    assertEquals(100.0, index.price(index.slotOf("phoneId1")));
+    assertEquals(600.0, index.price(index.slotOf("phoneId2")));
+  }
+
+  @Test
+  void withChanges_a_phone_upserted_and_deleted_is_left_out() {
+    final DaasPhoneDto phone1 =
+        createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+    final PhoneCatalogIndex index = PhoneCatalogIndex.of(Arrays.asList(phone1));
+
+    final PhoneCatalogIndex changed =
+        index.withChanges(Arrays.asList(phone1), Arrays.asList("phoneId1"));
+
+    assertEquals(0, changed.size());
+  }
+
+  @Test
+  void withChanges_without_changes_is_the_same_index() {
+    final PhoneCatalogIndex index = PhoneCatalogIndex.of(Arrays.asList(createDaasPhoneDto(
+        "phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0)));
+
+    assertSame(index, index.withChanges(new ArrayList<>(), new ArrayList<>()));
+  }
+
+  @Test
+  void withChanges_keeps_every_remaining_phone_reachable_after_many_deletions() {
+    final List<DaasPhoneDto> catalog = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      catalog.add(createDaasPhoneDto("phoneId" + i, "phoneName" + i, "phoneDescription" + i,
+          "phoneImageURL" + i, (double) i));
+    }
+    final List<String> deleted = new ArrayList<>();
+    for (int i = 0; i < 1000; i += 3) {
+      deleted.add("phoneId" + i);
+    }
+    final List<DaasPhoneDto> added = new ArrayList<>();
+    for (int i = 1000; i < 1100; i++) {
+      added.add(createDaasPhoneDto("phoneId" + i, "phoneName" + i, "phoneDescription" + i,
+          "phoneImageURL" + i, (double) i));
+    }
+
+    final PhoneCatalogIndex changed =
+        PhoneCatalogIndex.of(catalog).withChanges(added, deleted);
+
+    assertEquals(1100 - deleted.size(), changed.size());
+    for (int i = 0; i < 1100; i++) {
+      final int slot = changed.slotOf("phoneId" + i);
+      if (i < 1000 && i % 3 == 0) {
+        assertEquals(-1, slot);
+      } else {
+        assertEquals("phoneId" + i, changed.phoneId(slot));
+        assertEquals((double) i, changed.price(slot));
+      }
+    }
+  }
+
+}
@@ -0,0 +1,147 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneCatalogDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.configurations.properties.PhoneCatalogProperties;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneCatalogDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+
+class PhoneCatalogLoaderImplTest {
+
+  private static final int PAGE_SIZE = 2;
+  private static final int PARALLELISM = 2;
+  private static final long TOTAL_COUNT = 9L;
+
+  private PhoneClient phoneClient;
+  private PhoneCatalogLoaderImpl loader;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.phoneClient = mock(PhoneClient.class);
+    // @formatter:off
+    final PhoneCatalogProperties properties = PhoneCatalogProperties.builder()
+        .pageSize(PAGE_SIZE)
+        .parallelism(PARALLELISM)
+        .build();
+    // @formatter:on
+    this.loader = new PhoneCatalogLoaderImpl(this.phoneClient, properties);
+  }
+
+  @AfterEach
+  public void afterEach() {
+    this.loader.close();
+  }
+
+  @Test
+  void phoneClient_isNull() {
+    final PhoneClient phoneClient = null;
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new PhoneCatalogLoaderImpl(phoneClient);
+    });
+
+    final String expectedMessage = "'phoneClient' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void threadFactory_isNull() {
+    final PhoneCatalogProperties properties = PhoneCatalogProperties.builder().build();
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new PhoneCatalogLoaderImpl(this.phoneClient, properties, null);
+    });
+
+    final String expectedMessage = "'threadFactory' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void loadCatalog_merges_concurrent_pages_in_page_order() {
+    final AtomicInteger inFlight = new AtomicInteger();
+    final AtomicInteger maxInFlight = new AtomicInteger();
+    doAnswer(invocation -> {
+      final int page = invocation.getArgument(0);
+      final int current = inFlight.incrementAndGet();
+      maxInFlight.accumulateAndGet(current, Math::max);
+      // the first pages answer last, so the merge order cannot come from completion order
+      Thread.sleep(10L * (6 - page));
+      inFlight.decrementAndGet();
+      return createPage(page);
+    }).when(this.phoneClient).getPhoneData(anyInt(), eq(PAGE_SIZE));
+
+    final List<DaasPhoneDto> catalog = this.loader.loadCatalog();
+
+    final List<String> phoneIds =
+        catalog.stream().map(DaasPhoneDto::getPhoneId).collect(Collectors.toList());
+    assertEquals(9, phoneIds.size());
+    for (int i = 0; i < phoneIds.size(); i++) {
+      assertEquals("phoneId" + i, phoneIds.get(i));
+    }
+    assertTrue(maxInFlight.get() <= PARALLELISM);
+    verify(this.phoneClient, times(5)).getPhoneData(anyInt(), eq(PAGE_SIZE));
+  }
+
+  @Test
+  void loadCatalog_fails_when_any_page_fails() {
+    doAnswer(invocation -> createPage(invocation.getArgument(0))).when(this.phoneClient)
+        .getPhoneData(anyInt(), eq(PAGE_SIZE));
+    doThrow(new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR)).when(this.phoneClient)
+        .getPhoneData(3, PAGE_SIZE);
+
+    Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+      this.loader.loadCatalog();
+    });
+
+    final String expectedMessage = "An error occurred while retrieving the phone catalog";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+    assertTrue(exception.getCause() instanceof HttpServerErrorException);
+  }
+
+  @Test
+  void loadCatalog_empty_catalog_requests_only_the_first_page() {
+    doReturn(createDaasPhoneCatalogDto(1, PAGE_SIZE, 0L)).when(this.phoneClient)
+        .getPhoneData(anyInt(), anyInt());
+
+    assertEquals(0, this.loader.loadCatalog().size());
+    verify(this.phoneClient, times(1)).getPhoneData(anyInt(), anyInt());
+  }
+
+  private static DaasPhoneCatalogDto createPage(final int page) {
+    final int first = (page - 1) * PAGE_SIZE;
+    final int last = (int) Math.min(TOTAL_COUNT, (long) first + PAGE_SIZE);
+    final DaasPhoneDto[] phones = new DaasPhoneDto[last - first];
+    for (int i = first; i < last; i++) {
+      phones[i - first] = createDaasPhoneDto("phoneId" + i, "phoneName" + i,
+          "phoneDescription" + i, "phoneImageURL" + i, 100.0 + i);
+    }
+    return createDaasPhoneCatalogDto(page, PAGE_SIZE, TOTAL_COUNT, phones);
+  }
+}
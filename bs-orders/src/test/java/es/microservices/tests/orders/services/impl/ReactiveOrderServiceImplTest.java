@@ -0,0 +1,198 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneOrderDto;
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createNewOrderDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import es.microservices.tests.orders.clients.ReactiveOrderClient;
+import es.microservices.tests.orders.clients.ReactivePhoneClient;
+import es.microservices.tests.orders.dtos.NewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasNewOrderDto;
+import es.microservices.tests.orders.dtos.orders.DaasOrderDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupDto;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneLookupResultDto;
+import es.microservices.tests.orders.exceptions.CreatingOrderException;
+import es.microservices.tests.orders.exceptions.PhoneRequestedListEmptyException;
+import es.microservices.tests.orders.exceptions.PhoneRequestedNotFound;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+import es.microservices.tests.orders.services.ReactiveOrderService;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveOrderServiceImplTest {
+
+  private ReactivePhoneClient phoneClient;
+  private ReactiveOrderClient orderClient;
+
+  private ReactiveOrderService service;
+
+  private final DaasPhoneDto phone1 =
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+
+  @BeforeEach
+  public void beforeEach() {
+    this.phoneClient = mock(ReactivePhoneClient.class);
+    this.orderClient = mock(ReactiveOrderClient.class);
+    this.service = new ReactiveOrderServiceImpl(this.phoneClient, this.orderClient);
+  }
+
+  @Test
+  void phoneClient_isNull() {
+    final ReactivePhoneClient phoneClient = null;
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new ReactiveOrderServiceImpl(phoneClient, this.orderClient);
+    });
+
+    final String expectedMessage = "'phoneClient' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void newOrder_emptyPhoneIdList() {
+    final NewOrderDto newOrder = createNewOrderDto("customerName", "customerSurname", "email");
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrder(newOrder))
+      .expectErrorMatches(e -> e instanceof PhoneRequestedListEmptyException
+          && "Error. The list of phone identifiers is empty".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+
+    verify(this.phoneClient, never()).getPhonesByIds(anyList());
+  }
+
+  @Test
+  void newOrder_phoneClient_returns_error() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email", "phoneId1");
+    doReturn(Mono.error(WebClientResponseException.create(HttpStatus.BAD_GATEWAY.value(), "",
+        null, null, null))).when(this.phoneClient).getPhonesByIds(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrder(newOrder))
+      .expectErrorMatches(e -> e instanceof RetrievingPhoneException
+          && "An error occurred while retrieving the phone catalog".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+
+    verify(this.orderClient, never()).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void newOrder_a_requested_phoneId_is_missing() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email", "phoneId1", "phoneId3");
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone1).missingPhoneId("phoneId3")
+        .build())).when(this.phoneClient).getPhonesByIds(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrder(newOrder))
+      .expectErrorMatches(e -> e instanceof PhoneRequestedNotFound
+          && ("Cannot continue with order creation. The following phone identifiers have not been found: phoneId3")
+              .equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+
+    verify(this.orderClient, never()).createOrder(any(DaasNewOrderDto.class));
+  }
+
+  @Test
+  void newOrder_orderClient_returns_error() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email", "phoneId1");
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone1).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+    doReturn(Mono.error(WebClientResponseException.create(HttpStatus.BAD_REQUEST.value(), "",
+        null, null, null))).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrder(newOrder))
+      .expectErrorMatches(e -> e instanceof CreatingOrderException
+          && "An error occurred creating the order".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void newOrder_is_created() {
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email", "phoneId1", "phoneId1");
+    final DaasOrderDto daasOrder = createDaasOrderDto("orderId", "customerName",
+        "customerSurname", "email", 100.0,
+        createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone1).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+    doReturn(Mono.just(daasOrder)).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrder(newOrder))
+      .assertNext(order -> {
+        assertEquals("orderId", order.getOrderId());
+        assertEquals(100.0, order.getTotalPrice());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.phoneClient, times(1)).getPhonesByIds(Arrays.asList("phoneId1"));
+  }
+
+  @Test
+  void newOrder_charges_a_phone_as_many_times_as_it_is_requested() {
+    final NewOrderDto newOrder = createNewOrderDto("customerName", "customerSurname", "email",
+        "phoneId1", "phoneId1");
+    final DaasOrderDto daasOrder = createDaasOrderDto("orderId", "customerName",
+        "customerSurname", "email", 200.0, createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0),
+        createDaasPhoneOrderDto("phoneId1", "phoneName1", 100.0));
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone1).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+    doReturn(Mono.just(daasOrder)).when(this.orderClient).createOrder(any(DaasNewOrderDto.class));
+
+    StepVerifier.create(this.service.createOrder(newOrder)).expectNextCount(1).verifyComplete();
+
+    final ArgumentCaptor<DaasNewOrderDto> sent = ArgumentCaptor.forClass(DaasNewOrderDto.class);
+    verify(this.orderClient, times(1)).createOrder(sent.capture());
+    assertEquals(2, sent.getValue().getPhoneListToBuy().size());
+    assertEquals(200.0, sent.getValue().getTotalPrice());
+    verify(this.phoneClient, times(1)).getPhonesByIds(Arrays.asList("phoneId1"));
+  }
+
+  @Test
+  void newOrder_splits_the_phones_in_the_lookups_daas_phones_accepts() {
+    final String[] phoneIds = new String[DaasPhoneLookupDto.MAX_PHONE_IDS + 1];
+    for (int i = 0; i < phoneIds.length; i++) {
+      phoneIds[i] = "phoneId" + i;
+    }
+    final NewOrderDto newOrder =
+        createNewOrderDto("customerName", "customerSurname", "email", phoneIds);
+    doReturn(Mono.just(DaasPhoneLookupResultDto.builder().phone(phone1).build()))
+        .when(this.phoneClient).getPhonesByIds(anyList());
+
+    StepVerifier.create(this.service.createOrder(newOrder))
+        .verifyError(PhoneRequestedNotFound.class);
+
+    verify(this.phoneClient, times(1))
+        .getPhonesByIds(Arrays.asList(phoneIds).subList(0, DaasPhoneLookupDto.MAX_PHONE_IDS));
+    verify(this.phoneClient, times(1))
+        .getPhonesByIds(Arrays.asList(phoneIds[DaasPhoneLookupDto.MAX_PHONE_IDS]));
+  }
+}
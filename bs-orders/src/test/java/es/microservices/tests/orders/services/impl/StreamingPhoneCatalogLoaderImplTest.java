@@ -0,0 +1,85 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.configurations.utils.TestFeatures.createDaasPhoneDto;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+import es.microservices.tests.orders.clients.PhoneClient;
+import es.microservices.tests.orders.dtos.phones.DaasPhoneDto;
+import es.microservices.tests.orders.exceptions.RetrievingPhoneException;
+
+class StreamingPhoneCatalogLoaderImplTest {
+
+  private PhoneClient phoneClient;
+  private StreamingPhoneCatalogLoaderImpl loader;
+
+  private final DaasPhoneDto phone1 =
+      createDaasPhoneDto("phoneId1", "phoneName1", "phoneDescription1", "phoneImageURL1", 100.0);
+  private final DaasPhoneDto phone2 =
+      createDaasPhoneDto("phoneId2", "phoneName2", "phoneDescription2", "phoneImageURL2", 600.0);
+
+  @BeforeEach
+  public void beforeEach() {
+    this.phoneClient = mock(PhoneClient.class);
+    this.loader = new StreamingPhoneCatalogLoaderImpl(this.phoneClient);
+  }
+
+  @Test
+  void phoneClient_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new StreamingPhoneCatalogLoaderImpl(null);
+    });
+
+    final String expectedMessage = "'phoneClient' must be not null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void loadCatalog_hands_every_streamed_phone_to_the_consumer() {
+    doAnswer(invocation -> {
+      final Consumer<DaasPhoneDto> consumer = invocation.getArgument(0);
+      consumer.accept(phone1);
+      consumer.accept(phone2);
+      return null;
+    }).when(this.phoneClient).streamPhones(any(Consumer.class));
+
+    final List<DaasPhoneDto> streamed = new ArrayList<>();
+    this.loader.loadCatalog(streamed::add);
+
+    assertEquals(Arrays.asList(phone1, phone2), streamed);
+    assertEquals(Arrays.asList(phone1, phone2), this.loader.loadCatalog());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void loadCatalog_fails_when_the_stream_fails() {
+    final HttpServerErrorException cause =
+        new HttpServerErrorException(HttpStatus.INTERNAL_SERVER_ERROR);
+    doThrow(cause).when(this.phoneClient).streamPhones(any(Consumer.class));
+
+    Exception exception = assertThrows(RetrievingPhoneException.class, () -> {
+      this.loader.loadCatalog();
+    });
+
+    final String expectedMessage = "An error occurred while retrieving the phone catalog";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+    assertEquals(cause, exception.getCause());
+  }
+
+}
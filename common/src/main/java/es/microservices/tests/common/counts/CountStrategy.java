@@ -0,0 +1,10 @@
+package es.microservices.tests.common.counts;
+
+/**
+ * How the total count of a collection is obtained: counting the collection every time (EXACT),
+ * from the collection metadata (ESTIMATED) or from an in-memory counter updated on every document
+ * added or removed through the service (COUNTER).
+ */
+public enum CountStrategy {
+  EXACT, ESTIMATED, COUNTER
+}
@@ -0,0 +1,173 @@
+package es.microservices.tests.common.counts;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.springframework.util.Assert;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Counts the documents of a collection with the configured {@link CountStrategy}.
+ * <ul>
+ * <li>EXACT counts the collection every time.</li>
+ * <li>ESTIMATED reads the document count from the collection metadata, which costs the same
+ * however big the collection is.</li>
+ * <li>COUNTER is counted exactly once and then kept in memory, updated on every document added or
+ * removed through the service.</li>
+ * </ul>
+ * The last two strategies are reconciled every reconcile interval against an exact count: the
+ * difference is published as the &lt;name&gt;.count.drift gauge and the counter is reset to the
+ * exact value, which covers the documents written by other instances.
+ */
+@Slf4j
+public class DocumentCounter implements AutoCloseable {
+
+  private static final long UNKNOWN = -1L;
+
+  private final String name;
+  private final Supplier<Mono<Long>> exactCount;
+  private final Supplier<Mono<Long>> estimatedCount;
+  private final CountStrategy strategy;
+  private final AtomicLong counter = new AtomicLong(UNKNOWN);
+  private final AtomicLong drift = new AtomicLong();
+  private final Disposable reconciliation;
+
+  /**
+   * Counts exactly, nothing is reconciled.
+   */
+  public DocumentCounter(final Supplier<Mono<Long>> exactCount) {
+    Assert.notNull(exactCount, "'exactCount' must not be null");
+    this.name = null;
+    this.exactCount = exactCount;
+    this.estimatedCount = null;
+    this.strategy = CountStrategy.EXACT;
+    this.reconciliation = null;
+  }
+
+  /**
+   * @param name the plural of the documents counted, the prefix of the drift gauge
+   */
+  public DocumentCounter(final String name, final Supplier<Mono<Long>> exactCount,
+      final Supplier<Mono<Long>> estimatedCount, final CountStrategy strategy,
+      final Duration reconcileInterval, final MeterRegistry meterRegistry,
+      final Scheduler scheduler) {
+    Assert.hasText(name, "'name' must not be empty");
+    Assert.notNull(exactCount, "'exactCount' must not be null");
+    Assert.notNull(estimatedCount, "'estimatedCount' must not be null");
+    Assert.notNull(strategy, "'strategy' must not be null");
+    Assert.notNull(reconcileInterval, "'reconcileInterval' must not be null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    Assert.notNull(scheduler, "'scheduler' must not be null");
+    this.name = name;
+    this.exactCount = exactCount;
+    this.estimatedCount = estimatedCount;
+    this.strategy = strategy;
+
+    if (this.strategy == CountStrategy.EXACT) {
+      this.reconciliation = null;
+      return;
+    }
+    Gauge.builder(name + ".count.drift", this.drift, AtomicLong::get)
+        .tag("strategy", this.strategy.name().toLowerCase())
+        .description("Estimated minus exact number of " + name + " at the last reconciliation")
+        .register(meterRegistry);
+    // @formatter:off
+    this.reconciliation = Flux
+        .interval(reconcileInterval, reconcileInterval, scheduler)
+        .concatMap(tick -> reconcile()
+            .onErrorResume(e -> {
+              log.warn("The {} count could not be reconciled", name, e);
+              return Mono.empty();
+            }))
+        .subscribe();
+    // @formatter:on
+  }
+
+  public Mono<Long> count() {
+    switch (this.strategy) {
+      case ESTIMATED:
+        return Mono.defer(this.estimatedCount);
+      case COUNTER:
+        return Mono.defer(this::countFromCounter);
+      default:
+        return Mono.defer(this.exactCount);
+    }
+  }
+
+  public boolean isExact() {
+    return this.strategy == CountStrategy.EXACT;
+  }
+
+  public void added(final long count) {
+    Assert.isTrue(count >= 0, "'count' must not be negative");
+    this.counter.getAndUpdate(current -> current == UNKNOWN ? UNKNOWN : current + count);
+  }
+
+  public void removed(final long count) {
+    Assert.isTrue(count >= 0, "'count' must not be negative");
+    this.counter
+        .getAndUpdate(current -> current == UNKNOWN ? UNKNOWN : Math.max(0, current - count));
+  }
+
+  @Override
+  public void close() {
+    if (Objects.nonNull(this.reconciliation)) {
+      this.reconciliation.dispose();
+    }
+  }
+
+  long currentDrift() {
+    return this.drift.get();
+  }
+
+  private Mono<Long> countFromCounter() {
+    final long current = this.counter.get();
+    if (current != UNKNOWN) {
+      return Mono.just(current);
+    }
+    return this.exactCount.get().map(exact -> {
+      this.counter.compareAndSet(UNKNOWN, exact);
+      return this.counter.get();
+    });
+  }
+
+  private Mono<Long> reconcile() {
+    if (this.strategy == CountStrategy.COUNTER) {
+      return Mono.defer(this::reconcileCounter);
+    }
+    return Mono.zip(Mono.defer(this.estimatedCount), Mono.defer(this.exactCount)).map(counts -> {
+      final long exact = counts.getT2();
+      this.drift.set(counts.getT1() - exact);
+      log.debug("The {} count was reconciled, exact {} estimated {}", this.name, exact,
+          counts.getT1());
+      return exact;
+    });
+  }
+
+  /**
+   * The counter is read before counting, so the documents added or removed while the exact count
+   * runs are kept on top of it instead of being overwritten.
+   */
+  private Mono<Long> reconcileCounter() {
+    final long before = this.counter.get();
+    return this.exactCount.get().map(exact -> {
+      if (before == UNKNOWN) {
+        this.counter.compareAndSet(UNKNOWN, exact);
+      } else {
+        this.drift.set(before - exact);
+        this.counter.getAndUpdate(
+            current -> current == UNKNOWN ? exact : Math.max(0, current + exact - before));
+      }
+      log.debug("The {} count was reconciled, exact {} counted {}", this.name, exact, before);
+      return exact;
+    });
+  }
+
+}
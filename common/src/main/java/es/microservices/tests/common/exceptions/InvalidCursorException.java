@@ -0,0 +1,21 @@
+package es.microservices.tests.common.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@SuppressWarnings("serial")
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidCursorException extends RuntimeException {
+
+  public InvalidCursorException() {
+    this("cursor: is not a valid continuation token");
+  }
+
+  public InvalidCursorException(String message) {
+    this(message, null);
+  }
+
+  public InvalidCursorException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
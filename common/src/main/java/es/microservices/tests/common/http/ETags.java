@@ -0,0 +1,31 @@
+package es.microservices.tests.common.http;
+
+import java.io.UncheckedIOException;
+import org.springframework.util.Assert;
+import org.springframework.util.DigestUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Builds weak entity tags from the content of the response bodies, the same way Spring's shallow
+ * ETag filter does, only without buffering the response. A body whose content did not change gets
+ * the same tag, so a request revalidating it is answered with 304 and no body.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ETags {
+
+  private static final ObjectWriter WRITER = new ObjectMapper().writer();
+
+  public static String weakOf(final Object body) {
+    Assert.notNull(body, "'body' must not be null");
+    try {
+      return "W/\"" + DigestUtils.md5DigestAsHex(WRITER.writeValueAsBytes(body)) + "\"";
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+package es.microservices.tests.common.metrics;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Times every repository operation, the derived queries and the custom fragments included, as the
+ * repositories.calls metric. The reactive calls are timed until the database answers, not until
+ * the pipeline is assembled.
+ */
+@Configuration
+public class RepositoriesMetricsConfig {
+
+  public static final String REPOSITORIES_METRIC = "repositories.calls";
+
+  /**
+   * The repositories are proxies built by Spring Data, the timing is added to them while they are
+   * built, tagged with the name of the repository interface.
+   */
+  @Bean
+  public static BeanPostProcessor repositoriesTimingPostProcessor(
+      final ObjectProvider<MeterRegistry> meterRegistry) {
+    return new BeanPostProcessor() {
+
+      @Override
+      public Object postProcessBeforeInitialization(final Object bean, final String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport) {
+          ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+              factory -> factory.addRepositoryProxyPostProcessor((proxyFactory, information) -> {
+                proxyFactory.addAdvice(new TimedMethodInterceptor(REPOSITORIES_METRIC,
+                    information.getRepositoryInterface().getSimpleName(),
+                    meterRegistry.getObject()));
+              }));
+        }
+        return bean;
+      }
+
+    };
+  }
+
+}
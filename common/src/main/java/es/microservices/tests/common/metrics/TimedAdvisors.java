@@ -0,0 +1,31 @@
+package es.microservices.tests.common.metrics;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.util.Assert;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Builds the advisors that time the beans of a package with a {@link TimedMethodInterceptor}.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class TimedAdvisors {
+
+  /**
+   * Times every public method of the classes of the package and its subpackages, but close, which
+   * is only called on shutdown.
+   */
+  public static Advisor forPackage(final String implPackage, final String metricName,
+      final MeterRegistry meterRegistry) {
+    Assert.hasText(implPackage, "'implPackage' must not be empty");
+    final AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+    pointcut.setExpression(String.format(
+        "execution(public * %s..*.*(..)) && !execution(* close())", implPackage));
+    return new DefaultPointcutAdvisor(pointcut,
+        new TimedMethodInterceptor(metricName, meterRegistry));
+  }
+
+}
@@ -0,0 +1,149 @@
+package es.microservices.tests.common.metrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.util.Assert;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every call of the methods it advises as the given metric, tagged by class, method, outcome
+ * (success, error or cancelled) and exception, with a percentile histogram published so the
+ * latency percentiles can be aggregated across instances in Prometheus.
+ * <p>
+ * The methods returning a {@link Mono} or a {@link Flux} are timed from the subscription to the
+ * terminal signal, that is when the work is done, and not while the pipeline is assembled.
+ * <p>
+ * The timers are built and registered once per set of tags and then kept, the calls only look them
+ * up.
+ */
+public class TimedMethodInterceptor implements MethodInterceptor {
+
+  public static final String OUTCOME_SUCCESS = "success";
+  public static final String OUTCOME_ERROR = "error";
+  public static final String OUTCOME_CANCELLED = "cancelled";
+
+  private static final String NO_EXCEPTION = "none";
+
+  private final String metricName;
+  private final String className;
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<Tags, Timer> timers = new ConcurrentHashMap<>();
+
+  /**
+   * Tags the calls with the simple name of the class of the advised object.
+   */
+  public TimedMethodInterceptor(final String metricName, final MeterRegistry meterRegistry) {
+    this(metricName, null, meterRegistry);
+  }
+
+  /**
+   * Tags the calls with the given class name, for the proxies whose target class says nothing
+   * about them, such as the repositories.
+   */
+  public TimedMethodInterceptor(final String metricName, final String className,
+      final MeterRegistry meterRegistry) {
+    Assert.hasText(metricName, "'metricName' must not be empty");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    this.metricName = metricName;
+    this.className = className;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Object invoke(final MethodInvocation invocation) throws Throwable {
+    final String clazz = this.className != null ? this.className
+        : AopUtils.getTargetClass(invocation.getThis()).getSimpleName();
+    final String method = invocation.getMethod().getName();
+    final Recorder recorder = new Recorder(clazz, method);
+    final Object result;
+    try {
+      result = invocation.proceed();
+    } catch (Throwable e) {
+      recorder.stop(OUTCOME_ERROR, e);
+      throw e;
+    }
+
+    if (result instanceof Mono) {
+      return timeMono((Mono<?>) result, clazz, method);
+    }
+    if (result instanceof Flux) {
+      return timeFlux((Flux<?>) result, clazz, method);
+    }
+    recorder.stop(OUTCOME_SUCCESS, null);
+    return result;
+  }
+
+  private Timer timer(final Tags tags) {
+    // @formatter:off
+    return this.timers.computeIfAbsent(tags, key -> Timer.builder(this.metricName)
+        .description("Latency of the calls, by class, method and outcome")
+        .tags(key)
+        .publishPercentileHistogram()
+        .register(this.meterRegistry));
+    // @formatter:on
+  }
+
+  private Mono<?> timeMono(final Mono<?> mono, final String clazz, final String method) {
+    return Mono.defer(() -> {
+      final Recorder recorder = new Recorder(clazz, method);
+      // @formatter:off
+      return mono
+          .doOnSuccess(value -> recorder.stop(OUTCOME_SUCCESS, null))
+          .doOnError(e -> recorder.stop(OUTCOME_ERROR, e))
+          .doOnCancel(() -> recorder.stop(OUTCOME_CANCELLED, null));
+      // @formatter:on
+    });
+  }
+
+  private Flux<?> timeFlux(final Flux<?> flux, final String clazz, final String method) {
+    return Flux.defer(() -> {
+      final Recorder recorder = new Recorder(clazz, method);
+      // @formatter:off
+      return flux
+          .doOnComplete(() -> recorder.stop(OUTCOME_SUCCESS, null))
+          .doOnError(e -> recorder.stop(OUTCOME_ERROR, e))
+          .doOnCancel(() -> recorder.stop(OUTCOME_CANCELLED, null));
+      // @formatter:on
+    });
+  }
+
+  /**
+   * Times a single call, only its first outcome is recorded: a Mono may be cancelled once it has
+   * already emitted its value.
+   */
+  private final class Recorder {
+
+    private final Timer.Sample sample = Timer.start(TimedMethodInterceptor.this.meterRegistry);
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final String clazz;
+    private final String method;
+
+    private Recorder(final String clazz, final String method) {
+      this.clazz = clazz;
+      this.method = method;
+    }
+
+    private void stop(final String outcome, final Throwable exception) {
+      if (!this.stopped.compareAndSet(false, true)) {
+        return;
+      }
+      // @formatter:off
+      this.sample.stop(timer(Tags.of(
+          "class", this.clazz,
+          "method", this.method,
+          "outcome", outcome,
+          "exception", exception == null ? NO_EXCEPTION : exception.getClass().getSimpleName())));
+      // @formatter:on
+    }
+
+  }
+
+}
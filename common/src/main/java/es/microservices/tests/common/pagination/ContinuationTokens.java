@@ -0,0 +1,38 @@
+package es.microservices.tests.common.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.springframework.util.Assert;
+import es.microservices.tests.common.exceptions.InvalidCursorException;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Encodes the last identifier of a page as the opaque token the next page is requested with.
+ * Clients must not build nor parse the tokens, only send back the ones they received.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class ContinuationTokens {
+
+  private static final String PREFIX = "id:";
+
+  public static String encode(final String lastId) {
+    Assert.hasText(lastId, "'lastId' must not be null or empty");
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static String decode(final String token) {
+    final String decoded;
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new InvalidCursorException();
+    }
+    if (!decoded.startsWith(PREFIX) || decoded.length() == PREFIX.length()) {
+      throw new InvalidCursorException();
+    }
+    return decoded.substring(PREFIX.length());
+  }
+
+}
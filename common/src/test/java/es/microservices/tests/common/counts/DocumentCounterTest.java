@@ -0,0 +1,189 @@
+package es.microservices.tests.common.counts;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class DocumentCounterTest {
+
+  private static final Duration RECONCILE_INTERVAL = Duration.ofMinutes(1);
+
+  private Supplier<Mono<Long>> exactCount;
+  private Supplier<Mono<Long>> estimatedCount;
+  private MeterRegistry meterRegistry;
+  private VirtualTimeScheduler scheduler;
+  private DocumentCounter counter;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  public void beforeEach() {
+    this.exactCount = mock(Supplier.class);
+    this.estimatedCount = mock(Supplier.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.scheduler = VirtualTimeScheduler.create();
+  }
+
+  @AfterEach
+  public void afterEach() {
+    if (this.counter != null) {
+      this.counter.close();
+    }
+  }
+
+  @Test
+  void exactCount_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new DocumentCounter(null);
+    });
+
+    final String expectedMessage = "'exactCount' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void added_isNegative() {
+    this.counter = new DocumentCounter(this.exactCount);
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.counter.added(-1);
+    });
+
+    final String expectedMessage = "'count' must not be negative";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void exact_counts_the_collection_every_time() {
+    this.counter = create(CountStrategy.EXACT);
+    doReturn(Mono.just(7L)).when(this.exactCount).get();
+
+    StepVerifier.create(this.counter.count()).expectNext(7L).expectComplete().verify();
+    StepVerifier.create(this.counter.count()).expectNext(7L).expectComplete().verify();
+
+    assertTrue(this.counter.isExact());
+    verify(this.exactCount, times(2)).get();
+    verify(this.estimatedCount, never()).get();
+    assertEquals(0, this.meterRegistry.find("documents.count.drift").gauges().size());
+  }
+
+  @Test
+  void estimated_reads_the_collection_metadata() {
+    this.counter = create(CountStrategy.ESTIMATED);
+    doReturn(Mono.just(9L)).when(this.estimatedCount).get();
+
+    StepVerifier.create(this.counter.count()).expectNext(9L).expectComplete().verify();
+
+    assertFalse(this.counter.isExact());
+    verify(this.exactCount, never()).get();
+  }
+
+  @Test
+  void estimated_drift_is_published_on_reconciliation() {
+    this.counter = create(CountStrategy.ESTIMATED);
+    doReturn(Mono.just(9L)).when(this.estimatedCount).get();
+    doReturn(Mono.just(7L)).when(this.exactCount).get();
+
+    this.scheduler.advanceTimeBy(RECONCILE_INTERVAL);
+
+    assertEquals(2L, this.counter.currentDrift());
+    assertEquals(2.0, this.meterRegistry.get("documents.count.drift")
+        .tag("strategy", "estimated").gauge().value());
+  }
+
+  @Test
+  void counter_counts_once_and_then_follows_the_added_and_removed_documents() {
+    this.counter = create(CountStrategy.COUNTER);
+    doReturn(Mono.just(5L)).when(this.exactCount).get();
+
+    StepVerifier.create(this.counter.count()).expectNext(5L).expectComplete().verify();
+    this.counter.added(1);
+    this.counter.added(2);
+    this.counter.removed(1);
+    StepVerifier.create(this.counter.count()).expectNext(7L).expectComplete().verify();
+
+    verify(this.exactCount, times(1)).get();
+  }
+
+  @Test
+  void counter_never_goes_below_zero() {
+    this.counter = create(CountStrategy.COUNTER);
+    doReturn(Mono.just(1L)).when(this.exactCount).get();
+
+    StepVerifier.create(this.counter.count()).expectNext(1L).expectComplete().verify();
+    this.counter.removed(2);
+
+    StepVerifier.create(this.counter.count()).expectNext(0L).expectComplete().verify();
+  }
+
+  @Test
+  void counter_is_reset_to_the_exact_count_on_reconciliation() {
+    this.counter = create(CountStrategy.COUNTER);
+    doReturn(Mono.just(5L)).when(this.exactCount).get();
+    StepVerifier.create(this.counter.count()).expectNext(5L).expectComplete().verify();
+    this.counter.added(1);
+
+    // another instance added two documents meanwhile
+    doReturn(Mono.just(8L)).when(this.exactCount).get();
+    this.scheduler.advanceTimeBy(RECONCILE_INTERVAL);
+
+    assertEquals(-2L, this.counter.currentDrift());
+    StepVerifier.create(this.counter.count()).expectNext(8L).expectComplete().verify();
+  }
+
+  @Test
+  void counter_keeps_the_documents_added_while_reconciling() {
+    this.counter = create(CountStrategy.COUNTER);
+    doReturn(Mono.just(5L)).when(this.exactCount).get();
+    StepVerifier.create(this.counter.count()).expectNext(5L).expectComplete().verify();
+    this.counter.added(1);
+
+    // a document is added through the service while the exact count runs, which does not see it
+    doReturn(Mono.fromSupplier(() -> {
+      this.counter.added(1);
+      return 8L;
+    })).when(this.exactCount).get();
+    this.scheduler.advanceTimeBy(RECONCILE_INTERVAL);
+
+    assertEquals(-2L, this.counter.currentDrift());
+    StepVerifier.create(this.counter.count()).expectNext(9L).expectComplete().verify();
+  }
+
+  @Test
+  void reconciliation_keeps_running_after_a_failure() {
+    this.counter = create(CountStrategy.ESTIMATED);
+    doReturn(Mono.just(9L)).when(this.estimatedCount).get();
+    doReturn(Mono.error(new IllegalStateException("unavailable"))).when(this.exactCount).get();
+
+    this.scheduler.advanceTimeBy(RECONCILE_INTERVAL);
+    assertEquals(0L, this.counter.currentDrift());
+
+    doReturn(Mono.just(6L)).when(this.exactCount).get();
+    this.scheduler.advanceTimeBy(RECONCILE_INTERVAL);
+    assertEquals(3L, this.counter.currentDrift());
+  }
+
+  private DocumentCounter create(final CountStrategy strategy) {
+    return new DocumentCounter("documents", this.exactCount, this.estimatedCount, strategy,
+        RECONCILE_INTERVAL, this.meterRegistry, this.scheduler);
+  }
+}
@@ -0,0 +1,44 @@
+package es.microservices.tests.common.http;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.util.Collections;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ETagsTest {
+
+  @Test
+  void weakOf_the_same_content_is_the_same_weak_tag() {
+    final Map<String, Double> phone = Collections.singletonMap("price", 1.0);
+    final Map<String, Double> samePhone = Collections.singletonMap("price", 1.0);
+
+    final String eTag = ETags.weakOf(phone);
+
+    assertTrue(eTag.startsWith("W/\"") && eTag.endsWith("\""));
+    assertEquals(eTag, ETags.weakOf(samePhone));
+  }
+
+  @Test
+  void weakOf_a_different_content_is_a_different_tag() {
+    final Map<String, Double> phone = Collections.singletonMap("price", 1.0);
+    final Map<String, Double> repricedPhone = Collections.singletonMap("price", 2.0);
+
+    assertNotEquals(ETags.weakOf(phone), ETags.weakOf(repricedPhone));
+  }
+
+  @Test
+  void weakOf_body_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      ETags.weakOf(null);
+    });
+
+    final String expectedMessage = "'body' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+}
@@ -0,0 +1,111 @@
+package es.microservices.tests.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.support.ReactiveMongoRepositoryFactoryBean;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.data.repository.query.ReactiveQueryMethodEvaluationContextProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class RepositoriesMetricsConfigTest {
+
+  private MeterRegistry meterRegistry;
+  private ReactiveMongoOperations operations;
+  private DocumentRepositoryCustom customRepository;
+  private DocumentRepository repository;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.operations = mock(ReactiveMongoOperations.class);
+    this.customRepository = mock(DocumentRepositoryCustom.class);
+    doReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext()))
+        .when(this.operations).getConverter();
+
+    final DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerSingleton("meterRegistry", this.meterRegistry);
+
+    final ReactiveMongoRepositoryFactoryBean<DocumentRepository, Document, String> factoryBean =
+        new ReactiveMongoRepositoryFactoryBean<>(DocumentRepository.class);
+    factoryBean.setReactiveMongoOperations(this.operations);
+    factoryBean.setRepositoryFragments(RepositoryFragments.just(this.customRepository));
+    factoryBean.setEvaluationContextProvider(ReactiveQueryMethodEvaluationContextProvider.DEFAULT);
+    factoryBean.setLazyInit(false);
+    RepositoriesMetricsConfig
+        .repositoriesTimingPostProcessor(beanFactory.getBeanProvider(MeterRegistry.class))
+        .postProcessBeforeInitialization(factoryBean, "documentRepository");
+    factoryBean.afterPropertiesSet();
+    this.repository = factoryBean.getObject();
+  }
+
+  @Test
+  void crud_operations_are_timed_by_repository_and_method() {
+    final Document document = new Document("documentId");
+    doReturn(Mono.just(document)).when(this.operations).findById(eq("documentId"),
+        eq(Document.class), any(String.class));
+
+    StepVerifier.create(this.repository.findById("documentId")).expectNext(document)
+        .verifyComplete();
+
+    // @formatter:off
+    assertEquals(1, this.meterRegistry.get(RepositoriesMetricsConfig.REPOSITORIES_METRIC)
+        .tag("class", "DocumentRepository")
+        .tag("method", "findById")
+        .tag("outcome", TimedMethodInterceptor.OUTCOME_SUCCESS)
+        .timer().count());
+    // @formatter:on
+  }
+
+  @Test
+  void custom_operations_are_timed_with_their_outcome() {
+    doReturn(Mono.error(new IllegalStateException("failed"))).when(this.customRepository)
+        .nextVersion();
+
+    StepVerifier.create(this.repository.nextVersion()).verifyError(IllegalStateException.class);
+
+    // @formatter:off
+    assertEquals(1, this.meterRegistry.get(RepositoriesMetricsConfig.REPOSITORIES_METRIC)
+        .tag("class", "DocumentRepository")
+        .tag("method", "nextVersion")
+        .tag("outcome", TimedMethodInterceptor.OUTCOME_ERROR)
+        .timer().count());
+    // @formatter:on
+  }
+
+  @Getter
+  @AllArgsConstructor
+  static class Document {
+
+    @Id
+    private String id;
+
+  }
+
+  interface DocumentRepositoryCustom {
+
+    Mono<Long> nextVersion();
+
+  }
+
+  interface DocumentRepository
+      extends ReactiveMongoRepository<Document, String>, DocumentRepositoryCustom {
+  }
+
+}
@@ -0,0 +1,77 @@
+package es.microservices.tests.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TimedAdvisorsTest {
+
+  private static final String METRIC = "test.calls";
+
+  private MeterRegistry meterRegistry;
+  private Service service;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    final ProxyFactory proxyFactory = new ProxyFactory(new ServiceImpl());
+    proxyFactory.addAdvisor(TimedAdvisors.forPackage(ServiceImpl.class.getPackage().getName(),
+        METRIC, this.meterRegistry));
+    this.service = (Service) proxyFactory.getProxy();
+  }
+
+  @Test
+  void implPackage_isEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      TimedAdvisors.forPackage("", METRIC, this.meterRegistry);
+    });
+
+    final String expectedMessage = "'implPackage' must not be empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void public_methods_are_timed() {
+    this.service.call();
+
+    assertEquals(1, this.meterRegistry.get(METRIC).tag("method", "call").timer().count());
+  }
+
+  @Test
+  void close_is_not_timed() {
+    this.service.close();
+
+    assertNull(this.meterRegistry.find(METRIC).timer());
+  }
+
+  public interface Service extends AutoCloseable {
+
+    String call();
+
+    @Override
+    void close();
+
+  }
+
+  public static class ServiceImpl implements Service {
+
+    @Override
+    public String call() {
+      return "value";
+    }
+
+    @Override
+    public void close() {
+      // nothing to release
+    }
+
+  }
+
+}
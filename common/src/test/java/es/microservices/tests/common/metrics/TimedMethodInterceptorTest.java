@@ -0,0 +1,186 @@
+package es.microservices.tests.common.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class TimedMethodInterceptorTest {
+
+  private static final String METRIC = "test.calls";
+
+  private MeterRegistry meterRegistry;
+  private Target target;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    final ProxyFactory proxyFactory = new ProxyFactory(new TargetImpl());
+    proxyFactory.addAdvice(new TimedMethodInterceptor(METRIC, this.meterRegistry));
+    this.target = (Target) proxyFactory.getProxy();
+  }
+
+  @Test
+  void metricName_isEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new TimedMethodInterceptor("", this.meterRegistry);
+    });
+
+    final String expectedMessage = "'metricName' must not be empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void meterRegistry_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new TimedMethodInterceptor(METRIC, null);
+    });
+
+    final String expectedMessage = "'meterRegistry' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void blocking_call_is_timed_by_class_method_and_outcome() {
+    assertEquals("value", this.target.call());
+
+    final Timer timer = timer("call", TimedMethodInterceptor.OUTCOME_SUCCESS);
+    assertEquals(1, timer.count());
+    assertEquals("none", timer.getId().getTag("exception"));
+  }
+
+  @Test
+  void blocking_error_is_timed_with_its_exception() {
+    assertThrows(IllegalStateException.class, () -> this.target.fail());
+
+    final Timer timer = timer("fail", TimedMethodInterceptor.OUTCOME_ERROR);
+    assertEquals(1, timer.count());
+    assertEquals("IllegalStateException", timer.getId().getTag("exception"));
+  }
+
+  @Test
+  void mono_is_timed_from_subscription_to_completion() {
+    final Mono<String> mono = this.target.mono();
+    assertNull(this.meterRegistry.find(METRIC).timer());
+
+    StepVerifier.create(mono).expectNext("value").verifyComplete();
+
+    final Timer timer = timer("mono", TimedMethodInterceptor.OUTCOME_SUCCESS);
+    assertEquals(1, timer.count());
+    assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 20);
+  }
+
+  @Test
+  void flux_error_is_timed_as_error() {
+    StepVerifier.create(this.target.fluxError()).expectNext(1)
+        .verifyError(IllegalStateException.class);
+
+    final Timer timer = timer("fluxError", TimedMethodInterceptor.OUTCOME_ERROR);
+    assertEquals(1, timer.count());
+    assertEquals("IllegalStateException", timer.getId().getTag("exception"));
+  }
+
+  @Test
+  void cancelled_flux_is_timed_as_cancelled() {
+    StepVerifier.create(this.target.flux()).expectNext(1).thenCancel().verify();
+
+    assertEquals(1, timer("flux", TimedMethodInterceptor.OUTCOME_CANCELLED).count());
+  }
+
+  @Test
+  void timers_are_registered_once_per_set_of_tags() {
+    final AtomicInteger registrations = new AtomicInteger();
+    this.meterRegistry.config().meterFilter(new MeterFilter() {
+
+      @Override
+      public Meter.Id map(final Meter.Id id) {
+        registrations.incrementAndGet();
+        return id;
+      }
+
+    });
+
+    this.target.call();
+    this.target.call();
+    assertThrows(IllegalStateException.class, () -> this.target.fail());
+
+    assertEquals(2, registrations.get());
+    assertEquals(2, timer("call", TimedMethodInterceptor.OUTCOME_SUCCESS).count());
+  }
+
+  @Test
+  void class_name_can_be_given() {
+    final ProxyFactory proxyFactory = new ProxyFactory(new TargetImpl());
+    proxyFactory.addAdvice(new TimedMethodInterceptor(METRIC, "Named", this.meterRegistry));
+    ((Target) proxyFactory.getProxy()).call();
+
+    assertEquals(1, this.meterRegistry.get(METRIC).tag("class", "Named").timer().count());
+  }
+
+  private Timer timer(final String method, final String outcome) {
+    return this.meterRegistry.get(METRIC).tag("class", TargetImpl.class.getSimpleName())
+        .tag("method", method).tag("outcome", outcome).timer();
+  }
+
+  interface Target {
+
+    String call();
+
+    String fail();
+
+    Mono<String> mono();
+
+    Flux<Integer> flux();
+
+    Flux<Integer> fluxError();
+
+  }
+
+  static class TargetImpl implements Target {
+
+    @Override
+    public String call() {
+      return "value";
+    }
+
+    @Override
+    public String fail() {
+      throw new IllegalStateException("failed");
+    }
+
+    @Override
+    public Mono<String> mono() {
+      return Mono.just("value").delayElement(Duration.ofMillis(20));
+    }
+
+    @Override
+    public Flux<Integer> flux() {
+      return Flux.range(1, 10);
+    }
+
+    @Override
+    public Flux<Integer> fluxError() {
+      return Flux.just(1).concatWith(Flux.error(new IllegalStateException("failed")));
+    }
+
+  }
+
+}
@@ -0,0 +1,57 @@
+package es.microservices.tests.common.pagination;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.common.exceptions.InvalidCursorException;
+
+class ContinuationTokensTest {
+
+  @Test
+  void decode_returns_the_encoded_identifier() {
+    final String token = ContinuationTokens.encode("5ffd83a2c3d1bd2b4f6a1e0c");
+
+    assertEquals("5ffd83a2c3d1bd2b4f6a1e0c", ContinuationTokens.decode(token));
+  }
+
+  @Test
+  void encode_lastId_isEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      ContinuationTokens.encode("");
+    });
+
+    final String expectedMessage = "'lastId' must not be null or empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void decode_token_isNotBase64() {
+    Exception exception = assertThrows(InvalidCursorException.class, () -> {
+      ContinuationTokens.decode("not a token!");
+    });
+
+    final String expectedMessage = "cursor: is not a valid continuation token";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void decode_token_wasNotIssuedByTheService() {
+    final String token = Base64.getUrlEncoder().withoutPadding()
+        .encodeToString("page:3".getBytes(StandardCharsets.UTF_8));
+
+    Exception exception = assertThrows(InvalidCursorException.class, () -> {
+      ContinuationTokens.decode(token);
+    });
+
+    final String expectedMessage = "cursor: is not a valid continuation token";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+}
@@ -1,8 +1,12 @@
 package es.microservices.tests.orders.configurations;
 
+import javax.validation.Validator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import es.microservices.tests.orders.configurations.properties.OrderBulkProperties;
+import es.microservices.tests.orders.configurations.properties.OrderCountProperties;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
 import es.microservices.tests.orders.entities.OrderEntity;
@@ -10,8 +14,13 @@ import es.microservices.tests.orders.mappers.Mapper;
 import es.microservices.tests.orders.mappers.impl.NewOrderDto2OrderEntityMapper;
 import es.microservices.tests.orders.mappers.impl.OrderEntity2OrderDtoMapper;
 import es.microservices.tests.orders.repositories.OrderRepository;
+import es.microservices.tests.orders.services.OrderCountService;
 import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.OrderWriter;
+import es.microservices.tests.orders.services.impl.OrderCountServiceImpl;
 import es.microservices.tests.orders.services.impl.OrderServiceImpl;
+import es.microservices.tests.orders.services.impl.OrderWriterImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class GlobalConfig {
@@ -26,11 +35,26 @@ public class GlobalConfig {
     return new OrderEntity2OrderDtoMapper();
   }
 
+  @Bean
+  public OrderCountService orderCountService(final OrderRepository repository,
+      final OrderCountProperties countProperties, final MeterRegistry meterRegistry) {
+    return new OrderCountServiceImpl(repository, countProperties, meterRegistry);
+  }
+
+  @Bean
+  public OrderWriter orderWriter(final OrderRepository repository,
+      final OrderWriteProperties writeProperties, final MeterRegistry meterRegistry) {
+    return new OrderWriterImpl(repository, writeProperties, meterRegistry);
+  }
+
   @Bean
   public OrderService orderService(final OrderRepository repository,
       final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper,
-      final Mapper<OrderEntity, OrderDto> entity2DtoMapper) {
-    return new OrderServiceImpl(repository, dto2EntityMapper, entity2DtoMapper);
+      final Mapper<OrderEntity, OrderDto> entity2DtoMapper,
+      final OrderCountService orderCountService, final Validator validator,
+      final OrderBulkProperties bulkProperties, final OrderWriter orderWriter) {
+    return new OrderServiceImpl(repository, dto2EntityMapper, entity2DtoMapper,
+        orderCountService, validator, bulkProperties, orderWriter);
   }
 
   @Bean
@@ -0,0 +1,28 @@
+package es.microservices.tests.orders.configurations;
+
+import org.springframework.aop.Advisor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import es.microservices.tests.common.metrics.RepositoriesMetricsConfig;
+import es.microservices.tests.common.metrics.TimedAdvisors;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Times every call of the services as the services.calls metric and every repository operation as
+ * repositories.calls, see {@link RepositoriesMetricsConfig}. The controllers are timed by Spring as
+ * http.server.requests.
+ */
+@Configuration
+@Import(RepositoriesMetricsConfig.class)
+public class MetricsConfig {
+
+  public static final String SERVICES_METRIC = "services.calls";
+
+  @Bean
+  public Advisor servicesTimingAdvisor(final MeterRegistry meterRegistry) {
+    return TimedAdvisors.forPackage("es.microservices.tests.orders.services.impl", SERVICES_METRIC,
+        meterRegistry);
+  }
+
+}
@@ -0,0 +1,57 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.bulk")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class OrderBulkProperties {
+
+  /**
+   * Number of orders of a bulk request written with a single unordered insert.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer chunkSize = Integer.valueOf(500);
+
+
+  /**
+   * Number of chunks of the same request being written at the same time. The orders requested
+   * from the body are bounded by chunk size times this.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer concurrency = Integer.valueOf(2);
+
+
+  /**
+   * Longest the orders already received wait for the rest of their chunk before being written, so
+   * a slow stream is written and answered as it arrives instead of when it ends.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration maxLinger = Duration.ofMillis(100);
+
+}
@@ -0,0 +1,46 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import es.microservices.tests.common.counts.CountStrategy;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.count")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class OrderCountProperties {
+
+  /**
+   * How the total count of the order pages is obtained: counting the collection on every page
+   * (EXACT), from the collection metadata (ESTIMATED) or from an in-memory counter updated on every
+   * order created through the service (COUNTER).
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private CountStrategy strategy = CountStrategy.EXACT;
+
+
+  /**
+   * Delay between exact counts that reconcile the ESTIMATED and COUNTER strategies. The difference
+   * found is published as the orders.count.drift gauge and the counter is reset to the exact value.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration reconcileInterval = Duration.ofMinutes(1);
+
+}
@@ -0,0 +1,111 @@
+package es.microservices.tests.orders.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.orders.write")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class OrderWriteProperties {
+
+  /**
+   * How the orders created one by one are written: each with its own save (DIRECT) or grouped
+   * with the ones created at the same time into a single insert (COALESCING).
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Mode mode = Mode.DIRECT;
+
+
+  /**
+   * Most orders grouped into one insert, a batch is written as soon as it is full.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer maxBatchSize = Integer.valueOf(64);
+
+
+  /**
+   * Longest an order waits for others to share its insert. It bounds the latency added to an
+   * order created alone.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration maxLinger = Duration.ofMillis(5);
+
+
+  /**
+   * Most coalesced inserts written at the same time, the next batches wait for one of them to be
+   * acknowledged.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer maxConcurrentBatches = Integer.valueOf(4);
+
+
+  /**
+   * Most coalesced orders queued or being written at the same time. The orders inserted beyond it
+   * are rejected until some of the queued ones are answered.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer queueCapacity = Integer.valueOf(10000);
+
+
+  /**
+   * Longest the shutdown waits for the orders already queued to be written. The callers of the
+   * ones still queued or being written then are failed.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration closeTimeout = Duration.ofSeconds(10);
+
+
+  /**
+   * When a coalesced insert is acknowledged: once the primary applied it (ACKNOWLEDGED), once it
+   * is in the primary journal (JOURNALED) or once most of the replica set applied it (MAJORITY).
+   * The callers of the batch are only answered then.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Durability durability = Durability.ACKNOWLEDGED;
+
+
+  public enum Mode {
+    DIRECT, COALESCING
+  }
+
+  public enum Durability {
+    ACKNOWLEDGED, JOURNALED, MAJORITY
+  }
+}
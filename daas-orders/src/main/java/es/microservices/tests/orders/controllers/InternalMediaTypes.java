@@ -0,0 +1,19 @@
+package es.microservices.tests.orders.controllers;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Media types produced and consumed besides JSON for the calls between the services. They are only
+ * used when the client asks for them, a client accepting JSON or anything keeps getting JSON.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class InternalMediaTypes {
+
+  /**
+   * Smile, the binary encoding of the JSON data model. It maps the same DTOs without the cost of
+   * writing and parsing text.
+   */
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+}
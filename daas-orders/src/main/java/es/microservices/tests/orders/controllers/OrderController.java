@@ -10,6 +10,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import es.microservices.tests.orders.dtos.BulkOrderResultDto;
 import es.microservices.tests.orders.dtos.ErrorResponse;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderListDto;
@@ -22,6 +23,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.web.bind.annotation.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RequestMapping("/orders")
@@ -38,8 +40,10 @@ public interface OrderController {
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
-  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
-      consumes = {MediaType.APPLICATION_JSON_VALUE})
+  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
   ResponseEntity<Mono<OrderDto>> createOrder(
       @Parameter(in = ParameterIn.DEFAULT, description = "the body request", required = true,
           schema = @Schema()) @Valid @RequestBody @NotNull final NewOrderDto newOrder);
@@ -50,14 +54,17 @@ public interface OrderController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Successful operation",
           content = @Content(schema = @Schema(implementation = OrderDto.class))),
+      @ApiResponse(responseCode = "304",
+          description = "Not modified, the order still matches the If-None-Match entity tag"),
       @ApiResponse(responseCode = "400", description = "Invalid query parameters",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "404", description = "Not found",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
-  @GetMapping(value = "/{orderId}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  ResponseEntity<Mono<OrderDto>> getOrder(
+  @GetMapping(value = "/{orderId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  Mono<ResponseEntity<OrderDto>> getOrder(
       @Parameter(in = ParameterIn.PATH, description = "The order identifier", required = true,
           schema = @Schema()) @PathVariable("orderId") @NotBlank String orderId);
 
@@ -67,12 +74,13 @@ public interface OrderController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Successful operation",
           content = @Content(schema = @Schema(implementation = OrderListDto.class))),
-      @ApiResponse(responseCode = "400", description = "Invalid query parameters",
+      @ApiResponse(responseCode = "400", description = "Invalid query parameters or cursor",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
 
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
-  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
   ResponseEntity<Mono<OrderListDto>> getAllOrders(
       @Parameter(in = ParameterIn.QUERY,
           description = "Indicates how many results the query should return at most.",
@@ -81,6 +89,38 @@ public interface OrderController {
       @Parameter(in = ParameterIn.QUERY, 
           description = "The (zero-based) offset of the first item in the collection to return",
           schema = @Schema(defaultValue = "1"), required = false) @RequestParam(value = "page",
-              required = false, defaultValue = "1") Integer page);
+              required = false, defaultValue = "1") Integer page,
+      @Parameter(in = ParameterIn.QUERY,
+          description = "The next cursor of the previous page. When it is sent the page parameter "
+              + "is ignored and the page starts right after the previous one.",
+          required = false) @RequestParam(value = "cursor", required = false) String cursor,
+      @Parameter(in = ParameterIn.QUERY,
+          description = "Whether the total count is sent with the page. Not counting makes every "
+              + "page as cheap as the first one.",
+          schema = @Schema(defaultValue = "true"), required = false) @RequestParam(value = "count",
+              required = false, defaultValue = "true") Boolean count);
+
+
+  @Operation(summary = "Creates many orders at once",
+      description = "Creates the orders of a JSON array or a newline delimited JSON stream. Every "
+          + "order is validated on its own and the valid ones are written with bulk inserts. One "
+          + "result per order, with its identifier or its error, is streamed back in the order "
+          + "of the request.",
+      tags = {"Orders"})
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successful operation",
+          content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = BulkOrderResultDto.class))),
+      @ApiResponse(responseCode = "400", description = "Malformed request body",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "500", description = "Internal Server Error",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+  @PostMapping(value = "/bulk", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+      MediaType.APPLICATION_JSON_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  Flux<BulkOrderResultDto> createOrders(
+      @Parameter(in = ParameterIn.DEFAULT, description = "the orders", required = true,
+          schema = @Schema()) @RequestBody final Flux<NewOrderDto> newOrders);
 
 }
@@ -1,6 +1,7 @@
 package es.microservices.tests.orders.controllers.handler;
 
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,6 +19,11 @@ public class SpecificControllerAdvice {
         e);
   }
 
+  @ExceptionHandler(RejectedExecutionException.class)
+  public HttpStatus handleRejectedExecutionException(final RejectedExecutionException e) {
+    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, e.getMessage(), e);
+  }
+
   private static String errorMessageHandle(final WebExchangeBindException t, final HttpStatus httpStatus) {
       final StringBuilder errorMessage = new StringBuilder();
 
@@ -5,6 +5,10 @@ import java.util.Objects;
 import javax.validation.Valid;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,13 +20,18 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import es.microservices.tests.common.http.ETags;
+import es.microservices.tests.common.pagination.ContinuationTokens;
+import es.microservices.tests.orders.controllers.InternalMediaTypes;
 import es.microservices.tests.orders.controllers.OrderController;
+import es.microservices.tests.orders.dtos.BulkOrderResultDto;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderListDto;
 import es.microservices.tests.orders.dtos.OrderDto;
 import es.microservices.tests.orders.exceptions.ResourceNotFoundException;
 import es.microservices.tests.orders.services.OrderService;
 import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -30,6 +39,9 @@ import reactor.core.publisher.Mono;
 @Validated
 public class OrderControllerImpl implements OrderController {
 
+  /** Pages are sorted by identifier so that they are stable and served from the _id index. */
+  private static final Sort ORDERS_SORT = Sort.by("id");
+
   private final OrderService service;
 
   public OrderControllerImpl(final OrderService service) {
@@ -37,31 +49,55 @@ public class OrderControllerImpl implements OrderController {
     this.service = service;
   }
 
+  /**
+   * Every page carries the cursor of the next one. Following the cursors walks the orders with
+   * index range scans instead of skipping the previous pages, and without counting them again.
+   */
   @Override
-  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
   public ResponseEntity<Mono<OrderListDto>> getAllOrders(
       @RequestParam(value = "pageSize", required = false,
           defaultValue = "10") final Integer pageSize,
-      @RequestParam(value = "page", required = false, defaultValue = "1") final Integer page) {
+      @RequestParam(value = "page", required = false, defaultValue = "1") final Integer page,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "count", required = false, defaultValue = "true") final Boolean count) {
     final int innerPageSize = prepareDefaultValue(pageSize, 1);
+    if (Objects.nonNull(cursor)) {
+      final String lastOrderId = ContinuationTokens.decode(cursor);
+      return ResponseEntity.ok(getOrdersAfter(lastOrderId, innerPageSize));
+    }
     final int innerPage = prepareDefaultValue(page, 1);
+    final PageRequest pageRequest = PageRequest.of(innerPage - 1, innerPageSize, ORDERS_SORT);
 
-    final Mono<Long> count = this.service.countAllOrders().log();
-    final Mono<List<OrderDto>> phones =
-        this.service.findAllOrders().log().skip(calculateSkipRecords(innerPageSize, innerPage))
-            .take(innerPageSize).log().collectList();
-
-    final Mono<OrderListDto> catalog = Mono.zip(phones, count).flatMap(
-        tuple2 -> Mono.create(sink -> sink.success(OrderListDto.builder().page(innerPage)
-            .pageSize(innerPageSize).orders(tuple2.getT1()).totalCount(tuple2.getT2()).build())));
+    final Mono<? extends Slice<OrderDto>> ordersPage = Boolean.FALSE.equals(count)
+        ? this.service.findOrdersSlice(pageRequest)
+        : this.service.findOrdersPage(pageRequest);
+    final Mono<OrderListDto> catalog = ordersPage.log()
+        .map(orders -> OrderListDto.builder().page(innerPage).pageSize(innerPageSize)
+            .orders(orders.getContent()).totalCount(totalCount(orders))
+            .next(orders.hasNext() ? nextCursor(orders.getContent()) : null).build());
     return ResponseEntity.ok(catalog);
   }
 
-
+  /**
+   * One order more than the page size is read to know whether there is a next page.
+   */
+  private Mono<OrderListDto> getOrdersAfter(final String lastOrderId, final int pageSize) {
+    return this.service.findOrdersAfter(lastOrderId, pageSize + 1).collectList().log()
+        .map(orders -> {
+          final boolean hasNext = orders.size() > pageSize;
+          final List<OrderDto> content = hasNext ? orders.subList(0, pageSize) : orders;
+          return OrderListDto.builder().page(null).pageSize(pageSize).orders(content)
+              .next(hasNext ? nextCursor(content) : null).build();
+        });
+  }
 
   @Override
-  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
-      consumes = {MediaType.APPLICATION_JSON_VALUE})
+  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
   public ResponseEntity<Mono<OrderDto>> createOrder(
       @Valid @RequestBody @NotNull final NewOrderDto newOrder) {
     final Mono<NewOrderDto> monoNewOrder = Mono.just(newOrder);
@@ -70,19 +106,42 @@ public class OrderControllerImpl implements OrderController {
   }
 
   @Override
-  @GetMapping(value = "/{orderId}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<Mono<OrderDto>> getOrder(
+  @PostMapping(value = "/bulk", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+      MediaType.APPLICATION_JSON_VALUE, InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  public Flux<BulkOrderResultDto> createOrders(@RequestBody final Flux<NewOrderDto> newOrders) {
+    return this.service.createOrders(newOrders);
+  }
+
+  @Override
+  @GetMapping(value = "/{orderId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  public Mono<ResponseEntity<OrderDto>> getOrder(
       @PathVariable("orderId") @NotBlank final String orderId) {
-    return ResponseEntity.ok(
-        this.service.findById(orderId).switchIfEmpty(Mono.error(new ResourceNotFoundException())));
+    return this.service.findById(orderId).switchIfEmpty(Mono.error(new ResourceNotFoundException()))
+        .map(OrderControllerImpl::tagged);
   }
 
-  private static int prepareDefaultValue(final Integer limit, final int defaultValue) {
-    return Objects.nonNull(limit) ? limit.intValue() : defaultValue;
+  /**
+   * The order goes with the entity tag of its body. When the request sent the same tag in
+   * If-None-Match the handler answers 304 without the body.
+   */
+  private static <T> ResponseEntity<T> tagged(final T body) {
+    return ResponseEntity.ok().eTag(ETags.weakOf(body)).body(body);
+  }
+
+  private static Long totalCount(final Slice<OrderDto> orders) {
+    return orders instanceof Page ? ((Page<OrderDto>) orders).getTotalElements() : null;
   }
 
-  private static int calculateSkipRecords(final Integer innerPageSize, final Integer innerPage) {
-    return innerPageSize.intValue() * (innerPage.intValue() - 1);
+  private static String nextCursor(final List<OrderDto> orders) {
+    return orders.isEmpty() ? null
+        : ContinuationTokens.encode(orders.get(orders.size() - 1).getOrderId());
+  }
+
+  private static int prepareDefaultValue(final Integer limit, final int defaultValue) {
+    return Objects.nonNull(limit) ? limit.intValue() : defaultValue;
   }
 
 }
@@ -0,0 +1,36 @@
+package es.microservices.tests.orders.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The outcome of one of the orders of a bulk insert, either its identifier or why it was not
+ * inserted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderResultDto {
+
+  @Schema(required = true, description = "The (zero-based) position of the order in the request")
+  @JsonProperty("index")
+  private long index;
+
+  @Schema(description = "The identifier of the order created. Not sent when it failed")
+  @JsonProperty("orderId")
+  @JsonInclude(Include.NON_NULL)
+  private String orderId;
+
+  @Schema(description = "Why the order was not created. Not sent when it was created")
+  @JsonProperty("error")
+  @JsonInclude(Include.NON_NULL)
+  private String error;
+
+}
@@ -4,6 +4,8 @@ import java.util.List;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.springframework.validation.annotation.Validated;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -43,9 +45,9 @@ public class OrderListDto {
   @NotNull
   private Integer pageSize = Integer.valueOf(10);
 
-  @Schema(required = true, description = "The current page number. Start in 1")
+  @Schema(description = "The current page number. Start in 1. Not sent when paging with a cursor")
   @JsonProperty("page")
-  @NotNull
+  @JsonInclude(Include.NON_NULL)
   @Builder.Default 
   private Integer page = Integer.valueOf(1);
 
@@ -53,9 +55,18 @@ public class OrderListDto {
    * Get totalCount
    * @return totalCount
    **/
-  @Schema(required = true, description = "Indicates the total number of records that have been returned")      
+  @Schema(description = "Indicates the total number of records that have been returned. Not sent when paging with a cursor")      
   @JsonProperty("total-count")
-  @NotNull
+  @JsonInclude(Include.NON_NULL)
   private Long totalCount;
+
+  /**
+   * Continuation token of the next page, not sent on the last page
+   * @return next
+   **/
+  @Schema(description = "The cursor to request the next page with, not sent on the last page")
+  @JsonProperty("next")
+  @JsonInclude(Include.NON_NULL)
+  private String next;
   
 }
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Repository;
 import es.microservices.tests.orders.entities.OrderEntity;
 
 @Repository
-public interface OrderRepository extends ReactiveMongoRepository<OrderEntity, String> {
-  
+public interface OrderRepository
+    extends ReactiveMongoRepository<OrderEntity, String>, OrderRepositoryCustom {
+
 }
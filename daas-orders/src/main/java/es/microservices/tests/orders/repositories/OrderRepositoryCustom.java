@@ -0,0 +1,52 @@
+package es.microservices.tests.orders.repositories;
+
+import java.util.List;
+import java.util.Map;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import es.microservices.tests.orders.entities.OrderEntity;
+import com.mongodb.WriteConcern;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface OrderRepositoryCustom {
+
+  /**
+   * Retrieves one page of orders and the total number of orders with a single aggregation, only
+   * the orders of the page are sent by the database.
+   */
+  Mono<Page<OrderEntity>> findPage(Pageable pageable);
+
+  /**
+   * Retrieves one page of orders without counting them, one order more than the page size is read
+   * to know whether there is a next page.
+   */
+  Mono<Slice<OrderEntity>> findSlice(Pageable pageable);
+
+  /**
+   * Returns the number of orders kept in the collection metadata, without scanning it. It may be
+   * off after an unclean shutdown or while documents are being written.
+   */
+  Mono<Long> estimatedCount();
+
+  /**
+   * Retrieves at most limit orders whose identifier follows the given one (from the first order
+   * when it is null) ordered by identifier, as a range scan on the {@code _id} index.
+   */
+  Flux<OrderEntity> findAfter(String lastOrderId, int limit);
+
+  /**
+   * Inserts the orders with a single unordered bulk write: an order that fails does not stop the
+   * ones after it. Returns the write errors by the position of the failed orders in the list,
+   * empty when every order was inserted.
+   */
+  Mono<Map<Integer, String>> insertUnordered(List<OrderEntity> orders);
+
+  /**
+   * Same as {@link #insertUnordered(List)}, answered once the write is as durable as the given
+   * write concern asks.
+   */
+  Mono<Map<Integer, String>> insertUnordered(List<OrderEntity> orders, WriteConcern writeConcern);
+
+}
@@ -0,0 +1,155 @@
+package es.microservices.tests.orders.repositories.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.Assert;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import es.microservices.tests.orders.entities.OrderEntity;
+import es.microservices.tests.orders.repositories.OrderRepositoryCustom;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Pages with a {@code $facet} stage: one branch skips and limits to the requested page, the other
+ * counts the matching documents, so the page and the total count come back in one round trip.
+ * <p>
+ * Keyset pages instead start right after the last identifier seen, so they cost the same however
+ * deep they are and orders created meanwhile never shift them. The identifiers are random, so an
+ * order created meanwhile may still land before the last one seen and be missed by the walk.
+ * <p>
+ * Bulk inserts go straight to the collection with an unordered insertMany, which the template does
+ * not offer.
+ */
+public class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+  private static final String CONTENT_FIELD = "content";
+  private static final String TOTAL_FIELD = "total";
+  private static final String ID_FIELD = "id";
+  private static final InsertManyOptions UNORDERED = new InsertManyOptions().ordered(false);
+
+  private final ReactiveMongoTemplate template;
+
+  public OrderRepositoryCustomImpl(final ReactiveMongoTemplate template) {
+    Assert.notNull(template, "'template' must not be null");
+    this.template = template;
+  }
+
+  @Override
+  public Mono<Page<OrderEntity>> findPage(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    Assert.isTrue(pageable.isPaged(), "'pageable' must be paged");
+
+    final List<AggregationOperation> operations = new ArrayList<>();
+    if (pageable.getSort().isSorted()) {
+      // sorting ahead of the facet lets Mongo walk an index once for both branches
+      operations.add(Aggregation.sort(pageable.getSort()));
+    }
+    // @formatter:off
+    operations.add(Aggregation
+        .facet(Aggregation.skip(pageable.getOffset()), Aggregation.limit(pageable.getPageSize()))
+          .as(CONTENT_FIELD)
+        .and(Aggregation.count().as(TOTAL_FIELD))
+          .as(TOTAL_FIELD));
+    // @formatter:on
+
+    final TypedAggregation<OrderEntity> aggregation =
+        Aggregation.newAggregation(OrderEntity.class, operations);
+    return this.template.aggregate(aggregation, Document.class).next()
+        .map(result -> toPage(result, pageable));
+  }
+
+  @Override
+  public Mono<Slice<OrderEntity>> findSlice(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    Assert.isTrue(pageable.isPaged(), "'pageable' must be paged");
+
+    final Query query = new Query().with(pageable).limit(pageable.getPageSize() + 1);
+    return this.template.find(query, OrderEntity.class).collectList().map(orders -> {
+      final boolean hasNext = orders.size() > pageable.getPageSize();
+      return new SliceImpl<>(hasNext ? orders.subList(0, pageable.getPageSize()) : orders,
+          pageable, hasNext);
+    });
+  }
+
+  @Override
+  public Mono<Long> estimatedCount() {
+    return this.template.estimatedCount(OrderEntity.class);
+  }
+
+  @Override
+  public Flux<OrderEntity> findAfter(final String lastOrderId, final int limit) {
+    Assert.isTrue(limit > 0, "'limit' must be greater than zero");
+
+    final Query query = new Query().with(Sort.by(ID_FIELD)).limit(limit);
+    if (Objects.nonNull(lastOrderId)) {
+      query.addCriteria(Criteria.where(ID_FIELD).gt(lastOrderId));
+    }
+    return this.template.find(query, OrderEntity.class);
+  }
+
+  @Override
+  public Mono<Map<Integer, String>> insertUnordered(final List<OrderEntity> orders) {
+    Assert.notEmpty(orders, "'orders' must not be null or empty");
+    return insertMany(orders, UnaryOperator.identity());
+  }
+
+  @Override
+  public Mono<Map<Integer, String>> insertUnordered(final List<OrderEntity> orders,
+      final WriteConcern writeConcern) {
+    Assert.notEmpty(orders, "'orders' must not be null or empty");
+    Assert.notNull(writeConcern, "'writeConcern' must not be null");
+    return insertMany(orders, collection -> collection.withWriteConcern(writeConcern));
+  }
+
+  private Mono<Map<Integer, String>> insertMany(final List<OrderEntity> orders,
+      final UnaryOperator<MongoCollection<Document>> configure) {
+    final List<Document> documents = orders.stream().map(order -> {
+      final Document document = new Document();
+      this.template.getConverter().write(order, document);
+      return document;
+    }).collect(Collectors.toList());
+    // @formatter:off
+    return this.template.getCollection(this.template.getCollectionName(OrderEntity.class))
+        .map(configure)
+        .flatMap(collection -> Mono.from(collection.insertMany(documents, UNORDERED)))
+        .map(inserted -> Collections.<Integer, String>emptyMap())
+        .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(e.getWriteErrors().stream()
+            .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage))));
+    // @formatter:on
+  }
+
+  private Page<OrderEntity> toPage(final Document result, final Pageable pageable) {
+    final List<OrderEntity> content = result.getList(CONTENT_FIELD, Document.class,
+        Collections.emptyList()).stream()
+        .map(document -> this.template.getConverter().read(OrderEntity.class, document))
+        .collect(Collectors.toList());
+    final List<Document> total =
+        result.getList(TOTAL_FIELD, Document.class, Collections.emptyList());
+    final long totalCount =
+        total.isEmpty() ? 0L : total.get(0).get(TOTAL_FIELD, Number.class).longValue();
+    return new PageImpl<>(content, pageable, totalCount);
+  }
+
+}
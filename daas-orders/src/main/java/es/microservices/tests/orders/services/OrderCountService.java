@@ -0,0 +1,24 @@
+package es.microservices.tests.orders.services;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Provides the total number of orders sent along with the order pages.
+ */
+public interface OrderCountService {
+
+  Mono<Long> countAllOrders();
+
+  /**
+   * Whether the count is exact. Exact counts are taken together with the page in a single
+   * aggregation instead of asking this service.
+   */
+  boolean isExact();
+
+  /**
+   * Tells the service that orders were created, so that a maintained count does not have to wait for
+   * the next reconciliation.
+   */
+  void ordersAdded(long count);
+
+}
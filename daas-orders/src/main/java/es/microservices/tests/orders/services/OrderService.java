@@ -1,5 +1,9 @@
 package es.microservices.tests.orders.services;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import es.microservices.tests.orders.dtos.BulkOrderResultDto;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
 import reactor.core.publisher.Flux;
@@ -11,8 +15,23 @@ public interface OrderService {
 
   Flux<OrderDto> findAllOrders();
 
+  Mono<Page<OrderDto>> findOrdersPage(Pageable pageable);
+
+  /**
+   * Retrieves one page of orders without counting them, only whether there is a next page is known.
+   */
+  Mono<Slice<OrderDto>> findOrdersSlice(Pageable pageable);
+
+  Flux<OrderDto> findOrdersAfter(String lastOrderId, int limit);
+
   Mono<OrderDto> findById(String orderId);
 
   Mono<OrderDto> createOrder(NewOrderDto order);
 
+  /**
+   * Creates the orders in chunks with bulk writes, returning one result per order in the order
+   * they were received. An invalid or failed order does not stop the others.
+   */
+  Flux<BulkOrderResultDto> createOrders(Flux<NewOrderDto> orders);
+
 }
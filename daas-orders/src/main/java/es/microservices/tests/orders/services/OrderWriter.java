@@ -0,0 +1,16 @@
+package es.microservices.tests.orders.services;
+
+import es.microservices.tests.orders.entities.OrderEntity;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes the orders created one by one.
+ */
+public interface OrderWriter {
+
+  /**
+   * Inserts the order and emits it once written, or the error that prevented writing it.
+   */
+  Mono<OrderEntity> insert(OrderEntity order);
+
+}
@@ -0,0 +1,58 @@
+package es.microservices.tests.orders.services.impl;
+
+import org.springframework.util.Assert;
+import es.microservices.tests.common.counts.CountStrategy;
+import es.microservices.tests.common.counts.DocumentCounter;
+import es.microservices.tests.orders.configurations.properties.OrderCountProperties;
+import es.microservices.tests.orders.repositories.OrderRepository;
+import es.microservices.tests.orders.services.OrderCountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Counts the orders with the configured {@link CountStrategy}, see {@link DocumentCounter}. The
+ * drift of the ESTIMATED and COUNTER strategies is published as the orders.count.drift gauge.
+ */
+public class OrderCountServiceImpl implements OrderCountService, AutoCloseable {
+
+  private final DocumentCounter counter;
+
+  /**
+   * Counts exactly, nothing is reconciled.
+   */
+  public OrderCountServiceImpl(final OrderRepository repository) {
+    Assert.notNull(repository, "'repository' must not be null");
+    this.counter = new DocumentCounter(repository::count);
+  }
+
+  public OrderCountServiceImpl(final OrderRepository repository,
+      final OrderCountProperties properties, final MeterRegistry meterRegistry) {
+    Assert.notNull(repository, "'repository' must not be null");
+    Assert.notNull(properties, "'properties' must not be null");
+    this.counter = new DocumentCounter("orders", repository::count, repository::estimatedCount,
+        properties.getStrategy(), properties.getReconcileInterval(), meterRegistry,
+        Schedulers.parallel());
+  }
+
+  @Override
+  public Mono<Long> countAllOrders() {
+    return this.counter.count();
+  }
+
+  @Override
+  public boolean isExact() {
+    return this.counter.isExact();
+  }
+
+  @Override
+  public void ordersAdded(final long count) {
+    this.counter.added(count);
+  }
+
+  @Override
+  public void close() {
+    this.counter.close();
+  }
+
+}
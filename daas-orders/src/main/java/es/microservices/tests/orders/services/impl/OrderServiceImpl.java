@@ -1,30 +1,87 @@
 package es.microservices.tests.orders.services.impl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.util.Assert;
+import es.microservices.tests.orders.configurations.properties.OrderBulkProperties;
+import es.microservices.tests.orders.dtos.BulkOrderResultDto;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
 import es.microservices.tests.orders.entities.OrderEntity;
 import es.microservices.tests.orders.mappers.Mapper;
 import es.microservices.tests.orders.repositories.OrderRepository;
+import es.microservices.tests.orders.services.OrderCountService;
 import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.OrderWriter;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
 
 public class OrderServiceImpl implements OrderService {
 
   private final OrderRepository repository;
   private final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper;
   private final Mapper<OrderEntity, OrderDto> entity2DtoMapper;
+  private final OrderCountService countService;
+  private final Validator validator;
+  private final OrderBulkProperties bulkProperties;
+  private final OrderWriter writer;
 
   public OrderServiceImpl(final OrderRepository repository,
       final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper,
       final Mapper<OrderEntity, OrderDto> entity2DtoMapper) {
+    this(repository, dto2EntityMapper, entity2DtoMapper, new OrderCountServiceImpl(repository));
+  }
+
+  public OrderServiceImpl(final OrderRepository repository,
+      final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper,
+      final Mapper<OrderEntity, OrderDto> entity2DtoMapper,
+      final OrderCountService countService) {
+    this(repository, dto2EntityMapper, entity2DtoMapper, countService,
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        OrderBulkProperties.builder().build());
+  }
+
+  public OrderServiceImpl(final OrderRepository repository,
+      final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper,
+      final Mapper<OrderEntity, OrderDto> entity2DtoMapper,
+      final OrderCountService countService, final Validator validator,
+      final OrderBulkProperties bulkProperties) {
+    this(repository, dto2EntityMapper, entity2DtoMapper, countService, validator, bulkProperties,
+        new OrderWriterImpl(repository));
+  }
+
+  public OrderServiceImpl(final OrderRepository repository,
+      final Mapper<NewOrderDto, OrderEntity> dto2EntityMapper,
+      final Mapper<OrderEntity, OrderDto> entity2DtoMapper,
+      final OrderCountService countService, final Validator validator,
+      final OrderBulkProperties bulkProperties, final OrderWriter writer) {
     Assert.notNull(repository, "'repository' must not be null");
     Assert.notNull(dto2EntityMapper, "'dto2EntityMapper' must not be null");
     Assert.notNull(entity2DtoMapper, "'entity2DtoMapper' must not be null");
+    Assert.notNull(countService, "'countService' must not be null");
+    Assert.notNull(validator, "'validator' must not be null");
+    Assert.notNull(bulkProperties, "'bulkProperties' must not be null");
+    Assert.notNull(writer, "'writer' must not be null");
     this.repository = repository;
     this.dto2EntityMapper = dto2EntityMapper;
     this.entity2DtoMapper = entity2DtoMapper;
+    this.countService = countService;
+    this.validator = validator;
+    this.bulkProperties = bulkProperties;
+    this.writer = writer;
 
   }
 
@@ -37,9 +94,34 @@ public class OrderServiceImpl implements OrderService {
 
   }
   
+  @Override
+  public Mono<Page<OrderDto>> findOrdersPage(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    if (this.countService.isExact()) {
+      return Mono.defer(() -> this.repository.findPage(pageable))
+          .map(page -> page.map(this.entity2DtoMapper::map));
+    }
+    return Mono.zip(findOrdersSlice(pageable), this.countService.countAllOrders())
+        .map(sliceAndCount -> toPage(sliceAndCount.getT1(), sliceAndCount.getT2()));
+  }
+
+  @Override
+  public Mono<Slice<OrderDto>> findOrdersSlice(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    return Mono.defer(() -> this.repository.findSlice(pageable))
+        .map(slice -> slice.map(this.entity2DtoMapper::map));
+  }
+
+  @Override
+  public Flux<OrderDto> findOrdersAfter(final String lastOrderId, final int limit) {
+    Assert.isTrue(limit > 0, "'limit' must be greater than zero");
+    return Flux.defer(() -> this.repository.findAfter(lastOrderId, limit))
+        .map(this.entity2DtoMapper::map);
+  }
+
   @Override
   public Mono<Long> countAllOrders() {
-    return Mono.defer(this.repository::count);    
+    return this.countService.countAllOrders();
   }
   
   @Override
@@ -57,9 +139,99 @@ public class OrderServiceImpl implements OrderService {
       ;    
   }
   
+  /**
+   * The orders are requested from the body one chunk at a time, only as many as the chunks being
+   * written, so an import is streamed through instead of held in memory. The valid orders of a
+   * chunk are inserted with a single unordered bulk write and the results are sent in the order of
+   * the request.
+   * <p>
+   * The orders of a chunk that are still arriving after the max linger are written on their own,
+   * so a slow stream is not held back until it ends. The linger is applied within each chunk, whose
+   * orders are already bounded by the chunk size: a buffer timeout over the whole body fails when
+   * it flushes while no chunk has been requested.
+   */
+  @Override
+  public Flux<BulkOrderResultDto> createOrders(final Flux<NewOrderDto> orders) {
+    Assert.notNull(orders, "'orders' must not be null");
+    final int chunkSize = this.bulkProperties.getChunkSize();
+    // @formatter:off
+    return orders.index()
+        .window(chunkSize)
+        .flatMapSequential(chunk -> chunk
+                .bufferTimeout(chunkSize, this.bulkProperties.getMaxLinger())
+                .onBackpressureBuffer()
+                .concatMap(this::saveChunk),
+            this.bulkProperties.getConcurrency(), 1);
+    // @formatter:on
+  }
+
+  private Flux<BulkOrderResultDto> saveChunk(final List<Tuple2<Long, NewOrderDto>> chunk) {
+    final BulkOrderResultDto[] results = new BulkOrderResultDto[chunk.size()];
+    final List<OrderEntity> entities = new ArrayList<>(chunk.size());
+    final List<Integer> positions = new ArrayList<>(chunk.size());
+    for (int i = 0; i < chunk.size(); i++) {
+      final String violations = validate(chunk.get(i).getT2());
+      if (Objects.nonNull(violations)) {
+        results[i] = failed(chunk.get(i).getT1(), violations);
+      } else {
+        entities.add(this.dto2EntityMapper.map(chunk.get(i).getT2()));
+        positions.add(i);
+      }
+    }
+    if (entities.isEmpty()) {
+      return Flux.fromArray(results);
+    }
+    // @formatter:off
+    return Mono.defer(() -> this.repository.insertUnordered(entities))
+        .onErrorResume(e -> Mono.just(allFailed(entities.size(), e.getMessage())))
+        .flatMapMany(errors -> {
+          for (int j = 0; j < entities.size(); j++) {
+            final int position = positions.get(j);
+            final long index = chunk.get(position).getT1();
+            results[position] = errors.containsKey(j) ? failed(index, errors.get(j))
+                : BulkOrderResultDto.builder().index(index).orderId(entities.get(j).getId()).build();
+          }
+          this.countService.ordersAdded(entities.size() - errors.size());
+          return Flux.fromArray(results);
+        });
+    // @formatter:on
+  }
+
+  private String validate(final NewOrderDto order) {
+    final Set<ConstraintViolation<NewOrderDto>> violations = this.validator.validate(order);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private static BulkOrderResultDto failed(final long index, final String error) {
+    return BulkOrderResultDto.builder().index(index).error(error).build();
+  }
+
+  private static Map<Integer, String> allFailed(final int size, final String error) {
+    final Map<Integer, String> errors = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      errors.put(i, error);
+    }
+    return errors;
+  }
+
   private Mono<OrderDto> saveOrderEntity(OrderEntity order) {
-    return Mono.defer(() -> this.repository.save(order))
+    return this.writer.insert(order)
+        .doOnNext(saved -> this.countService.ordersAdded(1))
         .map(this.entity2DtoMapper::map);
   }
 
+  /**
+   * The slice knows for sure whether there are more orders, an estimated count that disagrees is
+   * corrected so that the page never announces a next page that does not exist, or hides one.
+   */
+  private static Page<OrderDto> toPage(final Slice<OrderDto> slice, final long estimatedCount) {
+    final long seen = slice.getPageable().getOffset() + slice.getNumberOfElements();
+    final long totalCount = slice.hasNext() ? Math.max(estimatedCount, seen + 1) : seen;
+    return new PageImpl<>(slice.getContent(), slice.getPageable(), totalCount);
+  }
+
 }
@@ -0,0 +1,249 @@
+package es.microservices.tests.orders.services.impl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.util.Assert;
+import com.mongodb.WriteConcern;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties.Durability;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties.Mode;
+import es.microservices.tests.orders.entities.OrderEntity;
+import es.microservices.tests.orders.repositories.OrderRepository;
+import es.microservices.tests.orders.services.OrderWriter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Writes the orders with the configured {@link Mode}.
+ * <ul>
+ * <li>DIRECT saves every order on its own.</li>
+ * <li>COALESCING queues the orders and writes them in batches with a single unordered insert. A
+ * batch is written once it has max batch size orders or its first order has waited max linger,
+ * whatever comes first, and every caller is answered with the outcome of its own order.</li>
+ * </ul>
+ * The coalesced batches are published as the orders.write.batch.size distribution and the time
+ * from queueing an order to answering it as the orders.write.latency timer, both with percentile
+ * histograms. An order whose caller cancels is still written.
+ * <p>
+ * At most max concurrent batches inserts are written at the same time and at most queue capacity
+ * orders are queued or being written, the orders inserted beyond it are rejected with a
+ * {@link RejectedExecutionException}. Once closed, the orders already queued are written for up to
+ * the close timeout and the new ones are rejected.
+ */
+@Slf4j
+public class OrderWriterImpl implements OrderWriter, AutoCloseable {
+
+  private static final String BATCH_SIZE_METRIC = "orders.write.batch.size";
+  private static final String LATENCY_METRIC = "orders.write.latency";
+
+  private final OrderRepository repository;
+  private final Mode mode;
+  private final WriteConcern writeConcern;
+  private final Sinks.Many<PendingOrder> pending;
+  private final Object emitting = new Object();
+  private final Set<PendingOrder> queued = ConcurrentHashMap.newKeySet();
+  private final int queueCapacity;
+  private final DistributionSummary batchSize;
+  private final Timer latency;
+  private final Duration closeTimeout;
+  private final Sinks.Empty<Void> drained;
+  private final Disposable writing;
+
+  /**
+   * Saves every order on its own.
+   */
+  public OrderWriterImpl(final OrderRepository repository) {
+    Assert.notNull(repository, "'repository' must not be null");
+    this.repository = repository;
+    this.mode = Mode.DIRECT;
+    this.writeConcern = null;
+    this.pending = null;
+    this.queueCapacity = 0;
+    this.batchSize = null;
+    this.latency = null;
+    this.closeTimeout = null;
+    this.drained = null;
+    this.writing = null;
+  }
+
+  public OrderWriterImpl(final OrderRepository repository, final OrderWriteProperties properties,
+      final MeterRegistry meterRegistry) {
+    this(repository, properties, meterRegistry, Schedulers.parallel());
+  }
+
+  OrderWriterImpl(final OrderRepository repository, final OrderWriteProperties properties,
+      final MeterRegistry meterRegistry, final Scheduler scheduler) {
+    Assert.notNull(repository, "'repository' must not be null");
+    Assert.notNull(properties, "'properties' must not be null");
+    Assert.notNull(meterRegistry, "'meterRegistry' must not be null");
+    Assert.notNull(scheduler, "'scheduler' must not be null");
+    this.repository = repository;
+    this.mode = properties.getMode();
+
+    if (this.mode == Mode.DIRECT) {
+      this.writeConcern = null;
+      this.pending = null;
+      this.queueCapacity = 0;
+      this.batchSize = null;
+      this.latency = null;
+      this.closeTimeout = null;
+      this.drained = null;
+      this.writing = null;
+      return;
+    }
+    this.writeConcern = toWriteConcern(properties.getDurability());
+    this.batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+        .description("Orders written by every coalesced insert").publishPercentileHistogram()
+        .register(meterRegistry);
+    this.latency = Timer.builder(LATENCY_METRIC)
+        .description("Time from queueing an order to answering its caller")
+        .publishPercentileHistogram().register(meterRegistry);
+    this.closeTimeout = properties.getCloseTimeout();
+    this.drained = Sinks.empty();
+    this.queueCapacity = properties.getQueueCapacity();
+    this.pending = Sinks.many().unicast().onBackpressureBuffer();
+    // bufferTimeout cannot wait for demand, the filled batches wait for a write in the queue of
+    // flatMap instead, bounded by the queue capacity as every order in it is in the queued set
+    // @formatter:off
+    this.writing = this.pending.asFlux()
+        .bufferTimeout(properties.getMaxBatchSize(), properties.getMaxLinger(), scheduler)
+        .onBackpressureBuffer()
+        .flatMap(this::write, properties.getMaxConcurrentBatches())
+        .doFinally(signal -> this.drained.tryEmitEmpty())
+        .subscribe();
+    // @formatter:on
+  }
+
+  @Override
+  public Mono<OrderEntity> insert(final OrderEntity order) {
+    Assert.notNull(order, "'order' must not be null");
+    if (this.mode == Mode.DIRECT) {
+      return Mono.defer(() -> this.repository.save(order));
+    }
+    return Mono.defer(() -> {
+      final PendingOrder pendingOrder = new PendingOrder(order, System.nanoTime());
+      // the sink is only ever emitted to under the lock, so concurrent callers cannot fail it
+      synchronized (this.emitting) {
+        if (this.queued.size() >= this.queueCapacity) {
+          return Mono.error(new RejectedExecutionException("The order writer queue is full"));
+        }
+        this.queued.add(pendingOrder);
+        if (this.pending.tryEmitNext(pendingOrder).isFailure()) {
+          this.queued.remove(pendingOrder);
+          return Mono.error(new IllegalStateException("The order writer is closed"));
+        }
+      }
+      return pendingOrder.result.asMono();
+    });
+  }
+
+  /**
+   * The orders already queued are still written, for up to the close timeout, new ones are
+   * rejected. The callers of the orders still being written then are failed, and so are the ones
+   * of the orders still queued, which are dropped with the batches waiting for a write.
+   */
+  @Override
+  public void close() {
+    if (Objects.isNull(this.pending)) {
+      return;
+    }
+    synchronized (this.emitting) {
+      this.pending.tryEmitComplete();
+    }
+    try {
+      this.drained.asMono().block(this.closeTimeout);
+    } catch (IllegalStateException e) {
+      log.warn("The queued orders were not written within {}", this.closeTimeout);
+    }
+    this.writing.dispose();
+    this.queued.forEach(pendingOrder -> pendingOrder.fail(
+        new IllegalStateException("The order writer was closed before the order was written")));
+    this.queued.clear();
+  }
+
+  private Mono<Void> write(final List<PendingOrder> batch) {
+    this.batchSize.record(batch.size());
+    final List<OrderEntity> orders =
+        batch.stream().map(pendingOrder -> pendingOrder.order).collect(Collectors.toList());
+    // @formatter:off
+    return Mono.defer(() -> this.repository.insertUnordered(orders, this.writeConcern))
+        .doOnNext(errors -> answer(batch, errors))
+        .onErrorResume(e -> {
+          log.warn("A batch of {} orders could not be written", batch.size(), e);
+          batch.forEach(pendingOrder -> pendingOrder.fail(e));
+          return Mono.empty();
+        })
+        .doOnCancel(() -> batch.forEach(pendingOrder -> pendingOrder.fail(
+            new IllegalStateException("The order writer was closed while the order was written"))))
+        .doFinally(signal -> batch.forEach(pendingOrder -> {
+          pendingOrder.record(this.latency);
+          this.queued.remove(pendingOrder);
+        }))
+        .then();
+    // @formatter:on
+  }
+
+  private static void answer(final List<PendingOrder> batch, final Map<Integer, String> errors) {
+    for (int i = 0; i < batch.size(); i++) {
+      if (errors.containsKey(i)) {
+        batch.get(i).fail(new DataIntegrityViolationException(errors.get(i)));
+      } else {
+        batch.get(i).succeed();
+      }
+    }
+  }
+
+  private static WriteConcern toWriteConcern(final Durability durability) {
+    switch (durability) {
+      case JOURNALED:
+        return WriteConcern.JOURNALED;
+      case MAJORITY:
+        return WriteConcern.MAJORITY;
+      default:
+        return WriteConcern.ACKNOWLEDGED;
+    }
+  }
+
+  /**
+   * An order waiting for its batch, with the caller to answer.
+   */
+  private static final class PendingOrder {
+
+    private final OrderEntity order;
+    private final long queuedAt;
+    private final Sinks.One<OrderEntity> result = Sinks.one();
+
+    private PendingOrder(final OrderEntity order, final long queuedAt) {
+      this.order = order;
+      this.queuedAt = queuedAt;
+    }
+
+    private void succeed() {
+      this.result.tryEmitValue(this.order);
+    }
+
+    private void fail(final Throwable error) {
+      this.result.tryEmitError(error);
+    }
+
+    private void record(final Timer latency) {
+      latency.record(System.nanoTime() - this.queuedAt, TimeUnit.NANOSECONDS);
+    }
+  }
+
+}
@@ -0,0 +1,94 @@
+package es.microservices.tests.orders.configurations;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.Compression;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import es.microservices.tests.orders.controllers.InternalMediaTypes;
+import es.microservices.tests.orders.dtos.OrderDto;
+import es.microservices.tests.orders.features.TestFeatures;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Serves a page of orders in Smile with the compression of application.yml on a real server, the
+ * compression is applied by the server and not seen by the mocked web clients.
+ */
+class ServerCompressionTest {
+
+  private static final MediaType SMILE =
+      MediaType.valueOf(InternalMediaTypes.APPLICATION_SMILE_VALUE);
+
+  private WebServer server;
+  private byte[] body;
+
+  @BeforeEach
+  public void beforeEach() throws IOException {
+    final List<OrderDto> orders = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      orders.add(TestFeatures.createOrderDto(String.valueOf(i), "customerName" + i,
+          "customerSurname" + i, "email" + i + "@email.com",
+          TestFeatures.createCollection(TestFeatures.createPhoneDto("phoneId" + i, "phoneName" + i,
+              1.0 + i)),
+          1.0 + i));
+    }
+    this.body = new ObjectMapper(new SmileFactory()).writeValueAsBytes(orders);
+
+    final NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory(0);
+    factory.setCompression(applicationCompression());
+    this.server = factory.getWebServer((request, response) -> {
+      response.getHeaders().setContentType(SMILE);
+      return response.writeWith(Mono.just(response.bufferFactory().wrap(this.body)));
+    });
+    this.server.start();
+  }
+
+  @AfterEach
+  public void afterEach() {
+    this.server.stop();
+  }
+
+  @Test
+  void smile_responses_are_gzipped() {
+    // a client of its own, the default one decompresses the responses and drops the header
+    // @formatter:off
+    WebTestClient.bindToServer(new ReactorClientHttpConnector(HttpClient.create()))
+        .baseUrl("http://localhost:" + this.server.getPort()).build()
+        .get()
+        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+        .accept(SMILE)
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .valueEquals(HttpHeaders.CONTENT_ENCODING, "gzip");
+    // @formatter:on
+  }
+
+  /**
+   * The application.yml of the tests shadows the main one on the classpath.
+   */
+  private static Compression applicationCompression() throws IOException {
+    final List<PropertySource<?>> sources = new YamlPropertySourceLoader().load("application.yml",
+        new FileSystemResource("src/main/resources/application.yml"));
+    return new Binder(ConfigurationPropertySources.from(sources))
+        .bind("server.compression", Compression.class).get();
+  }
+
+}
@@ -7,7 +7,11 @@ import static es.microservices.tests.orders.features.TestFeatures.createPhoneDto
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -15,6 +19,7 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -33,6 +38,11 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
@@ -45,9 +55,15 @@ import brave.Tracing;
 import brave.propagation.CurrentTraceContext;
 import brave.propagation.TraceContext;
 import brave.sampler.Sampler;
+import es.microservices.tests.common.pagination.ContinuationTokens;
 import es.microservices.tests.orders.configurations.ErrorManagementConfig;
 import es.microservices.tests.orders.configurations.GlobalConfig;
+import es.microservices.tests.orders.configurations.properties.OrderBulkProperties;
+import es.microservices.tests.orders.configurations.properties.OrderCountProperties;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties;
+import es.microservices.tests.orders.controllers.InternalMediaTypes;
 import es.microservices.tests.orders.controllers.handler.SpecificControllerAdvice;
+import es.microservices.tests.orders.dtos.BulkOrderResultDto;
 import es.microservices.tests.orders.dtos.CustomerDto;
 import es.microservices.tests.orders.dtos.ErrorResponse;
 import es.microservices.tests.orders.dtos.NewOrderDto;
@@ -58,6 +74,8 @@ import es.microservices.tests.orders.entities.OrderEntity;
 import es.microservices.tests.orders.entities.OrderEntity.PhoneData;
 import es.microservices.tests.orders.features.TestFeatures;
 import es.microservices.tests.orders.repositories.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import zipkin2.Span;
@@ -71,6 +89,8 @@ import zipkin2.reporter.Reporter;
 public class OrderControllerImplTest {
 
   private static final String URL = "/orders";
+  private static final MediaType SMILE =
+      MediaType.valueOf(InternalMediaTypes.APPLICATION_SMILE_VALUE);
 
   @Autowired
   private WebTestClient webTestClient;
@@ -124,11 +144,10 @@ public class OrderControllerImplTest {
     final OrderEntity entity = TestFeatures.createOrderEntity(orderId, customerName, customerSurname, customerEmail, phoneListToBuyEntity, totalPrice);
     final OrderDto expectedOrderDto = TestFeatures.createOrderDto(orderId, customerName, customerSurname, customerEmail, phoneListToBuy, totalPrice);
 
-    doReturn(Flux.just(entity)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -149,8 +168,8 @@ public class OrderControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -160,8 +179,7 @@ public class OrderControllerImplTest {
 
     final String errorMessage = "Type mismatch.";
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -181,8 +199,7 @@ public class OrderControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
   }
 
   @Test
@@ -192,8 +209,7 @@ public class OrderControllerImplTest {
 
     final String errorMessage = "Type mismatch.";
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -212,79 +228,20 @@ public class OrderControllerImplTest {
         ;
     
     // @formatter:on
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
   }
 
   @Test
   void testGetOrderList_findAll_returnsError() {
     final int page = 1;
     final int pageSize = 10;
-    final Long totalCount = 0l;
 
     final String errorMessage = "An error occurred retrieving the data";
 
-    doReturn(Flux.error(() -> new DataRetrievalFailureException(errorMessage)))
-        .when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
-
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
-
-    // @formatter:off
-    webTestClient.get()
-        .uri(uriBuilder -> uriBuilder.path(URL)
-            .queryParam("page", page)
-            .queryParam("pageSize", pageSize)
-            .build())
-        .accept(MediaType.APPLICATION_JSON)
-        .exchange()
-          .expectStatus()
-            .is5xxServerError()
-        .expectBody(ErrorResponse.class)
-        .value(consume -> consume.getStatus(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value()))
-        .value(consume -> consume.getErrorMessage(), equalTo(errorMessage))
-        .value(consume -> consume.getOperationId(), notNullValue(String.class) );
-    // @formatter:on
-
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
-  }
-
-  @Test
-  void testGetOrderList_count_returnsError() {
-    final int page = 1;
-    final int pageSize = 10;
-    
-    final String orderId = UUID.randomUUID().toString();
-    final String customerName = "customerName";
-    final String customerSurname = "customerSurname";
-    final String customerEmail = "email@email.com";
-
-    final String phoneId_1 = "1";
-    final String phoneName_1 = "phoneName_1";
-    final double phonePrice_1 = 205.22;
-
-    final String phoneId_2 = "2";
-    final String phoneName_2 = "phoneName_2";
-    final double phonePrice_2 = 100.11;
-
-    final Double totalPrice = 305.33;
-        
-    final Collection<PhoneData> phoneListToBuyEntity =
-        createCollection(createPhoneData(phoneId_1, phoneName_1, phonePrice_1),
-            createPhoneData(phoneId_2, phoneName_2, phonePrice_2));
-
-    final String errorMessage = "An error occurred counting the data";
-
-    final OrderEntity entity = TestFeatures.createOrderEntity(orderId, customerName, customerSurname, customerEmail, phoneListToBuyEntity, totalPrice);
-
-    doReturn(Flux.just(entity)).when(this.repository).findAll();
     doReturn(Mono.error(() -> new DataRetrievalFailureException(errorMessage)))
-        .when(this.repository).count();
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -302,8 +259,8 @@ public class OrderControllerImplTest {
         .value(consume -> consume.getOperationId(), notNullValue(String.class) );
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -314,11 +271,10 @@ public class OrderControllerImplTest {
 
     final int returnedOrdersExpected = 0;
 
-    doReturn(Flux.empty()).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Collections.emptyList(), page, pageSize,
+        totalCount))).when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -338,8 +294,8 @@ public class OrderControllerImplTest {
         .value(consume -> consume.getOrders().size(), equalTo(returnedOrdersExpected));        
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -376,11 +332,10 @@ public class OrderControllerImplTest {
     final OrderEntity entity = TestFeatures.createOrderEntity(orderId, customerName, customerSurname, customerEmail, phoneListToBuyEntity, totalPrice);
     final OrderDto expectedOrderDto = TestFeatures.createOrderDto(orderId, customerName, customerSurname, customerEmail, phoneListToBuy, totalPrice);
 
-    doReturn(Flux.just(entity)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -403,8 +358,8 @@ public class OrderControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -456,11 +411,10 @@ public class OrderControllerImplTest {
     final OrderEntity entity2 = TestFeatures.createOrderEntity(orderId_2, customerName_order2, customerSurname_order2, customerEmail_order2, phoneListToBuyEntity_order2, totalPrice_order2);
     final OrderDto expectedOrderDto2 = TestFeatures.createOrderDto(orderId_2, customerName_order2, customerSurname_order2, customerEmail_order2, phoneListToBuy_order2, totalPrice_order2);
 
-    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity1, entity2), page, pageSize,
+        totalCount))).when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -484,8 +438,8 @@ public class OrderControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -533,11 +487,10 @@ public class OrderControllerImplTest {
 
     final OrderDto expectedOrderDto1 = TestFeatures.createOrderDto(orderId_1, customerName_order1, customerSurname_order1, customerEmail_order1, phoneListToBuy_order1, totalPrice_order1);
 
-    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity1), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -556,12 +509,13 @@ public class OrderControllerImplTest {
         .value(consume -> consume.getOrders(), notNullValue())
         .value(consume -> consume.getOrders().size(), equalTo(returnedOrdersExpected))
         .value(consume -> consume.getOrders().get(0), equalTo(expectedOrderDto1))
+        .value(consume -> consume.getNext(), equalTo(ContinuationTokens.encode(orderId_1)))
         ;
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -609,11 +563,10 @@ public class OrderControllerImplTest {
 
     final OrderDto expectedOrderDto2 = TestFeatures.createOrderDto(orderId_2, customerName_order2, customerSurname_order2, customerEmail_order2, phoneListToBuy_order2, totalPrice_order2);
 
-    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity2), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -636,11 +589,138 @@ public class OrderControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
+  }
+
+
+
+  @Test
+  void testGetOrderList_count_false_returns_the_page_without_counting() {
+    final int page = 1;
+    final int pageSize = 1;
+
+    final OrderEntity entity1 = TestFeatures.createOrderEntity("1", "customerName_order1",
+        "customerSurname_order1", "customerEmail_order1",
+        createCollection(createPhoneData("1", "phoneName_1", 205.22)), 205.22);
+
+    doReturn(Mono.just(new SliceImpl<>(Arrays.asList(entity1), PageRequest.of(0, pageSize), true)))
+        .when(this.repository).findSlice(any(Pageable.class));
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("page", page)
+            .queryParam("pageSize", pageSize)
+            .queryParam("count", false)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody()
+          .jsonPath("$.orders.length()").isEqualTo(1)
+          .jsonPath("$.page").isEqualTo(page)
+          .jsonPath("$.next").isEqualTo(ContinuationTokens.encode("1"))
+          .jsonPath("$.total-count").doesNotExist();
+    // @formatter:on
+
+    verify(this.repository, times(1))
+        .findSlice(PageRequest.of(page - 1, pageSize, Sort.by("id")));
+    verify(this.repository, never()).findPage(any(Pageable.class));
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void testGetOrderList_cursor_returns_the_next_page_and_its_cursor() {
+    final int pageSize = 1;
+
+    final Collection<PhoneData> phoneListToBuyEntity =
+        createCollection(createPhoneData("1", "phoneName_1", 205.22));
+    final Collection<PhoneDto> phoneListToBuy =
+        createCollection(createPhoneDto("1", "phoneName_1", 205.22));
+
+    final OrderEntity entity2 = TestFeatures.createOrderEntity("2", "customerName_order2",
+        "customerSurname_order2", "customerEmail_order2", phoneListToBuyEntity, 205.22);
+    final OrderEntity entity3 = TestFeatures.createOrderEntity("3", "customerName_order3",
+        "customerSurname_order3", "customerEmail_order3", phoneListToBuyEntity, 205.22);
+    final OrderDto expectedOrderDto2 = TestFeatures.createOrderDto("2", "customerName_order2",
+        "customerSurname_order2", "customerEmail_order2", phoneListToBuy, 205.22);
+
+    doReturn(Flux.just(entity2, entity3)).when(this.repository).findAfter(anyString(), anyInt());
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("pageSize", pageSize)
+            .queryParam("cursor", ContinuationTokens.encode("1"))
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody(OrderListDto.class)
+        .value(consume -> consume.getPageSize(), equalTo(pageSize))
+        .value(consume -> consume.getTotalCount(), nullValue())
+        .value(consume -> consume.getOrders(), equalTo(Arrays.asList(expectedOrderDto2)))
+        .value(consume -> consume.getNext(), equalTo(ContinuationTokens.encode("2")))
+        ;
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAfter("1", pageSize + 1);
+    verify(this.repository, never()).findPage(any(Pageable.class));
+  }
+
+  @Test
+  void testGetOrderList_cursor_last_page_has_no_next_cursor() {
+    final int pageSize = 2;
+
+    final OrderEntity entity3 = TestFeatures.createOrderEntity("3", "customerName_order3",
+        "customerSurname_order3", "customerEmail_order3",
+        createCollection(createPhoneData("1", "phoneName_1", 205.22)), 205.22);
+
+    doReturn(Flux.just(entity3)).when(this.repository).findAfter(anyString(), anyInt());
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("pageSize", pageSize)
+            .queryParam("cursor", ContinuationTokens.encode("2"))
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody()
+          .jsonPath("$.orders.length()").isEqualTo(1)
+          .jsonPath("$.next").doesNotExist()
+          .jsonPath("$.page").doesNotExist()
+          .jsonPath("$.total-count").doesNotExist();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAfter("2", pageSize + 1);
   }
 
+  @Test
+  void testGetOrderList_returns_400_when_cursor_is_not_valid() {
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("cursor", "not-a-cursor")
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isBadRequest()
+          .expectBody(ErrorResponse.class)
+            .value(consume -> consume.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()))
+            .value(consume -> consume.getErrorMessage(),
+                equalTo("cursor: is not a valid continuation token"));
+    // @formatter:on
 
+    verify(this.repository, never()).findAfter(anyString(), anyInt());
+    verify(this.repository, never()).findPage(any(Pageable.class));
+  }
 
   @Test
   void testGetOrderById_orderId_found() {
@@ -1611,9 +1691,176 @@ public class OrderControllerImplTest {
 
 
 
+  @Test
+  void testPostAddOrderToCatalog_consumes_and_produces_smile() {
+    final String orderId = UUID.randomUUID().toString();
+    final Collection<PhoneDto> phoneListToBuy =
+        createCollection(createPhoneDto("1", "phoneName_1", 205.22));
+    final Collection<PhoneData> phoneListToBuyEntity =
+        createCollection(createPhoneData("1", "phoneName_1", 205.22));
+
+    final NewOrderDto newOrder = TestFeatures.createNewOrderDto("customerName",
+        "customerSurname", "email@email.com", phoneListToBuy, 205.22);
+    final OrderEntity entity = TestFeatures.createOrderEntity(orderId, "customerName",
+        "customerSurname", "email@email.com", phoneListToBuyEntity, 205.22);
+
+    doReturn(Mono.just(entity)).when(this.repository).save(any(OrderEntity.class));
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .build())
+        .contentType(SMILE)
+        .accept(SMILE)
+        .bodyValue(newOrder)
+        .exchange()
+          .expectStatus()
+            .isCreated()
+          .expectHeader()
+            .contentType(SMILE)
+        .expectBody(OrderDto.class)
+        .value(consume -> consume.getOrderId(), equalTo(orderId))
+        .value(consume -> consume.getCustomerData().getEmail(), equalTo("email@email.com"))
+        .value(consume -> consume.getPhoneListToBuy().get(0).getPrice(), equalTo(205.22))
+        .value(consume -> consume.getTotalPrice(), equalTo(205.22));
+    // @formatter:on
+
+    verify(this.repository, times(1)).save(any(OrderEntity.class));
+  }
+
+  @Test
+  void testGetOrderById_returns_the_entity_tag_and_304_when_it_still_matches() {
+    final OrderEntity entity = TestFeatures.createOrderEntity("1", "customerName_order1",
+        "customerSurname_order1", "customerEmail_order1",
+        createCollection(createPhoneData("1", "phoneName_1", 205.22)), 205.22);
+
+    doReturn(Mono.just(entity)).when(this.repository).findById("1");
+
+    // @formatter:off
+    final String eTag = webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{orderId}"))
+            .build("1"))
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .returnResult(OrderDto.class)
+          .getResponseHeaders()
+            .getETag();
+
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{orderId}"))
+            .build("1"))
+        .accept(MediaType.APPLICATION_JSON)
+        .ifNoneMatch(eTag)
+        .exchange()
+          .expectStatus()
+            .isNotModified()
+          .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, eTag)
+        .expectBody()
+          .isEmpty();
+    // @formatter:on
+
+    assertTrue(eTag.startsWith("W/\""));
+  }
+
+  @Test
+  void testPostBulkOrders_json_array_returns_one_result_per_order() {
+    final NewOrderDto valid = TestFeatures.createNewOrderDto("customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneDto("1", "phoneName_1", 205.22)), 205.22);
+    final NewOrderDto invalid = TestFeatures.createNewOrderDto("customerName", "customerSurname",
+        "not an email", createCollection(createPhoneDto("1", "phoneName_1", 205.22)), 205.22);
+
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/bulk"))
+            .build())
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .bodyValue(Arrays.asList(valid, invalid, valid))
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentType(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(BulkOrderResultDto.class)
+        .value(results -> results.size(), equalTo(3))
+        .value(results -> results.get(0).getOrderId(), notNullValue())
+        .value(results -> results.get(1).getOrderId(), nullValue())
+        .value(results -> results.get(1).getError(),
+            equalTo("customerData.email: must be a well-formed email address"))
+        .value(results -> results.get(2).getIndex(), equalTo(2L))
+        .value(results -> results.get(2).getOrderId(), notNullValue());
+    // @formatter:on
+
+    verify(this.repository, times(1)).insertUnordered(anyList());
+  }
+
+  @Test
+  void testPostBulkOrders_consumes_ndjson() {
+    // @formatter:off
+    final String body =
+        "{\"customer\":{\"name\":\"n\",\"surname\":\"s\",\"email\":\"e@email.com\"},"
+        + "\"phones-to-buy\":[{\"phoneId\":\"1\",\"name\":\"p\",\"price\":1.0}],"
+        + "\"total-price\":1.0}\n"
+        + "{\"customer\":{\"name\":\"n\",\"surname\":\"s\",\"email\":\"e@email.com\"},"
+        + "\"phones-to-buy\":[{\"phoneId\":\"2\",\"name\":\"p\",\"price\":2.0}],"
+        + "\"total-price\":2.0}\n";
+    // @formatter:on
+
+    doReturn(Mono.just(Collections.singletonMap(1, "E11000 duplicate key")))
+        .when(this.repository).insertUnordered(anyList());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/bulk"))
+            .build())
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .bodyValue(body)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBodyList(BulkOrderResultDto.class)
+        .value(results -> results.size(), equalTo(2))
+        .value(results -> results.get(0).getOrderId(), notNullValue())
+        .value(results -> results.get(1).getError(), equalTo("E11000 duplicate key"));
+    // @formatter:on
+  }
+
+  @Test
+  void testPostBulkOrders_smile_returns_the_results_in_smile() {
+    final NewOrderDto valid = TestFeatures.createNewOrderDto("customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneDto("1", "phoneName_1", 205.22)), 205.22);
+
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/bulk"))
+            .build())
+        .contentType(SMILE)
+        .accept(SMILE)
+        .bodyValue(Arrays.asList(valid, valid))
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentType(SMILE)
+        .expectBodyList(BulkOrderResultDto.class)
+        .value(results -> results.size(), equalTo(2))
+        .value(results -> results.get(1).getIndex(), equalTo(1L))
+        .value(results -> results.get(1).getOrderId(), notNullValue());
+    // @formatter:on
+  }
+
   @TestConfiguration
   @EnableAutoConfiguration
-  @Import({OrderControllerImpl.class, GlobalConfig.class, ErrorManagementConfig.class,
+  @Import({OrderControllerImpl.class, GlobalConfig.class, OrderCountProperties.class,
+      OrderBulkProperties.class, OrderWriteProperties.class, ErrorManagementConfig.class,
       SpecificControllerAdvice.class})
   static class InnerConfiguration {
 
@@ -1622,6 +1869,11 @@ public class OrderControllerImplTest {
       return mock(OrderRepository.class);
     }
 
+    @Bean
+    public MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+
     @Bean
     public Tracer tracer() {
       final List<Span> spans = new ArrayList<>();
@@ -4,6 +4,9 @@ package es.microservices.tests.orders.features;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import es.microservices.tests.orders.dtos.CustomerDto;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
@@ -108,5 +111,9 @@ public class TestFeatures {
     // @formatter:on
   }
 
+  public static <T> Page<T> createPage(final List<T> content, final int page, final int pageSize,
+      final long totalCount) {
+    return new PageImpl<>(content, PageRequest.of(page - 1, pageSize), totalCount);
+  }
 
 }
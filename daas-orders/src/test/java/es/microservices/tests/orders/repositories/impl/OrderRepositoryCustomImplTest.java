@@ -0,0 +1,302 @@
+package es.microservices.tests.orders.repositories.impl;
+
+import static es.microservices.tests.orders.features.TestFeatures.createCollection;
+import static es.microservices.tests.orders.features.TestFeatures.createOrderEntity;
+import static es.microservices.tests.orders.features.TestFeatures.createPhoneData;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.result.InsertManyResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import es.microservices.tests.orders.entities.OrderEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class OrderRepositoryCustomImplTest {
+
+  private ReactiveMongoTemplate template;
+  private MongoMappingContext mappingContext;
+  private MappingMongoConverter converter;
+  private OrderRepositoryCustomImpl repository;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.mappingContext = new MongoMappingContext();
+    this.converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, this.mappingContext);
+    this.converter.afterPropertiesSet();
+    this.template = mock(ReactiveMongoTemplate.class);
+    doReturn(this.converter).when(this.template).getConverter();
+    this.repository = new OrderRepositoryCustomImpl(this.template);
+  }
+
+  @Test
+  void template_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new OrderRepositoryCustomImpl(null);
+    });
+
+    final String expectedMessage = "'template' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void findPage_sorts_then_pages_and_counts_in_a_single_facet() {
+    final OrderEntity order = createOrderEntity("3", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    final Document orderDocument = new Document();
+    this.converter.write(order, orderDocument);
+    final Document result = new Document("content", Arrays.asList(orderDocument)).append("total",
+        Arrays.asList(new Document("total", 21)));
+    doReturn(Flux.just(result)).when(this.template).aggregate(any(TypedAggregation.class),
+        eq(Document.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findPage(PageRequest.of(2, 10, Sort.by("id"))))
+      .assertNext(page -> {
+        assertEquals(21L, page.getTotalElements());
+        assertEquals(Arrays.asList(order), page.getContent());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<TypedAggregation<OrderEntity>> aggregation =
+        ArgumentCaptor.forClass(TypedAggregation.class);
+    verify(this.template).aggregate(aggregation.capture(), eq(Document.class));
+    final List<Document> pipeline = aggregation.getValue()
+        .toPipeline(new TypeBasedAggregationOperationContext(OrderEntity.class,
+            this.mappingContext, new QueryMapper(this.converter)));
+
+    assertEquals(2, pipeline.size());
+    assertEquals(new Document("$sort", new Document("_id", 1)), pipeline.get(0));
+    assertEquals(new Document("$facet", new Document("content",
+        Arrays.asList(new Document("$skip", 20L), new Document("$limit", 10L)))
+            .append("total", Arrays.asList(new Document("$count", "total")))),
+        pipeline.get(1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void findPage_of_an_empty_collection() {
+    final Document result = new Document("content", Collections.emptyList()).append("total",
+        Collections.emptyList());
+    doReturn(Flux.just(result)).when(this.template).aggregate(any(TypedAggregation.class),
+        eq(Document.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findPage(PageRequest.of(0, 10)))
+      .assertNext(page -> {
+        assertEquals(0L, page.getTotalElements());
+        assertEquals(0, page.getContent().size());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findAfter_starts_right_after_the_last_identifier() {
+    final OrderEntity order = createOrderEntity("4", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    doReturn(Flux.just(order)).when(this.template).find(any(Query.class), eq(OrderEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findAfter("3", 11))
+      .expectNext(order)
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(this.template).find(query.capture(), eq(OrderEntity.class));
+
+    assertEquals(new Document("id", new Document("$gt", "3")), query.getValue().getQueryObject());
+    assertEquals(new Document("id", 1), query.getValue().getSortObject());
+    assertEquals(11, query.getValue().getLimit());
+  }
+
+  @Test
+  void findAfter_without_last_identifier_starts_from_the_first_order() {
+    doReturn(Flux.empty()).when(this.template).find(any(Query.class), eq(OrderEntity.class));
+
+    StepVerifier.create(this.repository.findAfter(null, 11)).expectComplete().verify();
+
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(this.template).find(query.capture(), eq(OrderEntity.class));
+
+    assertEquals(new Document(), query.getValue().getQueryObject());
+  }
+
+  @Test
+  void findAfter_limit_isZero() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.repository.findAfter("3", 0);
+    });
+
+    final String expectedMessage = "'limit' must be greater than zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findSlice_reads_one_order_more_to_know_whether_there_is_a_next_page() {
+    final OrderEntity order1 = createOrderEntity("1", "customerName1", "customerSurname1",
+        "email1@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    final OrderEntity order2 = createOrderEntity("2", "customerName2", "customerSurname2",
+        "email2@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    doReturn(Flux.just(order1, order2)).when(this.template).find(any(Query.class),
+        eq(OrderEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findSlice(PageRequest.of(3, 1, Sort.by("id"))))
+      .assertNext(slice -> {
+        assertEquals(Arrays.asList(order1), slice.getContent());
+        assertEquals(true, slice.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(this.template).find(query.capture(), eq(OrderEntity.class));
+
+    assertEquals(3L, query.getValue().getSkip());
+    assertEquals(2, query.getValue().getLimit());
+    assertEquals(new Document("id", 1), query.getValue().getSortObject());
+  }
+
+  @Test
+  void findSlice_last_page_has_no_next_page() {
+    final OrderEntity order1 = createOrderEntity("1", "customerName1", "customerSurname1",
+        "email1@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    doReturn(Flux.just(order1)).when(this.template).find(any(Query.class), eq(OrderEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findSlice(PageRequest.of(0, 2)))
+      .assertNext(slice -> {
+        assertEquals(Arrays.asList(order1), slice.getContent());
+        assertEquals(false, slice.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void estimatedCount_reads_the_collection_metadata() {
+    doReturn(Mono.just(42L)).when(this.template).estimatedCount(OrderEntity.class);
+
+    StepVerifier.create(this.repository.estimatedCount()).expectNext(42L).expectComplete()
+        .verify();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void insertUnordered_writes_the_orders_with_an_unordered_insertMany() {
+    final MongoCollection<Document> collection = mock(MongoCollection.class);
+    final OrderEntity order = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    doReturn("orders").when(this.template).getCollectionName(OrderEntity.class);
+    doReturn(Mono.just(collection)).when(this.template).getCollection("orders");
+    doReturn(Mono.just(mock(InsertManyResult.class))).when(collection).insertMany(anyList(),
+        any(InsertManyOptions.class));
+
+    StepVerifier.create(this.repository.insertUnordered(Arrays.asList(order)))
+        .expectNext(Collections.emptyMap()).expectComplete().verify();
+
+    final ArgumentCaptor<List<Document>> documents = ArgumentCaptor.forClass(List.class);
+    final ArgumentCaptor<InsertManyOptions> options =
+        ArgumentCaptor.forClass(InsertManyOptions.class);
+    verify(collection).insertMany(documents.capture(), options.capture());
+    assertEquals("1", documents.getValue().get(0).get("_id"));
+    assertEquals(false, options.getValue().isOrdered());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void insertUnordered_returns_the_write_errors_by_position() {
+    final MongoCollection<Document> collection = mock(MongoCollection.class);
+    final OrderEntity order1 = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    final OrderEntity order2 = createOrderEntity("2", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    final MongoBulkWriteException exception = new MongoBulkWriteException(
+        BulkWriteResult.acknowledged(1, 0, 0, 0, Collections.emptyList(), Collections.emptyList()),
+        Arrays.asList(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)),
+        null, new ServerAddress());
+    doReturn("orders").when(this.template).getCollectionName(OrderEntity.class);
+    doReturn(Mono.just(collection)).when(this.template).getCollection("orders");
+    doReturn(Mono.error(exception)).when(collection).insertMany(anyList(),
+        any(InsertManyOptions.class));
+
+    StepVerifier.create(this.repository.insertUnordered(Arrays.asList(order1, order2)))
+        .expectNext(Collections.singletonMap(1, "E11000 duplicate key")).expectComplete()
+        .verify();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void insertUnordered_writes_with_the_given_write_concern() {
+    final MongoCollection<Document> collection = mock(MongoCollection.class);
+    final MongoCollection<Document> majorityCollection = mock(MongoCollection.class);
+    final OrderEntity order = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 1.0)), 1.0);
+    doReturn("orders").when(this.template).getCollectionName(OrderEntity.class);
+    doReturn(Mono.just(collection)).when(this.template).getCollection("orders");
+    doReturn(majorityCollection).when(collection).withWriteConcern(WriteConcern.MAJORITY);
+    doReturn(Mono.just(mock(InsertManyResult.class))).when(majorityCollection)
+        .insertMany(anyList(), any(InsertManyOptions.class));
+
+    StepVerifier
+        .create(this.repository.insertUnordered(Arrays.asList(order), WriteConcern.MAJORITY))
+        .expectNext(Collections.emptyMap()).expectComplete().verify();
+
+    verify(majorityCollection).insertMany(anyList(), any(InsertManyOptions.class));
+    verify(collection, never()).insertMany(anyList(), any(InsertManyOptions.class));
+  }
+
+  @Test
+  void insertUnordered_orders_isEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.repository.insertUnordered(Collections.emptyList());
+    });
+
+    assertEquals("'orders' must not be null or empty", exception.getMessage());
+  }
+
+}
@@ -0,0 +1,78 @@
+package es.microservices.tests.orders.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.common.counts.CountStrategy;
+import es.microservices.tests.orders.configurations.properties.OrderCountProperties;
+import es.microservices.tests.orders.repositories.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The strategies themselves are tested with the DocumentCounter of the common module.
+ */
+class OrderCountServiceImplTest {
+
+  private OrderRepository repository;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.repository = mock(OrderRepository.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void repository_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new OrderCountServiceImpl(null);
+    });
+
+    final String expectedMessage = "'repository' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void estimated_reads_the_estimated_count_of_the_repository() {
+    try (OrderCountServiceImpl service = create(CountStrategy.ESTIMATED)) {
+      doReturn(Mono.just(9L)).when(this.repository).estimatedCount();
+
+      StepVerifier.create(service.countAllOrders()).expectNext(9L).expectComplete().verify();
+
+      verify(this.repository, never()).count();
+      assertEquals(1, this.meterRegistry.find("orders.count.drift").gauges().size());
+    }
+  }
+
+  @Test
+  void counter_follows_the_orders_added() {
+    try (OrderCountServiceImpl service = create(CountStrategy.COUNTER)) {
+      doReturn(Mono.just(5L)).when(this.repository).count();
+
+      StepVerifier.create(service.countAllOrders()).expectNext(5L).expectComplete().verify();
+      service.ordersAdded(2);
+      StepVerifier.create(service.countAllOrders()).expectNext(7L).expectComplete().verify();
+    }
+  }
+
+  private OrderCountServiceImpl create(final CountStrategy strategy) {
+    // @formatter:off
+    final OrderCountProperties properties = OrderCountProperties.builder()
+        .strategy(strategy)
+        .reconcileInterval(Duration.ofMinutes(1))
+        .build();
+    // @formatter:on
+    return new OrderCountServiceImpl(this.repository, properties, this.meterRegistry);
+  }
+}
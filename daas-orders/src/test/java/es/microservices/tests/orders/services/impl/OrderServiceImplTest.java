@@ -3,9 +3,12 @@ package es.microservices.tests.orders.services.impl;
 import static es.microservices.tests.orders.features.TestFeatures.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
@@ -13,13 +16,27 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.validation.Validation;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import es.microservices.tests.orders.configurations.properties.OrderBulkProperties;
+import es.microservices.tests.orders.dtos.BulkOrderResultDto;
 import es.microservices.tests.orders.dtos.NewOrderDto;
 import es.microservices.tests.orders.dtos.OrderDto;
 import es.microservices.tests.orders.dtos.PhoneDto;
@@ -29,7 +46,10 @@ import es.microservices.tests.orders.mappers.Mapper;
 import es.microservices.tests.orders.mappers.impl.NewOrderDto2OrderEntityMapper;
 import es.microservices.tests.orders.mappers.impl.OrderEntity2OrderDtoMapper;
 import es.microservices.tests.orders.repositories.OrderRepository;
+import es.microservices.tests.orders.services.OrderCountService;
 import es.microservices.tests.orders.services.OrderService;
+import es.microservices.tests.orders.services.OrderWriter;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -119,6 +139,207 @@ class OrderServiceImplTest {
     verify(this.repository, times(1)).findAll();
   }
 
+  @Test
+  void findOrdersPage_pageable_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.service.findOrdersPage(null);
+    });
+
+    final String expectedMessage = "'pageable' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findOrdersPage_maps_the_page_returned_by_the_repository() {
+    final OrderEntity order = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    final Pageable pageable = PageRequest.of(1, 1);
+    doReturn(Mono.just(new PageImpl<>(Collections.singletonList(order), pageable, 5L)))
+        .when(this.repository).findPage(pageable);
+
+    final Mono<Page<OrderDto>> monoPage = this.service.findOrdersPage(pageable);
+
+    verify(this.repository, never()).findPage(any(Pageable.class));
+
+    // @formatter:off
+    StepVerifier.create(monoPage)
+      .assertNext(page -> {
+        assertEquals(5L, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+        assertEquals("1", page.getContent().get(0).getOrderId());
+        assertEquals(10.0, page.getContent().get(0).getTotalPrice());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findPage(pageable);
+    verify(this.repository, never()).findAll();
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void findOrdersAfter_maps_the_orders_returned_by_the_repository() {
+    final OrderEntity order = createOrderEntity("2", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    doReturn(Flux.just(order)).when(this.repository).findAfter("1", 3);
+
+    final Flux<OrderDto> fluxOrders = this.service.findOrdersAfter("1", 3);
+
+    verify(this.repository, never()).findAfter(anyString(), anyInt());
+
+    // @formatter:off
+    StepVerifier.create(fluxOrders)
+      .assertNext(orderDto -> {
+        assertEquals("2", orderDto.getOrderId());
+        assertEquals(10.0, orderDto.getTotalPrice());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAfter("1", 3);
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void findOrdersAfter_limit_isZero() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.service.findOrdersAfter("1", 0);
+    });
+
+    final String expectedMessage = "'limit' must be greater than zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findOrdersPage_with_an_estimated_count_reads_a_slice_and_the_count() {
+    final OrderCountService countService = mock(OrderCountService.class);
+    final OrderService estimatedService = new OrderServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final OrderEntity order = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    final Pageable pageable = PageRequest.of(1, 1);
+    doReturn(false).when(countService).isExact();
+    doReturn(Mono.just(3L)).when(countService).countAllOrders();
+    doReturn(Mono.just(new SliceImpl<>(Collections.singletonList(order), pageable, true)))
+        .when(this.repository).findSlice(pageable);
+
+    // @formatter:off
+    StepVerifier.create(estimatedService.findOrdersPage(pageable))
+      .assertNext(page -> {
+        assertEquals(3L, page.getTotalElements());
+        assertEquals("1", page.getContent().get(0).getOrderId());
+        assertTrue(page.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findPage(any(Pageable.class));
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void findOrdersPage_corrects_an_estimated_count_that_disagrees_with_the_slice() {
+    final OrderCountService countService = mock(OrderCountService.class);
+    final OrderService estimatedService = new OrderServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final OrderEntity order = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    final Pageable pageable = PageRequest.of(1, 1);
+    doReturn(false).when(countService).isExact();
+    doReturn(Mono.just(10L)).when(countService).countAllOrders();
+    doReturn(Mono.just(new SliceImpl<>(Collections.singletonList(order), pageable, false)))
+        .when(this.repository).findSlice(pageable);
+
+    // @formatter:off
+    StepVerifier.create(estimatedService.findOrdersPage(pageable))
+      .assertNext(page -> {
+        assertEquals(2L, page.getTotalElements());
+        assertEquals(false, page.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findOrdersSlice_maps_the_slice_returned_by_the_repository() {
+    final OrderEntity order = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    final Pageable pageable = PageRequest.of(0, 1);
+    doReturn(Mono.just(new SliceImpl<>(Collections.singletonList(order), pageable, true)))
+        .when(this.repository).findSlice(pageable);
+
+    final Mono<Slice<OrderDto>> monoSlice = this.service.findOrdersSlice(pageable);
+
+    verify(this.repository, never()).findSlice(any(Pageable.class));
+
+    // @formatter:off
+    StepVerifier.create(monoSlice)
+      .assertNext(slice -> {
+        assertEquals(1, slice.getContent().size());
+        assertEquals("1", slice.getContent().get(0).getOrderId());
+        assertTrue(slice.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findSlice(pageable);
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void createOrder_tells_the_count_service() {
+    final OrderCountService countService = mock(OrderCountService.class);
+    final OrderService countedService = new OrderServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final OrderEntity saved = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    doReturn(Mono.just(saved)).when(this.repository).save(any(OrderEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(countedService.createOrder(createNewOrderDto("customerName",
+          "customerSurname", "email@email.com",
+          createCollection(createPhoneDto("phoneId", "phoneName", 10.0)), 10.0)))
+      .expectNextCount(1)
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(countService, times(1)).ordersAdded(1);
+  }
+
+  @Test
+  void createOrder_goes_through_the_writer() {
+    final OrderWriter writer = mock(OrderWriter.class);
+    final OrderService writtenService = new OrderServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, mock(OrderCountService.class),
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        OrderBulkProperties.builder().build(), writer);
+    final OrderEntity written = createOrderEntity("1", "customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneData("phoneId", "phoneName", 10.0)), 10.0);
+    doReturn(Mono.just(written)).when(writer).insert(any(OrderEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(writtenService.createOrder(createNewOrderDto("customerName",
+          "customerSurname", "email@email.com",
+          createCollection(createPhoneDto("phoneId", "phoneName", 10.0)), 10.0)))
+      .assertNext(order -> assertEquals("1", order.getOrderId()))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(writer, times(1)).insert(any(OrderEntity.class));
+    verify(this.repository, never()).save(any(OrderEntity.class));
+  }
+
   @Test
   void findAllOrders_throwsError() {
     doThrow(new DataRetrievalFailureException("error")).when(this.repository).findAll();
@@ -541,6 +762,121 @@ class OrderServiceImplTest {
     verify(this.repository, times(1)).save(any(OrderEntity.class));
   }
   
+  @Test
+  @SuppressWarnings("unchecked")
+  void createOrders_inserts_the_valid_orders_in_chunks_and_reports_every_order() {
+    final OrderCountService countService = mock(OrderCountService.class);
+    this.service = createBulkService(countService, 2);
+    final NewOrderDto valid = createNewOrderDto("customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneDto("1", "phoneName", 1.0)), 1.0);
+    final NewOrderDto invalid = createNewOrderDto(null, "customerSurname", "email@email.com",
+        createCollection(createPhoneDto("1", "phoneName", 1.0)), 1.0);
+
+    // @formatter:off
+    doReturn(Mono.just(Collections.emptyMap()),
+            Mono.just(Collections.singletonMap(0, "E11000 duplicate key")))
+        .when(this.repository).insertUnordered(anyList());
+
+    StepVerifier.create(this.service.createOrders(Flux.just(valid, valid, invalid, valid)))
+      .assertNext(result -> assertCreated(0L, result))
+      .assertNext(result -> assertCreated(1L, result))
+      .assertNext(result -> assertEquals(BulkOrderResultDto.builder().index(2L)
+          .error("customerData.name: must not be blank").build(), result))
+      .assertNext(result -> assertEquals(BulkOrderResultDto.builder().index(3L)
+          .error("E11000 duplicate key").build(), result))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<List<OrderEntity>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(this.repository, times(2)).insertUnordered(chunks.capture());
+    assertEquals(2, chunks.getAllValues().get(0).size());
+    assertEquals(1, chunks.getAllValues().get(1).size());
+    verify(countService, times(1)).ordersAdded(2);
+    verify(countService, times(1)).ordersAdded(0);
+  }
+
+  @Test
+  void createOrders_reports_every_order_of_a_chunk_that_could_not_be_written() {
+    this.service = createBulkService(mock(OrderCountService.class), 10);
+    final NewOrderDto valid = createNewOrderDto("customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneDto("1", "phoneName", 1.0)), 1.0);
+
+    doReturn(Mono.error(new DataRetrievalFailureException("unavailable"))).when(this.repository)
+        .insertUnordered(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.createOrders(Flux.just(valid, valid)))
+      .expectNext(BulkOrderResultDto.builder().index(0L).error("unavailable").build())
+      .expectNext(BulkOrderResultDto.builder().index(1L).error("unavailable").build())
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void createOrders_only_requests_the_orders_of_the_chunks_being_written() {
+    this.service = createBulkService(mock(OrderCountService.class), 10);
+    final NewOrderDto valid = createNewOrderDto("customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneDto("1", "phoneName", 1.0)), 1.0);
+    final AtomicLong requested = new AtomicLong();
+
+    doReturn(Mono.never()).when(this.repository).insertUnordered(anyList());
+
+    final Disposable subscription = this.service
+        .createOrders(Flux.<NewOrderDto>generate(sink -> sink.next(valid))
+            .doOnRequest(requested::addAndGet))
+        .subscribe();
+    subscription.dispose();
+
+    // one chunk being written and at most one more being filled
+    assertTrue(requested.get() <= 20, "requested " + requested.get());
+    verify(this.repository, times(1)).insertUnordered(anyList());
+  }
+
+  @Test
+  void createOrders_writes_a_partial_chunk_after_the_max_linger() {
+    final OrderCountService countService = mock(OrderCountService.class);
+    this.service = createBulkService(countService, 10);
+    final NewOrderDto valid = createNewOrderDto("customerName", "customerSurname",
+        "email@email.com", createCollection(createPhoneDto("1", "phoneName", 1.0)), 1.0);
+
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList());
+
+    // @formatter:off
+    StepVerifier.withVirtualTime(() -> this.service
+            .createOrders(Flux.concat(Flux.just(valid, valid), Flux.never())))
+      .expectSubscription()
+      .expectNoEvent(Duration.ofMillis(99))
+      .thenAwait(Duration.ofMillis(1))
+      .assertNext(result -> assertCreated(0L, result))
+      .assertNext(result -> assertCreated(1L, result))
+      .thenCancel()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).insertUnordered(anyList());
+    verify(countService, times(1)).ordersAdded(2);
+  }
+
+  private OrderService createBulkService(final OrderCountService countService,
+      final int chunkSize) {
+    // @formatter:off
+    final OrderBulkProperties bulkProperties = OrderBulkProperties.builder()
+        .chunkSize(chunkSize)
+        .concurrency(1)
+        .build();
+    // @formatter:on
+    return new OrderServiceImpl(this.repository, this.dto2EntityMapper, this.entity2DtoMapper,
+        countService, Validation.buildDefaultValidatorFactory().getValidator(), bulkProperties);
+  }
+
+  private static void assertCreated(final long index, final BulkOrderResultDto result) {
+    assertEquals(index, result.getIndex());
+    assertTrue(StringUtils.isNotBlank(result.getOrderId()));
+    assertNull(result.getError());
+  }
+
   private static void evaluateResult(final OrderEntity input, final OrderDto orderDto) {
     assertNotNull(orderDto);
     assertTrue(StringUtils.isNotBlank(orderDto.getOrderId()));
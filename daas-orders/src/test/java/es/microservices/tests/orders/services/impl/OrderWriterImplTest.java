@@ -0,0 +1,333 @@
+package es.microservices.tests.orders.services.impl;
+
+import static es.microservices.tests.orders.features.TestFeatures.createOrderEntity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DataRetrievalFailureException;
+import com.mongodb.WriteConcern;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties.Durability;
+import es.microservices.tests.orders.configurations.properties.OrderWriteProperties.Mode;
+import es.microservices.tests.orders.entities.OrderEntity;
+import es.microservices.tests.orders.repositories.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+class OrderWriterImplTest {
+
+  private static final Duration MAX_LINGER = Duration.ofMillis(5);
+
+  private OrderRepository repository;
+  private MeterRegistry meterRegistry;
+  private VirtualTimeScheduler scheduler;
+  private OrderWriterImpl writer;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.repository = mock(OrderRepository.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.scheduler = VirtualTimeScheduler.create();
+  }
+
+  @AfterEach
+  public void afterEach() {
+    if (this.writer != null) {
+      this.writer.close();
+    }
+  }
+
+  @Test
+  void repository_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new OrderWriterImpl(null);
+    });
+
+    final String expectedMessage = "'repository' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void direct_saves_every_order_on_its_own() {
+    this.writer = create(Mode.DIRECT, 10, Durability.ACKNOWLEDGED);
+    final OrderEntity order = order("1");
+    doReturn(Mono.just(order)).when(this.repository).save(order);
+
+    StepVerifier.create(this.writer.insert(order)).expectNext(order).expectComplete().verify();
+
+    verify(this.repository, times(1)).save(order);
+    verify(this.repository, never()).insertUnordered(anyList(), any(WriteConcern.class));
+    assertEquals(0, this.meterRegistry.find("orders.write.batch.size").summaries().size());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void coalescing_writes_a_full_batch_with_a_single_insert() {
+    this.writer = create(Mode.COALESCING, 3, Durability.ACKNOWLEDGED);
+    final OrderEntity order1 = order("1");
+    final OrderEntity order2 = order("2");
+    final OrderEntity order3 = order("3");
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList(),
+        eq(WriteConcern.ACKNOWLEDGED));
+
+    // @formatter:off
+    StepVerifier.create(Mono.zip(this.writer.insert(order1), this.writer.insert(order2),
+            this.writer.insert(order3)))
+      .assertNext(orders -> {
+        assertEquals(order1, orders.getT1());
+        assertEquals(order2, orders.getT2());
+        assertEquals(order3, orders.getT3());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<List<OrderEntity>> batch = ArgumentCaptor.forClass(List.class);
+    verify(this.repository, times(1)).insertUnordered(batch.capture(),
+        eq(WriteConcern.ACKNOWLEDGED));
+    assertEquals(3, batch.getValue().size());
+    verify(this.repository, never()).save(any(OrderEntity.class));
+    assertEquals(1L, this.meterRegistry.get("orders.write.batch.size").summary().count());
+    assertEquals(3.0, this.meterRegistry.get("orders.write.batch.size").summary().totalAmount());
+    assertEquals(3L, this.meterRegistry.get("orders.write.latency").timer().count());
+  }
+
+  @Test
+  void coalescing_writes_a_partial_batch_once_the_first_order_lingered() {
+    this.writer = create(Mode.COALESCING, 10, Durability.ACKNOWLEDGED);
+    final OrderEntity order = order("1");
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList(),
+        any(WriteConcern.class));
+
+    final List<OrderEntity> written = new ArrayList<>();
+    this.writer.insert(order).subscribe(written::add);
+    this.scheduler.advanceTimeBy(MAX_LINGER.minusMillis(1));
+
+    verify(this.repository, never()).insertUnordered(anyList(), any(WriteConcern.class));
+
+    this.scheduler.advanceTimeBy(Duration.ofMillis(1));
+
+    assertEquals(Collections.singletonList(order), written);
+  }
+
+  @Test
+  void coalescing_answers_every_caller_with_its_own_error() {
+    this.writer = create(Mode.COALESCING, 2, Durability.ACKNOWLEDGED);
+    final OrderEntity order1 = order("1");
+    final OrderEntity order2 = order("2");
+    doReturn(Mono.just(Collections.singletonMap(1, "E11000 duplicate key"))).when(this.repository)
+        .insertUnordered(anyList(), any(WriteConcern.class));
+
+    final Mono<OrderEntity> first = this.writer.insert(order1).cache();
+    first.subscribe();
+    // @formatter:off
+    StepVerifier.create(this.writer.insert(order2))
+      .expectErrorMatches(e -> e instanceof DataIntegrityViolationException
+          && "E11000 duplicate key".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+    StepVerifier.create(first).expectNext(order1).expectComplete().verify();
+  }
+
+  @Test
+  void coalescing_fails_every_caller_of_a_batch_that_could_not_be_written() {
+    this.writer = create(Mode.COALESCING, 2, Durability.ACKNOWLEDGED);
+    doReturn(Mono.error(new DataRetrievalFailureException("unavailable"))).when(this.repository)
+        .insertUnordered(anyList(), any(WriteConcern.class));
+
+    // @formatter:off
+    StepVerifier.create(Mono.zipDelayError(this.writer.insert(order("1")),
+            this.writer.insert(order("2"))))
+      .expectErrorMatches(e -> Exceptions.unwrapMultiple(e).size() == 2
+          && Exceptions.unwrapMultiple(e).stream()
+              .allMatch(DataRetrievalFailureException.class::isInstance))
+      .verify();
+    // @formatter:on
+    assertEquals(2L, this.meterRegistry.get("orders.write.latency").timer().count());
+  }
+
+  @Test
+  void coalescing_asks_for_the_configured_durability() {
+    this.writer = create(Mode.COALESCING, 1, Durability.MAJORITY);
+    final OrderEntity order = order("1");
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList(),
+        eq(WriteConcern.MAJORITY));
+
+    StepVerifier.create(this.writer.insert(order)).expectNext(order).expectComplete().verify();
+
+    verify(this.repository, times(1)).insertUnordered(anyList(), eq(WriteConcern.MAJORITY));
+  }
+
+  @Test
+  void coalescing_writes_at_most_the_configured_batches_at_once() {
+    this.writer = create(1, 1, Duration.ofSeconds(10));
+    final Sinks.One<Map<Integer, String>> firstInsert = Sinks.one();
+    doReturn(firstInsert.asMono(), Mono.just(Collections.emptyMap())).when(this.repository)
+        .insertUnordered(anyList(), any(WriteConcern.class));
+
+    final List<OrderEntity> written = new ArrayList<>();
+    this.writer.insert(order("1")).subscribe(written::add);
+    this.writer.insert(order("2")).subscribe(written::add);
+
+    verify(this.repository, times(1)).insertUnordered(anyList(), any(WriteConcern.class));
+
+    firstInsert.tryEmitValue(Collections.emptyMap());
+
+    verify(this.repository, times(2)).insertUnordered(anyList(), any(WriteConcern.class));
+    assertEquals(2, written.size());
+  }
+
+  @Test
+  void coalescing_rejects_the_orders_inserted_once_closed() {
+    this.writer = create(Mode.COALESCING, 10, Durability.ACKNOWLEDGED);
+    this.writer.close();
+
+    // @formatter:off
+    StepVerifier.create(this.writer.insert(order("1")))
+      .expectErrorMatches(e -> e instanceof IllegalStateException
+          && "The order writer is closed".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+    verify(this.repository, never()).insertUnordered(anyList(), any(WriteConcern.class));
+  }
+
+  @Test
+  void coalescing_writes_the_queued_orders_on_close() {
+    this.writer = create(Mode.COALESCING, 10, Durability.ACKNOWLEDGED);
+    final OrderEntity order = order("1");
+    doReturn(Mono.just(Collections.emptyMap())).when(this.repository).insertUnordered(anyList(),
+        any(WriteConcern.class));
+
+    final List<OrderEntity> written = new ArrayList<>();
+    this.writer.insert(order).subscribe(written::add);
+    this.writer.close();
+
+    assertEquals(Collections.singletonList(order), written);
+  }
+
+  @Test
+  void coalescing_fails_the_orders_still_being_written_after_the_close_timeout() {
+    this.writer = create(1, 1, Duration.ofMillis(10));
+    doReturn(Mono.never()).when(this.repository).insertUnordered(anyList(),
+        any(WriteConcern.class));
+
+    // @formatter:off
+    StepVerifier.create(this.writer.insert(order("1")))
+      .then(this.writer::close)
+      .expectErrorMatches(e -> e instanceof IllegalStateException
+          && "The order writer was closed while the order was written".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void coalescing_fails_the_orders_still_queued_after_the_close_timeout() {
+    this.writer = create(1, 1, Duration.ofMillis(10));
+    doReturn(Mono.never()).when(this.repository).insertUnordered(anyList(),
+        any(WriteConcern.class));
+
+    final List<Throwable> errors = new ArrayList<>();
+    this.writer.insert(order("1")).subscribe(order -> {}, errors::add);
+    this.writer.insert(order("2")).subscribe(order -> {}, errors::add);
+    this.writer.insert(order("3")).subscribe(order -> {}, errors::add);
+    this.writer.close();
+
+    verify(this.repository, times(1)).insertUnordered(anyList(), any(WriteConcern.class));
+    assertEquals(3, errors.size());
+    assertEquals("The order writer was closed while the order was written",
+        errors.get(0).getMessage());
+    assertTrue(errors.subList(1, 3).stream().allMatch(e -> e instanceof IllegalStateException
+        && "The order writer was closed before the order was written".equals(e.getMessage())));
+  }
+
+  @Test
+  void coalescing_rejects_the_orders_inserted_beyond_the_queue_capacity() {
+    this.writer = create(1, 1, Duration.ofMillis(10), 2);
+    final Sinks.One<Map<Integer, String>> firstInsert = Sinks.one();
+    doReturn(firstInsert.asMono(), Mono.just(Collections.emptyMap())).when(this.repository)
+        .insertUnordered(anyList(), any(WriteConcern.class));
+
+    final List<OrderEntity> written = new ArrayList<>();
+    this.writer.insert(order("1")).subscribe(written::add);
+    this.writer.insert(order("2")).subscribe(written::add);
+
+    // @formatter:off
+    StepVerifier.create(this.writer.insert(order("3")))
+      .expectErrorMatches(e -> e instanceof RejectedExecutionException
+          && "The order writer queue is full".equals(e.getMessage()))
+      .verify();
+    // @formatter:on
+
+    firstInsert.tryEmitValue(Collections.emptyMap());
+
+    assertEquals(2, written.size());
+    StepVerifier.create(this.writer.insert(order("4"))).expectNextCount(1).expectComplete()
+        .verify();
+  }
+
+  private OrderWriterImpl create(final Mode mode, final int maxBatchSize,
+      final Durability durability) {
+    // @formatter:off
+    final OrderWriteProperties properties = OrderWriteProperties.builder()
+        .mode(mode)
+        .maxBatchSize(maxBatchSize)
+        .maxLinger(MAX_LINGER)
+        .durability(durability)
+        .build();
+    // @formatter:on
+    return new OrderWriterImpl(this.repository, properties, this.meterRegistry, this.scheduler);
+  }
+
+  private OrderWriterImpl create(final int maxBatchSize, final int maxConcurrentBatches,
+      final Duration closeTimeout) {
+    return create(maxBatchSize, maxConcurrentBatches, closeTimeout,
+        OrderWriteProperties.builder().build().getQueueCapacity());
+  }
+
+  private OrderWriterImpl create(final int maxBatchSize, final int maxConcurrentBatches,
+      final Duration closeTimeout, final int queueCapacity) {
+    // @formatter:off
+    final OrderWriteProperties properties = OrderWriteProperties.builder()
+        .mode(Mode.COALESCING)
+        .maxBatchSize(maxBatchSize)
+        .maxLinger(MAX_LINGER)
+        .maxConcurrentBatches(maxConcurrentBatches)
+        .closeTimeout(closeTimeout)
+        .queueCapacity(queueCapacity)
+        .build();
+    // @formatter:on
+    return new OrderWriterImpl(this.repository, properties, this.meterRegistry, this.scheduler);
+  }
+
+  private static OrderEntity order(final String id) {
+    return createOrderEntity(id, "customerName", "customerSurname", "email@email.com",
+        Collections.emptyList(), 1.0);
+  }
+
+}
@@ -1,8 +1,12 @@
 package es.microservices.tests.phones.configurations;
 
+import javax.validation.Validator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import es.microservices.tests.phones.configurations.properties.PhoneCountProperties;
+import es.microservices.tests.phones.configurations.properties.PhoneChangesProperties;
+import es.microservices.tests.phones.configurations.properties.PhoneImportProperties;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
 import es.microservices.tests.phones.entities.PhoneEntity;
@@ -10,8 +14,11 @@ import es.microservices.tests.phones.mappers.Mapper;
 import es.microservices.tests.phones.mappers.impl.NewPhoneDto2PhoneEntityMapper;
 import es.microservices.tests.phones.mappers.impl.PhoneEntity2PhoneDtoMapper;
 import es.microservices.tests.phones.repositories.PhoneRepository;
+import es.microservices.tests.phones.services.PhoneCountService;
 import es.microservices.tests.phones.services.PhoneService;
+import es.microservices.tests.phones.services.impl.PhoneCountServiceImpl;
 import es.microservices.tests.phones.services.impl.PhoneServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class GlobalConfig {
@@ -26,11 +33,21 @@ public class GlobalConfig {
     return new PhoneEntity2PhoneDtoMapper();
   }
 
+  @Bean
+  public PhoneCountService phoneCountService(final PhoneRepository repository,
+      final PhoneCountProperties countProperties, final MeterRegistry meterRegistry) {
+    return new PhoneCountServiceImpl(repository, countProperties, meterRegistry);
+  }
+
   @Bean
   public PhoneService phoneService(final PhoneRepository repository,
       final Mapper<NewPhoneDto, PhoneEntity> dto2EntityMapper,
-      final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper) {
-    return new PhoneServiceImpl(repository, dto2EntityMapper, entity2DtoMapper);
+      final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper,
+      final PhoneCountService phoneCountService, final Validator validator,
+      final PhoneImportProperties importProperties,
+      final PhoneChangesProperties changesProperties) {
+    return new PhoneServiceImpl(repository, dto2EntityMapper, entity2DtoMapper,
+        phoneCountService, validator, importProperties, changesProperties);
   }
 
   @Bean
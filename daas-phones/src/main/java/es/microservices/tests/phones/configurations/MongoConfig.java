@@ -1,8 +1,43 @@
 package es.microservices.tests.phones.configurations;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import es.microservices.tests.phones.configurations.properties.PhoneChangesProperties;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
+import lombok.extern.slf4j.Slf4j;
 
+@Slf4j
 @Configuration
 public class MongoConfig {
- 
-  
+
+  public static final String TOMBSTONES_EXPIRY_INDEX = "deletedAt_expiry";
+
+  private static final String DELETED_AT_FIELD = "deletedAt";
+
+  /**
+   * Mongo removes the tombstones once the retention is over. The index is created here rather than
+   * annotated since its expiry comes from the properties; to change the retention of a running
+   * catalog the index has to be dropped first, until then the failure is only logged.
+   */
+  @Bean
+  public ApplicationListener<ApplicationReadyEvent> tombstonesExpiryIndex(
+      final ReactiveMongoOperations operations, final PhoneChangesProperties changesProperties) {
+    // @formatter:off
+    return event -> operations.indexOps(PhoneTombstoneEntity.class)
+        .ensureIndex(new Index()
+            .on(DELETED_AT_FIELD, Sort.Direction.ASC)
+            .expire(changesProperties.getTombstoneRetention())
+            .named(TOMBSTONES_EXPIRY_INDEX))
+        .subscribe(
+            index -> log.info("Tombstones expire after {}",
+                changesProperties.getTombstoneRetention()),
+            e -> log.warn("The tombstones expiry index could not be created", e));
+    // @formatter:on
+  }
+
 }
@@ -0,0 +1,47 @@
+package es.microservices.tests.phones.configurations.properties;
+
+import java.time.Duration;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.phones.changes")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class PhoneChangesProperties {
+
+  /**
+   * Number of changes sent per response, the consumer asks again right away while there are more.
+   * The phones of an import chunk share their version and are always sent together, so a response
+   * may go over it by up to one import chunk.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer limit = Integer.valueOf(1000);
+
+
+  /**
+   * How long the tombstones of the deleted phones are kept before Mongo expires them. A consumer
+   * whose version is older than that is told to reload the whole catalog.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Builder.Default
+  private Duration tombstoneRetention = Duration.ofDays(7);
+
+}
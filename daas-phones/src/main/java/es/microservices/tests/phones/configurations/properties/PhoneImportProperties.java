@@ -0,0 +1,46 @@
+package es.microservices.tests.phones.configurations.properties;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.annotation.Validated;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Validated
+@Configuration
+@ConfigurationProperties(prefix = "es.microservices.tests.phones.import")
+@Builder
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+@NoArgsConstructor
+public class PhoneImportProperties {
+
+  /**
+   * Number of lines of an import upserted with a single unordered bulk write. A progress report is
+   * sent after every chunk.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer chunkSize = Integer.valueOf(1000);
+
+
+  /**
+   * Number of chunks of the same import being written at the same time. The lines requested from
+   * the body are bounded by chunk size times this.
+   */
+  @Getter
+  @Setter
+  @NotNull
+  @Min(1)
+  @Builder.Default
+  private Integer concurrency = Integer.valueOf(4);
+
+}
@@ -1,19 +1,27 @@
 package es.microservices.tests.phones.controllers;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import es.microservices.tests.phones.dtos.ErrorResponse;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
 import es.microservices.tests.phones.dtos.PhoneCatalogDto;
+import es.microservices.tests.phones.dtos.PhoneChangesDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.dtos.PhoneImportReportDto;
+import es.microservices.tests.phones.dtos.PhoneLookupDto;
+import es.microservices.tests.phones.dtos.PhoneLookupResultDto;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
@@ -22,6 +30,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import org.springframework.web.bind.annotation.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RequestMapping("/phones")
@@ -38,8 +47,10 @@ public interface PhoneController {
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
-  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
-      consumes = {MediaType.APPLICATION_JSON_VALUE})
+  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
   ResponseEntity<Mono<PhoneDto>> addPhoneToCatalog(
       @Parameter(in = ParameterIn.DEFAULT, description = "the body request", required = true,
           schema = @Schema()) @Valid @RequestBody @NotNull final NewPhoneDto newPhone);
@@ -50,14 +61,17 @@ public interface PhoneController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Successful operation",
           content = @Content(schema = @Schema(implementation = PhoneDto.class))),
+      @ApiResponse(responseCode = "304",
+          description = "Not modified, the phone still matches the If-None-Match entity tag"),
       @ApiResponse(responseCode = "400", description = "Invalid query parameters",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "404", description = "Not found",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
-  @GetMapping(value = "/{phoneId}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  ResponseEntity<Mono<PhoneDto>> getPhone(
+  @GetMapping(value = "/{phoneId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  Mono<ResponseEntity<PhoneDto>> getPhone(
       @Parameter(in = ParameterIn.PATH, description = "The phone identifier", required = true,
           schema = @Schema()) @PathVariable("phoneId") @NotBlank String phoneId);
 
@@ -67,13 +81,16 @@ public interface PhoneController {
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Successful operation",
           content = @Content(schema = @Schema(implementation = PhoneCatalogDto.class))),
-      @ApiResponse(responseCode = "400", description = "Invalid query parameters",
+      @ApiResponse(responseCode = "304",
+          description = "Not modified, the page still matches the If-None-Match entity tag"),
+      @ApiResponse(responseCode = "400", description = "Invalid query parameters or cursor",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
 
       @ApiResponse(responseCode = "500", description = "Internal Server Error",
           content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
-  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
-  ResponseEntity<Mono<PhoneCatalogDto>> getPhonesCatalog(
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  Mono<ResponseEntity<PhoneCatalogDto>> getPhonesCatalog(
       @Parameter(in = ParameterIn.QUERY,
           description = "Indicates how many results the query should return at most.",
           schema = @Schema(defaultValue = "1"), required = false) @RequestParam(value = "pageSize",
@@ -81,6 +98,109 @@ public interface PhoneController {
       @Parameter(in = ParameterIn.QUERY, 
           description = "The (zero-based) offset of the first item in the collection to return",
           schema = @Schema(defaultValue = "1"), required = false) @RequestParam(value = "page",
-              required = false, defaultValue = "1") Integer page);
+              required = false, defaultValue = "1") Integer page,
+      @Parameter(in = ParameterIn.QUERY,
+          description = "The next cursor of the previous page. When it is sent the page parameter "
+              + "is ignored and the page starts right after the previous one.",
+          required = false) @RequestParam(value = "cursor", required = false) String cursor,
+      @Parameter(in = ParameterIn.QUERY,
+          description = "Whether the total count is sent with the page. Not counting makes every "
+              + "page as cheap as the first one.",
+          schema = @Schema(defaultValue = "true"), required = false) @RequestParam(value = "count",
+              required = false, defaultValue = "true") Boolean count);
+
+
+  @Operation(summary = "Streams all the phones in the catalog",
+      description = "Streams all the phones in the catalog as newline delimited JSON, one phone "
+          + "per line, as they are read from the database.",
+      tags = {"Phone Catalog"})
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successful operation",
+          content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = PhoneDto.class))),
+      @ApiResponse(responseCode = "500", description = "Internal Server Error",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE})
+  Flux<PhoneDto> streamPhonesCatalog();
+
+
+  @Operation(summary = "Retrieve several phones from the catalog by their ids.",
+      description = "Retrieve several phones from the catalog by their ids with a single query. "
+          + "The identifiers that are not in the catalog are returned as missing.",
+      tags = {"Phones Catalog"})
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successful operation",
+          content = @Content(schema = @Schema(implementation = PhoneLookupResultDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid request",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "500", description = "Internal Server Error",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+  @PostMapping(value = "/lookup", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  ResponseEntity<Mono<PhoneLookupResultDto>> lookupPhones(
+      @Parameter(in = ParameterIn.DEFAULT, description = "the body request", required = true,
+          schema = @Schema()) @Valid @RequestBody @NotNull final PhoneLookupDto lookup);
+
+
+  @Operation(summary = "Delete a phone from the catalog",
+      description = "Delete a phone from the catalog. The deletion is kept as a tombstone and "
+          + "reported by the catalog changes.",
+      tags = {"Phones Catalog"})
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "204", description = "Phone deleted"),
+      @ApiResponse(responseCode = "404", description = "Not found",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "500", description = "Internal Server Error",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+  @DeleteMapping(value = "/{phoneId}")
+  ResponseEntity<Mono<Void>> deletePhone(
+      @Parameter(in = ParameterIn.PATH, description = "The phone identifier", required = true,
+          schema = @Schema()) @PathVariable("phoneId") @NotBlank String phoneId);
+
+
+  @Operation(summary = "Retrieves the catalog changes since a version",
+      description = "Retrieves the phones created, modified and deleted after the given catalog "
+          + "version, a limited number at a time, together with the version they reach and "
+          + "whether there are more. When the changes cannot be followed from the given version "
+          + "the catalog has to be reloaded. Without since only the current version is returned, "
+          + "to start following the changes from it.",
+      tags = {"Phone Catalog"})
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successful operation",
+          content = @Content(schema = @Schema(implementation = PhoneChangesDto.class))),
+      @ApiResponse(responseCode = "400", description = "Invalid query parameters",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "500", description = "Internal Server Error",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+  @GetMapping(value = "/changes", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  ResponseEntity<Mono<PhoneChangesDto>> getPhoneChanges(
+      @Parameter(in = ParameterIn.QUERY,
+          description = "The version returned by the previous call, the changes after it are "
+              + "returned.",
+          required = false) @RequestParam(value = "since", required = false) @Min(0) Long since);
+
+
+  @Operation(summary = "Imports many phones at once",
+      description = "Imports the phones of a newline delimited JSON or CSV body, one phone per "
+          + "line. A phone with the name of one already in the catalog replaces it. Every line is "
+          + "validated on its own and the valid ones are written with bulk upserts. The lines "
+          + "that failed, the progress after every chunk and a final summary are streamed back.",
+      tags = {"Phones Catalog"})
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Successful operation",
+          content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+              schema = @Schema(implementation = PhoneImportReportDto.class))),
+      @ApiResponse(responseCode = "500", description = "Internal Server Error",
+          content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+  @PostMapping(value = "/import", produces = {MediaType.APPLICATION_NDJSON_VALUE},
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE, InternalMediaTypes.TEXT_CSV_VALUE})
+  Flux<PhoneImportReportDto> importPhones(
+      @Parameter(in = ParameterIn.HEADER, description = "The format of the body", required = true,
+          schema = @Schema()) @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      @Parameter(in = ParameterIn.DEFAULT, description = "the phones, one per line",
+          required = true, schema = @Schema()) @RequestBody final Flux<String> lines);
 
 }
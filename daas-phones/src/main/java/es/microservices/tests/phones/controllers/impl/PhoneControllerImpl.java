@@ -2,27 +2,45 @@ package es.microservices.tests.phones.controllers.impl;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Collectors;
 import javax.validation.Valid;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.util.Assert;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import es.microservices.tests.common.http.ETags;
+import es.microservices.tests.common.pagination.ContinuationTokens;
+import es.microservices.tests.phones.controllers.InternalMediaTypes;
 import es.microservices.tests.phones.controllers.PhoneController;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
 import es.microservices.tests.phones.dtos.PhoneCatalogDto;
+import es.microservices.tests.phones.dtos.PhoneChangesDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.dtos.PhoneImportReportDto;
+import es.microservices.tests.phones.dtos.PhoneLookupDto;
+import es.microservices.tests.phones.dtos.PhoneLookupResultDto;
 import es.microservices.tests.phones.exceptions.ResourceNotFoundException;
+import es.microservices.tests.phones.services.PhoneImportFormat;
 import es.microservices.tests.phones.services.PhoneService;
 import org.springframework.web.bind.annotation.RequestBody;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
@@ -30,6 +48,14 @@ import reactor.core.publisher.Mono;
 @Validated
 public class PhoneControllerImpl implements PhoneController {
 
+  /** Phones requested from the database cursor at a time while streaming the catalog. */
+  private static final int STREAM_BATCH_SIZE = 256;
+
+  /** Pages are sorted by identifier so that they are stable and served from the _id index. */
+  private static final Sort CATALOG_SORT = Sort.by("id");
+
+  private static final MediaType TEXT_CSV = MediaType.valueOf(InternalMediaTypes.TEXT_CSV_VALUE);
+
   private final PhoneService service;
 
   public PhoneControllerImpl(final PhoneService service) {
@@ -37,31 +63,68 @@ public class PhoneControllerImpl implements PhoneController {
     this.service = service;
   }
 
+  /**
+   * Every page carries the cursor of the next one. Following the cursors walks the catalog with
+   * index range scans instead of skipping the previous pages, and without counting it again.
+   */
   @Override
-  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<Mono<PhoneCatalogDto>> getPhonesCatalog(
+  @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  public Mono<ResponseEntity<PhoneCatalogDto>> getPhonesCatalog(
       @RequestParam(value = "pageSize", required = false,
           defaultValue = "10") final Integer pageSize,
-      @RequestParam(value = "page", required = false, defaultValue = "1") final Integer page) {
+      @RequestParam(value = "page", required = false, defaultValue = "1") final Integer page,
+      @RequestParam(value = "cursor", required = false) final String cursor,
+      @RequestParam(value = "count", required = false, defaultValue = "true") final Boolean count) {
     final int innerPageSize = prepareDefaultValue(pageSize, 1);
+    if (Objects.nonNull(cursor)) {
+      final String lastPhoneId = ContinuationTokens.decode(cursor);
+      return getPhonesCatalogAfter(lastPhoneId, innerPageSize).map(PhoneControllerImpl::tagged);
+    }
     final int innerPage = prepareDefaultValue(page, 1);
+    final PageRequest pageRequest = PageRequest.of(innerPage - 1, innerPageSize, CATALOG_SORT);
+
+    final Mono<? extends Slice<PhoneDto>> phonesPage = Boolean.FALSE.equals(count)
+        ? this.service.findPhonesSlice(pageRequest)
+        : this.service.findPhonesPage(pageRequest);
+    final Mono<PhoneCatalogDto> catalog = phonesPage.log()
+        .map(phones -> PhoneCatalogDto.builder().page(innerPage).pageSize(innerPageSize)
+            .phones(phones.getContent()).totalCount(totalCount(phones))
+            .next(phones.hasNext() ? nextCursor(phones.getContent()) : null).build());
+    return catalog.map(PhoneControllerImpl::tagged);
+  }
 
-    final Mono<Long> count = this.service.countAllPhones().log();
-    final Mono<List<PhoneDto>> phones =
-        this.service.findAllPhones().log().skip(calculateSkipRecords(innerPageSize, innerPage))
-            .take(innerPageSize).log().collectList();
+  /**
+   * One phone more than the page size is read to know whether there is a next page.
+   */
+  private Mono<PhoneCatalogDto> getPhonesCatalogAfter(final String lastPhoneId,
+      final int pageSize) {
+    return this.service.findPhonesAfter(lastPhoneId, pageSize + 1).collectList().log()
+        .map(phones -> {
+          final boolean hasNext = phones.size() > pageSize;
+          final List<PhoneDto> content = hasNext ? phones.subList(0, pageSize) : phones;
+          return PhoneCatalogDto.builder().page(null).pageSize(pageSize).phones(content)
+              .next(hasNext ? nextCursor(content) : null).build();
+        });
+  }
 
-    final Mono<PhoneCatalogDto> catalog = Mono.zip(phones, count).flatMap(
-        tuple2 -> Mono.create(sink -> sink.success(PhoneCatalogDto.builder().page(innerPage)
-            .pageSize(innerPageSize).phones(tuple2.getT1()).totalCount(tuple2.getT2()).build())));
-    return ResponseEntity.ok(catalog);
+  /**
+   * Each phone is written and flushed as soon as it comes from the cursor and the cursor is only
+   * asked for more as the client reads, so no page is ever buffered.
+   */
+  @Override
+  @GetMapping(produces = {MediaType.APPLICATION_NDJSON_VALUE})
+  public Flux<PhoneDto> streamPhonesCatalog() {
+    return this.service.findAllPhones().limitRate(STREAM_BATCH_SIZE);
   }
 
 
 
   @Override
-  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE},
-      consumes = {MediaType.APPLICATION_JSON_VALUE})
+  @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
   public ResponseEntity<Mono<PhoneDto>> addPhoneToCatalog(
       @Valid @RequestBody @NotNull final NewPhoneDto newPhone) {
     final Mono<NewPhoneDto> monoNewPhone = Mono.just(newPhone);
@@ -70,19 +133,92 @@ public class PhoneControllerImpl implements PhoneController {
   }
 
   @Override
-  @GetMapping(value = "/{phoneId}", produces = {MediaType.APPLICATION_JSON_VALUE})
-  public ResponseEntity<Mono<PhoneDto>> getPhone(
+  @GetMapping(value = "/{phoneId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  public Mono<ResponseEntity<PhoneDto>> getPhone(
       @PathVariable("phoneId") @NotBlank final String phoneId) {
-    return ResponseEntity.ok(
-        this.service.findById(phoneId).switchIfEmpty(Mono.error(new ResourceNotFoundException())));
+    return this.service.findById(phoneId).switchIfEmpty(Mono.error(new ResourceNotFoundException()))
+        .map(PhoneControllerImpl::tagged);
   }
 
-  private static int prepareDefaultValue(final Integer limit, final int defaultValue) {
-    return Objects.nonNull(limit) ? limit.intValue() : defaultValue;
+  @Override
+  @DeleteMapping(value = "/{phoneId}")
+  public ResponseEntity<Mono<Void>> deletePhone(
+      @PathVariable("phoneId") @NotBlank final String phoneId) {
+    return ResponseEntity.status(HttpStatus.NO_CONTENT)
+        .body(this.service.deletePhone(phoneId).flatMap(deleted -> deleted ? Mono.<Void>empty()
+            : Mono.error(new ResourceNotFoundException())));
   }
 
-  private static int calculateSkipRecords(final Integer innerPageSize, final Integer innerPage) {
-    return innerPageSize.intValue() * (innerPage.intValue() - 1);
+  @Override
+  @GetMapping(value = "/changes", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  public ResponseEntity<Mono<PhoneChangesDto>> getPhoneChanges(
+      @RequestParam(value = "since", required = false) @Min(0) final Long since) {
+    return ResponseEntity.ok(this.service.findChangesSince(since));
+  }
+
+  /**
+   * The body is split in lines as it arrives and each line is parsed on its own, so a malformed
+   * line is reported with its number instead of failing the whole import.
+   */
+  @Override
+  @PostMapping(value = "/import", produces = {MediaType.APPLICATION_NDJSON_VALUE},
+      consumes = {MediaType.APPLICATION_NDJSON_VALUE, InternalMediaTypes.TEXT_CSV_VALUE})
+  public Flux<PhoneImportReportDto> importPhones(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) final MediaType contentType,
+      @RequestBody final Flux<String> lines) {
+    final PhoneImportFormat format = TEXT_CSV.isCompatibleWith(contentType)
+        ? PhoneImportFormat.CSV
+        : PhoneImportFormat.NDJSON;
+    return this.service.importPhones(lines, format);
+  }
+
+  @Override
+  @PostMapping(value = "/lookup", produces = {MediaType.APPLICATION_JSON_VALUE,
+      InternalMediaTypes.APPLICATION_SMILE_VALUE},
+      consumes = {MediaType.APPLICATION_JSON_VALUE,
+          InternalMediaTypes.APPLICATION_SMILE_VALUE})
+  public ResponseEntity<Mono<PhoneLookupResultDto>> lookupPhones(
+      @Valid @RequestBody @NotNull final PhoneLookupDto lookup) {
+    final List<String> phoneIds =
+        lookup.getPhoneIds().stream().distinct().collect(Collectors.toList());
+
+    // @formatter:off
+    final Mono<PhoneLookupResultDto> result = this.service.findByIds(phoneIds)
+        .collectMap(PhoneDto::getPhoneId)
+        .map(found -> PhoneLookupResultDto.builder()
+            .phones(phoneIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()))
+            .missingPhoneIds(phoneIds.stream()
+                .filter(phoneId -> !found.containsKey(phoneId))
+                .collect(Collectors.toList()))
+            .build());
+    // @formatter:on
+    return ResponseEntity.ok(result);
+  }
+
+  /**
+   * The response goes with the entity tag of its body. When the request sent the same tag in
+   * If-None-Match the handler answers 304 without the body.
+   */
+  private static <T> ResponseEntity<T> tagged(final T body) {
+    return ResponseEntity.ok().eTag(ETags.weakOf(body)).body(body);
+  }
+
+  private static Long totalCount(final Slice<PhoneDto> phones) {
+    return phones instanceof Page ? ((Page<PhoneDto>) phones).getTotalElements() : null;
+  }
+
+  private static String nextCursor(final List<PhoneDto> phones) {
+    return phones.isEmpty() ? null
+        : ContinuationTokens.encode(phones.get(phones.size() - 1).getPhoneId());
+  }
+
+  private static int prepareDefaultValue(final Integer limit, final int defaultValue) {
+    return Objects.nonNull(limit) ? limit.intValue() : defaultValue;
   }
 
 }
@@ -0,0 +1,88 @@
+package es.microservices.tests.phones.dtos;
+
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import org.springframework.validation.annotation.Validated;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+
+/**
+ * PhoneChangesDto
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Validated
+public class PhoneChangesDto {
+
+  /**
+   * The catalog version the changes reach
+   * 
+   * @return version
+   **/
+  @Schema(required = true,
+      description = "The catalog version the changes reach, the highest one sent or the "
+          + "requested one when there are none, to be sent as since the next time")
+  @NotNull
+  @JsonProperty("version")
+  private Long version;
+
+  /**
+   * The phones created or modified since the requested version
+   * 
+   * @return upserts
+   **/
+  @Schema(required = true, description = "The phones created or modified since the requested version")
+  @NotNull
+  @JsonProperty("upserts")
+  @Valid
+  @Singular
+  private List<@NotNull PhoneDto> upserts;
+
+  /**
+   * The identifiers of the phones deleted since the requested version
+   * 
+   * @return deletedPhoneIds
+   **/
+  @Schema(required = true,
+      description = "The identifiers of the phones deleted since the requested version")
+  @NotNull
+  @JsonProperty("deletedPhoneIds")
+  @Singular
+  private List<String> deletedPhoneIds;
+
+  /**
+   * Whether there are more changes after the version reached
+   * 
+   * @return more
+   **/
+  @Schema(required = true,
+      description = "Whether there are more changes after the version reached, to be asked for "
+          + "right away")
+  @NotNull
+  @JsonProperty("more")
+  @Builder.Default
+  private Boolean more = Boolean.FALSE;
+
+  /**
+   * Whether the changes cannot be followed from the requested version
+   * 
+   * @return reload
+   **/
+  @Schema(required = true,
+      description = "Whether the changes cannot be followed from the requested version, because "
+          + "its deletions are no longer kept or the catalog went back. The whole catalog has to "
+          + "be reloaded and followed from the version returned")
+  @NotNull
+  @JsonProperty("reload")
+  @Builder.Default
+  private Boolean reload = Boolean.FALSE;
+
+}
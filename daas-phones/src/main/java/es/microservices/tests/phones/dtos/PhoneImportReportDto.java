@@ -0,0 +1,55 @@
+package es.microservices.tests.phones.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One event of a catalog import: a line that was not imported, the progress after a chunk or the
+ * summary once the whole body has been read.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class PhoneImportReportDto {
+
+  public enum Type {
+    ERROR, PROGRESS, SUMMARY
+  }
+
+  @Schema(required = true, description = "What the event reports")
+  @JsonProperty("type")
+  private Type type;
+
+  @Schema(description = "The (one-based) line of the body that was not imported. Only errors")
+  @JsonProperty("line")
+  private Long line;
+
+  @Schema(description = "Why the line was not imported. Only errors")
+  @JsonProperty("error")
+  private String error;
+
+  @Schema(description = "Lines read so far, blank lines and the CSV header are not counted")
+  @JsonProperty("processed")
+  private Long processed;
+
+  @Schema(description = "Phones created or replaced so far")
+  @JsonProperty("imported")
+  private Long imported;
+
+  @Schema(description = "Lines that failed so far")
+  @JsonProperty("failed")
+  private Long failed;
+
+  @Schema(description = "Lines processed per second since the import started")
+  @JsonProperty("phonesPerSecond")
+  private Double phonesPerSecond;
+
+}
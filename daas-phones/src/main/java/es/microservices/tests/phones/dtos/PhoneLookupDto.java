@@ -0,0 +1,38 @@
+package es.microservices.tests.phones.dtos;
+
+import java.util.List;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import org.springframework.validation.annotation.Validated;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.Singular;
+
+/**
+ * PhoneLookupDto
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Validated
+public class PhoneLookupDto {
+
+  /**
+   * The identifiers of the phones to retrieve
+   * 
+   * @return phoneIds
+   **/
+  @Schema(required = true, description = "The identifiers of the phones to retrieve")
+  @NotEmpty
+  @Size(max = 500)
+  @JsonProperty("phoneIds")
+  @Singular
+  private List<@NotBlank String> phoneIds;
+
+}
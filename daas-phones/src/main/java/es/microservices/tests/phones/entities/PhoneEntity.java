@@ -1,8 +1,10 @@
 package es.microservices.tests.phones.entities;
 
+import java.time.Instant;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.validation.annotation.Validated;
 import lombok.AllArgsConstructor;
@@ -22,6 +24,10 @@ public class PhoneEntity {
   @NotBlank
   private String id;  
   
+  /**
+   * Catalog imports replace the phone with the same name, they look it up by this index.
+   */
+  @Indexed
   @NotBlank
   private String name;
   
@@ -32,5 +38,14 @@ public class PhoneEntity {
   
   @NotNull
   private String imageURL;
+
+  /**
+   * Catalog version of the last write of the phone, the changes since a version are read from its
+   * index.
+   */
+  @Indexed
+  private long version;
+
+  private Instant lastModified;
   
 }
@@ -0,0 +1,38 @@
+package es.microservices.tests.phones.entities;
+
+import java.time.Instant;
+import javax.validation.constraints.NotBlank;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.validation.annotation.Validated;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Left behind when a phone is deleted, so the consumers following the catalog changes learn about
+ * the deletion. Its identifier is the identifier of the deleted phone.
+ */
+@Document(collection = "phonesCatalogTombstones")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Validated
+public class PhoneTombstoneEntity {
+
+  @Id
+  @NotBlank
+  private String id;
+
+  /**
+   * Catalog version of the deletion.
+   */
+  @Indexed
+  private long version;
+
+  private Instant deletedAt;
+
+}
@@ -1,10 +1,19 @@
 package es.microservices.tests.phones.repositories;
 
+import java.util.Collection;
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 import es.microservices.tests.phones.entities.PhoneEntity;
+import reactor.core.publisher.Flux;
 
 @Repository
-public interface PhoneRepository extends ReactiveMongoRepository<PhoneEntity, String> {
-  
+public interface PhoneRepository
+    extends ReactiveMongoRepository<PhoneEntity, String>, PhoneRepositoryCustom {
+
+  /**
+   * Retrieves the phones whose identifier is in the given collection with a single {@code $in}
+   * query.
+   */
+  Flux<PhoneEntity> findByIdIn(Collection<String> phoneIds);
+
 }
@@ -0,0 +1,97 @@
+package es.microservices.tests.phones.repositories;
+
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface PhoneRepositoryCustom {
+
+  /**
+   * Retrieves one page of phones and the total number of phones with a single aggregation, only
+   * the phones of the page are sent by the database.
+   */
+  Mono<Page<PhoneEntity>> findPage(Pageable pageable);
+
+  /**
+   * Retrieves one page of phones without counting them, one phone more than the page size is read
+   * to know whether there is a next page.
+   */
+  Mono<Slice<PhoneEntity>> findSlice(Pageable pageable);
+
+  /**
+   * Returns the number of phones kept in the collection metadata, without scanning it. It may be
+   * off after an unclean shutdown or while documents are being written.
+   */
+  Mono<Long> estimatedCount();
+
+  /**
+   * Retrieves at most limit phones whose identifier follows the given one (from the first phone
+   * when it is null) ordered by identifier, as a range scan on the {@code _id} index.
+   */
+  Flux<PhoneEntity> findAfter(String lastPhoneId, int limit);
+
+  /**
+   * Increments the catalog version and returns the new value, every write to the catalog takes its
+   * own version.
+   */
+  Mono<Long> nextCatalogVersion();
+
+  /**
+   * Returns the last catalog version handed out, 0 while the catalog has never been written.
+   */
+  Mono<Long> currentCatalogVersion();
+
+  /**
+   * Retrieves at most limit phones written after the given catalog version ordered by version, as
+   * a range scan on the version index.
+   */
+  Flux<PhoneEntity> findChangedSince(long version, int limit);
+
+  /**
+   * Retrieves the phones written with the given catalog version, the phones of an import chunk
+   * share theirs.
+   */
+  Flux<PhoneEntity> findChangedAt(long version);
+
+  /**
+   * Retrieves at most limit tombstones of the phones deleted after the given catalog version
+   * ordered by version.
+   */
+  Flux<PhoneTombstoneEntity> findDeletedSince(long version, int limit);
+
+  /**
+   * Retrieves the tombstones of the phones deleted with the given catalog version.
+   */
+  Flux<PhoneTombstoneEntity> findDeletedAt(long version);
+
+  /**
+   * Returns when the last phone or tombstone whose catalog version is not after the given one was
+   * written, empty when there is none.
+   */
+  Mono<Instant> findWrittenAt(long version);
+
+  /**
+   * Removes the phone and leaves a tombstone with the given version in its place. Emits false,
+   * without any tombstone, when the phone is not in the catalog.
+   * <p>
+   * The tombstone is written before the phone is removed: a failure in between leaves the phone
+   * reported as deleted by the changes, and deleting it again is harmless.
+   */
+  Mono<Boolean> deleteWithTombstone(String phoneId, long version, Instant deletedAt);
+
+  /**
+   * Writes the phones with a single unordered bulk write, replacing the phone with the same name
+   * or inserting it with the given identifier when there is none. A failed phone does not stop the
+   * others, its error is returned by its position in the list. The name is not unique: the names
+   * must not repeat in the list nor be written by another call at the same time, or the phone may
+   * be inserted twice.
+   */
+  Mono<PhoneUpsertResult> upsertByName(List<PhoneEntity> phones);
+
+}
@@ -0,0 +1,21 @@
+package es.microservices.tests.phones.repositories;
+
+import java.util.Map;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+/**
+ * The outcome of a bulk upsert: how many phones were new and why the ones that failed did, by
+ * their position in the upserted list.
+ */
+@Value
+@Builder
+public class PhoneUpsertResult {
+
+  private final int inserted;
+
+  @Singular
+  private final Map<Integer, String> errors;
+
+}
@@ -0,0 +1,268 @@
+package es.microservices.tests.phones.repositories.impl;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.util.Assert;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
+import es.microservices.tests.phones.repositories.PhoneRepositoryCustom;
+import es.microservices.tests.phones.repositories.PhoneUpsertResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+/**
+ * Pages with a {@code $facet} stage: one branch skips and limits to the requested page, the other
+ * counts the matching documents, so the page and the total count come back in one round trip.
+ * <p>
+ * Keyset pages instead start right after the last identifier seen, so they cost the same however
+ * deep they are and phones inserted meanwhile never shift them. The identifiers are random, so a
+ * phone inserted meanwhile may still land before the last one seen and be missed by the walk.
+ * <p>
+ * The catalog version is a single counter document increased atomically with
+ * {@code findAndModify}, so versions are unique and increasing across every instance.
+ * <p>
+ * Imports are upserted by name, which is indexed, through the driver collection since the reactive
+ * template has no bulk operations.
+ */
+public class PhoneRepositoryCustomImpl implements PhoneRepositoryCustom {
+
+  private static final String CONTENT_FIELD = "content";
+  private static final String TOTAL_FIELD = "total";
+  private static final String ID_FIELD = "id";
+  private static final String VERSION_FIELD = "version";
+  private static final String VERSIONS_COLLECTION = "catalogVersions";
+  private static final String CATALOG_VERSION_ID = "phonesCatalog";
+  private static final String VERSION_VALUE_FIELD = "value";
+  private static final String NAME_FIELD = "name";
+  private static final String MONGO_ID_FIELD = "_id";
+  private static final BulkWriteOptions UNORDERED = new BulkWriteOptions().ordered(false);
+  private static final UpdateOptions UPSERT = new UpdateOptions().upsert(true);
+
+  private final ReactiveMongoTemplate template;
+
+  public PhoneRepositoryCustomImpl(final ReactiveMongoTemplate template) {
+    Assert.notNull(template, "'template' must not be null");
+    this.template = template;
+  }
+
+  @Override
+  public Mono<Page<PhoneEntity>> findPage(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    Assert.isTrue(pageable.isPaged(), "'pageable' must be paged");
+
+    final List<AggregationOperation> operations = new ArrayList<>();
+    if (pageable.getSort().isSorted()) {
+      // sorting ahead of the facet lets Mongo walk an index once for both branches
+      operations.add(Aggregation.sort(pageable.getSort()));
+    }
+    // @formatter:off
+    operations.add(Aggregation
+        .facet(Aggregation.skip(pageable.getOffset()), Aggregation.limit(pageable.getPageSize()))
+          .as(CONTENT_FIELD)
+        .and(Aggregation.count().as(TOTAL_FIELD))
+          .as(TOTAL_FIELD));
+    // @formatter:on
+
+    final TypedAggregation<PhoneEntity> aggregation =
+        Aggregation.newAggregation(PhoneEntity.class, operations);
+    return this.template.aggregate(aggregation, Document.class).next()
+        .map(result -> toPage(result, pageable));
+  }
+
+  @Override
+  public Mono<Slice<PhoneEntity>> findSlice(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    Assert.isTrue(pageable.isPaged(), "'pageable' must be paged");
+
+    final Query query = new Query().with(pageable).limit(pageable.getPageSize() + 1);
+    return this.template.find(query, PhoneEntity.class).collectList().map(phones -> {
+      final boolean hasNext = phones.size() > pageable.getPageSize();
+      return new SliceImpl<>(hasNext ? phones.subList(0, pageable.getPageSize()) : phones,
+          pageable, hasNext);
+    });
+  }
+
+  @Override
+  public Mono<Long> estimatedCount() {
+    return this.template.estimatedCount(PhoneEntity.class);
+  }
+
+  @Override
+  public Flux<PhoneEntity> findAfter(final String lastPhoneId, final int limit) {
+    Assert.isTrue(limit > 0, "'limit' must be greater than zero");
+
+    final Query query = new Query().with(Sort.by(ID_FIELD)).limit(limit);
+    if (Objects.nonNull(lastPhoneId)) {
+      query.addCriteria(Criteria.where(ID_FIELD).gt(lastPhoneId));
+    }
+    return this.template.find(query, PhoneEntity.class);
+  }
+
+  @Override
+  public Mono<Long> nextCatalogVersion() {
+    // @formatter:off
+    return this.template.findAndModify(catalogVersionQuery(),
+            new Update().inc(VERSION_VALUE_FIELD, 1L),
+            FindAndModifyOptions.options().upsert(true).returnNew(true),
+            Document.class, VERSIONS_COLLECTION)
+        .map(PhoneRepositoryCustomImpl::toVersion);
+    // @formatter:on
+  }
+
+  @Override
+  public Mono<Long> currentCatalogVersion() {
+    return this.template.findOne(catalogVersionQuery(), Document.class, VERSIONS_COLLECTION)
+        .map(PhoneRepositoryCustomImpl::toVersion).defaultIfEmpty(0L);
+  }
+
+  @Override
+  public Flux<PhoneEntity> findChangedSince(final long version, final int limit) {
+    Assert.isTrue(limit > 0, "'limit' must be greater than zero");
+    return this.template.find(changedSinceQuery(version, limit), PhoneEntity.class);
+  }
+
+  @Override
+  public Flux<PhoneEntity> findChangedAt(final long version) {
+    return this.template.find(changedAtQuery(version), PhoneEntity.class);
+  }
+
+  @Override
+  public Flux<PhoneTombstoneEntity> findDeletedSince(final long version, final int limit) {
+    Assert.isTrue(limit > 0, "'limit' must be greater than zero");
+    return this.template.find(changedSinceQuery(version, limit), PhoneTombstoneEntity.class);
+  }
+
+  @Override
+  public Flux<PhoneTombstoneEntity> findDeletedAt(final long version) {
+    return this.template.find(changedAtQuery(version), PhoneTombstoneEntity.class);
+  }
+
+  /**
+   * The last phone and the last tombstone up to the version are read backwards on their version
+   * indexes, the most recent of both is the one that counts.
+   */
+  @Override
+  public Mono<Instant> findWrittenAt(final long version) {
+    final Query query = new Query(Criteria.where(VERSION_FIELD).lte(version))
+        .with(Sort.by(Sort.Direction.DESC, VERSION_FIELD)).limit(1);
+    // @formatter:off
+    return Flux.merge(
+            this.template.findOne(query, PhoneEntity.class)
+                .filter(phone -> Objects.nonNull(phone.getLastModified()))
+                .map(phone -> Tuples.of(phone.getVersion(), phone.getLastModified())),
+            this.template.findOne(query, PhoneTombstoneEntity.class)
+                .filter(tombstone -> Objects.nonNull(tombstone.getDeletedAt()))
+                .map(tombstone -> Tuples.of(tombstone.getVersion(), tombstone.getDeletedAt())))
+        .reduce((first, second) -> first.getT1() >= second.getT1() ? first : second)
+        .map(Tuple2::getT2);
+    // @formatter:on
+  }
+
+  @Override
+  public Mono<Boolean> deleteWithTombstone(final String phoneId, final long version,
+      final Instant deletedAt) {
+    Assert.hasText(phoneId, "'phoneId' must not be null or empty");
+    Assert.notNull(deletedAt, "'deletedAt' must not be null");
+
+    final Query query = new Query(Criteria.where(ID_FIELD).is(phoneId));
+    // @formatter:off
+    return this.template.exists(query, PhoneEntity.class)
+        .flatMap(exists -> !exists ? Mono.just(false)
+            : this.template.save(PhoneTombstoneEntity.builder()
+                    .id(phoneId)
+                    .version(version)
+                    .deletedAt(deletedAt)
+                    .build())
+                .then(Mono.defer(() -> this.template.remove(query, PhoneEntity.class)))
+                .map(result -> result.getDeletedCount() > 0));
+    // @formatter:on
+  }
+
+  @Override
+  public Mono<PhoneUpsertResult> upsertByName(final List<PhoneEntity> phones) {
+    Assert.notEmpty(phones, "'phones' must not be null or empty");
+
+    final List<WriteModel<Document>> upserts =
+        phones.stream().map(this::upsertByName).collect(Collectors.toList());
+    // @formatter:off
+    return this.template.getCollection(this.template.getCollectionName(PhoneEntity.class))
+        .flatMap(collection -> Mono.from(collection.bulkWrite(upserts, UNORDERED)))
+        .map(result -> PhoneUpsertResult.builder().inserted(result.getUpserts().size()).build())
+        .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(PhoneUpsertResult.builder()
+            .inserted(e.getWriteResult().getUpserts().size())
+            .errors(e.getWriteErrors().stream()
+                .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage)))
+            .build()));
+    // @formatter:on
+  }
+
+  /**
+   * Everything but the identifier is set, the identifier is only written when the phone is new so
+   * a phone already in the catalog keeps its own.
+   */
+  private WriteModel<Document> upsertByName(final PhoneEntity phone) {
+    final Document document = new Document();
+    this.template.getConverter().write(phone, document);
+    final Object phoneId = document.remove(MONGO_ID_FIELD);
+    final Document update = new Document("$set", document).append("$setOnInsert",
+        new Document(MONGO_ID_FIELD, phoneId));
+    return new UpdateOneModel<>(new Document(NAME_FIELD, phone.getName()), update, UPSERT);
+  }
+
+  private static Query catalogVersionQuery() {
+    return new Query(Criteria.where(ID_FIELD).is(CATALOG_VERSION_ID));
+  }
+
+  private static Query changedSinceQuery(final long version, final int limit) {
+    return new Query(Criteria.where(VERSION_FIELD).gt(version)).with(Sort.by(VERSION_FIELD))
+        .limit(limit);
+  }
+
+  private static Query changedAtQuery(final long version) {
+    return new Query(Criteria.where(VERSION_FIELD).is(version));
+  }
+
+  private static long toVersion(final Document counter) {
+    return counter.get(VERSION_VALUE_FIELD, Number.class).longValue();
+  }
+
+  private Page<PhoneEntity> toPage(final Document result, final Pageable pageable) {
+    final List<PhoneEntity> content = result.getList(CONTENT_FIELD, Document.class,
+        Collections.emptyList()).stream()
+        .map(document -> this.template.getConverter().read(PhoneEntity.class, document))
+        .collect(Collectors.toList());
+    final List<Document> total =
+        result.getList(TOTAL_FIELD, Document.class, Collections.emptyList());
+    final long totalCount =
+        total.isEmpty() ? 0L : total.get(0).get(TOTAL_FIELD, Number.class).longValue();
+    return new PageImpl<>(content, pageable, totalCount);
+  }
+
+}
@@ -0,0 +1,30 @@
+package es.microservices.tests.phones.services;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Provides the total number of phones sent along with the catalog pages.
+ */
+public interface PhoneCountService {
+
+  Mono<Long> countAllPhones();
+
+  /**
+   * Whether the count is exact. Exact counts are taken together with the page in a single
+   * aggregation instead of asking this service.
+   */
+  boolean isExact();
+
+  /**
+   * Tells the service that phones were added, so that a maintained count does not have to wait for
+   * the next reconciliation.
+   */
+  void phonesAdded(long count);
+
+  /**
+   * Tells the service that phones were deleted, so that a maintained count does not have to wait
+   * for the next reconciliation.
+   */
+  void phonesRemoved(long count);
+
+}
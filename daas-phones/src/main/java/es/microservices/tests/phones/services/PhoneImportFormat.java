@@ -0,0 +1,133 @@
+package es.microservices.tests.phones.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.util.Assert;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import es.microservices.tests.phones.dtos.NewPhoneDto;
+
+/**
+ * The formats a catalog import is read in, one phone per line so every line is parsed, validated
+ * and reported on its own.
+ */
+public enum PhoneImportFormat {
+
+  /**
+   * One {@link NewPhoneDto} JSON object per line.
+   */
+  NDJSON {
+
+    @Override
+    public boolean isHeader(final String line) {
+      return false;
+    }
+
+    @Override
+    public NewPhoneDto parse(final String line) {
+      Assert.notNull(line, "'line' must not be null");
+      try {
+        return NEW_PHONE_READER.readValue(line);
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage(), e);
+      }
+    }
+  },
+
+  /**
+   * The name, description, price and imageURL columns, in that order. Values with commas or
+   * quotes are quoted, doubling the quotes inside. The header line is optional.
+   */
+  CSV {
+
+    @Override
+    public boolean isHeader(final String line) {
+      return line.regionMatches(true, 0, NAME_COLUMN, 0, NAME_COLUMN.length());
+    }
+
+    @Override
+    public NewPhoneDto parse(final String line) {
+      Assert.notNull(line, "'line' must not be null");
+      final List<String> columns = splitColumns(line);
+      if (columns.size() != COLUMNS) {
+        throw new IllegalArgumentException(
+            "expected " + COLUMNS + " columns but found " + columns.size());
+      }
+      // @formatter:off
+      return NewPhoneDto.builder()
+          .name(emptyToNull(columns.get(0)))
+          .description(emptyToNull(columns.get(1)))
+          .price(parsePrice(columns.get(2)))
+          .imageURL(emptyToNull(columns.get(3)))
+          .build();
+      // @formatter:on
+    }
+  };
+
+  private static final ObjectReader NEW_PHONE_READER =
+      new ObjectMapper().readerFor(NewPhoneDto.class);
+  private static final String NAME_COLUMN = "name,";
+  private static final int COLUMNS = 4;
+  private static final char SEPARATOR = ',';
+  private static final char QUOTE = '"';
+
+  /**
+   * Whether the line is the header naming the columns instead of a phone. Only the first line is
+   * asked.
+   */
+  public abstract boolean isHeader(String line);
+
+  /**
+   * Reads the phone of a line, it is not validated yet. Throws an {@link IllegalArgumentException}
+   * telling what is wrong when the line cannot be read.
+   */
+  public abstract NewPhoneDto parse(String line);
+
+  private static List<String> splitColumns(final String line) {
+    final List<String> columns = new ArrayList<>(COLUMNS);
+    final StringBuilder column = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      final char c = line.charAt(i);
+      if (quoted) {
+        if (c != QUOTE) {
+          column.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == QUOTE) {
+          column.append(QUOTE);
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == QUOTE) {
+        quoted = true;
+      } else if (c == SEPARATOR) {
+        columns.add(column.toString().trim());
+        column.setLength(0);
+      } else if (c != '\r') {
+        column.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("unterminated quoted value");
+    }
+    columns.add(column.toString().trim());
+    return columns;
+  }
+
+  private static Double parsePrice(final String price) {
+    if (price.isEmpty()) {
+      return null;
+    }
+    try {
+      return Double.valueOf(price);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("price: not a number '" + price + "'", e);
+    }
+  }
+
+  private static String emptyToNull(final String value) {
+    return value.isEmpty() ? null : value;
+  }
+
+}
@@ -1,7 +1,13 @@
 package es.microservices.tests.phones.services;
 
+import java.util.Collection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
+import es.microservices.tests.phones.dtos.PhoneChangesDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.dtos.PhoneImportReportDto;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -11,8 +17,40 @@ public interface PhoneService {
 
   Flux<PhoneDto> findAllPhones();
 
+  Mono<Page<PhoneDto>> findPhonesPage(Pageable pageable);
+
+  /**
+   * Retrieves one page of phones without counting them, only whether there is a next page is known.
+   */
+  Mono<Slice<PhoneDto>> findPhonesSlice(Pageable pageable);
+
+  Flux<PhoneDto> findPhonesAfter(String lastPhoneId, int limit);
+
   Mono<PhoneDto> findById(String phoneId);
 
+  Flux<PhoneDto> findByIds(Collection<String> phoneIds);
+
   Mono<PhoneDto> createPhone(NewPhoneDto phone);
 
+  /**
+   * Deletes the phone leaving a tombstone for the consumers following the catalog changes. Emits
+   * false when the phone is not in the catalog.
+   */
+  Mono<Boolean> deletePhone(String phoneId);
+
+  /**
+   * Retrieves the phones written and deleted after the given catalog version, a limited number at
+   * a time, along with the version to ask from the next time and whether there are more. When the
+   * changes cannot be followed from the version only the current version is returned, flagged to
+   * reload the catalog. Without a version only the current version is returned.
+   */
+  Mono<PhoneChangesDto> findChangesSince(Long version);
+
+  /**
+   * Imports the phones of the lines, one phone per line in the given format, replacing the phones
+   * with the same name. Emits the lines that failed, the progress after every chunk written and a
+   * summary at the end.
+   */
+  Flux<PhoneImportReportDto> importPhones(Flux<String> lines, PhoneImportFormat format);
+
 }
@@ -0,0 +1,63 @@
+package es.microservices.tests.phones.services.impl;
+
+import org.springframework.util.Assert;
+import es.microservices.tests.common.counts.CountStrategy;
+import es.microservices.tests.common.counts.DocumentCounter;
+import es.microservices.tests.phones.configurations.properties.PhoneCountProperties;
+import es.microservices.tests.phones.repositories.PhoneRepository;
+import es.microservices.tests.phones.services.PhoneCountService;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Counts the catalog with the configured {@link CountStrategy}, see {@link DocumentCounter}. The
+ * drift of the ESTIMATED and COUNTER strategies is published as the phones.count.drift gauge.
+ */
+public class PhoneCountServiceImpl implements PhoneCountService, AutoCloseable {
+
+  private final DocumentCounter counter;
+
+  /**
+   * Counts exactly, nothing is reconciled.
+   */
+  public PhoneCountServiceImpl(final PhoneRepository repository) {
+    Assert.notNull(repository, "'repository' must not be null");
+    this.counter = new DocumentCounter(repository::count);
+  }
+
+  public PhoneCountServiceImpl(final PhoneRepository repository,
+      final PhoneCountProperties properties, final MeterRegistry meterRegistry) {
+    Assert.notNull(repository, "'repository' must not be null");
+    Assert.notNull(properties, "'properties' must not be null");
+    this.counter = new DocumentCounter("phones", repository::count, repository::estimatedCount,
+        properties.getStrategy(), properties.getReconcileInterval(), meterRegistry,
+        Schedulers.parallel());
+  }
+
+  @Override
+  public Mono<Long> countAllPhones() {
+    return this.counter.count();
+  }
+
+  @Override
+  public boolean isExact() {
+    return this.counter.isExact();
+  }
+
+  @Override
+  public void phonesAdded(final long count) {
+    this.counter.added(count);
+  }
+
+  @Override
+  public void phonesRemoved(final long count) {
+    this.counter.removed(count);
+  }
+
+  @Override
+  public void close() {
+    this.counter.close();
+  }
+
+}
@@ -1,30 +1,97 @@
 package es.microservices.tests.phones.services.impl;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import es.microservices.tests.phones.configurations.properties.PhoneChangesProperties;
+import es.microservices.tests.phones.configurations.properties.PhoneImportProperties;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
+import es.microservices.tests.phones.dtos.PhoneChangesDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.dtos.PhoneImportReportDto;
 import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
 import es.microservices.tests.phones.mappers.Mapper;
 import es.microservices.tests.phones.repositories.PhoneRepository;
+import es.microservices.tests.phones.repositories.PhoneUpsertResult;
+import es.microservices.tests.phones.services.PhoneCountService;
+import es.microservices.tests.phones.services.PhoneImportFormat;
 import es.microservices.tests.phones.services.PhoneService;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 public class PhoneServiceImpl implements PhoneService {
 
   private final PhoneRepository repository;
   private final Mapper<NewPhoneDto, PhoneEntity> dto2EntityMapper;
   private final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper;
+  private final PhoneCountService countService;
+  private final Validator validator;
+  private final PhoneImportProperties importProperties;
+  private final PhoneChangesProperties changesProperties;
+  private final Map<String, Mono<Void>> namesBeingImported = new HashMap<>();
 
   public PhoneServiceImpl(final PhoneRepository repository,
       final Mapper<NewPhoneDto, PhoneEntity> dto2EntityMapper,
       final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper) {
+    this(repository, dto2EntityMapper, entity2DtoMapper, new PhoneCountServiceImpl(repository));
+  }
+
+  public PhoneServiceImpl(final PhoneRepository repository,
+      final Mapper<NewPhoneDto, PhoneEntity> dto2EntityMapper,
+      final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper,
+      final PhoneCountService countService) {
+    this(repository, dto2EntityMapper, entity2DtoMapper, countService,
+        Validation.buildDefaultValidatorFactory().getValidator(),
+        PhoneImportProperties.builder().build());
+  }
+
+  public PhoneServiceImpl(final PhoneRepository repository,
+      final Mapper<NewPhoneDto, PhoneEntity> dto2EntityMapper,
+      final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper,
+      final PhoneCountService countService, final Validator validator,
+      final PhoneImportProperties importProperties) {
+    this(repository, dto2EntityMapper, entity2DtoMapper, countService, validator,
+        importProperties, PhoneChangesProperties.builder().build());
+  }
+
+  public PhoneServiceImpl(final PhoneRepository repository,
+      final Mapper<NewPhoneDto, PhoneEntity> dto2EntityMapper,
+      final Mapper<PhoneEntity, PhoneDto> entity2DtoMapper,
+      final PhoneCountService countService, final Validator validator,
+      final PhoneImportProperties importProperties,
+      final PhoneChangesProperties changesProperties) {
     Assert.notNull(repository, "'repository' must not be null");
     Assert.notNull(dto2EntityMapper, "'dto2EntityMapper' must not be null");
     Assert.notNull(entity2DtoMapper, "'entity2DtoMapper' must not be null");
+    Assert.notNull(countService, "'countService' must not be null");
+    Assert.notNull(validator, "'validator' must not be null");
+    Assert.notNull(importProperties, "'importProperties' must not be null");
+    Assert.notNull(changesProperties, "'changesProperties' must not be null");
     this.repository = repository;
     this.dto2EntityMapper = dto2EntityMapper;
     this.entity2DtoMapper = entity2DtoMapper;
+    this.countService = countService;
+    this.validator = validator;
+    this.importProperties = importProperties;
+    this.changesProperties = changesProperties;
 
   }
 
@@ -33,9 +100,34 @@ public class PhoneServiceImpl implements PhoneService {
     return Flux.defer(this.repository::findAll).map(this.entity2DtoMapper::map);        
   }
   
+  @Override
+  public Mono<Page<PhoneDto>> findPhonesPage(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    if (this.countService.isExact()) {
+      return Mono.defer(() -> this.repository.findPage(pageable))
+          .map(page -> page.map(this.entity2DtoMapper::map));
+    }
+    return Mono.zip(findPhonesSlice(pageable), this.countService.countAllPhones())
+        .map(sliceAndCount -> toPage(sliceAndCount.getT1(), sliceAndCount.getT2()));
+  }
+
+  @Override
+  public Mono<Slice<PhoneDto>> findPhonesSlice(final Pageable pageable) {
+    Assert.notNull(pageable, "'pageable' must not be null");
+    return Mono.defer(() -> this.repository.findSlice(pageable))
+        .map(slice -> slice.map(this.entity2DtoMapper::map));
+  }
+
+  @Override
+  public Flux<PhoneDto> findPhonesAfter(final String lastPhoneId, final int limit) {
+    Assert.isTrue(limit > 0, "'limit' must be greater than zero");
+    return Flux.defer(() -> this.repository.findAfter(lastPhoneId, limit))
+        .map(this.entity2DtoMapper::map);
+  }
+
   @Override
   public Mono<Long> countAllPhones() {
-    return Mono.defer(this.repository::count);    
+    return this.countService.countAllPhones();
   }
   
   @Override
@@ -45,6 +137,13 @@ public class PhoneServiceImpl implements PhoneService {
         .map(this.entity2DtoMapper::map);    
   }
   
+  @Override
+  public Flux<PhoneDto> findByIds(final Collection<String> phoneIds) {
+    Assert.notEmpty(phoneIds, "'phoneIds' must not be null or empty");
+    return Flux.defer(() -> this.repository.findByIdIn(phoneIds))
+        .map(this.entity2DtoMapper::map);
+  }
+
   @Override
   public Mono<PhoneDto> createPhone(final NewPhoneDto phone) {
     Assert.notNull(phone, "'phone' must not be null");
@@ -53,9 +152,387 @@ public class PhoneServiceImpl implements PhoneService {
       ;    
   }
   
+  @Override
+  public Mono<Boolean> deletePhone(final String phoneId) {
+    Assert.hasText(phoneId, "'phoneId' must not be null or empty");
+    return Mono.defer(this.repository::nextCatalogVersion)
+        .flatMap(version -> this.repository.deleteWithTombstone(phoneId, version, Instant.now()))
+        .doOnNext(deleted -> {
+          if (deleted) {
+            this.countService.phonesRemoved(1);
+          }
+        });
+  }
+
+  /**
+   * One phone and one tombstone more than the limit are read to know whether there are more
+   * changes. The phones of an import chunk share their version, so the last version sent is never
+   * split: when the limit falls inside it the rest of its writes are read too. The version
+   * returned is the highest one sent rather than the current one, so a write that took an earlier
+   * version and commits later is not skipped by a consumer asking from an earlier version again.
+   */
+  @Override
+  public Mono<PhoneChangesDto> findChangesSince(final Long version) {
+    Assert.isTrue(Objects.isNull(version) || version >= 0,
+        "'version' must be greater than or equal to zero");
+    return Mono.defer(this.repository::currentCatalogVersion).flatMap(current -> {
+      if (Objects.isNull(version)) {
+        return Mono.just(PhoneChangesDto.builder().version(current).build());
+      }
+      if (version > current) {
+        // the catalog went back, it was restored from an older copy
+        return Mono.just(reload(current));
+      }
+      return isFollowable(version, current)
+          .flatMap(followable -> followable ? findChanges(version) : Mono.just(reload(current)));
+    });
+  }
+
+  /**
+   * The tombstones expire, a consumer may have missed some of the deletions after its version once
+   * the retention is over. A version is as old as the last write up to it, the writes after it
+   * took their versions later.
+   */
+  private Mono<Boolean> isFollowable(final long version, final long current) {
+    if (version == 0 || version == current) {
+      // nothing to have missed: no phones yet, or no writes after it
+      return Mono.just(true);
+    }
+    final Instant horizon = Instant.now().minus(this.changesProperties.getTombstoneRetention());
+    return this.repository.findWrittenAt(version)
+        .map(writtenAt -> !writtenAt.isBefore(horizon))
+        .defaultIfEmpty(false);
+  }
+
+  private Mono<PhoneChangesDto> findChanges(final long version) {
+    final int limit = this.changesProperties.getLimit();
+    // @formatter:off
+    return Mono.zip(
+            this.repository.findChangedSince(version, limit + 1).collectList(),
+            this.repository.findDeletedSince(version, limit + 1).collectList())
+        .flatMap(found -> {
+          final List<CatalogChange> changes = CatalogChange.merge(found.getT1(), found.getT2());
+          if (changes.size() <= limit) {
+            return Mono.just(toChanges(version, changes, false));
+          }
+          final long last = changes.get(limit - 1).version;
+          if (changes.get(limit).version != last) {
+            return Mono.just(toChanges(version, changes.subList(0, limit), true));
+          }
+          final List<CatalogChange> sent = changes.subList(0, limit).stream()
+              .filter(change -> change.version < last)
+              .collect(Collectors.toList());
+          return Mono.zip(
+                  this.repository.findChangedAt(last).collectList(),
+                  this.repository.findDeletedAt(last).collectList())
+              .map(lastFound -> {
+                sent.addAll(CatalogChange.merge(lastFound.getT1(), lastFound.getT2()));
+                return toChanges(version, sent, true);
+              });
+        });
+    // @formatter:on
+  }
+
+  private PhoneChangesDto toChanges(final long version, final List<CatalogChange> changes,
+      final boolean more) {
+    final PhoneChangesDto.PhoneChangesDtoBuilder result = PhoneChangesDto.builder()
+        .version(changes.isEmpty() ? version : changes.get(changes.size() - 1).version)
+        .more(more);
+    for (final CatalogChange change : changes) {
+      if (Objects.nonNull(change.phone)) {
+        result.upsert(this.entity2DtoMapper.map(change.phone));
+      } else {
+        result.deletedPhoneId(change.deletedPhoneId);
+      }
+    }
+    return result.build();
+  }
+
+  private static PhoneChangesDto reload(final long current) {
+    return PhoneChangesDto.builder().version(current).reload(true).build();
+  }
+
+  /**
+   * The lines are requested from the body one chunk at a time, only as many as the chunks being
+   * written, so an import is streamed through instead of held in memory. The valid phones of a
+   * chunk take a single catalog version and are upserted with a single unordered bulk write. The
+   * chunks are reported in the order of the body, so the progress only grows.
+   * <p>
+   * The name the phones are upserted by is not unique, so a name is written once per chunk, with
+   * the last of its lines, and a chunk waits for the chunks being written with any of its names.
+   */
+  @Override
+  public Flux<PhoneImportReportDto> importPhones(final Flux<String> lines,
+      final PhoneImportFormat format) {
+    Assert.notNull(lines, "'lines' must not be null");
+    Assert.notNull(format, "'format' must not be null");
+    return Flux.defer(() -> {
+      final ImportProgress progress = new ImportProgress(System.nanoTime());
+      // @formatter:off
+      return lines.index()
+          .filter(line -> StringUtils.hasText(line.getT2())
+              && !(line.getT1() == 0 && format.isHeader(line.getT2())))
+          .map(line -> ImportLine.parse(line.getT1() + 1, line.getT2(), format))
+          .buffer(this.importProperties.getChunkSize())
+          .flatMapSequential(this::importChunk, this.importProperties.getConcurrency(), 1)
+          .concatMapIterable(progress::add)
+          .concatWith(Mono.fromCallable(() -> progress.report(PhoneImportReportDto.Type.SUMMARY)));
+      // @formatter:on
+    });
+  }
+
+  private Mono<ChunkResult> importChunk(final List<ImportLine> chunk) {
+    final List<PhoneImportReportDto> errors = new ArrayList<>();
+    final List<PhoneEntity> entities = new ArrayList<>(chunk.size());
+    final List<List<Long>> lineNumbers = new ArrayList<>(chunk.size());
+    final Map<String, Integer> positions = new HashMap<>();
+    int valid = 0;
+    for (final ImportLine line : chunk) {
+      final String error = Objects.nonNull(line.error) ? line.error : validate(line.phone);
+      if (Objects.nonNull(error)) {
+        errors.add(failed(line.number, error));
+        continue;
+      }
+      final PhoneEntity phone = this.dto2EntityMapper.map(line.phone);
+      Integer position = positions.putIfAbsent(phone.getName(), entities.size());
+      if (Objects.isNull(position)) {
+        position = entities.size();
+        entities.add(phone);
+        lineNumbers.add(new ArrayList<>(1));
+      } else {
+        entities.set(position, phone);
+      }
+      lineNumbers.get(position).add(line.number);
+      valid++;
+    }
+    if (entities.isEmpty()) {
+      return Mono.just(new ChunkResult(chunk.size(), 0, errors));
+    }
+    final int validLines = valid;
+    // @formatter:off
+    return afterWritesOf(positions.keySet(), Mono.defer(this.repository::nextCatalogVersion)
+        .flatMap(version -> {
+          final Instant now = Instant.now();
+          entities.forEach(phone -> {
+            phone.setVersion(version);
+            phone.setLastModified(now);
+          });
+          return this.repository.upsertByName(entities);
+        }))
+        .onErrorResume(e -> Mono.just(allFailed(entities.size(), e.getMessage())))
+        .map(result -> {
+          int failedLines = 0;
+          for (final Map.Entry<Integer, String> error : result.getErrors().entrySet()) {
+            for (final Long number : lineNumbers.get(error.getKey())) {
+              errors.add(failed(number, error.getValue()));
+              failedLines++;
+            }
+          }
+          errors.sort(Comparator.comparing(PhoneImportReportDto::getLine));
+          this.countService.phonesAdded(result.getInserted());
+          return new ChunkResult(chunk.size(), validLines - failedLines, errors);
+        });
+    // @formatter:on
+  }
+
+  /**
+   * Two upserts of the same name that run together would both miss the phone and insert it twice,
+   * so the write waits for the writes in flight with any of the names, of this import or of any
+   * other one. The names are all taken at once, hence the writes wait in the order they arrive
+   * and never on each other.
+   */
+  private <T> Mono<T> afterWritesOf(final Collection<String> names, final Mono<T> write) {
+    return Mono.defer(() -> {
+      final Sinks.Empty<Void> written = Sinks.empty();
+      final Mono<Void> done = written.asMono();
+      final List<Mono<Void>> previous = new ArrayList<>();
+      synchronized (this.namesBeingImported) {
+        for (final String name : names) {
+          final Mono<Void> writing = this.namesBeingImported.put(name, done);
+          if (Objects.nonNull(writing)) {
+            previous.add(writing);
+          }
+        }
+      }
+      // @formatter:off
+      return Mono.when(previous)
+          .then(write)
+          .doFinally(signal -> {
+            synchronized (this.namesBeingImported) {
+              names.forEach(name -> this.namesBeingImported.remove(name, done));
+            }
+            written.tryEmitEmpty();
+          });
+      // @formatter:on
+    });
+  }
+
+  private String validate(final NewPhoneDto phone) {
+    final Set<ConstraintViolation<NewPhoneDto>> violations = this.validator.validate(phone);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream().map(v -> v.getPropertyPath() + ": " + v.getMessage()).sorted()
+        .collect(Collectors.joining(", "));
+  }
+
+  private static PhoneImportReportDto failed(final long line, final String error) {
+    return PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(line)
+        .error(error).build();
+  }
+
+  private static PhoneUpsertResult allFailed(final int size, final String error) {
+    final PhoneUpsertResult.PhoneUpsertResultBuilder result = PhoneUpsertResult.builder();
+    for (int i = 0; i < size; i++) {
+      result.error(i, error);
+    }
+    return result.build();
+  }
+
   private Mono<PhoneDto> savePhoneEntity(PhoneEntity phone) {
-    return Mono.defer(() -> this.repository.save(phone))
+    return Mono.defer(this.repository::nextCatalogVersion)
+        .map(version -> stamp(phone, version))
+        .flatMap(this.repository::save)
+        .doOnNext(saved -> this.countService.phonesAdded(1))
         .map(this.entity2DtoMapper::map);
   }
 
+  private static PhoneEntity stamp(final PhoneEntity phone, final long version) {
+    phone.setVersion(version);
+    phone.setLastModified(Instant.now());
+    return phone;
+  }
+
+  /**
+   * The slice knows for sure whether there are more phones, an estimated count that disagrees is
+   * corrected so that the page never announces a next page that does not exist, or hides one. An
+   * empty slice past the last page says nothing about how many phones there are before it, so the
+   * estimated count is kept there, only capped to the offset asked for.
+   */
+  private static Page<PhoneDto> toPage(final Slice<PhoneDto> slice, final long estimatedCount) {
+    final long offset = slice.getPageable().getOffset();
+    if (!slice.hasContent()) {
+      return new PageImpl<>(slice.getContent(), slice.getPageable(),
+          Math.min(estimatedCount, offset));
+    }
+    final long seen = offset + slice.getNumberOfElements();
+    final long totalCount = slice.hasNext() ? Math.max(estimatedCount, seen + 1) : seen;
+    return new PageImpl<>(slice.getContent(), slice.getPageable(), totalCount);
+  }
+
+  /**
+   * A phone written or deleted with its catalog version.
+   */
+  private static final class CatalogChange {
+
+    private final long version;
+    private final PhoneEntity phone;
+    private final String deletedPhoneId;
+
+    private CatalogChange(final long version, final PhoneEntity phone,
+        final String deletedPhoneId) {
+      this.version = version;
+      this.phone = phone;
+      this.deletedPhoneId = deletedPhoneId;
+    }
+
+    /**
+     * Both lists come ordered by version, so are the changes.
+     */
+    private static List<CatalogChange> merge(final List<PhoneEntity> phones,
+        final List<PhoneTombstoneEntity> tombstones) {
+      final List<CatalogChange> changes = new ArrayList<>(phones.size() + tombstones.size());
+      int p = 0;
+      int t = 0;
+      while (p < phones.size() || t < tombstones.size()) {
+        final boolean phoneFirst = t == tombstones.size() || (p < phones.size()
+            && phones.get(p).getVersion() <= tombstones.get(t).getVersion());
+        if (phoneFirst) {
+          final PhoneEntity phone = phones.get(p++);
+          changes.add(new CatalogChange(phone.getVersion(), phone, null));
+        } else {
+          final PhoneTombstoneEntity tombstone = tombstones.get(t++);
+          changes.add(new CatalogChange(tombstone.getVersion(), null, tombstone.getId()));
+        }
+      }
+      return changes;
+    }
+  }
+
+  /**
+   * A line of an import with its phone, or why it could not be read.
+   */
+  private static final class ImportLine {
+
+    private final long number;
+    private final NewPhoneDto phone;
+    private final String error;
+
+    private ImportLine(final long number, final NewPhoneDto phone, final String error) {
+      this.number = number;
+      this.phone = phone;
+      this.error = error;
+    }
+
+    private static ImportLine parse(final long number, final String line,
+        final PhoneImportFormat format) {
+      try {
+        return new ImportLine(number, format.parse(line), null);
+      } catch (IllegalArgumentException e) {
+        return new ImportLine(number, null, e.getMessage());
+      }
+    }
+  }
+
+  private static final class ChunkResult {
+
+    private final int processed;
+    private final int imported;
+    private final List<PhoneImportReportDto> errors;
+
+    private ChunkResult(final int processed, final int imported,
+        final List<PhoneImportReportDto> errors) {
+      this.processed = processed;
+      this.imported = imported;
+      this.errors = errors;
+    }
+  }
+
+  /**
+   * The totals of an import. The chunks are added one after the other in the order of the body.
+   */
+  private static final class ImportProgress {
+
+    private final long startNanos;
+    private long processed;
+    private long imported;
+    private long failed;
+
+    private ImportProgress(final long startNanos) {
+      this.startNanos = startNanos;
+    }
+
+    private List<PhoneImportReportDto> add(final ChunkResult chunk) {
+      this.processed += chunk.processed;
+      this.imported += chunk.imported;
+      this.failed += chunk.processed - chunk.imported;
+      final List<PhoneImportReportDto> reports = new ArrayList<>(chunk.errors);
+      reports.add(report(PhoneImportReportDto.Type.PROGRESS));
+      return reports;
+    }
+
+    private PhoneImportReportDto report(final PhoneImportReportDto.Type type) {
+      final double seconds = Math.max(System.nanoTime() - this.startNanos, 1L) / 1e9;
+      // @formatter:off
+      return PhoneImportReportDto.builder()
+          .type(type)
+          .processed(this.processed)
+          .imported(this.imported)
+          .failed(this.failed)
+          .phonesPerSecond(Math.round(this.processed / seconds * 10) / 10.0)
+          .build();
+      // @formatter:on
+    }
+  }
+
 }
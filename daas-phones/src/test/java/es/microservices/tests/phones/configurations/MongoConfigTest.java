@@ -0,0 +1,40 @@
+package es.microservices.tests.phones.configurations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.ReactiveMongoOperations;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import es.microservices.tests.phones.configurations.properties.PhoneChangesProperties;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
+import reactor.core.publisher.Mono;
+
+class MongoConfigTest {
+
+  @Test
+  void tombstones_expire_after_the_retention() {
+    final ReactiveMongoOperations operations = mock(ReactiveMongoOperations.class);
+    final ReactiveIndexOperations indexOperations = mock(ReactiveIndexOperations.class);
+    doReturn(indexOperations).when(operations).indexOps(PhoneTombstoneEntity.class);
+    doReturn(Mono.just(MongoConfig.TOMBSTONES_EXPIRY_INDEX)).when(indexOperations)
+        .ensureIndex(any(IndexDefinition.class));
+    final PhoneChangesProperties properties =
+        PhoneChangesProperties.builder().tombstoneRetention(Duration.ofDays(2)).build();
+
+    new MongoConfig().tombstonesExpiryIndex(operations, properties).onApplicationEvent(null);
+
+    final ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+    verify(indexOperations).ensureIndex(index.capture());
+    assertEquals(new Document("deletedAt", 1), index.getValue().getIndexKeys());
+    assertEquals(Duration.ofDays(2).getSeconds(),
+        index.getValue().getIndexOptions().get("expireAfterSeconds", Number.class).longValue());
+  }
+
+}
@@ -2,14 +2,23 @@ package es.microservices.tests.phones.controllers.impl;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import org.junit.jupiter.api.BeforeAll;
@@ -25,6 +34,11 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
@@ -37,16 +51,30 @@ import brave.Tracing;
 import brave.propagation.CurrentTraceContext;
 import brave.propagation.TraceContext;
 import brave.sampler.Sampler;
+import es.microservices.tests.common.http.ETags;
+import es.microservices.tests.common.pagination.ContinuationTokens;
 import es.microservices.tests.phones.configurations.ErrorManagementConfig;
 import es.microservices.tests.phones.configurations.GlobalConfig;
+import es.microservices.tests.phones.configurations.properties.PhoneCountProperties;
+import es.microservices.tests.phones.configurations.properties.PhoneChangesProperties;
+import es.microservices.tests.phones.configurations.properties.PhoneImportProperties;
+import es.microservices.tests.phones.controllers.InternalMediaTypes;
 import es.microservices.tests.phones.controllers.handler.SpecificControllerAdvice;
 import es.microservices.tests.phones.dtos.ErrorResponse;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
 import es.microservices.tests.phones.dtos.PhoneCatalogDto;
+import es.microservices.tests.phones.dtos.PhoneChangesDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.dtos.PhoneImportReportDto;
+import es.microservices.tests.phones.dtos.PhoneLookupDto;
+import es.microservices.tests.phones.dtos.PhoneLookupResultDto;
 import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
 import es.microservices.tests.phones.features.TestFeatures;
 import es.microservices.tests.phones.repositories.PhoneRepository;
+import es.microservices.tests.phones.repositories.PhoneUpsertResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import zipkin2.Span;
@@ -60,6 +88,8 @@ import zipkin2.reporter.Reporter;
 public class PhoneControllerImplTest {
 
   private static final String URL = "/phones";
+  private static final MediaType SMILE =
+      MediaType.valueOf(InternalMediaTypes.APPLICATION_SMILE_VALUE);
 
   @Autowired
   private WebTestClient webTestClient;
@@ -76,7 +106,7 @@ public class PhoneControllerImplTest {
   public void beforeEach() {
     // BlockHound.install();
     Mockito.clearInvocations(this.repository);
-    
+    doReturn(Mono.just(1L)).when(this.repository).nextCatalogVersion();
   }
 
   @Test
@@ -98,11 +128,10 @@ public class PhoneControllerImplTest {
     final PhoneDto expectedPhoneDto = TestFeatures.createPhoneDto(phoneId, phoneName,
         phoneDescription, phonePrice, phoneImageURL);
 
-    doReturn(Flux.just(entity)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -123,25 +152,115 @@ public class PhoneControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
-  void testGetPhoneCatalog_findAll_returns_400_when_page_parameter_is_not_a_number() {
-    final String page = "a";
-    final int pageSize = 10;
+  void testGetPhoneCatalog_count_false_returns_the_page_without_counting() {
+    final int page = 1;
+    final int pageSize = 1;
 
-    final String errorMessage = "Type mismatch.";
+    final PhoneEntity entity1 = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    doReturn(Mono.just(new SliceImpl<>(Arrays.asList(entity1), PageRequest.of(0, pageSize), true)))
+        .when(this.repository).findSlice(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
         .uri(uriBuilder -> uriBuilder.path(URL)
             .queryParam("page", page)
             .queryParam("pageSize", pageSize)
+            .queryParam("count", false)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody()
+          .jsonPath("$.phones.length()").isEqualTo(1)
+          .jsonPath("$.page").isEqualTo(page)
+          .jsonPath("$.next").isEqualTo(ContinuationTokens.encode("1"))
+          .jsonPath("$.total-count").doesNotExist();
+    // @formatter:on
+
+    verify(this.repository, times(1))
+        .findSlice(PageRequest.of(page - 1, pageSize, Sort.by("id")));
+    verify(this.repository, never()).findPage(any(Pageable.class));
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void testGetPhoneCatalog_cursor_returns_the_next_page_and_its_cursor() {
+    final int pageSize = 1;
+
+    final PhoneEntity entity2 = TestFeatures.createPhoneEntity("2", "phoneName2",
+        "phoneDescription2", 2.0, "phoneImageURL2");
+    final PhoneEntity entity3 = TestFeatures.createPhoneEntity("3", "phoneName3",
+        "phoneDescription3", 3.0, "phoneImageURL3");
+    final PhoneDto expectedPhoneDto2 = TestFeatures.createPhoneDto("2", "phoneName2",
+        "phoneDescription2", 2.0, "phoneImageURL2");
+
+    doReturn(Flux.just(entity2, entity3)).when(this.repository).findAfter(anyString(), anyInt());
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("pageSize", pageSize)
+            .queryParam("cursor", ContinuationTokens.encode("1"))
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody(PhoneCatalogDto.class)
+        .value(consume -> consume.getPageSize(), equalTo(pageSize))
+        .value(consume -> consume.getTotalCount(), nullValue())
+        .value(consume -> consume.getPhones(), equalTo(Arrays.asList(expectedPhoneDto2)))
+        .value(consume -> consume.getNext(), equalTo(ContinuationTokens.encode("2")))
+        ;
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAfter("1", pageSize + 1);
+    verify(this.repository, never()).findPage(any(Pageable.class));
+  }
+
+  @Test
+  void testGetPhoneCatalog_cursor_last_page_has_no_next_cursor() {
+    final int pageSize = 2;
+
+    final PhoneEntity entity3 = TestFeatures.createPhoneEntity("3", "phoneName3",
+        "phoneDescription3", 3.0, "phoneImageURL3");
+
+    doReturn(Flux.just(entity3)).when(this.repository).findAfter(anyString(), anyInt());
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("pageSize", pageSize)
+            .queryParam("cursor", ContinuationTokens.encode("2"))
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody()
+          .jsonPath("$.phones.length()").isEqualTo(1)
+          .jsonPath("$.next").doesNotExist()
+          .jsonPath("$.page").doesNotExist()
+          .jsonPath("$.total-count").doesNotExist();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAfter("2", pageSize + 1);
+  }
+
+  @Test
+  void testGetPhoneCatalog_returns_400_when_cursor_is_not_valid() {
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .queryParam("cursor", "not-a-cursor")
             .build())
         .accept(MediaType.APPLICATION_JSON)
         .exchange()
@@ -149,25 +268,52 @@ public class PhoneControllerImplTest {
             .isBadRequest()
           .expectBody(ErrorResponse.class)
             .value(consume -> consume.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()))
-            .value(consume -> consume.getErrorMessage(), equalTo(errorMessage))
-            .value(consume -> consume.getOperationId(), notNullValue(String.class) );
-        ;
-    
+            .value(consume -> consume.getErrorMessage(),
+                equalTo("cursor: is not a valid continuation token"));
     // @formatter:on
 
-    verify(this.repository, never()).findAll();
+    verify(this.repository, never()).findAfter(anyString(), anyInt());
+    verify(this.repository, never()).findPage(any(Pageable.class));
+  }
+
+  @Test
+  void testStreamPhoneCatalog_returns_every_phone_as_ndjson() {
+    final PhoneEntity entity1 = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneEntity entity2 = TestFeatures.createPhoneEntity("2", "phoneName2",
+        "phoneDescription2", 2.0, "phoneImageURL2");
+    final PhoneDto expectedPhoneDto1 = TestFeatures.createPhoneDto("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneDto expectedPhoneDto2 = TestFeatures.createPhoneDto("2", "phoneName2",
+        "phoneDescription2", 2.0, "phoneImageURL2");
+
+    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(URL)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(PhoneDto.class)
+          .isEqualTo(Arrays.asList(expectedPhoneDto1, expectedPhoneDto2));
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAll();
     verify(this.repository, never()).count();
   }
 
   @Test
-  void testGetPhoneCatalog_findAll_returns_400_when_pageSize_parameter_is_not_a_number() {
-    final int page = 1;
-    final String pageSize = "a";
+  void testGetPhoneCatalog_findAll_returns_400_when_page_parameter_is_not_a_number() {
+    final String page = "a";
+    final int pageSize = 10;
 
     final String errorMessage = "Type mismatch.";
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -186,24 +332,18 @@ public class PhoneControllerImplTest {
         ;
     
     // @formatter:on
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+
+    verify(this.repository, never()).findPage(any(Pageable.class));
   }
 
   @Test
-  void testGetPhoneCatalog_findAll_returnsError() {
+  void testGetPhoneCatalog_findAll_returns_400_when_pageSize_parameter_is_not_a_number() {
     final int page = 1;
-    final int pageSize = 10;
-    final Long totalCount = 0l;
-
-    final String errorMessage = "An error occurred retrieving the data";
+    final String pageSize = "a";
 
-    doReturn(Flux.error(() -> new DataRetrievalFailureException(errorMessage)))
-        .when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    final String errorMessage = "Type mismatch.";
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -214,38 +354,28 @@ public class PhoneControllerImplTest {
         .accept(MediaType.APPLICATION_JSON)
         .exchange()
           .expectStatus()
-            .is5xxServerError()
-        .expectBody(ErrorResponse.class)
-        .value(consume -> consume.getStatus(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR.value()))
-        .value(consume -> consume.getErrorMessage(), equalTo(errorMessage))
-        .value(consume -> consume.getOperationId(), notNullValue(String.class) );
+            .isBadRequest()
+          .expectBody(ErrorResponse.class)
+            .value(consume -> consume.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()))
+            .value(consume -> consume.getErrorMessage(), equalTo(errorMessage))
+            .value(consume -> consume.getOperationId(), notNullValue(String.class) );
+        ;
+    
     // @formatter:on
-
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
   }
 
   @Test
-  void testGetPhoneCatalog_count_returnsError() {
+  void testGetPhoneCatalog_findAll_returnsError() {
     final int page = 1;
     final int pageSize = 10;
-    final String phoneId = "1";
-    final String phoneName = "phoneName";
-    final String phoneDescription = "phoneDescription";
-    final Double phonePrice = 1.0;
-    final String phoneImageURL = "phoneImageURL";
-
-    final String errorMessage = "An error occurred counting the data";
 
-    final PhoneEntity entity = TestFeatures.createPhoneEntity(phoneId, phoneName, phoneDescription,
-        phonePrice, phoneImageURL);
+    final String errorMessage = "An error occurred retrieving the data";
 
-    doReturn(Flux.just(entity)).when(this.repository).findAll();
     doReturn(Mono.error(() -> new DataRetrievalFailureException(errorMessage)))
-        .when(this.repository).count();
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -263,8 +393,8 @@ public class PhoneControllerImplTest {
         .value(consume -> consume.getOperationId(), notNullValue(String.class) );
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -275,11 +405,10 @@ public class PhoneControllerImplTest {
 
     final int returnedPhonesExpected = 0;
 
-    doReturn(Flux.empty()).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Collections.emptyList(), page, pageSize,
+        totalCount))).when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -299,8 +428,8 @@ public class PhoneControllerImplTest {
         .value(consume -> consume.getPhones().size(), equalTo(returnedPhonesExpected));        
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -322,11 +451,10 @@ public class PhoneControllerImplTest {
     final PhoneDto expectedPhoneDto = TestFeatures.createPhoneDto(phoneId, phoneName,
         phoneDescription, phonePrice, phoneImageURL);
 
-    doReturn(Flux.just(entity)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -349,8 +477,8 @@ public class PhoneControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -383,11 +511,10 @@ public class PhoneControllerImplTest {
     final PhoneDto expectedPhoneDto2 = TestFeatures.createPhoneDto(phoneId2, phoneName2,
         phoneDescription2, phonePrice2, phoneImageURL2);
 
-    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity1, entity2), page, pageSize,
+        totalCount))).when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -411,8 +538,8 @@ public class PhoneControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -443,11 +570,10 @@ public class PhoneControllerImplTest {
     final PhoneDto expectedPhoneDto1 = TestFeatures.createPhoneDto(phoneId1, phoneName1,
         phoneDescription1, phonePrice1, phoneImageURL1);
 
-    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity1), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -466,12 +592,13 @@ public class PhoneControllerImplTest {
         .value(consume -> consume.getPhones(), notNullValue())
         .value(consume -> consume.getPhones().size(), equalTo(returnedPhonesExpected))
         .value(consume -> consume.getPhones().get(0), equalTo(expectedPhoneDto1))
+        .value(consume -> consume.getNext(), equalTo(ContinuationTokens.encode(phoneId1)))
         ;
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
   @Test
@@ -502,11 +629,10 @@ public class PhoneControllerImplTest {
     final PhoneDto expectedPhoneDto2 = TestFeatures.createPhoneDto(phoneId2, phoneName2,
         phoneDescription2, phonePrice2, phoneImageURL2);
 
-    doReturn(Flux.just(entity1, entity2)).when(this.repository).findAll();
-    doReturn(Mono.just(totalCount)).when(this.repository).count();
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity2), page, pageSize, totalCount)))
+        .when(this.repository).findPage(any(Pageable.class));
 
-    verify(this.repository, never()).findAll();
-    verify(this.repository, never()).count();
+    verify(this.repository, never()).findPage(any(Pageable.class));
 
     // @formatter:off
     webTestClient.get()
@@ -529,8 +655,8 @@ public class PhoneControllerImplTest {
     
     // @formatter:on
 
-    verify(this.repository, times(1)).findAll();
-    verify(this.repository, times(1)).count();
+    verify(this.repository, times(1))
+        .findPage(PageRequest.of(page - 1, pageSize, Sort.by("id")));
   }
 
 
@@ -629,6 +755,73 @@ public class PhoneControllerImplTest {
   }
 
 
+  @Test
+  void testLookupPhones_returns_found_and_missing_phoneIds() {
+    final String phoneId1 = "1";
+    final String phoneId2 = "2";
+    final String phoneId3 = "3";
+
+    final PhoneEntity entity1 = TestFeatures.createPhoneEntity(phoneId1, "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneEntity entity3 = TestFeatures.createPhoneEntity(phoneId3, "phoneName3",
+        "phoneDescription3", 3.0, "phoneImageURL3");
+    final PhoneDto expectedPhoneDto1 = TestFeatures.createPhoneDto(phoneId1, "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneDto expectedPhoneDto3 = TestFeatures.createPhoneDto(phoneId3, "phoneName3",
+        "phoneDescription3", 3.0, "phoneImageURL3");
+
+    final PhoneLookupDto lookup = PhoneLookupDto.builder().phoneId(phoneId3).phoneId(phoneId2)
+        .phoneId(phoneId1).phoneId(phoneId3).build();
+
+    doReturn(Flux.just(entity1, entity3)).when(this.repository).findByIdIn(anyCollection());
+
+    verify(this.repository, never()).findByIdIn(anyCollection());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/lookup"))
+            .build())
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(lookup)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody(PhoneLookupResultDto.class)
+        .value(consume -> consume.getPhones().size(), equalTo(2))
+        .value(consume -> consume.getPhones().get(0), equalTo(expectedPhoneDto3))
+        .value(consume -> consume.getPhones().get(1), equalTo(expectedPhoneDto1))
+        .value(consume -> consume.getMissingPhoneIds(), equalTo(Arrays.asList(phoneId2)))
+        ;
+    // @formatter:on
+
+    verify(this.repository, times(1)).findByIdIn(anyCollection());
+  }
+
+  @Test
+  void testLookupPhones_returns_400_when_phoneIds_is_empty() {
+    final PhoneLookupDto lookup = PhoneLookupDto.builder().build();
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/lookup"))
+            .build())
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(lookup)
+        .exchange()
+          .expectStatus()
+            .isBadRequest()
+        .expectBody(ErrorResponse.class)
+        .value(consume -> consume.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()))
+        .value(consume -> consume.getOperationId(), notNullValue(String.class))
+        ;
+    // @formatter:on
+
+    verify(this.repository, never()).findByIdIn(anyCollection());
+  }
+
+
   @Test
   void testPostAddPhoneToCatalog_save_method_returns_error() {
     final String phoneName = "phoneName";
@@ -970,9 +1163,355 @@ public class PhoneControllerImplTest {
 
 
 
+  @Test
+  void testGetPhoneChanges_returns_the_upserts_and_deletions_since_the_version() {
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneDto expectedPhoneDto = TestFeatures.createPhoneDto("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+
+    entity.setVersion(5L);
+    doReturn(Mono.just(7L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.just(Instant.now())).when(this.repository).findWrittenAt(4L);
+    doReturn(Flux.just(entity)).when(this.repository).findChangedSince(4L, 1001);
+    doReturn(Flux.just(PhoneTombstoneEntity.builder().id("2").version(6L).build()))
+        .when(this.repository).findDeletedSince(4L, 1001);
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/changes"))
+            .queryParam("since", 4L)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody(PhoneChangesDto.class)
+        .value(consume -> consume.getVersion(), equalTo(6L))
+        .value(consume -> consume.getUpserts(), equalTo(Arrays.asList(expectedPhoneDto)))
+        .value(consume -> consume.getDeletedPhoneIds(), equalTo(Arrays.asList("2")))
+        .value(consume -> consume.getMore(), equalTo(false))
+        .value(consume -> consume.getReload(), equalTo(false));
+    // @formatter:on
+
+    verify(this.repository, times(1)).findChangedSince(4L, 1001);
+    verify(this.repository, times(1)).findDeletedSince(4L, 1001);
+  }
+
+  @Test
+  void testGetPhoneChanges_without_since_returns_only_the_current_version() {
+    doReturn(Mono.just(7L)).when(this.repository).currentCatalogVersion();
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/changes"))
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody(PhoneChangesDto.class)
+        .value(consume -> consume.getVersion(), equalTo(7L))
+        .value(consume -> consume.getUpserts().size(), equalTo(0))
+        .value(consume -> consume.getDeletedPhoneIds().size(), equalTo(0));
+    // @formatter:on
+
+    verify(this.repository, never()).findChangedSince(anyLong(), anyInt());
+    verify(this.repository, never()).findDeletedSince(anyLong(), anyInt());
+  }
+
+  @Test
+  void testGetPhoneChanges_returns_400_when_since_is_negative() {
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/changes"))
+            .queryParam("since", -1)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isBadRequest()
+        .expectBody(ErrorResponse.class)
+        .value(consume -> consume.getStatus(), equalTo(HttpStatus.BAD_REQUEST.value()))
+        .value(consume -> consume.getOperationId(), notNullValue(String.class));
+    // @formatter:on
+
+    verify(this.repository, never()).currentCatalogVersion();
+  }
+
+  @Test
+  void testDeletePhone_returns_204_and_leaves_a_tombstone() {
+    doReturn(Mono.just(true)).when(this.repository).deleteWithTombstone(eq("1"), eq(1L),
+        any(Instant.class));
+
+    // @formatter:off
+    webTestClient.delete()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{phoneId}"))
+            .build("1"))
+        .exchange()
+          .expectStatus()
+            .isNoContent()
+        .expectBody()
+          .isEmpty();
+    // @formatter:on
+
+    verify(this.repository, times(1)).deleteWithTombstone(eq("1"), eq(1L), any(Instant.class));
+  }
+
+  @Test
+  void testDeletePhone_phoneId_notFound() {
+    final String errorMessage = "Resource not found!";
+    doReturn(Mono.just(false)).when(this.repository).deleteWithTombstone(eq("1"), eq(1L),
+        any(Instant.class));
+
+    // @formatter:off
+    webTestClient.delete()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{phoneId}"))
+            .build("1"))
+        .exchange()
+          .expectStatus()
+            .isNotFound()
+        .expectBody(ErrorResponse.class)
+        .value(consume -> consume.getStatus(), equalTo(HttpStatus.NOT_FOUND.value()))
+        .value(consume -> consume.getErrorMessage(), equalTo(errorMessage));
+    // @formatter:on
+  }
+
+  @Test
+  void testGetPhoneById_returns_the_entity_tag_and_304_when_it_still_matches() {
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final String eTag = ETags.weakOf(TestFeatures.createPhoneDto("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1"));
+
+    doReturn(Mono.just(entity)).when(this.repository).findById("1");
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{phoneId}"))
+            .build("1"))
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, eTag);
+
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{phoneId}"))
+            .build("1"))
+        .accept(MediaType.APPLICATION_JSON)
+        .ifNoneMatch(eTag)
+        .exchange()
+          .expectStatus()
+            .isNotModified()
+          .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, eTag)
+        .expectBody()
+          .isEmpty();
+    // @formatter:on
+  }
+
+  @Test
+  void testGetPhoneById_returns_the_phone_when_the_entity_tag_changed() {
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 2.0, "phoneImageURL1");
+    final String staleETag = ETags.weakOf(TestFeatures.createPhoneDto("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1"));
+
+    doReturn(Mono.just(entity)).when(this.repository).findById("1");
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/{phoneId}"))
+            .build("1"))
+        .accept(MediaType.APPLICATION_JSON)
+        .ifNoneMatch(staleETag)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBody(PhoneDto.class)
+        .value(consume -> consume.getPrice(), equalTo(2.0));
+    // @formatter:on
+  }
+
+  @Test
+  void testGetPhoneCatalog_returns_304_when_the_page_did_not_change() {
+    final int page = 1;
+    final int pageSize = 10;
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), page, pageSize, 1L)))
+        .when(this.repository).findPage(any(Pageable.class));
+
+    // @formatter:off
+    final String eTag = webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .returnResult(PhoneCatalogDto.class)
+          .getResponseHeaders()
+            .getETag();
+
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .build())
+        .accept(MediaType.APPLICATION_JSON)
+        .ifNoneMatch(eTag)
+        .exchange()
+          .expectStatus()
+            .isNotModified()
+        .expectBody()
+          .isEmpty();
+    // @formatter:on
+
+    verify(this.repository, times(2)).findPage(any(Pageable.class));
+  }
+
+  @Test
+  void testGetPhoneCatalog_returns_smile_when_it_is_accepted() {
+    final int page = 1;
+    final int pageSize = 10;
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneDto expectedPhoneDto = TestFeatures.createPhoneDto("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), page, pageSize, 1L)))
+        .when(this.repository).findPage(any(Pageable.class));
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .build())
+        .accept(SMILE, MediaType.APPLICATION_JSON)
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentType(SMILE)
+        .expectBody(PhoneCatalogDto.class)
+        .value(consume -> consume.getTotalCount(), equalTo(1L))
+        .value(consume -> consume.getPhones().get(0), equalTo(expectedPhoneDto));
+    // @formatter:on
+  }
+
+  @Test
+  void testGetPhoneCatalog_returns_json_when_any_type_is_accepted() {
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+
+    doReturn(Mono.just(TestFeatures.createPage(Arrays.asList(entity), 1, 10, 1L)))
+        .when(this.repository).findPage(any(Pageable.class));
+
+    // @formatter:off
+    webTestClient.get()
+        .uri(uriBuilder -> uriBuilder.path(URL)
+            .build())
+        .accept(MediaType.ALL)
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentType(MediaType.APPLICATION_JSON);
+    // @formatter:on
+  }
+
+  @Test
+  void testLookupPhones_consumes_and_produces_smile() {
+    final PhoneEntity entity = TestFeatures.createPhoneEntity("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+    final PhoneDto expectedPhoneDto = TestFeatures.createPhoneDto("1", "phoneName1",
+        "phoneDescription1", 1.0, "phoneImageURL1");
+
+    doReturn(Flux.just(entity)).when(this.repository).findByIdIn(anyCollection());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/lookup"))
+            .build())
+        .contentType(SMILE)
+        .accept(SMILE)
+        .bodyValue(PhoneLookupDto.builder().phoneId("1").phoneId("2").build())
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentType(SMILE)
+        .expectBody(PhoneLookupResultDto.class)
+        .value(consume -> consume.getPhones(), equalTo(Arrays.asList(expectedPhoneDto)))
+        .value(consume -> consume.getMissingPhoneIds(), equalTo(Arrays.asList("2")));
+    // @formatter:on
+  }
+
+  @Test
+  void testPostImport_ndjson_streams_the_failed_lines_and_the_progress() {
+    final String valid = "{\"name\":\"phoneName\",\"description\":\"phoneDescription\","
+        + "\"price\":1.0,\"imageURL\":\"phoneImageURL\"}";
+    final String invalid = "{\"name\":\"phoneName\",\"description\":\"phoneDescription\","
+        + "\"price\":-1.0,\"imageURL\":\"phoneImageURL\"}";
+
+    doReturn(Mono.just(PhoneUpsertResult.builder().inserted(2).build())).when(this.repository)
+        .upsertByName(anyList());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/import"))
+            .build())
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .accept(MediaType.APPLICATION_NDJSON)
+        .bodyValue(String.join("\n", valid, invalid, valid))
+        .exchange()
+          .expectStatus()
+            .isOk()
+          .expectHeader()
+            .contentType(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(PhoneImportReportDto.class)
+        .value(reports -> reports.size(), equalTo(3))
+        .value(reports -> reports.get(0).getLine(), equalTo(2L))
+        .value(reports -> reports.get(0).getError(),
+            equalTo("price: the price cannot be less than 0"))
+        .value(reports -> reports.get(1).getType(), equalTo(PhoneImportReportDto.Type.PROGRESS))
+        .value(reports -> reports.get(2).getType(), equalTo(PhoneImportReportDto.Type.SUMMARY))
+        .value(reports -> reports.get(2).getProcessed(), equalTo(3L))
+        .value(reports -> reports.get(2).getImported(), equalTo(2L))
+        .value(reports -> reports.get(2).getFailed(), equalTo(1L));
+    // @formatter:on
+
+    verify(this.repository, times(1)).upsertByName(anyList());
+  }
+
+  @Test
+  void testPostImport_csv_is_read_as_csv() {
+    doReturn(Mono.just(PhoneUpsertResult.builder().inserted(1).build())).when(this.repository)
+        .upsertByName(anyList());
+
+    // @formatter:off
+    webTestClient.post()
+        .uri(uriBuilder -> uriBuilder.path(URL.concat("/import"))
+            .build())
+        .contentType(MediaType.valueOf(InternalMediaTypes.TEXT_CSV_VALUE))
+        .accept(MediaType.APPLICATION_NDJSON)
+        .bodyValue("name,description,price,imageURL\nphoneName,phoneDescription,1,phoneImageURL\n")
+        .exchange()
+          .expectStatus()
+            .isOk()
+        .expectBodyList(PhoneImportReportDto.class)
+        .value(reports -> reports.size(), equalTo(2))
+        .value(reports -> reports.get(1).getType(), equalTo(PhoneImportReportDto.Type.SUMMARY))
+        .value(reports -> reports.get(1).getProcessed(), equalTo(1L))
+        .value(reports -> reports.get(1).getImported(), equalTo(1L));
+    // @formatter:on
+  }
+
   @TestConfiguration
   @EnableAutoConfiguration
-  @Import({PhoneControllerImpl.class, GlobalConfig.class, ErrorManagementConfig.class,
+  @Import({PhoneControllerImpl.class, GlobalConfig.class, PhoneCountProperties.class,
+      PhoneImportProperties.class, PhoneChangesProperties.class, ErrorManagementConfig.class,
       SpecificControllerAdvice.class})
   static class InnerConfiguration {
 
@@ -981,6 +1520,11 @@ public class PhoneControllerImplTest {
       return mock(PhoneRepository.class);
     }
 
+    @Bean
+    public MeterRegistry meterRegistry() {
+      return new SimpleMeterRegistry();
+    }
+
     @Bean
     public Tracer tracer() {
       final List<Span> spans = new ArrayList<>();
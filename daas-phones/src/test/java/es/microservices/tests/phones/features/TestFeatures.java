@@ -1,6 +1,10 @@
 package es.microservices.tests.phones.features;
 
 
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
 import es.microservices.tests.phones.entities.PhoneEntity;
@@ -27,6 +31,10 @@ public class TestFeatures {
     return PhoneDto.builder().phoneId(phoneId).name(name).description(description).price(price)
         .imageURL(imageURL).build();
   }
-  
 
-}
\ No newline at end of file
+  public static <T> Page<T> createPage(final List<T> content, final int page, final int pageSize,
+      final long totalCount) {
+    return new PageImpl<>(content, PageRequest.of(page - 1, pageSize), totalCount);
+  }
+
+}
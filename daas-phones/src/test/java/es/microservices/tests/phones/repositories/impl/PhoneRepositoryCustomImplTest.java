@@ -0,0 +1,433 @@
+package es.microservices.tests.phones.repositories.impl;
+
+import static es.microservices.tests.phones.features.TestFeatures.createPhoneEntity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypeBasedAggregationOperationContext;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
+import es.microservices.tests.phones.repositories.PhoneUpsertResult;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class PhoneRepositoryCustomImplTest {
+
+  private ReactiveMongoTemplate template;
+  private MongoMappingContext mappingContext;
+  private MappingMongoConverter converter;
+  private PhoneRepositoryCustomImpl repository;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.mappingContext = new MongoMappingContext();
+    this.converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, this.mappingContext);
+    this.converter.afterPropertiesSet();
+    this.template = mock(ReactiveMongoTemplate.class);
+    doReturn(this.converter).when(this.template).getConverter();
+    this.repository = new PhoneRepositoryCustomImpl(this.template);
+  }
+
+  @Test
+  void template_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new PhoneRepositoryCustomImpl(null);
+    });
+
+    final String expectedMessage = "'template' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void findPage_sorts_then_pages_and_counts_in_a_single_facet() {
+    final PhoneEntity phone = createPhoneEntity("3", "phoneName", "phoneDescription", 1.0,
+        "phoneImageURL");
+    final Document phoneDocument = new Document();
+    this.converter.write(phone, phoneDocument);
+    final Document result = new Document("content", Arrays.asList(phoneDocument)).append("total",
+        Arrays.asList(new Document("total", 21)));
+    doReturn(Flux.just(result)).when(this.template).aggregate(any(TypedAggregation.class),
+        eq(Document.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findPage(PageRequest.of(2, 10, Sort.by("id"))))
+      .assertNext(page -> {
+        assertEquals(21L, page.getTotalElements());
+        assertEquals(Arrays.asList(phone), page.getContent());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<TypedAggregation<PhoneEntity>> aggregation =
+        ArgumentCaptor.forClass(TypedAggregation.class);
+    verify(this.template).aggregate(aggregation.capture(), eq(Document.class));
+    final List<Document> pipeline = aggregation.getValue()
+        .toPipeline(new TypeBasedAggregationOperationContext(PhoneEntity.class,
+            this.mappingContext, new QueryMapper(this.converter)));
+
+    assertEquals(2, pipeline.size());
+    assertEquals(new Document("$sort", new Document("_id", 1)), pipeline.get(0));
+    assertEquals(new Document("$facet", new Document("content",
+        Arrays.asList(new Document("$skip", 20L), new Document("$limit", 10L)))
+            .append("total", Arrays.asList(new Document("$count", "total")))),
+        pipeline.get(1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void findPage_of_an_empty_collection() {
+    final Document result = new Document("content", Collections.emptyList()).append("total",
+        Collections.emptyList());
+    doReturn(Flux.just(result)).when(this.template).aggregate(any(TypedAggregation.class),
+        eq(Document.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findPage(PageRequest.of(0, 10)))
+      .assertNext(page -> {
+        assertEquals(0L, page.getTotalElements());
+        assertEquals(0, page.getContent().size());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findAfter_starts_right_after_the_last_identifier() {
+    final PhoneEntity phone = createPhoneEntity("4", "phoneName", "phoneDescription", 1.0,
+        "phoneImageURL");
+    doReturn(Flux.just(phone)).when(this.template).find(any(Query.class), eq(PhoneEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findAfter("3", 11))
+      .expectNext(phone)
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(this.template).find(query.capture(), eq(PhoneEntity.class));
+
+    assertEquals(new Document("id", new Document("$gt", "3")), query.getValue().getQueryObject());
+    assertEquals(new Document("id", 1), query.getValue().getSortObject());
+    assertEquals(11, query.getValue().getLimit());
+  }
+
+  @Test
+  void findAfter_without_last_identifier_starts_from_the_first_phone() {
+    doReturn(Flux.empty()).when(this.template).find(any(Query.class), eq(PhoneEntity.class));
+
+    StepVerifier.create(this.repository.findAfter(null, 11)).expectComplete().verify();
+
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(this.template).find(query.capture(), eq(PhoneEntity.class));
+
+    assertEquals(new Document(), query.getValue().getQueryObject());
+  }
+
+  @Test
+  void findAfter_limit_isZero() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.repository.findAfter("3", 0);
+    });
+
+    final String expectedMessage = "'limit' must be greater than zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findSlice_reads_one_phone_more_to_know_whether_there_is_a_next_page() {
+    final PhoneEntity phone1 = createPhoneEntity("1", "phoneName1", "phoneDescription1", 1.0,
+        "phoneImageURL1");
+    final PhoneEntity phone2 = createPhoneEntity("2", "phoneName2", "phoneDescription2", 2.0,
+        "phoneImageURL2");
+    doReturn(Flux.just(phone1, phone2)).when(this.template).find(any(Query.class),
+        eq(PhoneEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findSlice(PageRequest.of(3, 1, Sort.by("id"))))
+      .assertNext(slice -> {
+        assertEquals(Arrays.asList(phone1), slice.getContent());
+        assertEquals(true, slice.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    verify(this.template).find(query.capture(), eq(PhoneEntity.class));
+
+    assertEquals(3L, query.getValue().getSkip());
+    assertEquals(2, query.getValue().getLimit());
+    assertEquals(new Document("id", 1), query.getValue().getSortObject());
+  }
+
+  @Test
+  void findSlice_last_page_has_no_next_page() {
+    final PhoneEntity phone1 = createPhoneEntity("1", "phoneName1", "phoneDescription1", 1.0,
+        "phoneImageURL1");
+    doReturn(Flux.just(phone1)).when(this.template).find(any(Query.class), eq(PhoneEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.findSlice(PageRequest.of(0, 2)))
+      .assertNext(slice -> {
+        assertEquals(Arrays.asList(phone1), slice.getContent());
+        assertEquals(false, slice.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void estimatedCount_reads_the_collection_metadata() {
+    doReturn(Mono.just(42L)).when(this.template).estimatedCount(PhoneEntity.class);
+
+    StepVerifier.create(this.repository.estimatedCount()).expectNext(42L).expectComplete()
+        .verify();
+  }
+
+  @Test
+  void nextCatalogVersion_increments_the_counter_atomically() {
+    final ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+    final ArgumentCaptor<FindAndModifyOptions> options =
+        ArgumentCaptor.forClass(FindAndModifyOptions.class);
+    doReturn(Mono.just(new Document("_id", "phonesCatalog").append("value", 5L)))
+        .when(this.template).findAndModify(any(Query.class), update.capture(),
+            options.capture(), eq(Document.class), eq("catalogVersions"));
+
+    StepVerifier.create(this.repository.nextCatalogVersion()).expectNext(5L).expectComplete()
+        .verify();
+
+    assertEquals(new Document("$inc", new Document("value", 1L)),
+        update.getValue().getUpdateObject());
+    assertTrue(options.getValue().isUpsert());
+    assertTrue(options.getValue().isReturnNew());
+  }
+
+  @Test
+  void currentCatalogVersion_is_zero_before_the_first_write() {
+    doReturn(Mono.empty()).when(this.template).findOne(any(Query.class), eq(Document.class),
+        eq("catalogVersions"));
+
+    StepVerifier.create(this.repository.currentCatalogVersion()).expectNext(0L).expectComplete()
+        .verify();
+  }
+
+  @Test
+  void findChangedSince_reads_the_phones_written_after_the_version_in_version_order() {
+    final PhoneEntity phone = createPhoneEntity("1", "phoneName1", "phoneDescription1", 1.0,
+        "phoneImageURL1");
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    doReturn(Flux.just(phone)).when(this.template).find(query.capture(), eq(PhoneEntity.class));
+
+    StepVerifier.create(this.repository.findChangedSince(3L, 10)).expectNext(phone)
+        .expectComplete().verify();
+
+    assertEquals(new Document("version", new Document("$gt", 3L)),
+        query.getValue().getQueryObject());
+    assertEquals(new Document("version", 1), query.getValue().getSortObject());
+    assertEquals(10, query.getValue().getLimit());
+  }
+
+  @Test
+  void findChangedAt_reads_the_phones_written_with_the_version() {
+    final PhoneEntity phone = createPhoneEntity("1", "phoneName1", "phoneDescription1", 1.0,
+        "phoneImageURL1");
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    doReturn(Flux.just(phone)).when(this.template).find(query.capture(), eq(PhoneEntity.class));
+
+    StepVerifier.create(this.repository.findChangedAt(3L)).expectNext(phone).expectComplete()
+        .verify();
+
+    assertEquals(new Document("version", 3L), query.getValue().getQueryObject());
+  }
+
+  @Test
+  void findWrittenAt_is_the_last_write_up_to_the_version_of_the_phones_and_the_tombstones() {
+    final Instant modified = Instant.parse("2021-02-01T10:00:00Z");
+    final Instant deleted = Instant.parse("2021-02-02T10:00:00Z");
+    final PhoneEntity phone = PhoneEntity.builder().id("1").version(4L).lastModified(modified)
+        .build();
+    final ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+    doReturn(Mono.just(phone)).when(this.template).findOne(query.capture(), eq(PhoneEntity.class));
+    doReturn(Mono.just(
+        PhoneTombstoneEntity.builder().id("2").version(5L).deletedAt(deleted).build()))
+            .when(this.template).findOne(any(Query.class), eq(PhoneTombstoneEntity.class));
+
+    StepVerifier.create(this.repository.findWrittenAt(6L)).expectNext(deleted).expectComplete()
+        .verify();
+
+    assertEquals(new Document("version", new Document("$lte", 6L)),
+        query.getValue().getQueryObject());
+    assertEquals(new Document("version", -1), query.getValue().getSortObject());
+    assertEquals(1, query.getValue().getLimit());
+  }
+
+  @Test
+  void findWrittenAt_is_empty_when_nothing_was_written_up_to_the_version() {
+    doReturn(Mono.empty()).when(this.template).findOne(any(Query.class), eq(PhoneEntity.class));
+    doReturn(Mono.empty()).when(this.template).findOne(any(Query.class),
+        eq(PhoneTombstoneEntity.class));
+
+    StepVerifier.create(this.repository.findWrittenAt(6L)).expectComplete().verify();
+  }
+
+  @Test
+  void deleteWithTombstone_saves_the_tombstone_before_removing_the_phone() {
+    final Instant deletedAt = Instant.parse("2021-02-01T10:00:00Z");
+    final PhoneTombstoneEntity tombstone =
+        PhoneTombstoneEntity.builder().id("1").version(4L).deletedAt(deletedAt).build();
+    doReturn(Mono.just(true)).when(this.template).exists(any(Query.class), eq(PhoneEntity.class));
+    doReturn(Mono.just(DeleteResult.acknowledged(1L))).when(this.template)
+        .remove(any(Query.class), eq(PhoneEntity.class));
+    doReturn(Mono.just(tombstone)).when(this.template).save(tombstone);
+
+    StepVerifier.create(this.repository.deleteWithTombstone("1", 4L, deletedAt)).expectNext(true)
+        .expectComplete().verify();
+
+    final InOrder inOrder = inOrder(this.template);
+    inOrder.verify(this.template).save(tombstone);
+    inOrder.verify(this.template).remove(any(Query.class), eq(PhoneEntity.class));
+  }
+
+  @Test
+  void deleteWithTombstone_keeps_the_phone_when_its_tombstone_cannot_be_saved() {
+    doReturn(Mono.just(true)).when(this.template).exists(any(Query.class), eq(PhoneEntity.class));
+    doReturn(Mono.error(new DataAccessResourceFailureException("unavailable")))
+        .when(this.template).save(any(PhoneTombstoneEntity.class));
+
+    StepVerifier.create(this.repository.deleteWithTombstone("1", 4L, Instant.now()))
+        .expectError(DataAccessResourceFailureException.class).verify();
+
+    verify(this.template, never()).remove(any(Query.class), eq(PhoneEntity.class));
+  }
+
+  @Test
+  void deleteWithTombstone_of_a_missing_phone_leaves_no_tombstone() {
+    doReturn(Mono.just(false)).when(this.template).exists(any(Query.class), eq(PhoneEntity.class));
+
+    StepVerifier.create(this.repository.deleteWithTombstone("1", 4L, Instant.now()))
+        .expectNext(false).expectComplete().verify();
+
+    verify(this.template, never()).save(any(PhoneTombstoneEntity.class));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void upsertByName_writes_unordered_upserts_keyed_by_name() {
+    final MongoCollection<Document> collection = mock(MongoCollection.class);
+    final PhoneEntity phone = createPhoneEntity("1", "phoneName", "phoneDescription", 1.0,
+        "phoneImageURL");
+    doReturn("phonesCatalog").when(this.template).getCollectionName(PhoneEntity.class);
+    doReturn(Mono.just(collection)).when(this.template).getCollection("phonesCatalog");
+    doReturn(Mono.just(BulkWriteResult.acknowledged(0, 0, 0, 0,
+        Arrays.asList(new BulkWriteUpsert(0, new BsonString("1"))), Collections.emptyList())))
+            .when(collection).bulkWrite(anyList(), any(BulkWriteOptions.class));
+
+    StepVerifier.create(this.repository.upsertByName(Arrays.asList(phone)))
+        .expectNext(PhoneUpsertResult.builder().inserted(1).build()).expectComplete().verify();
+
+    final ArgumentCaptor<List<WriteModel<Document>>> upserts = ArgumentCaptor.forClass(List.class);
+    final ArgumentCaptor<BulkWriteOptions> options =
+        ArgumentCaptor.forClass(BulkWriteOptions.class);
+    verify(collection).bulkWrite(upserts.capture(), options.capture());
+    final UpdateOneModel<Document> upsert =
+        (UpdateOneModel<Document>) upserts.getValue().get(0);
+    final Document update = (Document) upsert.getUpdate();
+    assertEquals(new Document("name", "phoneName"), upsert.getFilter());
+    assertEquals(new Document("_id", "1"), update.get("$setOnInsert"));
+    assertEquals("phoneDescription", update.get("$set", Document.class).get("description"));
+    assertFalse(update.get("$set", Document.class).containsKey("_id"));
+    assertTrue(upsert.getOptions().isUpsert());
+    assertEquals(false, options.getValue().isOrdered());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void upsertByName_returns_the_write_errors_by_position() {
+    final MongoCollection<Document> collection = mock(MongoCollection.class);
+    final PhoneEntity phone1 = createPhoneEntity("1", "phoneName1", "phoneDescription", 1.0,
+        "phoneImageURL");
+    final PhoneEntity phone2 = createPhoneEntity("2", "phoneName2", "phoneDescription", 1.0,
+        "phoneImageURL");
+    final MongoBulkWriteException exception = new MongoBulkWriteException(
+        BulkWriteResult.acknowledged(0, 0, 0, 0,
+            Arrays.asList(new BulkWriteUpsert(0, new BsonString("1"))), Collections.emptyList()),
+        Arrays.asList(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1)),
+        null, new ServerAddress());
+    doReturn("phonesCatalog").when(this.template).getCollectionName(PhoneEntity.class);
+    doReturn(Mono.just(collection)).when(this.template).getCollection("phonesCatalog");
+    doReturn(Mono.error(exception)).when(collection).bulkWrite(anyList(),
+        any(BulkWriteOptions.class));
+
+    // @formatter:off
+    StepVerifier.create(this.repository.upsertByName(Arrays.asList(phone1, phone2)))
+        .expectNext(PhoneUpsertResult.builder()
+            .inserted(1)
+            .error(1, "E11000 duplicate key")
+            .build())
+        .expectComplete()
+        .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void upsertByName_phones_isEmpty() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.repository.upsertByName(Collections.emptyList());
+    });
+
+    assertEquals("'phones' must not be null or empty", exception.getMessage());
+  }
+
+}
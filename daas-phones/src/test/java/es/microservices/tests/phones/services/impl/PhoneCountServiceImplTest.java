@@ -0,0 +1,79 @@
+package es.microservices.tests.phones.services.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import es.microservices.tests.common.counts.CountStrategy;
+import es.microservices.tests.phones.configurations.properties.PhoneCountProperties;
+import es.microservices.tests.phones.repositories.PhoneRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * The strategies themselves are tested with the DocumentCounter of the common module.
+ */
+class PhoneCountServiceImplTest {
+
+  private PhoneRepository repository;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void beforeEach() {
+    this.repository = mock(PhoneRepository.class);
+    this.meterRegistry = new SimpleMeterRegistry();
+  }
+
+  @Test
+  void repository_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      new PhoneCountServiceImpl(null);
+    });
+
+    final String expectedMessage = "'repository' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void estimated_reads_the_estimated_count_of_the_repository() {
+    try (PhoneCountServiceImpl service = create(CountStrategy.ESTIMATED)) {
+      doReturn(Mono.just(9L)).when(this.repository).estimatedCount();
+
+      StepVerifier.create(service.countAllPhones()).expectNext(9L).expectComplete().verify();
+
+      verify(this.repository, never()).count();
+      assertEquals(1, this.meterRegistry.find("phones.count.drift").gauges().size());
+    }
+  }
+
+  @Test
+  void counter_follows_the_phones_added_and_removed() {
+    try (PhoneCountServiceImpl service = create(CountStrategy.COUNTER)) {
+      doReturn(Mono.just(5L)).when(this.repository).count();
+
+      StepVerifier.create(service.countAllPhones()).expectNext(5L).expectComplete().verify();
+      service.phonesAdded(2);
+      service.phonesRemoved(1);
+      StepVerifier.create(service.countAllPhones()).expectNext(6L).expectComplete().verify();
+    }
+  }
+
+  private PhoneCountServiceImpl create(final CountStrategy strategy) {
+    // @formatter:off
+    final PhoneCountProperties properties = PhoneCountProperties.builder()
+        .strategy(strategy)
+        .reconcileInterval(Duration.ofMinutes(1))
+        .build();
+    // @formatter:on
+    return new PhoneCountServiceImpl(this.repository, properties, this.meterRegistry);
+  }
+}
@@ -3,32 +3,66 @@ package es.microservices.tests.phones.services.impl;
 import static es.microservices.tests.phones.features.TestFeatures.createNewPhoneDto;
 import static es.microservices.tests.phones.features.TestFeatures.createPhoneEntity;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import es.microservices.tests.phones.configurations.properties.PhoneChangesProperties;
+import es.microservices.tests.phones.configurations.properties.PhoneImportProperties;
 import es.microservices.tests.phones.dtos.NewPhoneDto;
+import es.microservices.tests.phones.dtos.PhoneChangesDto;
 import es.microservices.tests.phones.dtos.PhoneDto;
+import es.microservices.tests.phones.dtos.PhoneImportReportDto;
 import es.microservices.tests.phones.entities.PhoneEntity;
+import es.microservices.tests.phones.entities.PhoneTombstoneEntity;
 import es.microservices.tests.phones.mappers.Mapper;
 import es.microservices.tests.phones.mappers.impl.NewPhoneDto2PhoneEntityMapper;
 import es.microservices.tests.phones.mappers.impl.PhoneEntity2PhoneDtoMapper;
 import es.microservices.tests.phones.repositories.PhoneRepository;
+import es.microservices.tests.phones.repositories.PhoneUpsertResult;
+import es.microservices.tests.phones.services.PhoneCountService;
+import es.microservices.tests.phones.services.PhoneImportFormat;
 import es.microservices.tests.phones.services.PhoneService;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 class PhoneServiceImplTest {
@@ -49,6 +83,7 @@ class PhoneServiceImplTest {
     this.repository = mock(PhoneRepository.class);
     this.service =
         new PhoneServiceImpl(this.repository, this.dto2EntityMapper, this.entity2DtoMapper);
+    doReturn(Mono.just(1L)).when(this.repository).nextCatalogVersion();
   }
 
   @Test
@@ -182,6 +217,205 @@ class PhoneServiceImplTest {
     verify(this.repository, times(1)).findAll();
   }
 
+  @Test
+  void findPhonesPage_pageable_isNull() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.service.findPhonesPage(null);
+    });
+
+    final String expectedMessage = "'pageable' must not be null";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findPhonesPage_maps_the_page_returned_by_the_repository() {
+    final PhoneEntity phone1 =
+        createPhoneEntity("1", "phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    final Pageable pageable = PageRequest.of(1, 1);
+    doReturn(Mono.just(new PageImpl<>(Arrays.asList(phone1), pageable, 5L))).when(this.repository)
+        .findPage(pageable);
+
+    final Mono<Page<PhoneDto>> monoPage = this.service.findPhonesPage(pageable);
+
+    verify(this.repository, never()).findPage(any(Pageable.class));
+
+    // @formatter:off
+    StepVerifier.create(monoPage)
+      .assertNext(page -> {
+        assertEquals(5L, page.getTotalElements());
+        assertEquals(1, page.getContent().size());
+        assertEquals("1", page.getContent().get(0).getPhoneId());
+        assertEquals(305.33, page.getContent().get(0).getPrice());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findPage(pageable);
+    verify(this.repository, never()).findAll();
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void findPhonesAfter_maps_the_phones_returned_by_the_repository() {
+    final PhoneEntity phone2 =
+        createPhoneEntity("2", "phoneName2", "phone2Description", 900.95, "phone2ImageURL");
+    doReturn(Flux.just(phone2)).when(this.repository).findAfter("1", 3);
+
+    final Flux<PhoneDto> fluxPhones = this.service.findPhonesAfter("1", 3);
+
+    verify(this.repository, never()).findAfter(anyString(), anyInt());
+
+    // @formatter:off
+    StepVerifier.create(fluxPhones)
+      .assertNext(phone -> {
+        assertEquals("2", phone.getPhoneId());
+        assertEquals(900.95, phone.getPrice());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findAfter("1", 3);
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void findPhonesAfter_limit_isZero() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.service.findPhonesAfter("1", 0);
+    });
+
+    final String expectedMessage = "'limit' must be greater than zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  void findPhonesPage_with_an_estimated_count_reads_a_slice_and_the_count() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    final PhoneService estimatedService = new PhoneServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final PhoneEntity phone1 =
+        createPhoneEntity("1", "phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    final Pageable pageable = PageRequest.of(1, 1);
+    doReturn(false).when(countService).isExact();
+    doReturn(Mono.just(3L)).when(countService).countAllPhones();
+    doReturn(Mono.just(new SliceImpl<>(Arrays.asList(phone1), pageable, true)))
+        .when(this.repository).findSlice(pageable);
+
+    // @formatter:off
+    StepVerifier.create(estimatedService.findPhonesPage(pageable))
+      .assertNext(page -> {
+        assertEquals(3L, page.getTotalElements());
+        assertEquals("1", page.getContent().get(0).getPhoneId());
+        assertTrue(page.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findPage(any(Pageable.class));
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void findPhonesPage_keeps_the_estimated_count_on_an_empty_slice_past_the_last_page() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    final PhoneService estimatedService = new PhoneServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final Pageable pageable = PageRequest.of(5, 10);
+    doReturn(false).when(countService).isExact();
+    doReturn(Mono.just(42L)).when(countService).countAllPhones();
+    doReturn(Mono.just(new SliceImpl<>(Collections.emptyList(), pageable, false)))
+        .when(this.repository).findSlice(pageable);
+
+    // @formatter:off
+    StepVerifier.create(estimatedService.findPhonesPage(pageable))
+      .assertNext(page -> {
+        assertEquals(42L, page.getTotalElements());
+        assertEquals(0, page.getNumberOfElements());
+        assertEquals(false, page.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findPhonesPage_corrects_an_estimated_count_that_disagrees_with_the_slice() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    final PhoneService estimatedService = new PhoneServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final PhoneEntity phone1 =
+        createPhoneEntity("1", "phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    final Pageable pageable = PageRequest.of(1, 1);
+    doReturn(false).when(countService).isExact();
+    doReturn(Mono.just(10L)).when(countService).countAllPhones();
+    doReturn(Mono.just(new SliceImpl<>(Arrays.asList(phone1), pageable, false)))
+        .when(this.repository).findSlice(pageable);
+
+    // @formatter:off
+    StepVerifier.create(estimatedService.findPhonesPage(pageable))
+      .assertNext(page -> {
+        assertEquals(2L, page.getTotalElements());
+        assertEquals(false, page.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findPhonesSlice_maps_the_slice_returned_by_the_repository() {
+    final PhoneEntity phone1 =
+        createPhoneEntity("1", "phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    final Pageable pageable = PageRequest.of(0, 1);
+    doReturn(Mono.just(new SliceImpl<>(Arrays.asList(phone1), pageable, true)))
+        .when(this.repository).findSlice(pageable);
+
+    final Mono<Slice<PhoneDto>> monoSlice = this.service.findPhonesSlice(pageable);
+
+    verify(this.repository, never()).findSlice(any(Pageable.class));
+
+    // @formatter:off
+    StepVerifier.create(monoSlice)
+      .assertNext(slice -> {
+        assertEquals(1, slice.getContent().size());
+        assertEquals("1", slice.getContent().get(0).getPhoneId());
+        assertTrue(slice.hasNext());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findSlice(pageable);
+    verify(this.repository, never()).count();
+  }
+
+  @Test
+  void createPhone_tells_the_count_service() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    final PhoneService countedService = new PhoneServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    final PhoneEntity saved =
+        createPhoneEntity("1", "phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    doReturn(Mono.just(saved)).when(this.repository).save(any(PhoneEntity.class));
+
+    // @formatter:off
+    StepVerifier.create(countedService.createPhone(
+          createNewPhoneDto("phoneName1", "phone1Description", 305.33, "phone1ImageURL")))
+      .expectNextCount(1)
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(countService, times(1)).phonesAdded(1);
+  }
+
   @Test
   void findAllPhones_returnTwoElementsFlux() {
     final String phone1Id = "1";
@@ -389,6 +623,45 @@ class PhoneServiceImplTest {
   }
 
 
+  @Test
+  void findByIds_phoneIds_isEmpty() {
+    final List<String> phoneIds = new ArrayList<>();
+
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.service.findByIds(phoneIds);
+    });
+
+    final String expectedMessage = "'phoneIds' must not be null or empty";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+    verify(this.repository, never()).findByIdIn(anyCollection());
+  }
+
+  @Test
+  void findByIds_returnTheElements() {
+    final PhoneEntity phone1 =
+        createPhoneEntity("1", "phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    final PhoneEntity phone2 =
+        createPhoneEntity("2", "phoneName2", "phone2Description", 105.33, "phone2ImageURL");
+    doReturn(Flux.just(phone1, phone2)).when(this.repository).findByIdIn(anyCollection());
+
+    final Flux<PhoneDto> phones = this.service.findByIds(Arrays.asList("1", "2", "3"));
+
+    verify(this.repository, never()).findByIdIn(anyCollection());
+
+    // @formatter:off
+    StepVerifier.create(phones)
+      .assertNext(phoneDto -> assertEquals("1", phoneDto.getPhoneId()))
+      .assertNext(phoneDto -> assertEquals("2", phoneDto.getPhoneId()))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(1)).findByIdIn(anyCollection());
+  }
+
+
   @Test
   void createPhone_throwsError() {
     final String phoneName = "phoneName1";
@@ -472,4 +745,499 @@ class PhoneServiceImplTest {
     verify(this.repository, times(1)).save(any(PhoneEntity.class));
   }
 
+  @Test
+  void createPhone_stamps_the_next_catalog_version() {
+    final NewPhoneDto newPhone =
+        createNewPhoneDto("phoneName1", "phone1Description", 305.33, "phone1ImageURL");
+    doReturn(Mono.just(8L)).when(this.repository).nextCatalogVersion();
+    doAnswer(invocation -> Mono.just(invocation.getArgument(0))).when(this.repository)
+        .save(any(PhoneEntity.class));
+
+    StepVerifier.create(this.service.createPhone(newPhone)).expectNextCount(1).expectComplete()
+        .verify();
+
+    final ArgumentCaptor<PhoneEntity> saved = ArgumentCaptor.forClass(PhoneEntity.class);
+    verify(this.repository, times(1)).save(saved.capture());
+    assertEquals(8L, saved.getValue().getVersion());
+    assertNotNull(saved.getValue().getLastModified());
+  }
+
+  @Test
+  void deletePhone_leaves_a_tombstone_and_tells_the_count_service() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    final PhoneService countedService = new PhoneServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    doReturn(Mono.just(true)).when(this.repository).deleteWithTombstone(eq("1"), eq(1L),
+        any(Instant.class));
+
+    final Mono<Boolean> deleted = countedService.deletePhone("1");
+
+    verify(this.repository, never()).nextCatalogVersion();
+
+    StepVerifier.create(deleted).expectNext(true).expectComplete().verify();
+
+    verify(this.repository, times(1)).deleteWithTombstone(eq("1"), eq(1L), any(Instant.class));
+    verify(countService, times(1)).phonesRemoved(1);
+  }
+
+  @Test
+  void deletePhone_of_a_missing_phone() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    final PhoneService countedService = new PhoneServiceImpl(this.repository,
+        this.dto2EntityMapper, this.entity2DtoMapper, countService);
+    doReturn(Mono.just(false)).when(this.repository).deleteWithTombstone(eq("1"), eq(1L),
+        any(Instant.class));
+
+    StepVerifier.create(countedService.deletePhone("1")).expectNext(false).expectComplete()
+        .verify();
+
+    verify(countService, never()).phonesRemoved(anyLong());
+  }
+
+  @Test
+  void findChangesSince_returns_the_upserts_the_deletions_and_the_highest_version_sent() {
+    final PhoneEntity phone = changedPhone("1", 6L);
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.just(Instant.now())).when(this.repository).findWrittenAt(5L);
+    doReturn(Flux.just(phone)).when(this.repository).findChangedSince(5L, 1001);
+    doReturn(Flux.just(PhoneTombstoneEntity.builder().id("2").version(7L).build()))
+        .when(this.repository).findDeletedSince(5L, 1001);
+
+    final Mono<PhoneChangesDto> monoChanges = this.service.findChangesSince(5L);
+
+    verify(this.repository, never()).currentCatalogVersion();
+
+    // @formatter:off
+    StepVerifier.create(monoChanges)
+      .assertNext(changes -> {
+        assertEquals(7L, changes.getVersion());
+        assertEquals(1, changes.getUpserts().size());
+        assertEquals("1", changes.getUpserts().get(0).getPhoneId());
+        assertEquals(Arrays.asList("2"), changes.getDeletedPhoneIds());
+        assertFalse(changes.getMore());
+        assertFalse(changes.getReload());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findChangesSince_without_changes_keeps_the_requested_version() {
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.just(Instant.now())).when(this.repository).findWrittenAt(5L);
+    doReturn(Flux.empty()).when(this.repository).findChangedSince(5L, 1001);
+    doReturn(Flux.empty()).when(this.repository).findDeletedSince(5L, 1001);
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(5L))
+      .assertNext(changes -> {
+        assertEquals(5L, changes.getVersion());
+        assertTrue(changes.getUpserts().isEmpty());
+        assertTrue(changes.getDeletedPhoneIds().isEmpty());
+        assertFalse(changes.getMore());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findChangesSince_over_the_limit_reports_more_changes() {
+    this.service = createChangesService(2);
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.just(Instant.now())).when(this.repository).findWrittenAt(5L);
+    doReturn(Flux.just(changedPhone("1", 6L), changedPhone("3", 8L))).when(this.repository)
+        .findChangedSince(5L, 3);
+    doReturn(Flux.just(PhoneTombstoneEntity.builder().id("2").version(7L).build()))
+        .when(this.repository).findDeletedSince(5L, 3);
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(5L))
+      .assertNext(changes -> {
+        assertEquals(7L, changes.getVersion());
+        assertEquals(1, changes.getUpserts().size());
+        assertEquals("1", changes.getUpserts().get(0).getPhoneId());
+        assertEquals(Arrays.asList("2"), changes.getDeletedPhoneIds());
+        assertTrue(changes.getMore());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findChangedAt(anyLong());
+  }
+
+  @Test
+  void findChangesSince_sends_every_phone_of_the_last_version_when_the_limit_falls_inside_it() {
+    this.service = createChangesService(2);
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.just(Instant.now())).when(this.repository).findWrittenAt(5L);
+    doReturn(Flux.just(changedPhone("1", 6L), changedPhone("2", 7L), changedPhone("3", 7L)))
+        .when(this.repository).findChangedSince(5L, 3);
+    doReturn(Flux.empty()).when(this.repository).findDeletedSince(5L, 3);
+    doReturn(Flux.just(changedPhone("2", 7L), changedPhone("3", 7L), changedPhone("4", 7L)))
+        .when(this.repository).findChangedAt(7L);
+    doReturn(Flux.empty()).when(this.repository).findDeletedAt(7L);
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(5L))
+      .assertNext(changes -> {
+        assertEquals(7L, changes.getVersion());
+        assertEquals(Arrays.asList("1", "2", "3", "4"), changes.getUpserts().stream()
+            .map(PhoneDto::getPhoneId).collect(Collectors.toList()));
+        assertTrue(changes.getDeletedPhoneIds().isEmpty());
+        assertTrue(changes.getMore());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void findChangesSince_older_than_the_tombstone_retention_asks_to_reload() {
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.just(Instant.now().minus(Duration.ofDays(8)))).when(this.repository)
+        .findWrittenAt(5L);
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(5L))
+      .assertNext(changes -> {
+        assertEquals(9L, changes.getVersion());
+        assertTrue(changes.getReload());
+        assertTrue(changes.getUpserts().isEmpty());
+        assertTrue(changes.getDeletedPhoneIds().isEmpty());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findChangedSince(anyLong(), anyInt());
+    verify(this.repository, never()).findDeletedSince(anyLong(), anyInt());
+  }
+
+  @Test
+  void findChangesSince_without_writes_up_to_the_version_asks_to_reload() {
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+    doReturn(Mono.empty()).when(this.repository).findWrittenAt(5L);
+
+    StepVerifier.create(this.service.findChangesSince(5L))
+        .assertNext(changes -> assertTrue(changes.getReload())).expectComplete().verify();
+  }
+
+  @Test
+  void findChangesSince_ahead_of_the_catalog_asks_to_reload() {
+    doReturn(Mono.just(3L)).when(this.repository).currentCatalogVersion();
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(5L))
+      .assertNext(changes -> {
+        assertEquals(3L, changes.getVersion());
+        assertTrue(changes.getReload());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findWrittenAt(anyLong());
+  }
+
+  @Test
+  void findChangesSince_the_current_version_is_followable_however_old() {
+    doReturn(Mono.just(5L)).when(this.repository).currentCatalogVersion();
+    doReturn(Flux.empty()).when(this.repository).findChangedSince(5L, 1001);
+    doReturn(Flux.empty()).when(this.repository).findDeletedSince(5L, 1001);
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(5L))
+      .assertNext(changes -> {
+        assertEquals(5L, changes.getVersion());
+        assertFalse(changes.getReload());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findWrittenAt(anyLong());
+  }
+
+  @Test
+  void findChangesSince_without_version_returns_only_the_current_version() {
+    doReturn(Mono.just(9L)).when(this.repository).currentCatalogVersion();
+
+    // @formatter:off
+    StepVerifier.create(this.service.findChangesSince(null))
+      .assertNext(changes -> {
+        assertEquals(9L, changes.getVersion());
+        assertTrue(changes.getUpserts().isEmpty());
+        assertTrue(changes.getDeletedPhoneIds().isEmpty());
+      })
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, never()).findChangedSince(anyLong(), anyInt());
+    verify(this.repository, never()).findDeletedSince(anyLong(), anyInt());
+  }
+
+  @Test
+  void findChangesSince_version_isNegative() {
+    Exception exception = assertThrows(IllegalArgumentException.class, () -> {
+      this.service.findChangesSince(-1L);
+    });
+
+    final String expectedMessage = "'version' must be greater than or equal to zero";
+    final String actualMessage = exception.getMessage();
+
+    assertEquals(expectedMessage, actualMessage);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importPhones_upserts_the_valid_lines_in_chunks_and_reports_the_failed_ones() {
+    final PhoneCountService countService = mock(PhoneCountService.class);
+    this.service = createImportService(countService, 2);
+    final String valid = "{\"name\":\"phoneName\",\"description\":\"phoneDescription\","
+        + "\"price\":1.0,\"imageURL\":\"phoneImageURL\"}";
+    final String invalid = "{\"description\":\"phoneDescription\",\"price\":1.0,"
+        + "\"imageURL\":\"phoneImageURL\"}";
+    final String valid2 = valid.replace("phoneName", "phoneName2");
+
+    // @formatter:off
+    doReturn(Mono.just(PhoneUpsertResult.builder().inserted(2).build()),
+            Mono.just(PhoneUpsertResult.builder().error(0, "E11000 duplicate key").build()))
+        .when(this.repository).upsertByName(anyList());
+
+    StepVerifier.create(this.service.importPhones(
+            Flux.just(valid, valid2, "{\"name\":", invalid, valid), PhoneImportFormat.NDJSON))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 2, 2, 0, report))
+      .assertNext(report -> {
+        assertEquals(3L, report.getLine());
+        assertTrue(report.getError().startsWith("malformed JSON"), report.getError());
+      })
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(4L)
+          .error("name: must not be blank").build())
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 4, 2, 2, report))
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(5L)
+          .error("E11000 duplicate key").build())
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 5, 2, 3, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.SUMMARY, 5, 2, 3, report))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<List<PhoneEntity>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(this.repository, times(2)).upsertByName(chunks.capture());
+    assertEquals(2, chunks.getAllValues().get(0).size());
+    assertEquals(1L, chunks.getAllValues().get(0).get(0).getVersion());
+    assertNotNull(chunks.getAllValues().get(0).get(0).getLastModified());
+    assertEquals(1, chunks.getAllValues().get(1).size());
+    verify(this.repository, times(2)).nextCatalogVersion();
+    verify(countService, times(1)).phonesAdded(2);
+    verify(countService, times(1)).phonesAdded(0);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importPhones_reads_csv_skipping_the_header_and_the_blank_lines() {
+    this.service = createImportService(mock(PhoneCountService.class), 10);
+
+    doReturn(Mono.just(PhoneUpsertResult.builder().inserted(2).build())).when(this.repository)
+        .upsertByName(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.importPhones(Flux.just(
+            "name,description,price,imageURL",
+            "phoneName,\"Big, \"\"fast\"\" phone\",1.5,phoneImageURL",
+            "",
+            "phoneName2,phoneDescription,cheap,phoneImageURL",
+            "phoneName3,phoneDescription,2,phoneImageURL\r"), PhoneImportFormat.CSV))
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(4L)
+          .error("price: not a number 'cheap'").build())
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 3, 2, 1, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.SUMMARY, 3, 2, 1, report))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<List<PhoneEntity>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(this.repository, times(1)).upsertByName(chunks.capture());
+    assertEquals("Big, \"fast\" phone", chunks.getValue().get(0).getDescription());
+    assertEquals(1.5, chunks.getValue().get(0).getPrice());
+    assertEquals("phoneImageURL", chunks.getValue().get(1).getImageURL());
+  }
+
+  @Test
+  void importPhones_reports_every_line_of_a_chunk_that_could_not_be_written() {
+    this.service = createImportService(mock(PhoneCountService.class), 10);
+
+    doReturn(Mono.error(new DataRetrievalFailureException("unavailable"))).when(this.repository)
+        .upsertByName(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.importPhones(Flux.just(
+            "phoneName,phoneDescription,1,phoneImageURL",
+            "phoneName2,phoneDescription,1,phoneImageURL"), PhoneImportFormat.CSV))
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(1L)
+          .error("unavailable").build())
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(2L)
+          .error("unavailable").build())
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 2, 0, 2, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.SUMMARY, 2, 0, 2, report))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void importPhones_only_requests_the_lines_of_the_chunks_being_written() {
+    this.service = createImportService(mock(PhoneCountService.class), 10);
+    final AtomicLong requested = new AtomicLong();
+
+    doReturn(Mono.never()).when(this.repository).upsertByName(anyList());
+
+    final Disposable subscription = this.service
+        .importPhones(Flux.<String>generate(
+            sink -> sink.next("phoneName,phoneDescription,1,phoneImageURL"))
+            .doOnRequest(requested::addAndGet), PhoneImportFormat.CSV)
+        .subscribe();
+    subscription.dispose();
+
+    // one chunk being written and at most one more being filled
+    assertTrue(requested.get() <= 20, "requested " + requested.get());
+    verify(this.repository, times(1)).upsertByName(anyList());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importPhones_writes_a_name_once_per_chunk_with_its_last_line() {
+    this.service = createImportService(mock(PhoneCountService.class), 10);
+
+    doReturn(Mono.just(PhoneUpsertResult.builder().inserted(2).build())).when(this.repository)
+        .upsertByName(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.importPhones(Flux.just(
+            "phoneName,firstDescription,1,phoneImageURL",
+            "phoneName2,phoneDescription,1,phoneImageURL",
+            "phoneName,lastDescription,2,phoneImageURL"), PhoneImportFormat.CSV))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 3, 3, 0, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.SUMMARY, 3, 3, 0, report))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    final ArgumentCaptor<List<PhoneEntity>> chunks = ArgumentCaptor.forClass(List.class);
+    verify(this.repository, times(1)).upsertByName(chunks.capture());
+    assertEquals(2, chunks.getValue().size());
+    assertEquals("phoneName", chunks.getValue().get(0).getName());
+    assertEquals("lastDescription", chunks.getValue().get(0).getDescription());
+    assertEquals("phoneName2", chunks.getValue().get(1).getName());
+  }
+
+  @Test
+  void importPhones_reports_every_line_of_a_name_that_could_not_be_written() {
+    this.service = createImportService(mock(PhoneCountService.class), 10);
+
+    doReturn(Mono.just(PhoneUpsertResult.builder().error(0, "E11000 duplicate key").build()))
+        .when(this.repository).upsertByName(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.importPhones(Flux.just(
+            "phoneName,firstDescription,1,phoneImageURL",
+            "phoneName2,phoneDescription,1,phoneImageURL",
+            "phoneName,lastDescription,2,phoneImageURL"), PhoneImportFormat.CSV))
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(1L)
+          .error("E11000 duplicate key").build())
+      .expectNext(PhoneImportReportDto.builder().type(PhoneImportReportDto.Type.ERROR).line(3L)
+          .error("E11000 duplicate key").build())
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 3, 1, 2, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.SUMMARY, 3, 1, 2, report))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+  }
+
+  @Test
+  void importPhones_writes_the_chunks_with_the_same_name_one_after_the_other() {
+    this.service = createImportService(mock(PhoneCountService.class), 1, 2);
+    final Sinks.One<PhoneUpsertResult> firstChunk = Sinks.one();
+
+    doReturn(firstChunk.asMono(), Mono.just(PhoneUpsertResult.builder().build()))
+        .when(this.repository).upsertByName(anyList());
+
+    // @formatter:off
+    StepVerifier.create(this.service.importPhones(Flux.just(
+            "phoneName,firstDescription,1,phoneImageURL",
+            "phoneName,lastDescription,2,phoneImageURL"), PhoneImportFormat.CSV))
+      .then(() -> {
+        // both chunks are in flight, the second one waits for the first one to be written
+        verify(this.repository, times(1)).upsertByName(anyList());
+        verify(this.repository, times(1)).nextCatalogVersion();
+        firstChunk.tryEmitValue(PhoneUpsertResult.builder().inserted(1).build());
+      })
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 1, 1, 0, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.PROGRESS, 2, 2, 0, report))
+      .assertNext(report -> assertProgress(PhoneImportReportDto.Type.SUMMARY, 2, 2, 0, report))
+      .expectComplete()
+      .verify();
+    // @formatter:on
+
+    verify(this.repository, times(2)).upsertByName(anyList());
+  }
+
+  @Test
+  void importPhones_writes_the_chunks_with_different_names_together() {
+    this.service = createImportService(mock(PhoneCountService.class), 1, 2);
+
+    doReturn(Mono.never()).when(this.repository).upsertByName(anyList());
+
+    final Disposable subscription = this.service.importPhones(Flux.just(
+        "phoneName,phoneDescription,1,phoneImageURL",
+        "phoneName2,phoneDescription,1,phoneImageURL"), PhoneImportFormat.CSV).subscribe();
+
+    verify(this.repository, times(2)).upsertByName(anyList());
+    subscription.dispose();
+  }
+
+  private PhoneService createChangesService(final int limit) {
+    return new PhoneServiceImpl(this.repository, this.dto2EntityMapper, this.entity2DtoMapper,
+        mock(PhoneCountService.class), Validation.buildDefaultValidatorFactory().getValidator(),
+        PhoneImportProperties.builder().build(),
+        PhoneChangesProperties.builder().limit(limit).build());
+  }
+
+  private static PhoneEntity changedPhone(final String phoneId, final long version) {
+    final PhoneEntity phone = createPhoneEntity(phoneId, "phoneName" + phoneId,
+        "phoneDescription" + phoneId, 1.0, "phoneImageURL" + phoneId);
+    phone.setVersion(version);
+    return phone;
+  }
+
+  private PhoneService createImportService(final PhoneCountService countService,
+      final int chunkSize) {
+    return createImportService(countService, chunkSize, 1);
+  }
+
+  private PhoneService createImportService(final PhoneCountService countService,
+      final int chunkSize, final int concurrency) {
+    // @formatter:off
+    final PhoneImportProperties importProperties = PhoneImportProperties.builder()
+        .chunkSize(chunkSize)
+        .concurrency(concurrency)
+        .build();
+    // @formatter:on
+    return new PhoneServiceImpl(this.repository, this.dto2EntityMapper, this.entity2DtoMapper,
+        countService, Validation.buildDefaultValidatorFactory().getValidator(), importProperties);
+  }
+
+  private static void assertProgress(final PhoneImportReportDto.Type type, final long processed,
+      final long imported, final long failed, final PhoneImportReportDto report) {
+    assertEquals(type, report.getType());
+    assertEquals(processed, report.getProcessed());
+    assertEquals(imported, report.getImported());
+    assertEquals(failed, report.getFailed());
+    assertNotNull(report.getPhonesPerSecond());
+  }
+
 }